@@ -0,0 +1,42 @@
+package com.clinica.estetica.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Cache do catálogo em memória, com Caffeine: só as leituras feitas a cada agendamento
+ * (procedimento e produtos utilizados) e a lista de categorias ativas da API.
+ *
+ * - Tamanho máximo e TTL em cache.catalogo.spec; os caches guardam DTOs, nunca entidades gerenciadas
+ * - Gravações e remoções feitas dentro de uma transação só valem depois do commit: uma
+ *   escrita desfeita não deixa lixo no cache, e uma remoção não é desfeita por uma leitura
+ *   que ainda enxergava o dado antigo
+ * - Métricas: cache.gets{cache, result=hit|miss}, cache.evictions e cache.size
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PROCEDIMENTOS = "procedimentos";
+    public static final String PROCEDIMENTO_PRODUTOS = "procedimento-produtos";
+    public static final String CATEGORIAS_ATIVAS = "categorias-ativas";
+
+    @Value("${cache.catalogo.spec:maximumSize=2000,expireAfterWrite=10m,recordStats}")
+    private String spec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCacheSpecification(spec);
+        caffeine.setCacheNames(List.of(PROCEDIMENTOS, PROCEDIMENTO_PRODUTOS, CATEGORIAS_ATIVAS));
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
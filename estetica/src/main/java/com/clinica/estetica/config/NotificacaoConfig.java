@@ -0,0 +1,67 @@
+package com.clinica.estetica.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class NotificacaoConfig {
+
+    /**
+     * Pool limitado para envio paralelo dos lembretes de um lote.
+     * Fila do tamanho do lote; se encher, quem submete executa o envio.
+     */
+    @Bean(name = "lembreteExecutor")
+    public ThreadPoolTaskExecutor lembreteExecutor(
+            @Value("${notificacao.lembrete.paralelismo:4}") int paralelismo,
+            @Value("${notificacao.lembrete.tamanho-lote:200}") int tamanhoLote) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paralelismo);
+        executor.setMaxPoolSize(paralelismo);
+        executor.setQueueCapacity(tamanhoLote);
+        executor.setThreadNamePrefix("lembrete-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool que entrega as notificações do outbox (email/SMS), fora das threads de requisição
+     */
+    @Bean(name = "notificacaoExecutor")
+    public ThreadPoolTaskExecutor notificacaoExecutor(
+            @Value("${notificacao.outbox.paralelismo:4}") int paralelismo,
+            @Value("${notificacao.outbox.tamanho-lote:50}") int tamanhoLote) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paralelismo);
+        executor.setMaxPoolSize(paralelismo);
+        executor.setQueueCapacity(tamanhoLote);
+        executor.setThreadNamePrefix("notificacao-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool limitado para os envios de uma página de campanha (aniversariantes, reativação)
+     */
+    @Bean(name = "campanhaExecutor")
+    public ThreadPoolTaskExecutor campanhaExecutor(
+            @Value("${campanha.paralelismo:4}") int paralelismo,
+            @Value("${campanha.tamanho-pagina:200}") int tamanhoPagina) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paralelismo);
+        executor.setMaxPoolSize(paralelismo);
+        executor.setQueueCapacity(tamanhoPagina);
+        executor.setThreadNamePrefix("campanha-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.clinica.estetica.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Processamento assíncrono do MVC (StreamingResponseBody, CompletableFuture dos controllers).
+ *
+ * - Relatórios em streaming escrevem no mvcAsyncExecutor, pool limitado com fila limitada
+ * - Pool e fila cheios recusam a requisição em vez de criar threads sem limite
+ * - mvc.async.timeout-ms vale para toda resposta assíncrona, inclusive o login
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Value("${mvc.async.pool-size:4}")
+    private int poolSize;
+
+    @Value("${mvc.async.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${mvc.async.timeout-ms:120000}")
+    private long timeoutMs;
+
+    @Bean(name = "mvcAsyncExecutor")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -1,8 +1,13 @@
 package com.clinica.estetica.controller;
 
 import com.clinica.estetica.model.dto.request.AgendamentoRequest;
+import com.clinica.estetica.model.dto.request.SerieAgendamentoRequest;
+import com.clinica.estetica.model.dto.response.CalendarioResponse;
+import com.clinica.estetica.model.dto.response.ConsistenciaIndiceResponse;
+import com.clinica.estetica.model.dto.response.HorarioLivreResponse;
 import com.clinica.estetica.model.entity.Agendamento;
 import com.clinica.estetica.model.enums.StatusAgendamento;
+import com.clinica.estetica.model.enums.VisaoCalendario;
 import com.clinica.estetica.service.AgendamentoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -59,6 +64,17 @@ public class AgendamentoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(agendamentoSalvo);
     }
 
+    @PostMapping("/serie")
+    @Operation(summary = "Criar série de agendamentos",
+            description = "Cria sessões recorrentes já aprovadas (pacotes de tratamento) em uma única operação")
+    public ResponseEntity<List<Agendamento>> criarSerieAgendamentos(@Valid @RequestBody SerieAgendamentoRequest request) {
+        Agendamento primeiraSessao = mapearParaAgendamento(request.getPrimeiraSessao());
+        int intervaloDias = request.getIntervaloDias() != null ? request.getIntervaloDias() : 7;
+        List<Agendamento> sessoes = agendamentoService.criarSerieAgendamentos(
+                primeiraSessao, request.getQuantidadeSessoes(), intervaloDias);
+        return ResponseEntity.status(HttpStatus.CREATED).body(sessoes);
+    }
+
     @PostMapping("/solicitar")
     @Operation(summary = "Solicitar agendamento",
             description = "Cria solicitação de agendamento pendente (para app/site)")
@@ -218,6 +234,36 @@ public class AgendamentoController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/calendario")
+    @Operation(summary = "Calendário de agendamentos",
+            description = "Visão de dia, semana ou mês com dados de cliente e procedimento em uma única consulta")
+    public ResponseEntity<CalendarioResponse> buscarCalendario(
+            @RequestParam(defaultValue = "SEMANA") VisaoCalendario visao,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(required = false) String esteticista) {
+        CalendarioResponse calendario = agendamentoService.buscarCalendario(visao, data, esteticista);
+        return ResponseEntity.ok(calendario);
+    }
+
+    @GetMapping("/horarios-livres")
+    @Operation(summary = "Listar horários livres de uma duração no período")
+    public ResponseEntity<List<HorarioLivreResponse>> buscarHorariosLivres(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam Integer duracaoMinutos,
+            @RequestParam(required = false) String esteticista) {
+        List<HorarioLivreResponse> horarios = agendamentoService.buscarHorariosLivres(
+                dataInicio, dataFim, duracaoMinutos, esteticista);
+        return ResponseEntity.ok(horarios);
+    }
+
+    @GetMapping("/disponibilidade/consistencia")
+    @Operation(summary = "Comparar o índice de disponibilidade em memória com o banco")
+    public ResponseEntity<ConsistenciaIndiceResponse> verificarConsistenciaIndice(
+            @RequestParam(defaultValue = "false") boolean recarregar) {
+        return ResponseEntity.ok(agendamentoService.verificarConsistenciaIndice(recarregar));
+    }
+
     // ========== HELPER ==========
 
     private Agendamento mapearParaAgendamento(AgendamentoRequest request) {
@@ -6,15 +6,19 @@ import com.clinica.estetica.model.dto.response.MessageResponse;
 import com.clinica.estetica.model.dto.response.TokenResponse;
 import com.clinica.estetica.model.dto.response.UsuarioResponse;
 import com.clinica.estetica.service.AuthService;
+import com.clinica.estetica.service.LoginService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/auth")
@@ -23,17 +27,20 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginService loginService;
 
     @PostMapping("/login")
     @Operation(
             summary = "Realizar login",
             description = "Autentica o usuário e retorna um token JWT para acesso às funcionalidades protegidas"
     )
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                                 HttpServletRequest httpRequest) {
         log.info("POST /api/auth/login - Username: {}", request.getUsername());
 
-        LoginResponse response = authService.login(request.getUsername(), request.getPassword());
-        return ResponseEntity.ok(response);
+        // Atrás de proxy confiável o Tomcat já aplicou o X-Forwarded-For (server.forward-headers-strategy)
+        return loginService.login(request.getUsername(), request.getPassword(), httpRequest.getRemoteAddr())
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/logout")
@@ -1,5 +1,6 @@
 package com.clinica.estetica.controller;
 
+import com.clinica.estetica.model.dto.response.CategoriaResponse;
 import com.clinica.estetica.model.entity.Categoria;
 import com.clinica.estetica.service.CategoriaService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -49,8 +50,8 @@ public class CategoriaController {
             @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<Categoria>> listarAtivas() {
-        List<Categoria> categorias = categoriaService.listarAtivas();
+    public ResponseEntity<List<CategoriaResponse>> listarAtivas() {
+        List<CategoriaResponse> categorias = categoriaService.listarAtivas();
         return ResponseEntity.ok(categorias);
     }
 
@@ -0,0 +1,36 @@
+package com.clinica.estetica.controller;
+
+import com.clinica.estetica.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Dashboard", description = "Indicadores da recepção")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    @Operation(
+            summary = "Obter dados do dashboard",
+            description = "Devolve o snapshot em memória, sem consultar o banco. " +
+                    "atualizadoEm indica a última atualização por eventos e reconciliadoEm o último recálculo completo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dados retornados com sucesso")
+    })
+    public ResponseEntity<Map<String, Object>> obterDados() {
+        return ResponseEntity.ok(dashboardService.obterDadosDashboard());
+    }
+}
@@ -0,0 +1,74 @@
+package com.clinica.estetica.controller;
+
+import com.clinica.estetica.model.dto.response.SerieFinanceiraResponse;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.service.FinanceiroDiarioService;
+import com.clinica.estetica.service.FinanceiroService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/financeiro")
+@RequiredArgsConstructor
+@Tag(name = "Financeiro", description = "Relatórios financeiros")
+public class FinanceiroController {
+
+    private final FinanceiroService financeiroService;
+    private final FinanceiroDiarioService financeiroDiarioService;
+
+    @GetMapping("/serie")
+    @Operation(summary = "Série de recebimentos e pagamentos",
+            description = "Recebido, pago e saldo por dia, semana ou mês do período, em uma única consulta")
+    public ResponseEntity<SerieFinanceiraResponse> obterSerie(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "MES") Granularidade granularidade) {
+        return ResponseEntity.ok(financeiroService.obterSerieFinanceira(inicio, fim, granularidade));
+    }
+
+    @GetMapping(value = "/fluxo-caixa", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Fluxo de caixa do período",
+            description = "Contas a receber e a pagar com vencimento no período, em ordem de data e com saldo acumulado. " +
+                    "A resposta é escrita conforme as linhas são lidas do banco")
+    public ResponseEntity<StreamingResponseBody> obterFluxoCaixa(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        financeiroService.validarPeriodo(inicio, fim);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(saida -> financeiroService.escreverFluxoCaixa(inicio, fim, saida));
+    }
+
+    @PostMapping("/diario/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconstruir o consolidado financeiro diário",
+            description = "Recalcula as linhas do período a partir das contas pagas (carga de histórico ou correção)")
+    public ResponseEntity<Map<String, Object>> reconstruirDiario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        int linhas = financeiroDiarioService.reconstruir(inicio, fim);
+
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("dataInicio", inicio);
+        resultado.put("dataFim", fim);
+        resultado.put("linhas", linhas);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping("/faturamento/{ano}")
+    @Operation(summary = "Faturamento por mês do ano")
+    public ResponseEntity<Map<String, Object>> obterFaturamentoPorMes(@PathVariable int ano) {
+        return ResponseEntity.ok(financeiroService.obterFaturamentoPorMes(ano));
+    }
+}
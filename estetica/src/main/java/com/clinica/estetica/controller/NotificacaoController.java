@@ -0,0 +1,76 @@
+package com.clinica.estetica.controller;
+
+import com.clinica.estetica.model.entity.CampanhaExecucao;
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.service.CampanhaCheckpointService;
+import com.clinica.estetica.service.NotificacaoOutboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notificacoes")
+@RequiredArgsConstructor
+@Tag(name = "Notificações", description = "Acompanhamento do outbox de notificações e das campanhas")
+public class NotificacaoController {
+
+    private final NotificacaoOutboxService notificacaoOutboxService;
+    private final CampanhaCheckpointService campanhaCheckpointService;
+
+    @GetMapping("/outbox")
+    @Operation(
+            summary = "Listar notificações do outbox por status",
+            description = "Use status=FALHA para consultar a fila de notificações que esgotaram as tentativas"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
+    })
+    public ResponseEntity<Page<NotificacaoOutbox>> listarPorStatus(
+            @Parameter(description = "Status da notificação")
+            @RequestParam(defaultValue = "FALHA") StatusNotificacao status,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(notificacaoOutboxService.listarPorStatus(status, pageable));
+    }
+
+    @PostMapping("/outbox/{id}/reprocessar")
+    @Operation(
+            summary = "Reprocessar notificação com falha",
+            description = "Devolve a notificação para a fila com as tentativas zeradas"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notificação devolvida para a fila"),
+            @ApiResponse(responseCode = "400", description = "Notificação não está em FALHA"),
+            @ApiResponse(responseCode = "404", description = "Notificação não encontrada")
+    })
+    public ResponseEntity<NotificacaoOutbox> reprocessar(
+            @Parameter(description = "ID da notificação", required = true)
+            @PathVariable Long id) {
+        return ResponseEntity.ok(notificacaoOutboxService.reprocessar(id));
+    }
+
+    @GetMapping("/campanhas")
+    @Operation(
+            summary = "Listar execuções de campanhas",
+            description = "Checkpoint e totais de cada execução (aniversariantes, reativação de inativos)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
+    })
+    public ResponseEntity<Page<CampanhaExecucao>> listarCampanhas(
+            @Parameter(description = "Status da execução (opcional)")
+            @RequestParam(required = false) StatusCampanha status,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(campanhaCheckpointService.listar(status, pageable));
+    }
+}
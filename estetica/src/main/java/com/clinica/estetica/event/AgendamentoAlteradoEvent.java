@@ -0,0 +1,55 @@
+package com.clinica.estetica.event;
+
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.enums.StatusAgendamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado a cada transição de estado de um agendamento.
+ * Carrega apenas um snapshot dos campos de agenda, nunca a entidade gerenciada.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AgendamentoAlteradoEvent {
+
+    private final Long id;
+    private final String esteticista;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+    private final StatusAgendamento status;
+    private final boolean removido;
+
+    public static AgendamentoAlteradoEvent de(Agendamento agendamento) {
+        return new AgendamentoAlteradoEvent(
+                agendamento.getId(),
+                agendamento.getEsteticista(),
+                agendamento.getDataHora(),
+                agendamento.getDataHoraFim(),
+                agendamento.getStatus(),
+                false
+        );
+    }
+
+    public static AgendamentoAlteradoEvent removido(Agendamento agendamento) {
+        return new AgendamentoAlteradoEvent(
+                agendamento.getId(),
+                agendamento.getEsteticista(),
+                agendamento.getDataHora(),
+                agendamento.getDataHoraFim(),
+                agendamento.getStatus(),
+                true
+        );
+    }
+
+    /**
+     * Indica se o agendamento ainda ocupa horário na agenda
+     */
+    public boolean ocupaHorario() {
+        return !removido && status != StatusAgendamento.CANCELADO;
+    }
+}
@@ -0,0 +1,17 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado quando um cliente é cadastrado.
+ * Após o commit, marca os números de clientes do dashboard para recálculo.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ClienteCadastradoEvent {
+
+    private final Long clienteId;
+}
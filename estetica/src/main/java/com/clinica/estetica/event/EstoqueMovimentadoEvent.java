@@ -0,0 +1,17 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado a cada entrada, saída ou ajuste de estoque de um produto.
+ * Após o commit, marca o total de produtos com estoque baixo do dashboard para recálculo.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EstoqueMovimentadoEvent {
+
+    private final Long produtoId;
+}
@@ -0,0 +1,22 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado quando uma notificação entra no outbox.
+ * Após o commit, acorda o dispatcher sem esperar a próxima varredura
+ * (ou agenda o despertar para disponivelEm, quando a notificação está em janela de agrupamento).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NotificacaoRegistradaEvent {
+
+    private final Long id;
+
+    private final LocalDateTime disponivelEm;
+}
@@ -0,0 +1,28 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Publicado quando uma conta a receber ou a pagar é quitada.
+ * Após o commit, marca os números financeiros do dashboard para recálculo.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PagamentoRegistradoEvent {
+
+    public enum Origem { RECEBER, PAGAR }
+
+    private final Origem origem;
+
+    private final Long contaId;
+
+    private final BigDecimal valor;
+
+    private final LocalDate dataPagamento;
+}
@@ -0,0 +1,18 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado quando a senha de um usuário é trocada ou redefinida.
+ * Após o commit, revoga os tokens emitidos até ali (inclusive os obtidos com a senha antiga
+ * enquanto a transação ainda não tinha terminado).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SenhaAlteradaEvent {
+
+    private final String username;
+}
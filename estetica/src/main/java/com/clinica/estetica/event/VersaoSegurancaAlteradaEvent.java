@@ -0,0 +1,17 @@
+package com.clinica.estetica.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado quando perfil, situação ou username de um usuário mudam.
+ * Após o commit, descarta a versão de segurança em memória para que seja relida do banco.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VersaoSegurancaAlteradaEvent {
+
+    private final String username;
+}
@@ -0,0 +1,15 @@
+package com.clinica.estetica.exception;
+
+/**
+ * Servidor sem capacidade para atender agora (HTTP 503); o cliente pode tentar de novo em seguida.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
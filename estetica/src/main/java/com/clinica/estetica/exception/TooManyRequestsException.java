@@ -0,0 +1,17 @@
+package com.clinica.estetica.exception;
+
+import lombok.Getter;
+
+/**
+ * Tentativas demais em pouco tempo (HTTP 429). Informa em quantos segundos tentar de novo.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,73 @@
+package com.clinica.estetica.mapper;
+
+import com.clinica.estetica.model.dto.response.CategoriaResponse;
+import com.clinica.estetica.model.dto.response.ProcedimentoResponse;
+import com.clinica.estetica.model.entity.Categoria;
+import com.clinica.estetica.model.entity.Procedimento;
+import com.clinica.estetica.model.entity.ProcedimentoProduto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogoMapper {
+
+    /**
+     * Converte Procedimento para ProcedimentoResponse (sem os produtos utilizados)
+     */
+    public ProcedimentoResponse toResponse(Procedimento procedimento) {
+        if (procedimento == null) {
+            return null;
+        }
+
+        Categoria categoria = procedimento.getCategoria();
+        return ProcedimentoResponse.builder()
+                .id(procedimento.getId())
+                .categoriaId(categoria != null ? categoria.getId() : null)
+                .categoriaNome(categoria != null ? categoria.getNome() : null)
+                .nome(procedimento.getNome())
+                .descricao(procedimento.getDescricao())
+                .duracaoMinutos(procedimento.getDuracaoMinutos())
+                .preco(procedimento.getPreco())
+                .ativo(procedimento.getAtivo())
+                .preparoNecessario(procedimento.getPreparoNecessario())
+                .cuidadosPos(procedimento.getCuidadosPos())
+                .contraindicacoes(procedimento.getContraindicacoes())
+                .imagemUrl(procedimento.getImagemUrl())
+                .createdAt(procedimento.getCreatedAt())
+                .updatedAt(procedimento.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Converte ProcedimentoProduto para ProcedimentoResponse.ProdutoUtilizadoResponse
+     */
+    public ProcedimentoResponse.ProdutoUtilizadoResponse toProdutoUtilizadoResponse(ProcedimentoProduto procedimentoProduto) {
+        if (procedimentoProduto == null) {
+            return null;
+        }
+
+        return ProcedimentoResponse.ProdutoUtilizadoResponse.builder()
+                .produtoId(procedimentoProduto.getProduto().getId())
+                .produtoNome(procedimentoProduto.getProduto().getNome())
+                .quantidadeUtilizada(procedimentoProduto.getQuantidadeUtilizada())
+                .build();
+    }
+
+    /**
+     * Converte Categoria para CategoriaResponse (sem o total de procedimentos)
+     */
+    public CategoriaResponse toResponse(Categoria categoria) {
+        if (categoria == null) {
+            return null;
+        }
+
+        return CategoriaResponse.builder()
+                .id(categoria.getId())
+                .nome(categoria.getNome())
+                .descricao(categoria.getDescricao())
+                .icone(categoria.getIcone())
+                .cor(categoria.getCor())
+                .ativo(categoria.getAtivo())
+                .createdAt(categoria.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinica.estetica.model.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Intervalo ocupado na agenda de uma esteticista.
+ * Carregado via constructor expression (sem montar a entidade Agendamento).
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class IntervaloAgendamento {
+
+    private final Long id;
+    private final String esteticista;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+
+    /**
+     * Mesma regra de conflito de AgendamentoRepository.existsConflito
+     */
+    public boolean conflitaCom(LocalDateTime outroInicio, LocalDateTime outroFim) {
+        return !inicio.isAfter(outroFim) && fim.isAfter(outroInicio);
+    }
+}
@@ -0,0 +1,27 @@
+package com.clinica.estetica.model.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Uma conta a receber (ENTRADA) ou a pagar (SAIDA) no fluxo de caixa.
+ * data é a de pagamento ou, se ainda não paga, a de vencimento.
+ */
+public interface LancamentoFluxoCaixa {
+
+    LocalDate getData();
+
+    String getTipo();
+
+    Long getId();
+
+    String getDescricao();
+
+    BigDecimal getValor();
+
+    String getStatus();
+
+    String getFormaPagamento();
+
+    String getCategoria();
+}
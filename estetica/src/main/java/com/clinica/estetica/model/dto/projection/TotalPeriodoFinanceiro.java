@@ -0,0 +1,16 @@
+package com.clinica.estetica.model.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Recebimentos e pagamentos somados de um período (linha do GROUP BY date_trunc)
+ */
+public interface TotalPeriodoFinanceiro {
+
+    LocalDate getPeriodo();
+
+    BigDecimal getRecebido();
+
+    BigDecimal getPago();
+}
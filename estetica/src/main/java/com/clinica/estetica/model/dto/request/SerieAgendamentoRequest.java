@@ -0,0 +1,27 @@
+package com.clinica.estetica.model.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieAgendamentoRequest {
+
+    @Valid
+    @NotNull(message = "Primeira sessão é obrigatória")
+    private AgendamentoRequest primeiraSessao;
+
+    @NotNull(message = "Quantidade de sessões é obrigatória")
+    @Min(value = 2, message = "Série deve ter no mínimo 2 sessões")
+    @Max(value = 52, message = "Série pode ter no máximo 52 sessões")
+    private Integer quantidadeSessoes;
+
+    @Min(value = 1, message = "Intervalo mínimo entre sessões é 1 dia")
+    private Integer intervaloDias;
+}
@@ -0,0 +1,36 @@
+package com.clinica.estetica.model.dto.response;
+
+import com.clinica.estetica.model.enums.StatusAgendamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agendamento no calendário. Montado por constructor expression em
+ * AgendamentoRepository (a ordem dos campos é a ordem do construtor).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioItemResponse {
+    private Long id;
+    private LocalDateTime dataHora;
+    private LocalDateTime dataHoraFim;
+    private Integer duracaoMinutos;
+    private StatusAgendamento status;
+    private String esteticista;
+    private Boolean confirmado;
+    private Boolean pago;
+    private BigDecimal valorTotal;
+    private Long clienteId;
+    private String clienteNome;
+    private String clienteTelefone;
+    private Long procedimentoId;
+    private String procedimentoNome;
+    private Integer procedimentoDuracaoMinutos;
+}
@@ -0,0 +1,23 @@
+package com.clinica.estetica.model.dto.response;
+
+import com.clinica.estetica.model.enums.VisaoCalendario;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioResponse {
+    private VisaoCalendario visao;
+    private LocalDate inicio;
+    private LocalDate fim;
+    private String esteticista;
+    private Integer totalAgendamentos;
+    private List<CalendarioItemResponse> agendamentos;
+}
@@ -0,0 +1,25 @@
+package com.clinica.estetica.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsistenciaIndiceResponse {
+    private LocalDateTime verificadoEm;
+    private LocalDateTime horizonte;
+    private Integer totalBanco;
+    private Integer totalIndice;
+    private List<Long> ausentesNoIndice;
+    private List<Long> sobrandoNoIndice;
+    private List<Long> divergentes;
+    private Boolean consistente;
+    private Boolean recarregado;
+}
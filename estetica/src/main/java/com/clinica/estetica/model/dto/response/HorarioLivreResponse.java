@@ -0,0 +1,18 @@
+package com.clinica.estetica.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioLivreResponse {
+    private String esteticista;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+}
@@ -0,0 +1,39 @@
+package com.clinica.estetica.model.dto.response;
+
+import com.clinica.estetica.model.enums.Granularidade;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recebimentos, pagamentos e saldo por período. Períodos sem movimento vêm zerados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieFinanceiraResponse {
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private Granularidade granularidade;
+    private List<Ponto> pontos;
+    private BigDecimal totalRecebido;
+    private BigDecimal totalPago;
+    private BigDecimal saldo;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ponto {
+        private LocalDate periodo;
+        private BigDecimal recebido;
+        private BigDecimal pago;
+        private BigDecimal saldo;
+    }
+}
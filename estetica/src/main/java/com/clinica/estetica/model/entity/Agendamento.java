@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 @Table(name = "agendamento", indexes = {
     @Index(name = "idx_agendamento_cliente", columnList = "cliente_id"),
     @Index(name = "idx_agendamento_data", columnList = "data_hora"),
+    @Index(name = "idx_agendamento_esteticista_data", columnList = "esteticista, data_hora"),
     @Index(name = "idx_agendamento_status", columnList = "status")
 })
 @EntityListeners(AuditingEntityListener.class)
@@ -28,7 +29,8 @@ import java.time.LocalDateTime;
 public class Agendamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "agendamento_seq")
+    @SequenceGenerator(name = "agendamento_seq", sequenceName = "agendamento_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
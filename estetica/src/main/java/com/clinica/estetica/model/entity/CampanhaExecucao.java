@@ -0,0 +1,78 @@
+package com.clinica.estetica.model.entity;
+
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.TipoCampanha;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Execução de uma campanha (ex.: aniversariantes de um dia) e o seu checkpoint.
+ *
+ * ultimoClienteId é o cursor da última página concluída; os envios de cada
+ * cliente ficam em campanha_envio, o que permite retomar sem reenviar nem pular ninguém.
+ */
+@Entity
+@Table(name = "campanha_execucao", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_campanha_execucao_tipo_referencia", columnNames = {"tipo", "referencia"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class CampanhaExecucao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "campanha_execucao_seq")
+    @SequenceGenerator(name = "campanha_execucao_seq", sequenceName = "campanha_execucao_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40, nullable = false)
+    private TipoCampanha tipo;
+
+    /**
+     * Parâmetros que identificam a execução (ex.: "2026-10-17" ou "2026-10-17/90")
+     */
+    @Column(length = 60, nullable = false)
+    private String referencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    @Builder.Default
+    private StatusCampanha status = StatusCampanha.EM_ANDAMENTO;
+
+    @Column(name = "ultimo_cliente_id", nullable = false)
+    @Builder.Default
+    private Long ultimoClienteId = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer enviados = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer falhas = 0;
+
+    @Column(name = "iniciada_em", nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    /**
+     * Último sinal de vida de quem está executando; serve de prazo para outra instância retomar
+     */
+    @Column(name = "atualizada_em")
+    private LocalDateTime atualizadaEm;
+
+    /**
+     * Token de quem reivindicou a execução; checkpoint e conclusão só valem para o dono atual
+     */
+    @Column(name = "dono")
+    private UUID dono;
+
+    @Column(name = "concluida_em")
+    private LocalDateTime concluidaEm;
+}
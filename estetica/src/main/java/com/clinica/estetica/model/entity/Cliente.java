@@ -29,7 +29,8 @@ import java.util.List;
 public class Cliente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "cliente_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
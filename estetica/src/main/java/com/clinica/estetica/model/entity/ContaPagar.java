@@ -29,7 +29,8 @@ import java.time.LocalDateTime;
 public class ContaPagar {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_pagar_seq")
+    @SequenceGenerator(name = "conta_pagar_seq", sequenceName = "conta_pagar_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(columnDefinition = "TEXT", nullable = false)
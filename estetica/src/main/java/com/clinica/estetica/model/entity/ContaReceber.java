@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = "conta_receber", indexes = {
     @Index(name = "idx_conta_receber_cliente", columnList = "cliente_id"),
     @Index(name = "idx_conta_receber_status", columnList = "status"),
-    @Index(name = "idx_conta_receber_vencimento", columnList = "data_vencimento")
+    @Index(name = "idx_conta_receber_vencimento", columnList = "data_vencimento"),
+    @Index(name = "idx_conta_receber_created_at", columnList = "created_at")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -30,7 +31,8 @@ import java.time.LocalDateTime;
 public class ContaReceber {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_receber_seq")
+    @SequenceGenerator(name = "conta_receber_seq", sequenceName = "conta_receber_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
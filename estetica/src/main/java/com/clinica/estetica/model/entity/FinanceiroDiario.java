@@ -0,0 +1,60 @@
+package com.clinica.estetica.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Consolidado das contas pagas por dia, forma de pagamento e categoria.
+ *
+ * Escrito só por FinanceiroDiarioService (upsert junto com o registro de pagamento
+ * ou reconstrução a partir das contas); forma de pagamento e categoria ausentes são ''.
+ */
+@Entity
+@Table(name = "financeiro_diario")
+@IdClass(FinanceiroDiario.Chave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FinanceiroDiario {
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate data;
+
+    @Id
+    @Column(name = "forma_pagamento", length = 50, nullable = false)
+    private String formaPagamento;
+
+    @Id
+    @Column(length = 50, nullable = false)
+    private String categoria;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal recebido;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal pago;
+
+    @Column(name = "quantidade_recebimentos", nullable = false)
+    private Integer quantidadeRecebimentos;
+
+    @Column(name = "quantidade_pagamentos", nullable = false)
+    private Integer quantidadePagamentos;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+        private LocalDate data;
+        private String formaPagamento;
+        private String categoria;
+    }
+}
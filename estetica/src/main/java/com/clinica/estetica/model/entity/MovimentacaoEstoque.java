@@ -26,7 +26,8 @@ import java.time.LocalDateTime;
 public class MovimentacaoEstoque {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimentacao_estoque_seq")
+    @SequenceGenerator(name = "movimentacao_estoque_seq", sequenceName = "movimentacao_estoque_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
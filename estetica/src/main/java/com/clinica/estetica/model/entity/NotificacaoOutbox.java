@@ -0,0 +1,90 @@
+package com.clinica.estetica.model.entity;
+
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Notificação gravada na mesma transação da alteração do agendamento
+ * e entregue depois pelo NotificacaoDispatcher
+ */
+@Entity
+@Table(name = "notificacao_outbox", indexes = {
+    @Index(name = "idx_notificacao_outbox_agendamento", columnList = "agendamento_id"),
+    @Index(name = "idx_notificacao_outbox_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class NotificacaoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notificacao_outbox_seq")
+    @SequenceGenerator(name = "notificacao_outbox_seq", sequenceName = "notificacao_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40, nullable = false)
+    private TipoNotificacao tipo;
+
+    @Column(name = "agendamento_id", nullable = false)
+    private Long agendamentoId;
+
+    /**
+     * Dados extras do tipo em JSON (ex.: novo horário proposto, sessões da série)
+     */
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    @Builder.Default
+    private StatusNotificacao status = StatusNotificacao.PENDENTE;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ultimo_erro", columnDefinition = "TEXT")
+    private String ultimoErro;
+
+    @Column(name = "enviada_em")
+    private LocalDateTime enviadaEm;
+
+    /**
+     * Token da reserva do dispatcher em andamento (PROCESSANDO); muda a cada nova reserva
+     */
+    @Column(name = "reserva")
+    private UUID reserva;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime agora = LocalDateTime.now();
+        createdAt = agora;
+        updatedAt = agora;
+        if (proximaTentativa == null) {
+            proximaTentativa = agora;
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
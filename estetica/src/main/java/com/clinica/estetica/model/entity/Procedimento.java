@@ -24,7 +24,8 @@ import java.util.List;
 public class Procedimento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "procedimento_seq")
+    @SequenceGenerator(name = "procedimento_seq", sequenceName = "procedimento_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
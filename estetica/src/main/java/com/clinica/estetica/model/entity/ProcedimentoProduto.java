@@ -18,7 +18,8 @@ import java.math.BigDecimal;
 public class ProcedimentoProduto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "procedimento_produto_seq")
+    @SequenceGenerator(name = "procedimento_produto_seq", sequenceName = "procedimento_produto_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,7 +27,8 @@ import java.util.List;
 public class Produto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_seq")
+    @SequenceGenerator(name = "produto_seq", sequenceName = "produto_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -53,6 +54,13 @@ public class Usuario {
     @Builder.Default
     private Boolean ativo = true;
 
+    /**
+     * Incrementada ao inativar ou trocar o perfil; tokens com versão anterior deixam de valer
+     */
+    @Column(name = "versao_seguranca", nullable = false)
+    @Builder.Default
+    private Integer versaoSeguranca = 0;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,44 @@
+package com.clinica.estetica.model.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tamanho do período de uma série temporal. A unidade é a usada no date_trunc do PostgreSQL
+ * (semana começa na segunda-feira, como no date_trunc).
+ */
+public enum Granularidade {
+    DIA("day"),
+    SEMANA("week"),
+    MES("month");
+
+    private final String unidade;
+
+    Granularidade(String unidade) {
+        this.unidade = unidade;
+    }
+
+    public String getUnidade() {
+        return unidade;
+    }
+
+    /**
+     * Início do período que contém a data (equivalente ao date_trunc)
+     */
+    public LocalDate truncar(LocalDate data) {
+        return switch (this) {
+            case DIA -> data;
+            case SEMANA -> data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> data.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate proximo(LocalDate inicioPeriodo) {
+        return switch (this) {
+            case DIA -> inicioPeriodo.plusDays(1);
+            case SEMANA -> inicioPeriodo.plusWeeks(1);
+            case MES -> inicioPeriodo.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.clinica.estetica.model.enums;
+
+/**
+ * Status de uma execução de campanha
+ *
+ * EM_ANDAMENTO → CONCLUIDA
+ * Uma execução interrompida continua EM_ANDAMENTO e é retomada do último checkpoint.
+ */
+public enum StatusCampanha {
+    EM_ANDAMENTO,
+    CONCLUIDA
+}
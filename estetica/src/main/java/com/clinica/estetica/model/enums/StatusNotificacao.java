@@ -0,0 +1,21 @@
+package com.clinica.estetica.model.enums;
+
+/**
+ * Status de uma notificação no outbox
+ *
+ * FLUXO:
+ * PENDENTE → PROCESSANDO → ENVIADA
+ *     ↑           ↓
+ *     └─ (nova tentativa)
+ *                 ↓
+ *               FALHA (esgotou as tentativas)
+ *
+ * PENDENTE → SUBSTITUIDA (mensagem mais nova do mesmo agendamento chegou antes do envio)
+ */
+public enum StatusNotificacao {
+    PENDENTE,
+    PROCESSANDO,
+    ENVIADA,
+    FALHA,
+    SUBSTITUIDA
+}
@@ -0,0 +1,9 @@
+package com.clinica.estetica.model.enums;
+
+/**
+ * Campanhas de envio em massa executadas pelo CampanhaService
+ */
+public enum TipoCampanha {
+    ANIVERSARIO,
+    REATIVACAO_INATIVOS
+}
@@ -0,0 +1,39 @@
+package com.clinica.estetica.model.enums;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Notificações de agendamento entregues pelo outbox
+ *
+ * estadoDoAgendamento: mensagem ao cliente sobre a situação atual do agendamento;
+ * a mais nova torna as anteriores ainda não enviadas obsoletas (ver janela de agrupamento)
+ */
+public enum TipoNotificacao {
+    CONFIRMACAO_SOLICITACAO(true),
+    NOVA_SOLICITACAO_ESTETICISTA(false),
+    APROVACAO(true),
+    PROPOSTA_NOVO_HORARIO(true),
+    CONFIRMACAO_AGENDAMENTO(true),
+    CONFIRMACAO_SERIE(false),
+    REAGENDAMENTO(true),
+    CANCELAMENTO(true);
+
+    private static final List<TipoNotificacao> ESTADOS_DO_AGENDAMENTO = Arrays.stream(values())
+            .filter(TipoNotificacao::isEstadoDoAgendamento)
+            .toList();
+
+    private final boolean estadoDoAgendamento;
+
+    TipoNotificacao(boolean estadoDoAgendamento) {
+        this.estadoDoAgendamento = estadoDoAgendamento;
+    }
+
+    public boolean isEstadoDoAgendamento() {
+        return estadoDoAgendamento;
+    }
+
+    public static List<TipoNotificacao> estadosDoAgendamento() {
+        return ESTADOS_DO_AGENDAMENTO;
+    }
+}
@@ -0,0 +1,7 @@
+package com.clinica.estetica.model.enums;
+
+public enum VisaoCalendario {
+    DIA,
+    SEMANA,
+    MES
+}
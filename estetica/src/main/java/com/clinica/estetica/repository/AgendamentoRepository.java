@@ -1,16 +1,22 @@
 package com.clinica.estetica.repository;
 
+import com.clinica.estetica.model.dto.projection.IntervaloAgendamento;
+import com.clinica.estetica.model.dto.response.CalendarioItemResponse;
 import com.clinica.estetica.model.entity.Agendamento;
 import com.clinica.estetica.model.enums.StatusAgendamento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AgendamentoRepository extends JpaRepository<Agendamento, Long> {
@@ -39,28 +45,53 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
                                                @Param("fim") LocalDateTime fim);
 
     @Query("SELECT a FROM Agendamento a WHERE " +
-           "DATE(a.dataHora) = CURRENT_DATE AND " +
+           "a.dataHora >= :inicio AND a.dataHora < :fim AND " +
            "a.status != 'CANCELADO' " +
            "ORDER BY a.dataHora")
-    List<Agendamento> findAgendamentosHoje();
+    List<Agendamento> findAgendamentosAtivosPeriodo(@Param("inicio") LocalDateTime inicio,
+                                                    @Param("fim") LocalDateTime fim);
 
     @Query("SELECT COUNT(a) FROM Agendamento a WHERE " +
-           "DATE(a.dataHora) = CURRENT_DATE AND " +
+           "a.dataHora >= :inicio AND a.dataHora < :fim AND " +
            "a.status != 'CANCELADO'")
-    Long countAgendamentosHoje();
+    Long countAgendamentosAtivosPeriodo(@Param("inicio") LocalDateTime inicio,
+                                        @Param("fim") LocalDateTime fim);
 
     @Query("SELECT COUNT(a) FROM Agendamento a WHERE " +
-           "MONTH(a.dataHora) = MONTH(CURRENT_DATE) AND " +
-           "YEAR(a.dataHora) = YEAR(CURRENT_DATE) AND " +
-           "a.status != 'CANCELADO'")
-    Long countAgendamentosMes();
-
-    @Query("SELECT a FROM Agendamento a WHERE " +
            "a.dataHora > CURRENT_TIMESTAMP AND " +
            "a.confirmado = false AND " +
            "a.lembreteEnviado = false AND " +
            "a.status = 'AGENDADO'")
-    List<Agendamento> findAgendamentosSemLembrete();
+    long countAgendamentosSemLembrete();
+
+    @Query("SELECT a FROM Agendamento a " +
+           "JOIN FETCH a.cliente " +
+           "JOIN FETCH a.procedimento " +
+           "WHERE a.id IN :ids")
+    List<Agendamento> findComClienteEProcedimento(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Próxima página de lembretes devidos até :fim, em ordem de (dataHora, id) a partir do cursor.
+     * Cliente e procedimento vêm na mesma consulta.
+     */
+    @Query("SELECT a FROM Agendamento a " +
+           "JOIN FETCH a.cliente " +
+           "JOIN FETCH a.procedimento " +
+           "WHERE a.status = 'AGENDADO' AND " +
+           "a.confirmado = false AND " +
+           "a.lembreteEnviado = false AND " +
+           "a.dataHora < :fim AND " +
+           "(a.dataHora > :ultimaDataHora OR (a.dataHora = :ultimaDataHora AND a.id > :ultimoId)) " +
+           "ORDER BY a.dataHora, a.id")
+    List<Agendamento> findLembretesPendentes(@Param("ultimaDataHora") LocalDateTime ultimaDataHora,
+                                             @Param("ultimoId") Long ultimoId,
+                                             @Param("fim") LocalDateTime fim,
+                                             Limit limite);
+
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.lembreteEnviado = true, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id IN :ids AND a.lembreteEnviado = false")
+    int marcarLembretesEnviados(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END " +
            "FROM Agendamento a WHERE " +
@@ -71,6 +102,90 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
                           @Param("inicio") LocalDateTime inicio,
                           @Param("fim") LocalDateTime fim);
 
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END " +
+           "FROM Agendamento a WHERE " +
+           "a.esteticista = :esteticista AND " +
+           "a.status != 'CANCELADO' AND " +
+           "a.id != :ignorarId AND " +
+           "((a.dataHora <= :fim AND a.dataHoraFim > :inicio))")
+    boolean existsConflitoIgnorando(@Param("esteticista") String esteticista,
+                                    @Param("inicio") LocalDateTime inicio,
+                                    @Param("fim") LocalDateTime fim,
+                                    @Param("ignorarId") Long ignorarId);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.projection.IntervaloAgendamento(" +
+           "a.id, a.esteticista, a.dataHora, a.dataHoraFim) " +
+           "FROM Agendamento a WHERE " +
+           "a.dataHoraFim > :horizonte AND " +
+           "a.status != 'CANCELADO'")
+    List<IntervaloAgendamento> findIntervalosOcupadosApos(@Param("horizonte") LocalDateTime horizonte);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.projection.IntervaloAgendamento(" +
+           "a.id, a.esteticista, a.dataHora, a.dataHoraFim) " +
+           "FROM Agendamento a WHERE " +
+           "a.id = :id AND " +
+           "a.dataHoraFim > :horizonte AND " +
+           "a.status != 'CANCELADO'")
+    Optional<IntervaloAgendamento> findIntervaloOcupado(@Param("id") Long id, @Param("horizonte") LocalDateTime horizonte);
+
+    /**
+     * Esteticistas com agendamento a partir de :desde (equipe atual quando agenda.esteticistas não está configurado)
+     */
+    @Query("SELECT DISTINCT a.esteticista FROM Agendamento a WHERE a.dataHora >= :desde")
+    List<String> findEsteticistasDesde(@Param("desde") LocalDateTime desde);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.projection.IntervaloAgendamento(" +
+           "a.id, a.esteticista, a.dataHora, a.dataHoraFim) " +
+           "FROM Agendamento a WHERE " +
+           "a.dataHora <= :fim AND a.dataHoraFim > :inicio AND " +
+           "a.status != 'CANCELADO' " +
+           "ORDER BY a.esteticista, a.dataHora")
+    List<IntervaloAgendamento> findIntervalosOcupadosPeriodo(@Param("inicio") LocalDateTime inicio,
+                                                             @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.projection.IntervaloAgendamento(" +
+           "a.id, a.esteticista, a.dataHora, a.dataHoraFim) " +
+           "FROM Agendamento a WHERE " +
+           "a.esteticista = :esteticista AND " +
+           "a.dataHora <= :fim AND a.dataHoraFim > :inicio AND " +
+           "a.status != 'CANCELADO' " +
+           "ORDER BY a.dataHora")
+    List<IntervaloAgendamento> findIntervalosOcupadosEsteticistaPeriodo(@Param("esteticista") String esteticista,
+                                                                       @Param("inicio") LocalDateTime inicio,
+                                                                       @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.response.CalendarioItemResponse(" +
+           "a.id, a.dataHora, a.dataHoraFim, a.duracaoMinutos, a.status, a.esteticista, " +
+           "a.confirmado, a.pago, a.valorTotal, " +
+           "c.id, c.nome, COALESCE(c.celular, c.telefone), " +
+           "p.id, p.nome, p.duracaoMinutos) " +
+           "FROM Agendamento a JOIN a.cliente c JOIN a.procedimento p WHERE " +
+           "a.dataHora >= :inicio AND a.dataHora < :fim AND " +
+           "a.status != 'CANCELADO' " +
+           "ORDER BY a.dataHora, a.esteticista")
+    List<CalendarioItemResponse> findCalendario(@Param("inicio") LocalDateTime inicio,
+                                                @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.clinica.estetica.model.dto.response.CalendarioItemResponse(" +
+           "a.id, a.dataHora, a.dataHoraFim, a.duracaoMinutos, a.status, a.esteticista, " +
+           "a.confirmado, a.pago, a.valorTotal, " +
+           "c.id, c.nome, COALESCE(c.celular, c.telefone), " +
+           "p.id, p.nome, p.duracaoMinutos) " +
+           "FROM Agendamento a JOIN a.cliente c JOIN a.procedimento p WHERE " +
+           "a.esteticista = :esteticista AND " +
+           "a.dataHora >= :inicio AND a.dataHora < :fim AND " +
+           "a.status != 'CANCELADO' " +
+           "ORDER BY a.dataHora")
+    List<CalendarioItemResponse> findCalendarioEsteticista(@Param("esteticista") String esteticista,
+                                                           @Param("inicio") LocalDateTime inicio,
+                                                           @Param("fim") LocalDateTime fim);
+
+    /**
+     * Lock de transação do PostgreSQL por esteticista (namespace 4821 = agenda)
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(4821, hashtext(:esteticista))", nativeQuery = true)
+    Integer bloquearAgendaEsteticista(@Param("esteticista") String esteticista);
+
     @Query("SELECT COUNT(a) FROM Agendamento a WHERE " +
             "a.cliente.id = :clienteId AND " +
             "a.dataHora > CURRENT_TIMESTAMP AND " +
@@ -0,0 +1,109 @@
+package com.clinica.estetica.repository;
+
+import com.clinica.estetica.model.entity.CampanhaExecucao;
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.TipoCampanha;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CampanhaExecucaoRepository extends JpaRepository<CampanhaExecucao, Long> {
+
+    Optional<CampanhaExecucao> findByTipoAndReferencia(TipoCampanha tipo, String referencia);
+
+    Page<CampanhaExecucao> findByStatus(StatusCampanha status, Pageable pageable);
+
+    /**
+     * Cria a execução se ainda não existir; duas instâncias disparando juntas ficam com a mesma linha
+     */
+    @Modifying
+    @Query(value = "INSERT INTO campanha_execucao (id, tipo, referencia, status, ultimo_cliente_id, " +
+                   "enviados, falhas, iniciada_em) " +
+                   "VALUES (nextval('campanha_execucao_id_seq'), :tipo, :referencia, 'EM_ANDAMENTO', 0, 0, 0, :agora) " +
+                   "ON CONFLICT (tipo, referencia) DO NOTHING",
+           nativeQuery = true)
+    int criarSeNaoExistir(@Param("tipo") String tipo,
+                          @Param("referencia") String referencia,
+                          @Param("agora") LocalDateTime agora);
+
+    /**
+     * Assume a execução se ninguém a estiver processando (sem sinal de vida desde :expirado).
+     * O token :dono passa a ser exigido em toda escrita seguinte do worker.
+     */
+    @Modifying
+    @Query("UPDATE CampanhaExecucao c SET c.atualizadaEm = :agora, c.dono = :dono " +
+           "WHERE c.id = :id AND c.status = 'EM_ANDAMENTO' " +
+           "AND (c.atualizadaEm IS NULL OR c.atualizadaEm < :expirado)")
+    int reivindicar(@Param("id") Long id,
+                    @Param("dono") UUID dono,
+                    @Param("agora") LocalDateTime agora,
+                    @Param("expirado") LocalDateTime expirado);
+
+    /**
+     * Renova o sinal de vida; 0 se a execução já tem outro dono (ou foi concluída)
+     */
+    @Modifying
+    @Query("UPDATE CampanhaExecucao c SET c.atualizadaEm = :agora " +
+           "WHERE c.id = :id AND c.status = 'EM_ANDAMENTO' AND c.dono = :dono")
+    int renovar(@Param("id") Long id, @Param("dono") UUID dono, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE CampanhaExecucao c SET c.atualizadaEm = NULL, c.dono = NULL " +
+           "WHERE c.id = :id AND c.status = 'EM_ANDAMENTO' AND c.dono = :dono")
+    int liberar(@Param("id") Long id, @Param("dono") UUID dono);
+
+    /**
+     * Execuções paradas no meio: a instância que as processava caiu ou desistiu
+     */
+    @Query("SELECT c FROM CampanhaExecucao c " +
+           "WHERE c.status = 'EM_ANDAMENTO' AND (c.atualizadaEm IS NULL OR c.atualizadaEm < :expirado) " +
+           "ORDER BY c.iniciadaEm")
+    List<CampanhaExecucao> findInterrompidas(@Param("expirado") LocalDateTime expirado);
+
+    @Modifying
+    @Query(value = "INSERT INTO campanha_envio (execucao_id, cliente_id, sucesso, erro, enviado_em) " +
+                   "VALUES (:execucaoId, :clienteId, :sucesso, :erro, :agora) " +
+                   "ON CONFLICT (execucao_id, cliente_id) DO NOTHING",
+           nativeQuery = true)
+    int registrarEnvio(@Param("execucaoId") Long execucaoId,
+                       @Param("clienteId") Long clienteId,
+                       @Param("sucesso") boolean sucesso,
+                       @Param("erro") String erro,
+                       @Param("agora") LocalDateTime agora);
+
+    @Query(value = "SELECT cliente_id FROM campanha_envio WHERE execucao_id = :execucaoId AND cliente_id IN (:ids)",
+           nativeQuery = true)
+    List<Long> findClientesRegistrados(@Param("execucaoId") Long execucaoId,
+                                       @Param("ids") Collection<Long> ids);
+
+    /**
+     * Move o cursor para o fim da página concluída, renova o sinal de vida e recalcula os totais
+     */
+    @Modifying
+    @Query(value = "UPDATE campanha_execucao SET ultimo_cliente_id = :ultimoClienteId, atualizada_em = :agora, " +
+                   "enviados = (SELECT COUNT(*) FROM campanha_envio WHERE execucao_id = :id AND sucesso), " +
+                   "falhas = (SELECT COUNT(*) FROM campanha_envio WHERE execucao_id = :id AND NOT sucesso) " +
+                   "WHERE id = :id AND status = 'EM_ANDAMENTO' AND dono = :dono",
+           nativeQuery = true)
+    int avancarCheckpoint(@Param("id") Long id,
+                          @Param("dono") UUID dono,
+                          @Param("ultimoClienteId") Long ultimoClienteId,
+                          @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE CampanhaExecucao c SET c.status = 'CONCLUIDA', c.concluidaEm = :agora, " +
+           "c.atualizadaEm = :agora, c.dono = NULL " +
+           "WHERE c.id = :id AND c.status = 'EM_ANDAMENTO' AND c.dono = :dono")
+    int concluir(@Param("id") Long id, @Param("dono") UUID dono, @Param("agora") LocalDateTime agora);
+}
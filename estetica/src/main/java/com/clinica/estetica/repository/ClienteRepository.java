@@ -2,6 +2,7 @@ package com.clinica.estetica.repository;
 
 import com.clinica.estetica.model.entity.Cliente;
 import com.clinica.estetica.model.enums.StatusCliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -38,12 +39,35 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
            "c.status = 'ATIVO'")
     List<Cliente> findAniversariantesdoDia(@Param("mes") int mes, @Param("dia") int dia);
 
+    /**
+     * Próxima página de aniversariantes por cursor de id (idx_cliente_aniversario já entrega nessa ordem)
+     */
+    @Query("SELECT c FROM Cliente c WHERE " +
+           "MONTH(c.dataNascimento) = :mes AND " +
+           "DAY(c.dataNascimento) = :dia AND " +
+           "c.status = 'ATIVO' AND " +
+           "c.id > :ultimoId " +
+           "ORDER BY c.id")
+    List<Cliente> findAniversariantesApos(@Param("mes") int mes, @Param("dia") int dia,
+                                          @Param("ultimoId") Long ultimoId, Limit limite);
+
     @Query("SELECT c FROM Cliente c WHERE " +
            "c.ultimaVisita < :dataLimite AND " +
            "c.status = 'ATIVO' " +
            "ORDER BY c.ultimaVisita DESC")
     List<Cliente> findClientesInativos(@Param("dataLimite") LocalDate dataLimite);
 
+    /**
+     * Próxima página de clientes inativos por cursor de id
+     */
+    @Query("SELECT c FROM Cliente c WHERE " +
+           "c.ultimaVisita < :dataLimite AND " +
+           "c.status = 'ATIVO' AND " +
+           "c.id > :ultimoId " +
+           "ORDER BY c.id")
+    List<Cliente> findClientesInativosApos(@Param("dataLimite") LocalDate dataLimite,
+                                           @Param("ultimoId") Long ultimoId, Limit limite);
+
     @Query("SELECT COUNT(c) FROM Cliente c WHERE c.status = :status")
     Long countByStatus(@Param("status") StatusCliente status);
 
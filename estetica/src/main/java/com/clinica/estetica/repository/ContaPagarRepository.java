@@ -2,16 +2,18 @@ package com.clinica.estetica.repository;
 
 import com.clinica.estetica.model.entity.ContaPagar;
 import com.clinica.estetica.model.enums.StatusConta;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ContaPagarRepository extends JpaRepository<ContaPagar, Long> {
@@ -25,15 +27,18 @@ public interface ContaPagarRepository extends JpaRepository<ContaPagar, Long> {
            "c.dataVencimento < CURRENT_DATE")
     List<ContaPagar> findContasVencidas();
 
+    @Query("SELECT COUNT(c) FROM ContaPagar c WHERE " +
+           "c.status = 'PENDENTE' AND " +
+           "c.dataVencimento < CURRENT_DATE")
+    Long countContasVencidas();
+
     @Query("SELECT c FROM ContaPagar c WHERE " +
            "c.dataVencimento >= :inicio AND c.dataVencimento <= :fim " +
            "ORDER BY c.dataVencimento")
     List<ContaPagar> findByPeriodo(@Param("inicio") LocalDate inicio,
                                    @Param("fim") LocalDate fim);
 
-    @Query("SELECT SUM(c.valor) FROM ContaPagar c WHERE " +
-           "c.status = 'PAGO' AND " +
-           "c.dataPagamento >= :inicio AND c.dataPagamento <= :fim")
-    BigDecimal somarPagoPorPeriodo(@Param("inicio") LocalDate inicio,
-                                  @Param("fim") LocalDate fim);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ContaPagar c WHERE c.id = :id")
+    Optional<ContaPagar> findParaPagamentoById(@Param("id") Long id);
 }
@@ -1,22 +1,33 @@
 package com.clinica.estetica.repository;
 
+import com.clinica.estetica.model.dto.projection.LancamentoFluxoCaixa;
 import com.clinica.estetica.model.entity.ContaReceber;
 import com.clinica.estetica.model.enums.StatusConta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContaReceberRepository extends JpaRepository<ContaReceber, Long> {
     
     List<ContaReceber> findByClienteId(Long clienteId);
+
+    long countByClienteIdAndStatus(Long clienteId, StatusConta status);
     
     Page<ContaReceber> findByStatus(StatusConta status, Pageable pageable);
     
@@ -37,17 +48,33 @@ public interface ContaReceberRepository extends JpaRepository<ContaReceber, Long
                                      @Param("fim") LocalDate fim);
 
     @Query("SELECT SUM(c.valor) FROM ContaReceber c WHERE " +
-           "c.status = 'PAGO' AND " +
-           "c.dataPagamento >= :inicio AND c.dataPagamento <= :fim")
-    BigDecimal somarRecebidoPorPeriodo(@Param("inicio") LocalDate inicio,
-                                      @Param("fim") LocalDate fim);
+           "c.createdAt >= :inicio AND c.createdAt < :fim")
+    BigDecimal somarCriadasPeriodo(@Param("inicio") LocalDateTime inicio,
+                                   @Param("fim") LocalDateTime fim);
 
-    @Query("SELECT SUM(c.valor) FROM ContaReceber c WHERE " +
-           "DATE(c.createdAt) = CURRENT_DATE")
-    BigDecimal somarReceberHoje();
+    /**
+     * Contas a receber e a pagar com vencimento no período, já ordenadas pelo banco.
+     * Lido por cursor (fetch size) dentro de uma transação somente leitura; feche o Stream ao terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT COALESCE(data_pagamento, data_vencimento) AS data, 'ENTRADA' AS tipo, id, descricao, " +
+                   "valor, status, forma_pagamento AS \"formaPagamento\", CAST(NULL AS VARCHAR) AS categoria " +
+                   "FROM conta_receber " +
+                   "WHERE data_vencimento >= :inicio AND data_vencimento <= :fim " +
+                   "UNION ALL " +
+                   "SELECT COALESCE(data_pagamento, data_vencimento), 'SAIDA', id, descricao, " +
+                   "valor, status, forma_pagamento, categoria " +
+                   "FROM conta_pagar " +
+                   "WHERE data_vencimento >= :inicio AND data_vencimento <= :fim " +
+                   "ORDER BY data, tipo, id",
+           nativeQuery = true)
+    Stream<LancamentoFluxoCaixa> streamFluxoCaixa(@Param("inicio") LocalDate inicio,
+                                                  @Param("fim") LocalDate fim);
 
-    @Query("SELECT SUM(c.valor) FROM ContaReceber c WHERE " +
-           "MONTH(c.createdAt) = MONTH(CURRENT_DATE) AND " +
-           "YEAR(c.createdAt) = YEAR(CURRENT_DATE)")
-    BigDecimal somarReceberMes();
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ContaReceber c WHERE c.id = :id")
+    Optional<ContaReceber> findParaPagamentoById(@Param("id") Long id);
 }
@@ -0,0 +1,90 @@
+package com.clinica.estetica.repository;
+
+import com.clinica.estetica.model.dto.projection.TotalPeriodoFinanceiro;
+import com.clinica.estetica.model.entity.FinanceiroDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FinanceiroDiarioRepository extends JpaRepository<FinanceiroDiario, FinanceiroDiario.Chave> {
+
+    /**
+     * Soma o movimento de uma conta à linha do dia, criando-a se ainda não existir
+     */
+    @Modifying
+    @Query(value = "INSERT INTO financeiro_diario (data, forma_pagamento, categoria, recebido, pago, " +
+                   "quantidade_recebimentos, quantidade_pagamentos) " +
+                   "VALUES (:data, :formaPagamento, :categoria, :recebido, :pago, :recebimentos, :pagamentos) " +
+                   "ON CONFLICT (data, forma_pagamento, categoria) DO UPDATE SET " +
+                   "recebido = financeiro_diario.recebido + EXCLUDED.recebido, " +
+                   "pago = financeiro_diario.pago + EXCLUDED.pago, " +
+                   "quantidade_recebimentos = financeiro_diario.quantidade_recebimentos + EXCLUDED.quantidade_recebimentos, " +
+                   "quantidade_pagamentos = financeiro_diario.quantidade_pagamentos + EXCLUDED.quantidade_pagamentos",
+           nativeQuery = true)
+    int acumular(@Param("data") LocalDate data,
+                 @Param("formaPagamento") String formaPagamento,
+                 @Param("categoria") String categoria,
+                 @Param("recebido") BigDecimal recebido,
+                 @Param("pago") BigDecimal pago,
+                 @Param("recebimentos") int recebimentos,
+                 @Param("pagamentos") int pagamentos);
+
+    @Query("SELECT COALESCE(SUM(f.recebido), 0) FROM FinanceiroDiario f WHERE f.data >= :inicio AND f.data <= :fim")
+    BigDecimal somarRecebido(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    @Query("SELECT COALESCE(SUM(f.pago), 0) FROM FinanceiroDiario f WHERE f.data >= :inicio AND f.data <= :fim")
+    BigDecimal somarPago(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Recebido e pago entre :inicio e :fim, somados por período de :unidade (day, week ou month)
+     */
+    @Query(value = "SELECT CAST(date_trunc(:unidade, CAST(data AS TIMESTAMP)) AS DATE) AS periodo, " +
+                   "SUM(recebido) AS recebido, SUM(pago) AS pago " +
+                   "FROM financeiro_diario " +
+                   "WHERE data >= :inicio AND data <= :fim " +
+                   "GROUP BY 1 ORDER BY 1",
+           nativeQuery = true)
+    List<TotalPeriodoFinanceiro> somarPorPeriodo(@Param("unidade") String unidade,
+                                                 @Param("inicio") LocalDate inicio,
+                                                 @Param("fim") LocalDate fim);
+
+    // ==================== RECONSTRUÇÃO ====================
+
+    /**
+     * Bloqueia novos upserts até o fim da transação e espera os que já estão em andamento,
+     * para que a reconstrução não perca nem conte duas vezes um pagamento concorrente
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE financeiro_diario IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void bloquear();
+
+    @Modifying
+    @Query("DELETE FROM FinanceiroDiario f WHERE f.data >= :inicio AND f.data <= :fim")
+    int removerPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    @Modifying
+    @Query(value = "INSERT INTO financeiro_diario (data, forma_pagamento, categoria, recebido, pago, " +
+                   "quantidade_recebimentos, quantidade_pagamentos) " +
+                   "SELECT m.data, m.forma_pagamento, m.categoria, SUM(m.recebido), SUM(m.pago), " +
+                   "SUM(m.quantidade_recebimentos), SUM(m.quantidade_pagamentos) " +
+                   "FROM (" +
+                   "SELECT data_pagamento AS data, COALESCE(forma_pagamento, '') AS forma_pagamento, '' AS categoria, " +
+                   "valor AS recebido, 0 AS pago, 1 AS quantidade_recebimentos, 0 AS quantidade_pagamentos " +
+                   "FROM conta_receber " +
+                   "WHERE status = 'PAGO' AND data_pagamento >= :inicio AND data_pagamento <= :fim " +
+                   "UNION ALL " +
+                   "SELECT data_pagamento, COALESCE(forma_pagamento, ''), COALESCE(categoria, ''), 0, valor, 0, 1 " +
+                   "FROM conta_pagar " +
+                   "WHERE status = 'PAGO' AND data_pagamento >= :inicio AND data_pagamento <= :fim" +
+                   ") m " +
+                   "GROUP BY m.data, m.forma_pagamento, m.categoria",
+           nativeQuery = true)
+    int recalcularPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+}
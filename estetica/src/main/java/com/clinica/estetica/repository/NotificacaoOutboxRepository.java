@@ -0,0 +1,75 @@
+package com.clinica.estetica.repository;
+
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NotificacaoOutboxRepository extends JpaRepository<NotificacaoOutbox, Long> {
+
+    Page<NotificacaoOutbox> findByStatus(StatusNotificacao status, Pageable pageable);
+
+    Long countByStatus(StatusNotificacao status);
+
+    /**
+     * Reserva até :limite notificações vencidas, pulando as que outro dispatcher já travou.
+     * PROCESSANDO com prazo vencido volta para a fila (dispatcher caiu no meio do envio).
+     * Deve rodar em transação de escrita.
+     */
+    @Query(value = "UPDATE notificacao_outbox SET status = 'PROCESSANDO', proxima_tentativa = :prazo, " +
+                   "reserva = :reserva, updated_at = :agora " +
+                   "WHERE id IN (SELECT id FROM notificacao_outbox " +
+                   "             WHERE status IN ('PENDENTE', 'PROCESSANDO') AND proxima_tentativa <= :agora " +
+                   "             ORDER BY proxima_tentativa, id " +
+                   "             LIMIT :limite " +
+                   "             FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING id",
+           nativeQuery = true)
+    List<Long> reservarLote(@Param("agora") LocalDateTime agora,
+                            @Param("prazo") LocalDateTime prazo,
+                            @Param("reserva") UUID reserva,
+                            @Param("limite") int limite);
+
+    /**
+     * Notificação ainda reservada com este token, travada até o fim da transação.
+     * Vazio se o prazo expirou e outra reserva (ou a janela de agrupamento) já a tomou.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM NotificacaoOutbox n " +
+           "WHERE n.id = :id AND n.status = 'PROCESSANDO' AND n.reserva = :reserva")
+    Optional<NotificacaoOutbox> findReservada(@Param("id") Long id, @Param("reserva") UUID reserva);
+
+    /**
+     * Vencimento mais próximo entre as mensagens ainda pendentes do agendamento (null se não houver)
+     */
+    @Query("SELECT MIN(n.proximaTentativa) FROM NotificacaoOutbox n " +
+           "WHERE n.agendamentoId = :agendamentoId AND n.status = 'PENDENTE' AND n.tipo IN :tipos")
+    LocalDateTime findPrimeiroVencimentoPendente(@Param("agendamentoId") Long agendamentoId,
+                                                 @Param("tipos") Collection<TipoNotificacao> tipos);
+
+    /**
+     * Marca como SUBSTITUIDA as mensagens pendentes do agendamento. As que o dispatcher
+     * já reservou (PROCESSANDO) seguem o envio normalmente.
+     */
+    @Modifying
+    @Query("UPDATE NotificacaoOutbox n SET n.status = 'SUBSTITUIDA', n.updatedAt = :agora " +
+           "WHERE n.agendamentoId = :agendamentoId AND n.status = 'PENDENTE' AND n.tipo IN :tipos")
+    int substituirPendentes(@Param("agendamentoId") Long agendamentoId,
+                            @Param("tipos") Collection<TipoNotificacao> tipos,
+                            @Param("agora") LocalDateTime agora);
+}
@@ -13,6 +13,9 @@ import java.util.List;
 public interface ProcedimentoProdutoRepository extends JpaRepository<ProcedimentoProduto, Long> {
     
     List<ProcedimentoProduto> findByProcedimentoId(Long procedimentoId);
+
+    @Query("SELECT pp FROM ProcedimentoProduto pp JOIN FETCH pp.produto WHERE pp.procedimento.id = :procedimentoId")
+    List<ProcedimentoProduto> findComProdutoByProcedimentoId(@Param("procedimentoId") Long procedimentoId);
     
     List<ProcedimentoProduto> findByProdutoId(Long produtoId);
     
@@ -1,5 +1,6 @@
 package com.clinica.estetica.repository;
 
+import com.clinica.estetica.model.dto.response.DashboardResponse;
 import com.clinica.estetica.model.entity.Procedimento;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,11 +10,16 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProcedimentoRepository extends JpaRepository<Procedimento, Long> {
     
     List<Procedimento> findByAtivoTrue();
+
+    @Query("SELECT p FROM Procedimento p LEFT JOIN FETCH p.categoria WHERE p.id = :id")
+    Optional<Procedimento> findComCategoriaById(@Param("id") Long id);
+
     
     Page<Procedimento> findByAtivo(Boolean ativo, Pageable pageable);
     
@@ -24,10 +30,11 @@ public interface ProcedimentoRepository extends JpaRepository<Procedimento, Long
            "LOWER(p.descricao) LIKE LOWER(CONCAT('%', :busca, '%'))")
     Page<Procedimento> buscarPorTexto(@Param("busca") String busca, Pageable pageable);
 
-    @Query("SELECT p, COUNT(a) as total FROM Procedimento p " +
-           "LEFT JOIN p.agendamentos a " +
+    @Query("SELECT new com.clinica.estetica.model.dto.response.DashboardResponse$ProcedimentoRanking(" +
+           "p.nome, CAST(COUNT(a) AS Integer), COALESCE(SUM(a.valorTotal), 0)) " +
+           "FROM Agendamento a JOIN a.procedimento p " +
            "WHERE a.status = 'REALIZADO' " +
-           "GROUP BY p.id " +
-           "ORDER BY total DESC")
-    List<Procedimento> findTopProcedimentos(Pageable pageable);
+           "GROUP BY p.id, p.nome " +
+           "ORDER BY COUNT(a) DESC, p.nome")
+    List<DashboardResponse.ProcedimentoRanking> findRankingProcedimentos(Pageable pageable);
 }
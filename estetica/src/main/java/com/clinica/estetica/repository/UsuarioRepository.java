@@ -2,6 +2,8 @@ package com.clinica.estetica.repository;
 
 import com.clinica.estetica.model.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +14,10 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /**
+     * Versão de segurança do usuário, vazia se ele não existir ou estiver inativo
+     */
+    @Query("SELECT u.versaoSeguranca FROM Usuario u WHERE u.username = :username AND u.ativo = true")
+    Optional<Integer> findVersaoSegurancaAtiva(@Param("username") String username);
 }
@@ -0,0 +1,52 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.service.CampanhaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CampanhaScheduler {
+
+    private final CampanhaService campanhaService;
+
+    @Value("${campanha.reativacao.dias-sem-visita:90}")
+    private int diasSemVisita;
+
+    @Scheduled(cron = "${campanha.aniversario.cron:0 0 9 * * *}")
+    public void enviarAniversariantes() {
+        try {
+            campanhaService.executarAniversariantes(LocalDate.now());
+        } catch (Exception e) {
+            log.error("Erro ao executar campanha de aniversariantes: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${campanha.reativacao.cron:0 0 10 * * MON}")
+    public void enviarReativacao() {
+        try {
+            campanhaService.executarReativacao(LocalDate.now(), diasSemVisita);
+        } catch (Exception e) {
+            log.error("Erro ao executar campanha de reativação: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Continua campanhas cuja instância caiu no meio (sem sinal de vida dentro do lease)
+     */
+    @Scheduled(fixedDelayString = "${campanha.retomada-ms:300000}",
+            initialDelayString = "${campanha.retomada-ms:300000}")
+    public void retomarInterrompidas() {
+        try {
+            campanhaService.retomarInterrompidas();
+        } catch (Exception e) {
+            log.error("Erro ao retomar campanhas interrompidas: {}", e.getMessage(), e);
+        }
+    }
+}
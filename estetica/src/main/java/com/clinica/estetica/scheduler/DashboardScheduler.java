@@ -0,0 +1,41 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardScheduler {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Recalcula as seções do dashboard marcadas por eventos desde a última rodada
+     */
+    @Scheduled(fixedDelayString = "${dashboard.atualizacao-ms:2000}",
+            initialDelayString = "${dashboard.atualizacao-ms:2000}")
+    public void atualizarPendentes() {
+        try {
+            dashboardService.atualizarPendentes();
+        } catch (Exception e) {
+            log.error("Erro ao atualizar o dashboard: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recalcula o dashboard inteiro a partir do banco
+     */
+    @Scheduled(fixedDelayString = "${dashboard.reconciliacao-ms:300000}",
+            initialDelayString = "${dashboard.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        try {
+            dashboardService.reconciliar();
+        } catch (Exception e) {
+            log.error("Erro ao reconciliar o dashboard: {}", e.getMessage(), e);
+        }
+    }
+}
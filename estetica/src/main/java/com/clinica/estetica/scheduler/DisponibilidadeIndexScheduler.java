@@ -0,0 +1,39 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.model.dto.response.ConsistenciaIndiceResponse;
+import com.clinica.estetica.service.DisponibilidadeIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadeIndexScheduler {
+
+    private final DisponibilidadeIndex disponibilidadeIndex;
+
+    /**
+     * Compara periodicamente o índice com o banco e recarrega se houver divergência
+     */
+    @Scheduled(fixedDelayString = "${agenda.indice.verificacao-ms:900000}",
+            initialDelayString = "${agenda.indice.verificacao-ms:900000}")
+    public void verificarConsistencia() {
+        try {
+            ConsistenciaIndiceResponse resultado = disponibilidadeIndex.verificarConsistencia(true);
+            log.debug("Verificação do índice de disponibilidade concluída. Consistente: {}",
+                    resultado.getConsistente());
+        } catch (Exception e) {
+            log.error("Erro ao verificar índice de disponibilidade: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Avança o horizonte do índice para o novo dia, descartando agendamentos passados
+     */
+    @Scheduled(cron = "${agenda.indice.recarga-cron:0 5 0 * * *}")
+    public void recarregarDiariamente() {
+        disponibilidadeIndex.recarregar();
+    }
+}
@@ -0,0 +1,27 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.service.LembreteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LembreteScheduler {
+
+    private final LembreteService lembreteService;
+
+    /**
+     * Envia os lembretes que entraram na janela de antecedência desde a última execução
+     */
+    @Scheduled(cron = "${notificacao.lembrete.cron:0 */10 * * * *}")
+    public void processarLembretes() {
+        try {
+            lembreteService.processarLembretes();
+        } catch (Exception e) {
+            log.error("Erro ao processar lembretes: {}", e.getMessage(), e);
+        }
+    }
+}
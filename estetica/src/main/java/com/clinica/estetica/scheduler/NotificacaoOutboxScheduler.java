@@ -0,0 +1,41 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.service.NotificacaoDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificacaoOutboxScheduler {
+
+    private final NotificacaoDispatcher notificacaoDispatcher;
+
+    /**
+     * Garante a entrega de novas tentativas (backoff) e de registros cujo aviso
+     * pós-commit se perdeu (ex.: reinício da aplicação)
+     */
+    @Scheduled(fixedDelayString = "${notificacao.outbox.varredura-ms:10000}",
+            initialDelayString = "${notificacao.outbox.varredura-ms:10000}")
+    public void drenarOutbox() {
+        try {
+            notificacaoDispatcher.drenar();
+        } catch (Exception e) {
+            log.error("Erro ao drenar outbox de notificações: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Atualiza a profundidade da fila e do dead-letter usada pela métrica do outbox
+     */
+    @Scheduled(fixedDelayString = "${notificacao.outbox.metricas-ms:30000}")
+    public void atualizarMetricasOutbox() {
+        try {
+            notificacaoDispatcher.atualizarProfundidade();
+        } catch (Exception e) {
+            log.error("Erro ao atualizar métricas do outbox: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.clinica.estetica.scheduler;
+
+import com.clinica.estetica.security.RevogacaoTokens;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevogacaoTokensScheduler {
+
+    private final RevogacaoTokens revogacaoTokens;
+
+    /**
+     * Descarta revogações de tokens que já expiraram (e compacta o log quando compensa)
+     */
+    @Scheduled(fixedDelayString = "${seguranca.revogacao.limpeza-ms:60000}")
+    public void removerExpirados() {
+        try {
+            int removidas = revogacaoTokens.removerExpirados(System.currentTimeMillis());
+            if (removidas > 0) {
+                log.debug("Revogações expiradas descartadas: {}", removidas);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao descartar revogações expiradas: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.clinica.estetica.security;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.model.enums.UserRole;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,21 +9,38 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Autentica a requisição só com o token: username, perfil e versão de segurança vêm das claims.
+ * O banco não é consultado; usuários inativados ou com perfil alterado são barrados pela
+ * versão de segurança ({@link VersoesSeguranca}) e tokens revogados pelo {@link RevogacaoTokens}.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Map<UserRole, List<GrantedAuthority>> AUTORIDADES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            AUTORIDADES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final VersoesSeguranca versoesSeguranca;
+    private final RevogacaoTokens revogacaoTokens;
 
     @Override
     protected void doFilterInternal(
@@ -29,26 +48,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        
+
         try {
             final String authHeader = request.getHeader("Authorization");
-            
+
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            final String jwt = authHeader.substring(7);
-            final String username = jwtTokenProvider.extractUsername(jwt);
+            // Assinatura, emissor e expiração verificados uma única vez (ou vindos do cache)
+            final DecodedJWT jwt = jwtTokenProvider.verificar(authHeader.substring(7));
+            final String username = jwt != null ? jwt.getSubject() : null;
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                Integer versao = jwt.getClaim(JwtTokenProvider.CLAIM_VERSAO).asInt();
+                UserRole role = UserRole.valueOf(jwt.getClaim(JwtTokenProvider.CLAIM_PERFIL).asString());
 
-                if (jwtTokenProvider.validateToken(jwt, userDetails)) {
+                if (versao != null && versoesSeguranca.valida(username, versao) && !revogacaoTokens.revogado(jwt)) {
+                    // O token decodificado fica como credencial, para o logout saber o que revogar
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
+                            username,
+                            jwt,
+                            AUTORIDADES.get(role)
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
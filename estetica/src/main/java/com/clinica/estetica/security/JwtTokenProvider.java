@@ -1,74 +1,163 @@
 package com.clinica.estetica.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.model.entity.Usuario;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emissão e verificação de tokens JWT.
+ *
+ * - Algorithm e JWTVerifier são montados uma vez e reaproveitados (são thread-safe)
+ * - Cada token é verificado (assinatura, emissor, expiração) uma única vez por requisição
+ * - O token leva id (jti), perfil (role) e versão de segurança (ver); tokens sem eles são recusados
+ * - Tokens já verificados ficam em cache, chaveados pelo SHA-256 do token, até expirarem;
+ *   o cache tem tamanho máximo (jwt.cache.tamanho-maximo, 0 desliga)
+ */
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_PERFIL = "role";
+    public static final String CLAIM_VERSAO = "ver";
+
+    private static final String EMISSOR = "clinica-estetica";
+    private static final long INTERVALO_LIMPEZA_MS = 1000;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    });
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private Algorithm getAlgorithm() {
-        return Algorithm.HMAC256(secret);
-    }
-
-    /**
-     * Gera token a partir de UserDetails
-     */
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(userDetails.getUsername());
+    @Value("${jwt.cache.tamanho-maximo:10000}")
+    private int tamanhoMaximoCache;
+
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    private final Map<String, TokenVerificado> cache = new ConcurrentHashMap<>();
+    private volatile long proximaLimpeza;
+
+    private final Counter acertosCache;
+    private final Counter faltasCache;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.acertosCache = Counter.builder("clinica.jwt.cache")
+                .description("Verificações de token resolvidas pelo cache")
+                .tag("resultado", "acerto")
+                .register(meterRegistry);
+        this.faltasCache = Counter.builder("clinica.jwt.cache")
+                .description("Verificações de token resolvidas pelo cache")
+                .tag("resultado", "falta")
+                .register(meterRegistry);
+        Gauge.builder("clinica.jwt.cache.tamanho", cache, Map::size)
+                .description("Tokens verificados mantidos em cache")
+                .register(meterRegistry);
     }
 
-    /**
-     * Gera token a partir de Authentication
-     */
-    public String generateToken(Authentication authentication) {
-        return generateToken(authentication.getName());
+    @PostConstruct
+    public void iniciar() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm)
+                .withIssuer(EMISSOR)
+                .withClaimPresence("exp")
+                .withClaimPresence("iat")
+                .withClaimPresence("jti")
+                .withClaimPresence(CLAIM_PERFIL)
+                .withClaimPresence(CLAIM_VERSAO)
+                .build();
     }
 
     /**
-     * Gera token a partir de username
+     * Gera token com o perfil e a versão de segurança do usuário, que bastam para autenticar
+     * as requisições seguintes sem consultar o banco
      */
-    public String generateToken(String username) {
+    public String generateToken(Usuario usuario) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return JWT.create()
-                .withSubject(username)
+                .withJWTId(UUID.randomUUID().toString())
+                .withSubject(usuario.getUsername())
+                .withClaim(CLAIM_PERFIL, usuario.getRole().name())
+                .withClaim(CLAIM_VERSAO, usuario.getVersaoSeguranca())
                 .withIssuedAt(now)
                 .withExpiresAt(expiryDate)
-                .withIssuer("clinica-estetica")
-                .sign(getAlgorithm());
+                .withIssuer(EMISSOR)
+                .sign(algorithm);
     }
 
     /**
-     * Extrai username do token
+     * Verifica o token uma única vez (assinatura, emissor e expiração).
+     * Retorna null se o token for inválido ou estiver expirado.
      */
-    public String extractUsername(String token) {
+    public DecodedJWT verificar(String token) {
+        if (token == null) {
+            return null;
+        }
+        long agora = System.currentTimeMillis();
+        String chave = tamanhoMaximoCache > 0 ? chave(token) : null;
+
+        if (chave != null) {
+            TokenVerificado emCache = cache.get(chave);
+            if (emCache != null) {
+                if (emCache.expiraEm() > agora) {
+                    acertosCache.increment();
+                    return emCache.jwt();
+                }
+                cache.remove(chave, emCache);
+            }
+            faltasCache.increment();
+        }
+
+        DecodedJWT jwt;
         try {
-            DecodedJWT jwt = JWT.require(getAlgorithm())
-                    .withIssuer("clinica-estetica")
-                    .build()
-                    .verify(token);
-            return jwt.getSubject();
+            jwt = verifier.verify(token);
         } catch (JWTVerificationException e) {
-            log.error("Erro ao extrair username do token: {}", e.getMessage());
+            log.error("Token inválido: {}", e.getMessage());
             return null;
         }
+
+        if (chave != null) {
+            guardar(chave, new TokenVerificado(jwt, jwt.getExpiresAtAsInstant().toEpochMilli()), agora);
+        }
+        return jwt;
+    }
+
+    /**
+     * Extrai username do token
+     */
+    public String extractUsername(String token) {
+        DecodedJWT jwt = verificar(token);
+        return jwt != null ? jwt.getSubject() : null;
     }
 
     /**
@@ -82,62 +171,53 @@ public class JwtTokenProvider {
      * Valida token com UserDetails
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username != null &&
-                    username.equals(userDetails.getUsername()) &&
-                    !isTokenExpired(token));
-        } catch (Exception e) {
-            log.error("Erro ao validar token: {}", e.getMessage());
-            return false;
-        }
+        String username = extractUsername(token);
+        return username != null && username.equals(userDetails.getUsername());
     }
 
     /**
      * Valida token sem UserDetails (apenas verifica se é válido e não expirou)
      */
     public boolean validateToken(String token) {
-        try {
-            DecodedJWT jwt = JWT.require(getAlgorithm())
-                    .withIssuer("clinica-estetica")
-                    .build()
-                    .verify(token);
-            return !isTokenExpired(token);
-        } catch (JWTVerificationException e) {
-            log.error("Token inválido: {}", e.getMessage());
-            return false;
-        }
+        return verificar(token) != null;
     }
 
     /**
-     * Verifica se o token está expirado
+     * Obtém a data de expiração do token
      */
-    private boolean isTokenExpired(String token) {
-        try {
-            DecodedJWT jwt = JWT.require(getAlgorithm())
-                    .withIssuer("clinica-estetica")
-                    .build()
-                    .verify(token);
-            return jwt.getExpiresAt().before(new Date());
-        } catch (JWTVerificationException e) {
-            log.error("Erro ao verificar expiração do token: {}", e.getMessage());
-            return true;
-        }
+    public Date getExpirationDateFromToken(String token) {
+        DecodedJWT jwt = verificar(token);
+        return jwt != null ? jwt.getExpiresAt() : null;
     }
 
     /**
-     * Obtém a data de expiração do token
+     * Esvazia o cache de tokens verificados
      */
-    public Date getExpirationDateFromToken(String token) {
-        try {
-            DecodedJWT jwt = JWT.require(getAlgorithm())
-                    .withIssuer("clinica-estetica")
-                    .build()
-                    .verify(token);
-            return jwt.getExpiresAt();
-        } catch (JWTVerificationException e) {
-            log.error("Erro ao obter data de expiração do token: {}", e.getMessage());
-            return null;
+    public void limparCache() {
+        cache.clear();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Cache cheio: descarta os expirados (no máximo uma varredura por segundo);
+     * se ainda estiver cheio, o token simplesmente não entra
+     */
+    private void guardar(String chave, TokenVerificado token, long agora) {
+        if (cache.size() >= tamanhoMaximoCache && agora >= proximaLimpeza) {
+            proximaLimpeza = agora + INTERVALO_LIMPEZA_MS;
+            cache.values().removeIf(t -> t.expiraEm() <= agora);
+        }
+        if (cache.size() < tamanhoMaximoCache) {
+            cache.put(chave, token);
         }
     }
-}
\ No newline at end of file
+
+    private static String chave(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private record TokenVerificado(DecodedJWT jwt, long expiraEm) {
+    }
+}
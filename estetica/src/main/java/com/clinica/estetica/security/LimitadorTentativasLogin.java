@@ -0,0 +1,220 @@
+package com.clinica.estetica.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de falhas de login por username e por IP.
+ *
+ * Cada chave tem uma pontuação que sobe 1 a cada falha e cai pela metade a cada
+ * login.limite.meia-vida-ms. Com a pontuação no limite, novas tentativas são recusadas
+ * até ela decair: quem insiste fica restrito a cerca de uma tentativa a cada
+ * meia-vida / (limite * ln 2), sem bloqueio fixo a liberar.
+ *
+ * O login reserva a tentativa antes do BCrypt (reservarUsuario/reservarIp): conferir o limite
+ * e somar a falha é um único CAS, então tentativas paralelas do mesmo username não passam
+ * todas pela checagem antes de a primeira falha ser contada. Sucesso devolve a reserva.
+ *
+ * Pontuação (float) e instante da última atualização (décimos de segundo) ficam num único
+ * AtomicLong, atualizado por CAS, sem lock.
+ * Cada mapa guarda no máximo login.limite.max-chaves; cheio, descarta as chaves já
+ * esquecidas e, se ainda assim não couber, a chave nova não é rastreada (o limite por IP continua valendo).
+ */
+@Component
+public class LimitadorTentativasLogin {
+
+    private static final long UNIDADE_MS = 100;
+    private static final float ESQUECIDA = 0.1f;
+    private static final long INTERVALO_LIMPEZA_MS = 1000;
+
+    private final long base = System.currentTimeMillis();
+
+    private final Map<String, AtomicLong> porUsername = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> porIp = new ConcurrentHashMap<>();
+    private volatile long proximaLimpeza;
+
+    @Value("${login.limite.falhas-usuario:5}")
+    private int limiteUsuario;
+
+    @Value("${login.limite.falhas-ip:20}")
+    private int limiteIp;
+
+    @Value("${login.limite.meia-vida-ms:300000}")
+    private long meiaVidaMs;
+
+    @Value("${login.limite.max-chaves:100000}")
+    private int maxChaves;
+
+    /**
+     * Tempo (ms) até o username voltar a poder tentar; 0 se pode tentar agora
+     */
+    public long esperaUsuario(String username) {
+        String chave = chave(username);
+        return chave != null ? espera(porUsername.get(chave), limiteUsuario) : 0;
+    }
+
+    /**
+     * Tempo (ms) até o IP voltar a poder tentar; 0 se pode tentar agora
+     */
+    public long esperaIp(String ip) {
+        return ip != null ? espera(porIp.get(ip), limiteIp) : 0;
+    }
+
+    /**
+     * Conta a tentativa do username se ele ainda estiver abaixo do limite.
+     * 0 se a tentativa foi reservada; senão, o tempo (ms) até poder tentar e nada é contado.
+     */
+    public long reservarUsuario(String username) {
+        return reservar(porUsername, chave(username), limiteUsuario);
+    }
+
+    /**
+     * Como reservarUsuario, para o IP
+     */
+    public long reservarIp(String ip) {
+        return reservar(porIp, ip, limiteIp);
+    }
+
+    /**
+     * Desfaz uma reserva do username que não virou falha de senha (ex.: login recusado por sobrecarga)
+     */
+    public void devolverUsuario(String username) {
+        devolver(porUsername, chave(username));
+    }
+
+    /**
+     * Desfaz uma reserva do IP: login correto ou tentativa que não chegou a validar a senha
+     */
+    public void devolverIp(String ip) {
+        devolver(porIp, ip);
+    }
+
+    public void registrarFalha(String username, String ip) {
+        reservar(porUsername, chave(username), Integer.MAX_VALUE);
+        reservar(porIp, ip, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Login correto zera o username; o IP segue com as falhas que já teve
+     */
+    public void registrarSucesso(String username) {
+        String chave = chave(username);
+        if (chave != null) {
+            porUsername.remove(chave);
+        }
+    }
+
+    /**
+     * Chaves rastreadas (usernames + IPs)
+     */
+    public int tamanho() {
+        return porUsername.size() + porIp.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private long espera(AtomicLong contador, int limite) {
+        if (contador == null) {
+            return 0;
+        }
+        return espera(pontuacao(contador.get(), agora()), limite);
+    }
+
+    private long espera(float pontuacao, int limite) {
+        if (pontuacao < limite) {
+            return 0;
+        }
+        // pontuacao * 2^(-t / meiaVida) = limite  =>  t = meiaVida * log2(pontuacao / limite)
+        double unidades = (double) meiaVidaMs / UNIDADE_MS * (Math.log(pontuacao / limite) / Math.log(2));
+        return Math.max(UNIDADE_MS, (long) Math.ceil(unidades) * UNIDADE_MS);
+    }
+
+    /**
+     * Soma 1 à chave se a pontuação estiver abaixo do limite; senão devolve a espera sem somar
+     */
+    private long reservar(Map<String, AtomicLong> mapa, String chave, int limite) {
+        if (chave == null) {
+            return 0;
+        }
+        AtomicLong contador = mapa.get(chave);
+        if (contador == null) {
+            if (mapa.size() >= maxChaves) {
+                limpar(mapa);
+                if (mapa.size() >= maxChaves) {
+                    return 0;
+                }
+            }
+            contador = mapa.computeIfAbsent(chave, c -> new AtomicLong(empacotar(0f, agora())));
+        }
+
+        long agora = agora();
+        long atual;
+        float pontuacao;
+        do {
+            atual = contador.get();
+            pontuacao = pontuacao(atual, agora);
+            if (pontuacao >= limite) {
+                return espera(pontuacao, limite);
+            }
+        } while (!contador.compareAndSet(atual, empacotar(pontuacao + 1f, agora)));
+        return 0;
+    }
+
+    private void devolver(Map<String, AtomicLong> mapa, String chave) {
+        AtomicLong contador = chave != null ? mapa.get(chave) : null;
+        if (contador == null) {
+            return;
+        }
+        long agora = agora();
+        long atual;
+        long novo;
+        do {
+            atual = contador.get();
+            novo = empacotar(Math.max(0f, pontuacao(atual, agora) - 1f), agora);
+        } while (!contador.compareAndSet(atual, novo));
+    }
+
+    /**
+     * Descarta chaves cuja pontuação já decaiu a quase zero (no máximo uma varredura por segundo)
+     */
+    private void limpar(Map<String, AtomicLong> mapa) {
+        long agora = agora();
+        long agoraMs = System.currentTimeMillis();
+        if (agoraMs < proximaLimpeza) {
+            return;
+        }
+        proximaLimpeza = agoraMs + INTERVALO_LIMPEZA_MS;
+        mapa.values().removeIf(contador -> pontuacao(contador.get(), agora) < ESQUECIDA);
+    }
+
+    /**
+     * Pontuação decaída até agora
+     */
+    private float pontuacao(long estado, long agora) {
+        float pontuacao = Float.intBitsToFloat((int) (estado >>> 32));
+        long decorrido = agora - (estado & 0xFFFFFFFFL);
+        if (decorrido <= 0 || pontuacao == 0f) {
+            return pontuacao;
+        }
+        return (float) (pontuacao * Math.pow(2, -(double) decorrido * UNIDADE_MS / meiaVidaMs));
+    }
+
+    private static long empacotar(float pontuacao, long instante) {
+        return ((long) Float.floatToRawIntBits(pontuacao) << 32) | (instante & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Décimos de segundo desde a criação do componente (cabe em 32 bits por mais de 13 anos)
+     */
+    private long agora() {
+        return (System.currentTimeMillis() - base) / UNIDADE_MS;
+    }
+
+    private static String chave(String username) {
+        return username != null ? username.trim().toLowerCase() : null;
+    }
+}
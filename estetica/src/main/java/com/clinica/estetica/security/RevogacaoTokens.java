@@ -0,0 +1,275 @@
+package com.clinica.estetica.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.event.SenhaAlteradaEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens revogados antes de expirar, em memória.
+ *
+ * - Por token (jti): logout
+ * - Por usuário: todos os tokens emitidos antes de um instante (troca ou reset de senha)
+ *
+ * A consulta do filtro são dois get em ConcurrentHashMap, sem lock e sem alocação.
+ * Cada revogação só vale até o último token afetado expirar; uma fila ordenada por expiração
+ * descarta as vencidas, então a memória acompanha os tokens ainda válidos, não o histórico.
+ *
+ * Persistência: cada revogação é acrescentada (com fsync) a um log de linhas curtas
+ * (seguranca.revogacao.arquivo). Na subida o log é relido e reescrito só com as entradas vivas;
+ * a limpeza periódica faz o mesmo quando a maior parte do arquivo já expirou.
+ */
+@Slf4j
+@Component
+public class RevogacaoTokens {
+
+    private static final char TOKEN = 'J';
+    private static final char USUARIO = 'U';
+    private static final String SEPARADOR = "\t";
+    private static final int LINHAS_MINIMAS_PARA_COMPACTAR = 1000;
+
+    @Value("${seguranca.revogacao.arquivo:data/revogacoes.log}")
+    private String arquivo;
+
+    @Value("${jwt.expiration}")
+    private long expiracaoToken;
+
+    private final Map<String, Revogacao> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Revogacao> usuarios = new ConcurrentHashMap<>();
+
+    // Protegidos por this
+    private final PriorityQueue<Revogacao> porExpiracao =
+            new PriorityQueue<>(Comparator.comparingLong(Revogacao::expiraEm));
+    private Path caminho;
+    private FileChannel canal;
+    private int linhasNoArquivo;
+
+    public RevogacaoTokens(MeterRegistry meterRegistry) {
+        Gauge.builder("clinica.jwt.revogacoes", tokens, Map::size)
+                .description("Revogações ativas")
+                .tag("tipo", "token")
+                .register(meterRegistry);
+        Gauge.builder("clinica.jwt.revogacoes", usuarios, Map::size)
+                .description("Revogações ativas")
+                .tag("tipo", "usuario")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void iniciar() throws IOException {
+        caminho = Path.of(arquivo);
+        if (caminho.getParent() != null) {
+            Files.createDirectories(caminho.getParent());
+        }
+        int lidas = carregar(System.currentTimeMillis());
+        compactar();
+        log.info("Revogações de token carregadas: {} ativas de {} no log", porExpiracao.size(), lidas);
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() throws IOException {
+        if (canal != null) {
+            canal.close();
+            canal = null;
+        }
+    }
+
+    /**
+     * true se o token foi revogado (individualmente ou junto com os demais do usuário)
+     */
+    public boolean revogado(DecodedJWT jwt) {
+        if (tokens.containsKey(jwt.getId())) {
+            return true;
+        }
+        Revogacao usuario = usuarios.get(jwt.getSubject());
+        return usuario != null && jwt.getIssuedAtAsInstant().toEpochMilli() < usuario.corte();
+    }
+
+    /**
+     * Revoga o token até a expiração dele
+     */
+    public void revogar(DecodedJWT jwt) {
+        registrar(new Revogacao(TOKEN, jwt.getId(), 0, jwt.getExpiresAtAsInstant().toEpochMilli()));
+    }
+
+    /**
+     * Revoga todos os tokens do usuário emitidos até agora.
+     * O iat tem precisão de segundos: tokens emitidos no mesmo segundo da revogação continuam valendo.
+     */
+    public void revogarTodos(String username) {
+        long corte = System.currentTimeMillis() / 1000 * 1000;
+        Revogacao atual = usuarios.get(username);
+        if (atual != null && atual.corte() >= corte) {
+            return;
+        }
+        registrar(new Revogacao(USUARIO, username, corte, corte + expiracaoToken));
+    }
+
+    /**
+     * Troca de senha: o corte é o commit, não o início da transação
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarSenha(SenhaAlteradaEvent event) {
+        revogarTodos(event.getUsername());
+    }
+
+    /**
+     * Descarta revogações de tokens que já expiraram e compacta o log se valer a pena.
+     * Retorna quantas foram descartadas.
+     */
+    public synchronized int removerExpirados(long agora) {
+        int removidas = 0;
+        while (!porExpiracao.isEmpty() && porExpiracao.peek().expiraEm() <= agora) {
+            Revogacao revogacao = porExpiracao.poll();
+            mapa(revogacao.tipo()).remove(revogacao.chave(), revogacao);
+            removidas++;
+        }
+        if (linhasNoArquivo >= LINHAS_MINIMAS_PARA_COMPACTAR && linhasNoArquivo > 2 * porExpiracao.size()) {
+            try {
+                compactar();
+            } catch (IOException e) {
+                log.error("Erro ao compactar log de revogações: {}", e.getMessage(), e);
+            }
+        }
+        return removidas;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private synchronized void registrar(Revogacao revogacao) {
+        Revogacao anterior = mapa(revogacao.tipo()).put(revogacao.chave(), revogacao);
+        if (anterior != null) {
+            porExpiracao.remove(anterior);
+        }
+        porExpiracao.add(revogacao);
+
+        try {
+            ByteBuffer linha = StandardCharsets.UTF_8.encode(revogacao.linha());
+            while (linha.hasRemaining()) {
+                canal.write(linha);
+            }
+            canal.force(false);
+            linhasNoArquivo++;
+        } catch (IOException e) {
+            // A revogação vale em memória; só não sobrevive a um reinício
+            log.error("Erro ao gravar revogação no log: {}", e.getMessage(), e);
+        }
+    }
+
+    private int carregar(long agora) throws IOException {
+        if (!Files.exists(caminho)) {
+            return 0;
+        }
+        int lidas = 0;
+        try (BufferedReader leitor = Files.newBufferedReader(caminho, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                lidas++;
+                Revogacao revogacao = Revogacao.ler(linha);
+                if (revogacao == null) {
+                    log.warn("Linha inválida no log de revogações ignorada: {}", linha);
+                    continue;
+                }
+                Revogacao atual = mapa(revogacao.tipo()).get(revogacao.chave());
+                if (revogacao.expiraEm() > agora && (atual == null || atual.corte() < revogacao.corte())) {
+                    if (atual != null) {
+                        porExpiracao.remove(atual);
+                    }
+                    mapa(revogacao.tipo()).put(revogacao.chave(), revogacao);
+                    porExpiracao.add(revogacao);
+                }
+            }
+        }
+        return lidas;
+    }
+
+    /**
+     * Reescreve o log só com as revogações vivas (arquivo temporário + move atômico).
+     * O canal atual só é trocado depois do move: se a escrita ou o move falharem,
+     * as próximas revogações continuam indo para o log antigo.
+     */
+    private void compactar() throws IOException {
+        Path temporario = caminho.resolveSibling(caminho.getFileName() + ".tmp");
+        try {
+            try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                StringBuilder conteudo = new StringBuilder();
+                for (Revogacao revogacao : porExpiracao) {
+                    conteudo.append(revogacao.linha());
+                }
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(conteudo.toString());
+                while (bytes.hasRemaining()) {
+                    novo.write(bytes);
+                }
+                novo.force(true);
+            }
+            substituir(temporario, caminho);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+
+        FileChannel anterior = canal;
+        canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        linhasNoArquivo = porExpiracao.size();
+        if (anterior != null) {
+            anterior.close();
+        }
+    }
+
+    /**
+     * Move atômico do log compactado sobre o atual (separado para os testes simularem falha)
+     */
+    void substituir(Path temporario, Path destino) throws IOException {
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Map<String, Revogacao> mapa(char tipo) {
+        return tipo == TOKEN ? tokens : usuarios;
+    }
+
+    /**
+     * Uma revogação. Linha no log: tipo, chave (jti ou username), corte e expiração, separados por tab.
+     */
+    private record Revogacao(char tipo, String chave, long corte, long expiraEm) {
+
+        String linha() {
+            return tipo + SEPARADOR + chave + SEPARADOR + corte + SEPARADOR + expiraEm + "\n";
+        }
+
+        static Revogacao ler(String linha) {
+            String[] partes = linha.split(SEPARADOR);
+            if (partes.length != 4 || partes[0].length() != 1
+                    || (partes[0].charAt(0) != TOKEN && partes[0].charAt(0) != USUARIO)) {
+                return null;
+            }
+            try {
+                return new Revogacao(partes[0].charAt(0), partes[1],
+                        Long.parseLong(partes[2]), Long.parseLong(partes[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
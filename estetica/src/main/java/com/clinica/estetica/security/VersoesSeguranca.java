@@ -0,0 +1,87 @@
+package com.clinica.estetica.security;
+
+import com.clinica.estetica.event.VersaoSegurancaAlteradaEvent;
+import com.clinica.estetica.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão de segurança atual de cada usuário, em memória.
+ *
+ * O JwtAuthenticationFilter compara a versão do token com esta; o banco só é consultado
+ * na primeira requisição do usuário e depois a cada seguranca.versao.ttl-ms.
+ * Alterações feitas nesta instância (UsuarioService) descartam a entrada após o commit;
+ * o TTL limita por quanto tempo outra instância aceita um token já invalidado.
+ * Uma leitura do banco que começou antes de um descarte (ex.: durante a transação que troca
+ * o perfil) não é guardada, senão a versão antiga valeria por mais um TTL inteiro.
+ * Só chegam aqui usernames de tokens com assinatura válida, então há no máximo uma entrada por usuário.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VersoesSeguranca {
+
+    /**
+     * Usuário inexistente ou inativo: nenhum token confere
+     */
+    static final int SEM_ACESSO = -1;
+
+    private final UsuarioRepository usuarioRepository;
+
+    private final Map<String, Versao> versoes = new ConcurrentHashMap<>();
+
+    // Incrementado a cada descarte; carregar só guarda o que leu se nenhum descarte ocorreu no meio
+    private final AtomicLong descartes = new AtomicLong();
+
+    @Value("${seguranca.versao.ttl-ms:60000}")
+    private long ttlMs;
+
+    /**
+     * true se o token com esta versão ainda vale para o usuário
+     */
+    public boolean valida(String username, int versaoDoToken) {
+        long agora = System.currentTimeMillis();
+        Versao versao = versoes.get(username);
+        if (versao == null || versao.carregadaEm() + ttlMs <= agora) {
+            versao = carregar(username, agora);
+        }
+        return versao.numero() != SEM_ACESSO && versao.numero() == versaoDoToken;
+    }
+
+    /**
+     * Descarta a versão em memória; a próxima requisição do usuário relê do banco
+     */
+    public void invalidar(String username) {
+        if (username != null) {
+            descartes.incrementAndGet();
+            versoes.remove(username);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarVersao(VersaoSegurancaAlteradaEvent event) {
+        log.debug("Versão de segurança descartada: {}", event.getUsername());
+        invalidar(event.getUsername());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Versao carregar(String username, long agora) {
+        long descartesAntes = descartes.get();
+        Versao versao = new Versao(usuarioRepository.findVersaoSegurancaAtiva(username).orElse(SEM_ACESSO), agora);
+        // compute e remove na mesma chave não se intercalam: ou o descarte vem depois e remove, ou já mudou o contador
+        versoes.compute(username, (u, atual) -> descartes.get() == descartesAntes ? versao : atual);
+        return versao;
+    }
+
+    private record Versao(int numero, long carregadaEm) {
+    }
+}
@@ -1,39 +1,92 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.AgendamentoAlteradoEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
+import com.clinica.estetica.model.dto.projection.IntervaloAgendamento;
+import com.clinica.estetica.model.dto.response.CalendarioItemResponse;
+import com.clinica.estetica.model.dto.response.CalendarioResponse;
+import com.clinica.estetica.model.dto.response.ConsistenciaIndiceResponse;
+import com.clinica.estetica.model.dto.response.HorarioLivreResponse;
+import com.clinica.estetica.model.dto.response.ProcedimentoResponse;
 import com.clinica.estetica.model.entity.Agendamento;
 import com.clinica.estetica.model.entity.Cliente;
 import com.clinica.estetica.model.entity.Procedimento;
-import com.clinica.estetica.model.entity.ProcedimentoProduto;
 import com.clinica.estetica.model.enums.StatusAgendamento;
 import com.clinica.estetica.model.enums.StatusCliente;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import com.clinica.estetica.model.enums.VisaoCalendario;
 import com.clinica.estetica.repository.AgendamentoRepository;
-import com.clinica.estetica.repository.ProcedimentoProdutoRepository;
+import com.clinica.estetica.util.JanelaTempo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AgendamentoService {
 
+    private static final String CONSTRAINT_SOBREPOSICAO = "agendamento_sem_sobreposicao";
+    private static final String SQLSTATE_EXCLUSION_VIOLATION = "23P01";
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     private final AgendamentoRepository agendamentoRepository;
     private final ClienteService clienteService;
     private final ProcedimentoService procedimentoService;
     private final EstoqueService estoqueService;
     private final ContaReceberService contaReceberService;
-    private final ProcedimentoProdutoRepository procedimentoProdutoRepository;
-    private final NotificacaoService notificacaoService;
+    private final NotificacaoOutboxService notificacaoOutboxService;
+    private final DisponibilidadeIndex disponibilidadeIndex;
+    private final BloqueioAgendaService bloqueioAgendaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${agenda.expediente.inicio:08:00}")
+    private String inicioExpediente;
+
+    @Value("${agenda.expediente.fim:20:00}")
+    private String fimExpediente;
+
+    @Value("${agenda.horarios-livres.intervalo-minutos:15}")
+    private int intervaloSlotsMinutos;
+
+    @Value("${agenda.horarios-livres.max-dias:31}")
+    private int maxDiasBuscaHorarios;
+
+    /**
+     * Equipe do ambiente; vazio = esteticistas com agendamento nos últimos agenda.esteticistas-historico-dias
+     */
+    @Value("${agenda.esteticistas:}")
+    private List<String> esteticistas;
+
+    @Value("${agenda.esteticistas-historico-dias:90}")
+    private int historicoEsteticistasDias;
+
+    @Value("${agenda.admissao.otimista:false}")
+    private boolean admissaoOtimista;
 
     @Transactional(readOnly = true)
     public List<Agendamento> listarTodos() {
@@ -94,7 +147,8 @@ public class AgendamentoService {
     @Transactional(readOnly = true)
     public List<Agendamento> buscarAgendamentosHoje() {
         log.debug("Buscando agendamentos de hoje");
-        return agendamentoRepository.findAgendamentosHoje();
+        JanelaTempo hoje = JanelaTempo.hoje();
+        return agendamentoRepository.findAgendamentosAtivosPeriodo(hoje.getInicio(), hoje.getFim());
     }
 
     @Transactional(readOnly = true)
@@ -105,8 +159,22 @@ public class AgendamentoService {
 
     @Transactional(readOnly = true)
     public boolean verificarDisponibilidade(String esteticista, LocalDateTime inicio, LocalDateTime fim) {
+        return verificarDisponibilidade(esteticista, inicio, fim, null);
+    }
+
+    /**
+     * Consulta o índice em memória; cai no banco quando o período não está coberto pelo índice.
+     * O próprio agendamento ({@code ignorarId}) não conta como conflito.
+     */
+    @Transactional(readOnly = true)
+    public boolean verificarDisponibilidade(String esteticista, LocalDateTime inicio, LocalDateTime fim, Long ignorarId) {
         log.debug("Verificando disponibilidade da esteticista {} de {} a {}", esteticista, inicio, fim);
-        return !agendamentoRepository.existsConflito(esteticista, inicio, fim);
+
+        if (disponibilidadeIndex.cobre(inicio)) {
+            return !disponibilidadeIndex.existeConflito(esteticista, inicio, fim, ignorarId);
+        }
+
+        return !existeConflitoNoBanco(esteticista, inicio, fim, ignorarId);
     }
 
     /**
@@ -118,22 +186,20 @@ public class AgendamentoService {
 
         validarAgendamento(agendamento);
         validarClienteAtivo(agendamento.getCliente().getId());
-        validarProcedimentoAtivo(agendamento.getProcedimento().getId());
-
-        Procedimento procedimento = procedimentoService.buscarPorId(agendamento.getProcedimento().getId());
+        ProcedimentoResponse procedimento = buscarProcedimentoAtivo(agendamento.getProcedimento().getId());
 
         // Verificar conflito de horário
-        if (!verificarDisponibilidade(agendamento.getEsteticista(),
+        garantirDisponibilidade(agendamento.getEsteticista(),
                 agendamento.getDataHora(),
-                agendamento.getDataHoraFim())) {
-            throw new BusinessException("Horário já ocupado para esta esteticista");
-        }
+                agendamento.getDataHoraFim(),
+                null,
+                "Horário já ocupado para esta esteticista");
 
         // Validar estoque disponível
         validarEstoqueProdutos(procedimento.getId());
 
         // Calcular valores
-        calcularValores(agendamento, procedimento);
+        calcularValores(agendamento, procedimento.getPreco());
 
         // Status AGENDADO (já aprovado)
         agendamento.setStatus(StatusAgendamento.AGENDADO);
@@ -141,18 +207,90 @@ public class AgendamentoService {
         agendamento.setLembreteEnviado(false);
         agendamento.setPago(false);
 
-        Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        Agendamento agendamentoSalvo = salvarReservandoHorario(agendamento, "Horário já ocupado para esta esteticista");
+        publicarAlteracao(agendamentoSalvo);
 
         // Criar conta a receber
         contaReceberService.criarDeAgendamento(agendamentoSalvo);
 
         // Enviar confirmação ao cliente
-        notificacaoService.enviarConfirmacaoAgendamento(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.CONFIRMACAO_AGENDAMENTO, agendamentoSalvo);
 
         log.info("Agendamento direto criado com sucesso. ID: {}", agendamentoSalvo.getId());
         return agendamentoSalvo;
     }
 
+    /**
+     * Cria série de sessões já aprovadas (pacotes de tratamento) em uma única transação.
+     * Valida cliente, procedimento e estoque uma vez e todas as sessões contra
+     * uma única consulta dos horários ocupados no período da série.
+     */
+    @Transactional
+    public List<Agendamento> criarSerieAgendamentos(Agendamento primeiraSessao, int quantidadeSessoes, int intervaloDias) {
+        log.info("Criando série de {} agendamentos a cada {} dias", quantidadeSessoes, intervaloDias);
+
+        validarAgendamento(primeiraSessao);
+
+        if (quantidadeSessoes < 2) {
+            throw new BusinessException("Série deve ter no mínimo 2 sessões");
+        }
+
+        if (intervaloDias < 1) {
+            throw new BusinessException("Intervalo mínimo entre sessões é 1 dia");
+        }
+
+        Cliente cliente = clienteService.buscarPorId(primeiraSessao.getCliente().getId());
+        if (cliente.getStatus() != StatusCliente.ATIVO) {
+            throw new BusinessException("Cliente inativo não pode fazer novos agendamentos");
+        }
+
+        Procedimento procedimento = procedimentoService.buscarPorId(primeiraSessao.getProcedimento().getId());
+        if (!procedimento.getAtivo()) {
+            throw new BusinessException("Procedimento inativo não pode ser agendado");
+        }
+
+        validarEstoqueProdutos(procedimento.getId());
+
+        List<Agendamento> sessoes = new ArrayList<>(quantidadeSessoes);
+        for (int i = 0; i < quantidadeSessoes; i++) {
+            Agendamento sessao = novaSessaoDaSerie(primeiraSessao, cliente, procedimento,
+                    primeiraSessao.getDataHora().plusDays((long) i * intervaloDias));
+            calcularValores(sessao, procedimento.getPreco());
+            sessoes.add(sessao);
+        }
+
+        // Verificar conflitos de todas as sessões com uma única consulta
+        String esteticista = primeiraSessao.getEsteticista();
+        if (!admissaoOtimista) {
+            bloqueioAgendaService.bloquear(esteticista);
+        }
+        List<IntervaloAgendamento> ocupados = agendamentoRepository.findIntervalosOcupadosEsteticistaPeriodo(
+                esteticista, sessoes.get(0).getDataHora(), sessoes.get(sessoes.size() - 1).getDataHoraFim());
+        List<Agendamento> emConflito = sessoesEmConflito(sessoes, mesclarOcupados(ocupados));
+
+        if (!emConflito.isEmpty()) {
+            throw new BusinessException("Horário já ocupado para esta esteticista nas sessões de: " +
+                    String.join(", ", emConflito.stream()
+                            .map(sessao -> sessao.getDataHora().format(DATETIME_FORMATTER))
+                            .toList()));
+        }
+
+        List<Agendamento> sessoesSalvas = traduzirSobreposicao(
+                () -> agendamentoRepository.saveAllAndFlush(sessoes),
+                "Horário já ocupado para esta esteticista em uma das sessões da série",
+                esteticista, primeiraSessao.getDataHora());
+        sessoesSalvas.forEach(this::publicarAlteracao);
+
+        contaReceberService.criarDeAgendamentos(sessoesSalvas);
+
+        // Uma única notificação com todas as sessões
+        notificacaoOutboxService.registrarConfirmacaoSerie(sessoesSalvas);
+
+        log.info("Série de agendamentos criada com sucesso. IDs: {} a {}",
+                sessoesSalvas.get(0).getId(), sessoesSalvas.get(sessoesSalvas.size() - 1).getId());
+        return sessoesSalvas;
+    }
+
     /**
      * Cria solicitação de agendamento (PENDENTE) - Para app/site cliente
      */
@@ -162,9 +300,7 @@ public class AgendamentoService {
 
         validarAgendamento(agendamento);
         validarClienteAtivo(agendamento.getCliente().getId());
-        validarProcedimentoAtivo(agendamento.getProcedimento().getId());
-
-        Procedimento procedimento = procedimentoService.buscarPorId(agendamento.getProcedimento().getId());
+        ProcedimentoResponse procedimento = buscarProcedimentoAtivo(agendamento.getProcedimento().getId());
 
         // Verificar conflito de horário (alerta, mas permite criar)
         boolean horarioDisponivel = verificarDisponibilidade(
@@ -178,7 +314,7 @@ public class AgendamentoService {
         }
 
         // Calcular valores
-        calcularValores(agendamento, procedimento);
+        calcularValores(agendamento, procedimento.getPreco());
 
         // Status PENDENTE (aguardando aprovação)
         agendamento.setStatus(StatusAgendamento.PENDENTE);
@@ -187,12 +323,13 @@ public class AgendamentoService {
         agendamento.setPago(false);
 
         Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        publicarAlteracao(agendamentoSalvo);
 
         // Notificar esteticista sobre nova solicitação
-        notificacaoService.notificarEsteticistaNovoAgendamento(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.NOVA_SOLICITACAO_ESTETICISTA, agendamentoSalvo);
 
         // Notificar cliente que solicitação foi recebida
-        notificacaoService.enviarConfirmacaoSolicitacao(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.CONFIRMACAO_SOLICITACAO, agendamentoSalvo);
 
         log.info("Solicitação de agendamento criada com sucesso. ID: {}", agendamentoSalvo.getId());
         return agendamentoSalvo;
@@ -213,24 +350,26 @@ public class AgendamentoService {
         }
 
         // Verificar conflito de horário novamente
-        if (!verificarDisponibilidade(agendamento.getEsteticista(),
+        garantirDisponibilidade(agendamento.getEsteticista(),
                 agendamento.getDataHora(),
-                agendamento.getDataHoraFim())) {
-            throw new BusinessException("Horário não está mais disponível. Sugira outro horário ao cliente.");
-        }
+                agendamento.getDataHoraFim(),
+                agendamento.getId(),
+                "Horário não está mais disponível. Sugira outro horário ao cliente.");
 
         // Validar estoque disponível
         validarEstoqueProdutos(agendamento.getProcedimento().getId());
 
         agendamento.setStatus(StatusAgendamento.AGENDADO);
 
-        Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        Agendamento agendamentoSalvo = salvarReservandoHorario(agendamento,
+                "Horário não está mais disponível. Sugira outro horário ao cliente.");
+        publicarAlteracao(agendamentoSalvo);
 
         // Criar conta a receber
         contaReceberService.criarDeAgendamento(agendamentoSalvo);
 
         // Notificar cliente sobre aprovação
-        notificacaoService.enviarAprovacaoAgendamento(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.APROVACAO, agendamentoSalvo);
 
         log.info("Agendamento aprovado com sucesso. ID: {}", id);
         return agendamentoSalvo;
@@ -252,9 +391,8 @@ public class AgendamentoService {
         // Verificar disponibilidade no novo horário
         LocalDateTime novaDataHoraFim = novaDataHora.plusMinutes(agendamento.getDuracaoMinutos());
 
-        if (!verificarDisponibilidade(agendamento.getEsteticista(), novaDataHora, novaDataHoraFim)) {
-            throw new BusinessException("Novo horário sugerido não está disponível");
-        }
+        garantirDisponibilidade(agendamento.getEsteticista(), novaDataHora, novaDataHoraFim,
+                agendamento.getId(), "Novo horário sugerido não está disponível");
 
         // Atualizar horário
         agendamento.setDataHora(novaDataHora);
@@ -268,9 +406,10 @@ public class AgendamentoService {
         agendamento.setStatus(StatusAgendamento.PENDENTE);
 
         Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        publicarAlteracao(agendamentoSalvo);
 
         // Notificar cliente sobre nova proposta de horário
-        notificacaoService.enviarPropostaNovoHorario(agendamentoSalvo, novaDataHora, motivo);
+        notificacaoOutboxService.registrarPropostaNovoHorario(agendamentoSalvo, novaDataHora, motivo);
 
         log.info("Nova proposta de horário enviada ao cliente. Agendamento ID: {}", id);
         return agendamentoSalvo;
@@ -311,11 +450,11 @@ public class AgendamentoService {
                 !agendamentoExistente.getEsteticista().equals(agendamentoAtualizado.getEsteticista());
 
         if (mudouHorario) {
-            if (!verificarDisponibilidade(agendamentoAtualizado.getEsteticista(),
+            garantirDisponibilidade(agendamentoAtualizado.getEsteticista(),
                     agendamentoAtualizado.getDataHora(),
-                    agendamentoAtualizado.getDataHoraFim())) {
-                throw new BusinessException("Horário já ocupado para esta esteticista");
-            }
+                    agendamentoAtualizado.getDataHoraFim(),
+                    id,
+                    "Horário já ocupado para esta esteticista");
         }
 
         // Atualizar campos
@@ -331,7 +470,9 @@ public class AgendamentoService {
                         agendamentoAtualizado.getValorDesconto() : BigDecimal.ZERO);
         agendamentoExistente.setValorTotal(valorTotal);
 
-        Agendamento agendamentoSalvo = agendamentoRepository.save(agendamentoExistente);
+        Agendamento agendamentoSalvo = salvarReservandoHorario(agendamentoExistente,
+                "Horário já ocupado para esta esteticista");
+        publicarAlteracao(agendamentoSalvo);
         log.info("Agendamento atualizado com sucesso. ID: {}", id);
         return agendamentoSalvo;
     }
@@ -351,6 +492,7 @@ public class AgendamentoService {
         agendamento.setStatus(StatusAgendamento.CONFIRMADO);
 
         Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        publicarAlteracao(agendamentoSalvo);
         log.info("Agendamento confirmado com sucesso. ID: {}", id);
         return agendamentoSalvo;
     }
@@ -370,9 +512,10 @@ public class AgendamentoService {
         agendamento.setMotivoCancelamento(motivoCancelamento);
 
         Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        publicarAlteracao(agendamentoSalvo);
 
         // Notificar cliente sobre cancelamento
-        notificacaoService.enviarCancelamentoAgendamento(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.CANCELAMENTO, agendamentoSalvo);
 
         log.info("Agendamento cancelado com sucesso. ID: {}", id);
         return agendamentoSalvo;
@@ -390,12 +533,12 @@ public class AgendamentoService {
         }
 
         // Dar baixa nos produtos do estoque
-        List<ProcedimentoProduto> produtos = procedimentoProdutoRepository
-                .findByProcedimentoId(agendamento.getProcedimento().getId());
+        List<ProcedimentoResponse.ProdutoUtilizadoResponse> produtos = procedimentoService
+                .buscarProdutosUtilizados(agendamento.getProcedimento().getId());
 
-        for (ProcedimentoProduto pp : produtos) {
+        for (ProcedimentoResponse.ProdutoUtilizadoResponse pp : produtos) {
             estoqueService.registrarSaida(
-                    pp.getProduto().getId(),
+                    pp.getProdutoId(),
                     pp.getQuantidadeUtilizada(),
                     "Utilizado em procedimento - Agendamento #" + id,
                     agendamento.getId()
@@ -411,6 +554,7 @@ public class AgendamentoService {
         );
 
         Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        publicarAlteracao(agendamentoSalvo);
         log.info("Agendamento realizado com sucesso. ID: {}", id);
         return agendamentoSalvo;
     }
@@ -429,19 +573,20 @@ public class AgendamentoService {
         LocalDateTime novaDataHoraFim = novaDataHora.plusMinutes(agendamento.getDuracaoMinutos());
 
         // Verificar disponibilidade no novo horário
-        if (!verificarDisponibilidade(agendamento.getEsteticista(), novaDataHora, novaDataHoraFim)) {
-            throw new BusinessException("Novo horário já está ocupado para esta esteticista");
-        }
+        garantirDisponibilidade(agendamento.getEsteticista(), novaDataHora, novaDataHoraFim,
+                agendamento.getId(), "Novo horário já está ocupado para esta esteticista");
 
         agendamento.setDataHora(novaDataHora);
         agendamento.setDataHoraFim(novaDataHoraFim);
         agendamento.setConfirmado(false);
         agendamento.setLembreteEnviado(false);
 
-        Agendamento agendamentoSalvo = agendamentoRepository.save(agendamento);
+        Agendamento agendamentoSalvo = salvarReservandoHorario(agendamento,
+                "Novo horário já está ocupado para esta esteticista");
+        publicarAlteracao(agendamentoSalvo);
 
         // Notificar cliente sobre reagendamento
-        notificacaoService.enviarNotificacaoReagendamento(agendamentoSalvo);
+        notificacaoOutboxService.registrar(TipoNotificacao.REAGENDAMENTO, agendamentoSalvo);
 
         log.info("Agendamento reagendado com sucesso. ID: {}", id);
         return agendamentoSalvo;
@@ -458,34 +603,349 @@ public class AgendamentoService {
         }
 
         agendamentoRepository.deleteById(id);
+        eventPublisher.publishEvent(AgendamentoAlteradoEvent.removido(agendamento));
         log.info("Agendamento deletado com sucesso. ID: {}", id);
     }
 
+    /**
+     * Agendamentos não cancelados de hoje, já como itens de calendário (uma consulta, sem entidades)
+     */
+    @Transactional(readOnly = true)
+    public List<CalendarioItemResponse> listarAgendaHoje() {
+        JanelaTempo hoje = JanelaTempo.hoje();
+        return agendamentoRepository.findCalendario(hoje.getInicio(), hoje.getFim());
+    }
+
     @Transactional(readOnly = true)
     public Long contarAgendamentosHoje() {
-        return agendamentoRepository.countAgendamentosHoje();
+        JanelaTempo hoje = JanelaTempo.hoje();
+        return agendamentoRepository.countAgendamentosAtivosPeriodo(hoje.getInicio(), hoje.getFim());
     }
 
     @Transactional(readOnly = true)
     public Long contarAgendamentosMes() {
-        return agendamentoRepository.countAgendamentosMes();
+        JanelaTempo mes = JanelaTempo.mesAtual();
+        return agendamentoRepository.countAgendamentosAtivosPeriodo(mes.getInicio(), mes.getFim());
     }
 
     @Transactional(readOnly = true)
-    public List<Agendamento> buscarAgendamentosSemLembrete() {
-        return agendamentoRepository.findAgendamentosSemLembrete();
+    public long contarAgendamentosSemLembrete() {
+        return agendamentoRepository.countAgendamentosSemLembrete();
     }
 
+    /**
+     * Marca um lote de lembretes como enviados em um único UPDATE
+     */
     @Transactional
-    public void marcarLembreteEnviado(Long id) {
-        Agendamento agendamento = buscarPorId(id);
-        agendamento.setLembreteEnviado(true);
-        agendamentoRepository.save(agendamento);
-        log.debug("Lembrete marcado como enviado para agendamento ID: {}", id);
+    public int marcarLembretesEnviados(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return agendamentoRepository.marcarLembretesEnviados(ids);
+    }
+
+    // ==================== CALENDÁRIO ====================
+
+    /**
+     * Agenda do dia, da semana (segunda a domingo) ou do mês que contém a data.
+     * Uma única consulta com cliente e procedimento, sem carregar entidades.
+     */
+    @Transactional(readOnly = true)
+    public CalendarioResponse buscarCalendario(VisaoCalendario visao, LocalDate data, String esteticista) {
+        LocalDate inicio = switch (visao) {
+            case DIA -> data;
+            case SEMANA -> data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> data.withDayOfMonth(1);
+        };
+        LocalDate fim = switch (visao) {
+            case DIA -> inicio.plusDays(1);
+            case SEMANA -> inicio.plusWeeks(1);
+            case MES -> inicio.plusMonths(1);
+        };
+
+        log.debug("Buscando calendário {} de {} a {} - Esteticista: {}",
+                visao, inicio, fim, esteticista != null ? esteticista : "todas");
+
+        boolean todas = esteticista == null || esteticista.isBlank();
+        List<CalendarioItemResponse> agendamentos = todas
+                ? agendamentoRepository.findCalendario(inicio.atStartOfDay(), fim.atStartOfDay())
+                : agendamentoRepository.findCalendarioEsteticista(esteticista, inicio.atStartOfDay(), fim.atStartOfDay());
+
+        return CalendarioResponse.builder()
+                .visao(visao)
+                .inicio(inicio)
+                .fim(fim.minusDays(1))
+                .esteticista(todas ? null : esteticista)
+                .totalAgendamentos(agendamentos.size())
+                .agendamentos(agendamentos)
+                .build();
+    }
+
+    // ==================== HORÁRIOS LIVRES ====================
+
+    /**
+     * Lista os horários livres de uma duração no período, para uma esteticista ou todas.
+     * Carrega os horários ocupados em uma única consulta e calcula as lacunas por varredura.
+     */
+    @Transactional(readOnly = true)
+    public List<HorarioLivreResponse> buscarHorariosLivres(LocalDate dataInicio, LocalDate dataFim,
+                                                           Integer duracaoMinutos, String esteticista) {
+        log.debug("Buscando horários livres de {} min entre {} e {} - Esteticista: {}",
+                duracaoMinutos, dataInicio, dataFim, esteticista != null ? esteticista : "todas");
+
+        if (duracaoMinutos == null || duracaoMinutos <= 0) {
+            throw new BusinessException("Duração deve ser maior que zero");
+        }
+
+        if (dataFim.isBefore(dataInicio)) {
+            throw new BusinessException("Data final deve ser igual ou posterior à data inicial");
+        }
+
+        if (ChronoUnit.DAYS.between(dataInicio, dataFim) >= maxDiasBuscaHorarios) {
+            throw new BusinessException("Período máximo para busca de horários é de " + maxDiasBuscaHorarios + " dias");
+        }
+
+        LocalTime abertura = LocalTime.parse(inicioExpediente);
+        LocalTime fechamento = LocalTime.parse(fimExpediente);
+        LocalDateTime inicio = dataInicio.atTime(abertura);
+        LocalDateTime fim = dataFim.atTime(fechamento);
+        boolean todas = esteticista == null || esteticista.isBlank();
+
+        List<IntervaloAgendamento> ocupados = todas
+                ? agendamentoRepository.findIntervalosOcupadosPeriodo(inicio, fim)
+                : agendamentoRepository.findIntervalosOcupadosEsteticistaPeriodo(esteticista, inicio, fim);
+
+        // Ordenado por esteticista e início (ORDER BY da consulta)
+        Map<String, List<IntervaloAgendamento>> porEsteticista = new TreeMap<>();
+        if (todas) {
+            listarEsteticistas(dataInicio).forEach(nome -> porEsteticista.put(nome, new ArrayList<>()));
+        } else {
+            porEsteticista.put(esteticista, new ArrayList<>());
+        }
+        ocupados.forEach(intervalo -> porEsteticista
+                .computeIfAbsent(intervalo.getEsteticista(), e -> new ArrayList<>())
+                .add(intervalo));
+
+        Duration duracao = Duration.ofMinutes(duracaoMinutos);
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<HorarioLivreResponse> livres = new ArrayList<>();
+        porEsteticista.forEach((nome, intervalos) ->
+                varrerAgenda(nome, mesclarOcupados(intervalos), dataInicio, dataFim,
+                        abertura, fechamento, duracao, agora, livres));
+
+        log.debug("{} horários livres encontrados a partir de {} horários ocupados", livres.size(), ocupados.size());
+        return livres;
+    }
+
+    /**
+     * Esteticistas que entram na busca sem filtro, mesmo sem nenhum horário ocupado no período
+     */
+    private List<String> listarEsteticistas(LocalDate dataInicio) {
+        List<String> configuradas = esteticistas.stream()
+                .map(String::trim)
+                .filter(nome -> !nome.isEmpty())
+                .toList();
+        if (!configuradas.isEmpty()) {
+            return configuradas;
+        }
+        return agendamentoRepository.findEsteticistasDesde(
+                dataInicio.minusDays(historicoEsteticistasDias).atStartOfDay());
+    }
+
+    @Transactional(readOnly = true)
+    public ConsistenciaIndiceResponse verificarConsistenciaIndice(boolean recarregarSeDivergente) {
+        return disponibilidadeIndex.verificarConsistencia(recarregarSeDivergente);
     }
 
     // ==================== MÉTODOS AUXILIARES ====================
 
+    /**
+     * Rejeita rápido pelo índice antes de gravar.
+     *
+     * - Padrão: bloqueia a agenda até o fim da transação e confirma no banco,
+     *   sem que outra reserva da mesma esteticista intercale entre a verificação e o save
+     * - Admissão otimista: a constraint agendamento_sem_sobreposicao decide no insert/update
+     *   (violação convertida em BusinessException por traduzirSobreposicao)
+     */
+    private void garantirDisponibilidade(String esteticista, LocalDateTime inicio, LocalDateTime fim,
+                                         Long ignorarId, String mensagem) {
+        if (!verificarDisponibilidade(esteticista, inicio, fim, ignorarId)) {
+            throw new BusinessException(mensagem);
+        }
+
+        if (admissaoOtimista) {
+            return;
+        }
+
+        bloqueioAgendaService.bloquear(esteticista);
+
+        if (existeConflitoNoBanco(esteticista, inicio, fim, ignorarId)) {
+            log.warn("Conflito detectado após bloquear a agenda de {} em {}", esteticista, inicio);
+            throw new BusinessException(mensagem);
+        }
+    }
+
+    /**
+     * Grava com flush imediato para que a violação da constraint de sobreposição
+     * apareça aqui, convertida na mesma BusinessException da verificação prévia
+     */
+    private Agendamento salvarReservandoHorario(Agendamento agendamento, String mensagem) {
+        return traduzirSobreposicao(() -> agendamentoRepository.saveAndFlush(agendamento),
+                mensagem, agendamento.getEsteticista(), agendamento.getDataHora());
+    }
+
+    private <T> T traduzirSobreposicao(Supplier<T> gravacao, String mensagem,
+                                       String esteticista, LocalDateTime dataHora) {
+        try {
+            return gravacao.get();
+        } catch (DataIntegrityViolationException e) {
+            if (violouSobreposicao(e)) {
+                log.warn("Sobreposição rejeitada pelo banco - Esteticista: {}, Horário: {}",
+                        esteticista, dataHora);
+                throw new BusinessException(mensagem);
+            }
+            throw e;
+        }
+    }
+
+    private Agendamento novaSessaoDaSerie(Agendamento modelo, Cliente cliente, Procedimento procedimento,
+                                          LocalDateTime dataHora) {
+        return Agendamento.builder()
+                .cliente(cliente)
+                .procedimento(procedimento)
+                .esteticista(modelo.getEsteticista())
+                .dataHora(dataHora)
+                .dataHoraFim(dataHora.plusMinutes(modelo.getDuracaoMinutos()))
+                .duracaoMinutos(modelo.getDuracaoMinutos())
+                .valorDesconto(modelo.getValorDesconto() != null ? modelo.getValorDesconto() : BigDecimal.ZERO)
+                .formaPagamento(modelo.getFormaPagamento())
+                .observacoes(modelo.getObservacoes())
+                .status(StatusAgendamento.AGENDADO)
+                .confirmado(false)
+                .lembreteEnviado(false)
+                .pago(false)
+                .build();
+    }
+
+    /**
+     * Sessões (ordenadas por início) que colidem com algum bloco ocupado, em uma passada
+     */
+    private List<Agendamento> sessoesEmConflito(List<Agendamento> sessoes, List<LocalDateTime[]> blocos) {
+        List<Agendamento> emConflito = new ArrayList<>();
+        int bloco = 0;
+
+        for (Agendamento sessao : sessoes) {
+            while (bloco < blocos.size() && !blocos.get(bloco)[1].isAfter(sessao.getDataHora())) {
+                bloco++;
+            }
+            if (bloco < blocos.size() && !blocos.get(bloco)[0].isAfter(sessao.getDataHoraFim())) {
+                emConflito.add(sessao);
+            }
+        }
+        return emConflito;
+    }
+
+    private boolean violouSobreposicao(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sqlException
+                    && SQLSTATE_EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+            if (causa.getMessage() != null && causa.getMessage().contains(CONSTRAINT_SOBREPOSICAO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean existeConflitoNoBanco(String esteticista, LocalDateTime inicio, LocalDateTime fim, Long ignorarId) {
+        if (ignorarId == null) {
+            return agendamentoRepository.existsConflito(esteticista, inicio, fim);
+        }
+        return agendamentoRepository.existsConflitoIgnorando(esteticista, inicio, fim, ignorarId);
+    }
+
+    /**
+     * Junta intervalos ordenados por início em blocos ocupados contínuos
+     */
+    private List<LocalDateTime[]> mesclarOcupados(List<IntervaloAgendamento> intervalos) {
+        List<LocalDateTime[]> blocos = new ArrayList<>();
+        LocalDateTime[] atual = null;
+
+        for (IntervaloAgendamento intervalo : intervalos) {
+            if (atual != null && !intervalo.getInicio().isAfter(atual[1])) {
+                if (intervalo.getFim().isAfter(atual[1])) {
+                    atual[1] = intervalo.getFim();
+                }
+            } else {
+                atual = new LocalDateTime[]{intervalo.getInicio(), intervalo.getFim()};
+                blocos.add(atual);
+            }
+        }
+        return blocos;
+    }
+
+    /**
+     * Percorre dias e blocos ocupados uma única vez, emitindo os horários nas lacunas do expediente
+     */
+    private void varrerAgenda(String esteticista, List<LocalDateTime[]> blocos, LocalDate dataInicio,
+                              LocalDate dataFim, LocalTime horaAbertura, LocalTime horaFechamento,
+                              Duration duracao, LocalDateTime agora, List<HorarioLivreResponse> livres) {
+        int proximo = 0;
+
+        for (LocalDate dia = dataInicio; !dia.isAfter(dataFim); dia = dia.plusDays(1)) {
+            LocalDateTime abertura = dia.atTime(horaAbertura);
+            LocalDateTime fechamento = dia.atTime(horaFechamento);
+
+            while (proximo < blocos.size() && !blocos.get(proximo)[1].isAfter(abertura)) {
+                proximo++;
+            }
+
+            LocalDateTime livreDesde = abertura;
+            int i = proximo;
+            while (i < blocos.size() && !blocos.get(i)[0].isAfter(fechamento)) {
+                // existsConflito trata início do ocupado == fim do horário como conflito
+                emitirHorarios(esteticista, abertura, livreDesde, blocos.get(i)[0], true, duracao, agora, livres);
+                if (blocos.get(i)[1].isAfter(livreDesde)) {
+                    livreDesde = blocos.get(i)[1];
+                }
+                i++;
+            }
+            emitirHorarios(esteticista, abertura, livreDesde, fechamento, false, duracao, agora, livres);
+        }
+    }
+
+    private void emitirHorarios(String esteticista, LocalDateTime abertura, LocalDateTime livreDesde,
+                                LocalDateTime livreAte, boolean limiteOcupado, Duration duracao,
+                                LocalDateTime agora, List<HorarioLivreResponse> livres) {
+        // Primeiro horário da grade do dia que não começa antes de livreDesde nem no passado
+        LocalDateTime desde = livreDesde.isBefore(agora) ? agora : livreDesde;
+        Duration decorrido = Duration.between(abertura, desde);
+        long segundos = decorrido.getSeconds() + (decorrido.getNano() > 0 ? 1 : 0);
+        long passoSegundos = intervaloSlotsMinutos * 60L;
+        long passos = (segundos + passoSegundos - 1) / passoSegundos;
+        LocalDateTime slot = abertura.plusMinutes(passos * intervaloSlotsMinutos);
+
+        while (true) {
+            LocalDateTime slotFim = slot.plus(duracao);
+            boolean cabe = limiteOcupado ? slotFim.isBefore(livreAte) : !slotFim.isAfter(livreAte);
+            if (!cabe) {
+                break;
+            }
+            livres.add(HorarioLivreResponse.builder()
+                    .esteticista(esteticista)
+                    .inicio(slot)
+                    .fim(slotFim)
+                    .build());
+            slot = slot.plusMinutes(intervaloSlotsMinutos);
+        }
+    }
+
+    private void publicarAlteracao(Agendamento agendamento) {
+        eventPublisher.publishEvent(AgendamentoAlteradoEvent.de(agendamento));
+    }
+
     private void validarAgendamento(Agendamento agendamento) {
         if (agendamento.getDataHora() == null) {
             throw new BusinessException("Data e hora do agendamento são obrigatórios");
@@ -519,24 +979,24 @@ public class AgendamentoService {
         }
     }
 
-    private void validarProcedimentoAtivo(Long procedimentoId) {
-        Procedimento procedimento = procedimentoService.buscarPorId(procedimentoId);
+    private ProcedimentoResponse buscarProcedimentoAtivo(Long procedimentoId) {
+        ProcedimentoResponse procedimento = procedimentoService.buscarResumo(procedimentoId);
         if (!procedimento.getAtivo()) {
             throw new BusinessException("Procedimento inativo não pode ser agendado");
         }
+        return procedimento;
     }
 
     private void validarEstoqueProdutos(Long procedimentoId) {
-        List<ProcedimentoProduto> produtos = procedimentoProdutoRepository
-                .findByProcedimentoId(procedimentoId);
+        List<ProcedimentoResponse.ProdutoUtilizadoResponse> produtos = procedimentoService
+                .buscarProdutosUtilizados(procedimentoId);
 
-        for (ProcedimentoProduto pp : produtos) {
-            estoqueService.validarEstoqueDisponivel(pp.getProduto().getId(), pp.getQuantidadeUtilizada());
+        for (ProcedimentoResponse.ProdutoUtilizadoResponse pp : produtos) {
+            estoqueService.validarEstoqueDisponivel(pp.getProdutoId(), pp.getQuantidadeUtilizada());
         }
     }
 
-    private void calcularValores(Agendamento agendamento, Procedimento procedimento) {
-        BigDecimal valorProcedimento = procedimento.getPreco();
+    private void calcularValores(Agendamento agendamento, BigDecimal valorProcedimento) {
         BigDecimal valorDesconto = agendamento.getValorDesconto() != null ?
                 agendamento.getValorDesconto() : BigDecimal.ZERO;
         BigDecimal valorTotal = valorProcedimento.subtract(valorDesconto);
@@ -1,5 +1,7 @@
 package com.clinica.estetica.service;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.event.SenhaAlteradaEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.UnauthorizedException;
 import com.clinica.estetica.mapper.UsuarioMapper;
@@ -8,8 +10,10 @@ import com.clinica.estetica.model.dto.response.UsuarioResponse;
 import com.clinica.estetica.model.entity.Usuario;
 import com.clinica.estetica.repository.UsuarioRepository;
 import com.clinica.estetica.security.JwtTokenProvider;
+import com.clinica.estetica.security.RevogacaoTokens;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,19 +33,20 @@ public class AuthService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final UsuarioMapper usuarioMapper;
+    private final RevogacaoTokens revogacaoTokens;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public LoginResponse login(String username, String password) {
         log.info("Tentativa de login para o usuário: {}", username);
 
         try {
-            // Autenticar usuário
-            Authentication authentication = authenticationManager.authenticate(
+            // Autenticar usuário (BCrypt). Roda no loginExecutor; a API é stateless,
+            // então nada vai para o SecurityContext desta thread
+            authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(username, password)
             );
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
             // Buscar usuário
             Usuario usuario = usuarioRepository.findByUsername(username)
                     .orElseThrow(() -> new UnauthorizedException("Usuário não encontrado"));
@@ -51,8 +56,8 @@ public class AuthService {
                 throw new UnauthorizedException("Usuário inativo");
             }
 
-            // Gerar token JWT
-            String token = tokenProvider.generateToken(authentication);
+            // Gerar token JWT (leva perfil e versão de segurança)
+            String token = tokenProvider.generateToken(usuario);
 
             // Criar resposta usando mapper
             LoginResponse response = usuarioMapper.toLoginResponse(token, usuario);
@@ -67,6 +72,13 @@ public class AuthService {
     }
 
     public void logout() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // Revoga o token usado na requisição até ele expirar
+        if (authentication != null && authentication.getCredentials() instanceof DecodedJWT jwt) {
+            revogacaoTokens.revogar(jwt);
+        }
+
         log.info("Logout realizado");
         SecurityContextHolder.clearContext();
     }
@@ -143,15 +155,11 @@ public class AuthService {
         log.info("Renovando token JWT");
 
         // Validar token antigo
-        if (!tokenProvider.validateToken(oldToken)) {
+        DecodedJWT jwt = tokenProvider.verificar(oldToken);
+        if (jwt == null || jwt.getSubject() == null || revogacaoTokens.revogado(jwt)) {
             throw new UnauthorizedException("Token inválido ou expirado");
         }
-
-        // Extrair username do token antigo
-        String username = tokenProvider.getUsernameFromToken(oldToken);
-        if (username == null) {
-            throw new UnauthorizedException("Token inválido");
-        }
+        String username = jwt.getSubject();
 
         // Buscar usuário
         Usuario usuario = usuarioRepository.findByUsername(username)
@@ -162,8 +170,13 @@ public class AuthService {
             throw new UnauthorizedException("Usuário inativo");
         }
 
+        // Token emitido antes de inativação ou troca de perfil não é renovado
+        if (!usuario.getVersaoSeguranca().equals(jwt.getClaim(JwtTokenProvider.CLAIM_VERSAO).asInt())) {
+            throw new UnauthorizedException("Token inválido ou expirado");
+        }
+
         // Gerar novo token
-        String newToken = tokenProvider.generateToken(username);
+        String newToken = tokenProvider.generateToken(usuario);
 
         log.info("Token renovado com sucesso para o usuário: {}", username);
         return newToken;
@@ -195,6 +208,9 @@ public class AuthService {
         usuario.setPasswordHash(novaSenhaCriptografada);
 
         usuarioRepository.save(usuario);
+
+        // Tokens emitidos antes da troca (inclusive o atual) deixam de valer
+        eventPublisher.publishEvent(new SenhaAlteradaEvent(usuario.getUsername()));
         log.info("Senha alterada com sucesso para o usuário: {}", usuario.getUsername());
     }
 
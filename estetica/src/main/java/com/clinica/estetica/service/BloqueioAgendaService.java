@@ -0,0 +1,72 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admissão de agendamentos serializada por esteticista.
+ *
+ * - Lock em memória por esteticista (agendas diferentes nunca disputam o mesmo lock)
+ * - pg_advisory_xact_lock com a mesma chave, para várias instâncias da aplicação
+ *
+ * Os dois locks valem até o fim da transação, então a verificação de conflito
+ * e o insert/update acontecem sem que outra reserva da mesma agenda intercale.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BloqueioAgendaService {
+
+    private final AgendamentoRepository agendamentoRepository;
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Value("${agenda.bloqueio.timeout-ms:5000}")
+    private long timeoutMs;
+
+    /**
+     * Bloqueia a agenda da esteticista até o commit/rollback da transação atual
+     */
+    public void bloquear(String esteticista) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Bloqueio de agenda exige uma transação ativa");
+        }
+
+        ReentrantLock lock = locks.computeIfAbsent(esteticista, e -> new ReentrantLock());
+        adquirir(lock, esteticista);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+
+        // Entre instâncias: liberado pelo próprio PostgreSQL no fim da transação
+        agendamentoRepository.bloquearAgendaEsteticista(esteticista);
+        log.debug("Agenda da esteticista {} bloqueada para a transação atual", esteticista);
+    }
+
+    private void adquirir(ReentrantLock lock, String esteticista) {
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Tempo esgotado aguardando a agenda da esteticista {}", esteticista);
+                throw new BusinessException("Agenda da esteticista está ocupada no momento. Tente novamente.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Reserva de horário interrompida. Tente novamente.");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.ResourceNotFoundException;
+import com.clinica.estetica.model.entity.CampanhaExecucao;
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.TipoCampanha;
+import com.clinica.estetica.repository.CampanhaExecucaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Checkpoint das campanhas em massa. Cada método é uma transação curta,
+ * chamada pelo CampanhaService entre páginas e a cada envio.
+ *
+ * Toda escrita do worker leva o token recebido em reivindicar; false significa
+ * que a execução passou para outro dono e o worker deve parar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampanhaCheckpointService {
+
+    private static final int TAMANHO_MAXIMO_ERRO = 2000;
+
+    private final CampanhaExecucaoRepository execucaoRepository;
+
+    /**
+     * Devolve a execução de (tipo, referência), criando-a se for a primeira vez
+     */
+    @Transactional
+    public CampanhaExecucao iniciar(TipoCampanha tipo, String referencia) {
+        execucaoRepository.criarSeNaoExistir(tipo.name(), referencia, LocalDateTime.now());
+        return execucaoRepository.findByTipoAndReferencia(tipo, referencia)
+                .orElseThrow(() -> new ResourceNotFoundException("Execução de campanha não encontrada: " + referencia));
+    }
+
+    /**
+     * true se esta instância passou a ser a dona da execução, identificada por dono
+     */
+    @Transactional
+    public boolean reivindicar(Long execucaoId, UUID dono, Duration prazo) {
+        LocalDateTime agora = LocalDateTime.now();
+        return execucaoRepository.reivindicar(execucaoId, dono, agora, agora.minus(prazo)) == 1;
+    }
+
+    /**
+     * Solta a execução para ser retomada na próxima varredura (se ainda for do dono)
+     */
+    @Transactional
+    public void liberar(Long execucaoId, UUID dono) {
+        execucaoRepository.liberar(execucaoId, dono);
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> clientesRegistrados(Long execucaoId, Collection<Long> clienteIds) {
+        if (clienteIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(execucaoRepository.findClientesRegistrados(execucaoId, clienteIds));
+    }
+
+    /**
+     * Registra o envio e renova o prazo da execução na mesma transação.
+     * false (e nada gravado) se a execução não é mais deste dono.
+     */
+    @Transactional
+    public boolean registrarEnvio(Long execucaoId, UUID dono, Long clienteId, String erro) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (execucaoRepository.renovar(execucaoId, dono, agora) == 0) {
+            log.warn("Campanha {} mudou de dono; envio para cliente ID {} não registrado", execucaoId, clienteId);
+            return false;
+        }
+        execucaoRepository.registrarEnvio(execucaoId, clienteId, erro == null, truncar(erro), agora);
+        return true;
+    }
+
+    @Transactional
+    public boolean avancar(Long execucaoId, UUID dono, Long ultimoClienteId) {
+        return execucaoRepository.avancarCheckpoint(execucaoId, dono, ultimoClienteId, LocalDateTime.now()) == 1;
+    }
+
+    /**
+     * Execução concluída, ou vazio se ela não é mais deste dono
+     */
+    @Transactional
+    public Optional<CampanhaExecucao> concluir(Long execucaoId, UUID dono) {
+        if (execucaoRepository.concluir(execucaoId, dono, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(buscarPorId(execucaoId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CampanhaExecucao> listarInterrompidas(Duration prazo) {
+        return execucaoRepository.findInterrompidas(LocalDateTime.now().minus(prazo));
+    }
+
+    @Transactional(readOnly = true)
+    public CampanhaExecucao buscarPorId(Long execucaoId) {
+        return execucaoRepository.findById(execucaoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Execução de campanha não encontrada com ID: " + execucaoId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CampanhaExecucao> listar(StatusCampanha status, Pageable pageable) {
+        if (status == null) {
+            return execucaoRepository.findAll(pageable);
+        }
+        return execucaoRepository.findByStatus(status, pageable);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String truncar(String erro) {
+        if (erro == null || erro.length() <= TAMANHO_MAXIMO_ERRO) {
+            return erro;
+        }
+        return erro.substring(0, TAMANHO_MAXIMO_ERRO);
+    }
+}
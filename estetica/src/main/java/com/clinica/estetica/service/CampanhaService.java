@@ -0,0 +1,244 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.CampanhaExecucao;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.TipoCampanha;
+import com.clinica.estetica.repository.ClienteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Campanhas em massa (aniversariantes do dia, reativação de clientes inativos).
+ *
+ * - Destinatários lidos em páginas por cursor de id, nunca a lista inteira
+ * - Cada página é enviada em paralelo no campanhaExecutor (pool limitado)
+ * - Cada envio é registrado em campanha_envio assim que termina; ao fim da página o
+ *   cursor avança em campanha_execucao
+ * - Uma execução interrompida recomeça da última página concluída e pula quem já foi registrado
+ *
+ * A execução tem dono: quem a reivindica grava um token próprio e renova atualizadaEm a cada
+ * envio registrado; sem sinal de vida por campanha.lease-ms, outra instância (ou a varredura
+ * de retomada) assume com outro token. Registro, checkpoint e conclusão exigem o token, e o
+ * worker que perde a execução para ao primeiro deles que não afetar nenhuma linha.
+ * Só um envio por thread do pool pode ficar sem registro se o processo cair no meio dele.
+ */
+@Slf4j
+@Service
+public class CampanhaService {
+
+    private final ClienteRepository clienteRepository;
+    private final CampanhaCheckpointService checkpointService;
+    private final NotificacaoService notificacaoService;
+    private final Executor campanhaExecutor;
+
+    private final Map<TipoCampanha, Counter> enviados = new EnumMap<>(TipoCampanha.class);
+    private final Map<TipoCampanha, Counter> falhas = new EnumMap<>(TipoCampanha.class);
+
+    @Value("${campanha.tamanho-pagina:200}")
+    private int tamanhoPagina;
+
+    @Value("${campanha.lease-ms:600000}")
+    private long leaseMs;
+
+    public CampanhaService(ClienteRepository clienteRepository,
+                           CampanhaCheckpointService checkpointService,
+                           NotificacaoService notificacaoService,
+                           @Qualifier("campanhaExecutor") Executor campanhaExecutor,
+                           MeterRegistry meterRegistry) {
+        this.clienteRepository = clienteRepository;
+        this.checkpointService = checkpointService;
+        this.notificacaoService = notificacaoService;
+        this.campanhaExecutor = campanhaExecutor;
+
+        for (TipoCampanha tipo : TipoCampanha.values()) {
+            enviados.put(tipo, Counter.builder("clinica.campanhas.enviados")
+                    .description("Mensagens de campanha enviadas")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+            falhas.put(tipo, Counter.builder("clinica.campanhas.falhas")
+                    .description("Mensagens de campanha que falharam (registradas, não reenviadas)")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Mensagens de aniversário para os clientes que fazem aniversário na data
+     */
+    public Optional<CampanhaExecucao> executarAniversariantes(LocalDate data) {
+        return executar(TipoCampanha.ANIVERSARIO, data.toString());
+    }
+
+    /**
+     * Mensagens de reativação para clientes sem visita há mais de diasSemVisita dias
+     */
+    public Optional<CampanhaExecucao> executarReativacao(LocalDate data, int diasSemVisita) {
+        return executar(TipoCampanha.REATIVACAO_INATIVOS, data + "/" + diasSemVisita);
+    }
+
+    /**
+     * Retoma execuções que ficaram sem dono. Retorna quantas foram concluídas.
+     */
+    public int retomarInterrompidas() {
+        int concluidas = 0;
+        for (CampanhaExecucao execucao : checkpointService.listarInterrompidas(Duration.ofMillis(leaseMs))) {
+            log.info("Retomando campanha {} ({}) após cliente ID {}",
+                    execucao.getTipo(), execucao.getReferencia(), execucao.getUltimoClienteId());
+            Optional<CampanhaExecucao> resultado = executar(execucao.getTipo(), execucao.getReferencia());
+            if (resultado.map(e -> e.getStatus() == StatusCampanha.CONCLUIDA).orElse(false)) {
+                concluidas++;
+            }
+        }
+        return concluidas;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Executa (ou continua) a campanha. Vazio se outra instância estiver com ela.
+     */
+    private Optional<CampanhaExecucao> executar(TipoCampanha tipo, String referencia) {
+        CampanhaExecucao execucao = checkpointService.iniciar(tipo, referencia);
+        if (execucao.getStatus() == StatusCampanha.CONCLUIDA) {
+            log.info("Campanha {} ({}) já concluída", tipo, referencia);
+            return Optional.of(execucao);
+        }
+        UUID dono = UUID.randomUUID();
+        if (!checkpointService.reivindicar(execucao.getId(), dono, Duration.ofMillis(leaseMs))) {
+            log.info("Campanha {} ({}) em andamento em outra instância", tipo, referencia);
+            return Optional.empty();
+        }
+
+        Pagina pagina = pagina(tipo, referencia);
+        Consumer<Cliente> envio = envio(tipo);
+        Long execucaoId = execucao.getId();
+        Long ultimoId = execucao.getUltimoClienteId();
+        AtomicBoolean perdida = new AtomicBoolean();
+        long comeco = System.nanoTime();
+
+        try {
+            while (true) {
+                List<Cliente> clientes = pagina.buscar(ultimoId, Limit.of(tamanhoPagina));
+                if (clientes.isEmpty()) {
+                    break;
+                }
+
+                Set<Long> registrados = checkpointService.clientesRegistrados(execucaoId,
+                        clientes.stream().map(Cliente::getId).toList());
+                despachar(tipo, execucaoId, dono, perdida, clientes.stream()
+                        .filter(cliente -> !registrados.contains(cliente.getId()))
+                        .toList(), envio);
+
+                ultimoId = clientes.get(clientes.size() - 1).getId();
+                if (perdida.get() || !checkpointService.avancar(execucaoId, dono, ultimoId)) {
+                    return abandonar(tipo, referencia);
+                }
+
+                if (clientes.size() < tamanhoPagina) {
+                    break;
+                }
+            }
+
+            Optional<CampanhaExecucao> resultado = checkpointService.concluir(execucaoId, dono);
+            if (resultado.isEmpty()) {
+                return abandonar(tipo, referencia);
+            }
+            CampanhaExecucao concluida = resultado.get();
+            log.info("Campanha {} ({}) concluída - Enviados: {}, Falhas: {}, Duração: {} ms",
+                    tipo, referencia, concluida.getEnviados(), concluida.getFalhas(),
+                    (System.nanoTime() - comeco) / 1_000_000);
+            return Optional.of(concluida);
+
+        } catch (RuntimeException e) {
+            checkpointService.liberar(execucaoId, dono);
+            throw e;
+        }
+    }
+
+    /**
+     * Outra instância assumiu a execução (prazo expirado): para sem gravar mais nada
+     */
+    private Optional<CampanhaExecucao> abandonar(TipoCampanha tipo, String referencia) {
+        log.warn("Campanha {} ({}) assumida por outra instância; interrompendo", tipo, referencia);
+        return Optional.empty();
+    }
+
+    /**
+     * Envia a página em paralelo, registrando cada cliente assim que o envio termina.
+     * Depois que um registro encontra a execução com outro dono, os envios restantes são pulados.
+     */
+    private void despachar(TipoCampanha tipo, Long execucaoId, UUID dono, AtomicBoolean perdida,
+                           List<Cliente> clientes, Consumer<Cliente> envio) {
+        CompletableFuture.allOf(clientes.stream()
+                        .map(cliente -> CompletableFuture.runAsync(
+                                () -> enviar(tipo, execucaoId, dono, perdida, cliente, envio), campanhaExecutor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private void enviar(TipoCampanha tipo, Long execucaoId, UUID dono, AtomicBoolean perdida,
+                        Cliente cliente, Consumer<Cliente> envio) {
+        if (perdida.get()) {
+            return;
+        }
+        String erro = null;
+        try {
+            envio.accept(cliente);
+            enviados.get(tipo).increment();
+        } catch (Exception e) {
+            falhas.get(tipo).increment();
+            erro = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            log.error("Erro ao enviar campanha {} - Cliente ID: {}", tipo, cliente.getId(), e);
+        }
+        if (!checkpointService.registrarEnvio(execucaoId, dono, cliente.getId(), erro)) {
+            perdida.set(true);
+        }
+    }
+
+    private Pagina pagina(TipoCampanha tipo, String referencia) {
+        return switch (tipo) {
+            case ANIVERSARIO -> {
+                LocalDate data = LocalDate.parse(referencia);
+                yield (ultimoId, limite) -> clienteRepository.findAniversariantesApos(
+                        data.getMonthValue(), data.getDayOfMonth(), ultimoId, limite);
+            }
+            case REATIVACAO_INATIVOS -> {
+                int barra = referencia.indexOf('/');
+                LocalDate dataLimite = LocalDate.parse(referencia.substring(0, barra))
+                        .minusDays(Integer.parseInt(referencia.substring(barra + 1)));
+                yield (ultimoId, limite) -> clienteRepository.findClientesInativosApos(dataLimite, ultimoId, limite);
+            }
+        };
+    }
+
+    private Consumer<Cliente> envio(TipoCampanha tipo) {
+        return switch (tipo) {
+            case ANIVERSARIO -> notificacaoService::enviarAniversario;
+            case REATIVACAO_INATIVOS -> notificacaoService::enviarReativacao;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Pagina {
+        List<Cliente> buscar(Long ultimoId, Limit limite);
+    }
+}
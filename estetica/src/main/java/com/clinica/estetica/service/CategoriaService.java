@@ -1,12 +1,18 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.config.CacheConfig;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
+import com.clinica.estetica.mapper.CatalogoMapper;
+import com.clinica.estetica.model.dto.response.CategoriaResponse;
 import com.clinica.estetica.model.entity.Categoria;
 import com.clinica.estetica.repository.CategoriaRepository;
 import com.clinica.estetica.repository.ProcedimentoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +25,7 @@ public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
     private final ProcedimentoRepository procedimentoRepository;
+    private final CatalogoMapper catalogoMapper;
 
     @Transactional(readOnly = true)
     public List<Categoria> listarTodas() {
@@ -26,10 +33,16 @@ public class CategoriaService {
         return categoriaRepository.findAll();
     }
 
+    /**
+     * Categorias ativas (cache; a lista devolvida não pode ser alterada)
+     */
+    @Cacheable(CacheConfig.CATEGORIAS_ATIVAS)
     @Transactional(readOnly = true)
-    public List<Categoria> listarAtivas() {
+    public List<CategoriaResponse> listarAtivas() {
         log.debug("Listando categorias ativas");
-        return categoriaRepository.findByAtivoTrue();
+        return categoriaRepository.findByAtivoTrue().stream()
+                .map(catalogoMapper::toResponse)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -45,6 +58,7 @@ public class CategoriaService {
         return categoriaRepository.findByNomeContainingIgnoreCase(nome);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_ATIVAS, allEntries = true)
     @Transactional
     public Categoria criar(Categoria categoria) {
         log.info("Criando nova categoria: {}", categoria.getNome());
@@ -60,6 +74,11 @@ public class CategoriaService {
         return categoriaSalva;
     }
 
+    // O nome da categoria também vai nos procedimentos em cache
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_ATIVAS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTOS, allEntries = true)
+    })
     @Transactional
     public Categoria atualizar(Long id, Categoria categoriaAtualizada) {
         log.info("Atualizando categoria ID: {}", id);
@@ -77,6 +96,7 @@ public class CategoriaService {
         return categoriaSalva;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_ATIVAS, allEntries = true)
     @Transactional
     public Categoria inativar(Long id) {
         log.info("Inativando categoria ID: {}", id);
@@ -89,6 +109,7 @@ public class CategoriaService {
         return categoriaSalva;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_ATIVAS, allEntries = true)
     @Transactional
     public Categoria ativar(Long id) {
         log.info("Ativando categoria ID: {}", id);
@@ -101,6 +122,7 @@ public class CategoriaService {
         return categoriaSalva;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_ATIVAS, allEntries = true)
     @Transactional
     public void deletar(Long id) {
         log.info("Tentando deletar categoria ID: {}", id);
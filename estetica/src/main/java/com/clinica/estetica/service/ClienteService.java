@@ -1,14 +1,18 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.ClienteCadastradoEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.enums.StatusConta;
 import com.clinica.estetica.model.enums.StatusCliente;
 import com.clinica.estetica.repository.AgendamentoRepository;
 import com.clinica.estetica.repository.ClienteRepository;
+import com.clinica.estetica.repository.ContaReceberRepository;
 import com.clinica.estetica.util.CpfValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +30,8 @@ public class ClienteService {
 
     private final ClienteRepository clienteRepository;
     private final AgendamentoRepository agendamentoRepository;
+    private final ContaReceberRepository contaReceberRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Cliente> listarTodos() {
@@ -105,6 +111,7 @@ public class ClienteService {
         }
 
         Cliente clienteSalvo = clienteRepository.save(cliente);
+        eventPublisher.publishEvent(new ClienteCadastradoEvent(clienteSalvo.getId()));
         log.info("Cliente criado com sucesso. ID: {}", clienteSalvo.getId());
         return clienteSalvo;
     }
@@ -160,6 +167,15 @@ public class ClienteService {
                     agendamentosFuturos + " agendamento(s) futuro(s).");
         }
 
+        // Contas pagas já estão no consolidado financeiro_diario; o cascade do cliente
+        // as apagaria sem descontá-las (mesma regra de ContaReceberService.deletar)
+        long contasPagas = contaReceberRepository.countByClienteIdAndStatus(id, StatusConta.PAGO);
+
+        if (contasPagas > 0) {
+            throw new BusinessException("Não é possível deletar o cliente. Existem " +
+                    contasPagas + " conta(s) paga(s) no histórico financeiro; inative o cliente.");
+        }
+
         clienteRepository.deleteById(id);
         log.info("Cliente deletado com sucesso. ID: {}", id);
     }
@@ -1,5 +1,6 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.PagamentoRegistradoEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.ContaPagar;
@@ -8,6 +9,7 @@ import com.clinica.estetica.model.enums.StatusConta;
 import com.clinica.estetica.repository.ContaPagarRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,8 @@ import java.util.List;
 public class ContaPagarService {
 
     private final ContaPagarRepository contaPagarRepository;
+    private final FinanceiroDiarioService financeiroDiarioService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ContaPagar> listarTodas() {
@@ -61,6 +65,11 @@ public class ContaPagarService {
         return contaPagarRepository.findContasVencidas();
     }
 
+    @Transactional(readOnly = true)
+    public Long contarContasVencidas() {
+        return contaPagarRepository.countContasVencidas();
+    }
+
     @Transactional(readOnly = true)
     public List<ContaPagar> buscarPorPeriodo(LocalDate inicio, LocalDate fim) {
         log.debug("Buscando contas a pagar no período: {} a {}", inicio, fim);
@@ -69,8 +78,7 @@ public class ContaPagarService {
 
     @Transactional(readOnly = true)
     public BigDecimal somarPagoPorPeriodo(LocalDate inicio, LocalDate fim) {
-        BigDecimal total = contaPagarRepository.somarPagoPorPeriodo(inicio, fim);
-        return total != null ? total : BigDecimal.ZERO;
+        return financeiroDiarioService.somarPago(inicio, fim);
     }
 
     @Transactional
@@ -90,6 +98,12 @@ public class ContaPagarService {
         }
 
         ContaPagar contaSalva = contaPagarRepository.save(conta);
+
+        // Conta lançada já paga entra direto no consolidado diário
+        if (contaSalva.getStatus() == StatusConta.PAGO) {
+            financeiroDiarioService.registrarPagamento(contaSalva);
+        }
+
         log.info("Conta a pagar criada com sucesso. ID: {}", contaSalva.getId());
         return contaSalva;
     }
@@ -121,7 +135,9 @@ public class ContaPagarService {
     public ContaPagar registrarPagamento(Long id, LocalDate dataPagamento, FormaPagamento formaPagamento) {
         log.info("Registrando pagamento da conta a pagar ID: {}", id);
 
-        ContaPagar conta = buscarPorId(id);
+        // Bloqueia a linha: dois registros simultâneos da mesma conta não podem ambos passar pela checagem
+        ContaPagar conta = contaPagarRepository.findParaPagamentoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Conta a pagar não encontrada com ID: " + id));
 
         if (conta.getStatus() == StatusConta.PAGO) {
             throw new BusinessException("Conta já está paga");
@@ -135,6 +151,11 @@ public class ContaPagarService {
         }
 
         ContaPagar contaSalva = contaPagarRepository.save(conta);
+        financeiroDiarioService.registrarPagamento(contaSalva);
+
+        eventPublisher.publishEvent(new PagamentoRegistradoEvent(PagamentoRegistradoEvent.Origem.PAGAR,
+                contaSalva.getId(), contaSalva.getValor(), contaSalva.getDataPagamento()));
+
         log.info("Pagamento registrado com sucesso. ID: {}", id);
         return contaSalva;
     }
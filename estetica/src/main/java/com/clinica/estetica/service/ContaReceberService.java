@@ -1,5 +1,6 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.PagamentoRegistradoEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.Agendamento;
@@ -7,8 +8,10 @@ import com.clinica.estetica.model.entity.ContaReceber;
 import com.clinica.estetica.model.enums.FormaPagamento;
 import com.clinica.estetica.model.enums.StatusConta;
 import com.clinica.estetica.repository.ContaReceberRepository;
+import com.clinica.estetica.util.JanelaTempo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,7 +27,9 @@ import java.util.List;
 public class ContaReceberService {
 
     private final ContaReceberRepository contaReceberRepository;
+    private final FinanceiroDiarioService financeiroDiarioService;
     private final ClienteService clienteService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ContaReceber> listarTodas() {
@@ -76,19 +81,20 @@ public class ContaReceberService {
 
     @Transactional(readOnly = true)
     public BigDecimal somarRecebidoPorPeriodo(LocalDate inicio, LocalDate fim) {
-        BigDecimal total = contaReceberRepository.somarRecebidoPorPeriodo(inicio, fim);
-        return total != null ? total : BigDecimal.ZERO;
+        return financeiroDiarioService.somarRecebido(inicio, fim);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal somarReceberHoje() {
-        BigDecimal total = contaReceberRepository.somarReceberHoje();
+        JanelaTempo hoje = JanelaTempo.hoje();
+        BigDecimal total = contaReceberRepository.somarCriadasPeriodo(hoje.getInicio(), hoje.getFim());
         return total != null ? total : BigDecimal.ZERO;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal somarReceberMes() {
-        BigDecimal total = contaReceberRepository.somarReceberMes();
+        JanelaTempo mes = JanelaTempo.mesAtual();
+        BigDecimal total = contaReceberRepository.somarCriadasPeriodo(mes.getInicio(), mes.getFim());
         return total != null ? total : BigDecimal.ZERO;
     }
 
@@ -109,6 +115,12 @@ public class ContaReceberService {
         }
 
         ContaReceber contaSalva = contaReceberRepository.save(conta);
+
+        // Conta lançada já paga entra direto no consolidado diário
+        if (contaSalva.getStatus() == StatusConta.PAGO) {
+            financeiroDiarioService.registrarRecebimento(contaSalva);
+        }
+
         log.info("Conta a receber criada com sucesso. ID: {}", contaSalva.getId());
         return contaSalva;
     }
@@ -116,22 +128,24 @@ public class ContaReceberService {
     @Transactional
     public ContaReceber criarDeAgendamento(Agendamento agendamento) {
         log.info("Criando conta a receber do agendamento ID: {}", agendamento.getId());
+        return criar(montarContaDeAgendamento(agendamento));
+    }
 
-        ContaReceber conta = new ContaReceber();
-        conta.setCliente(agendamento.getCliente());
-        conta.setAgendamento(agendamento);
-        conta.setDescricao(String.format("%s - %s",
-                agendamento.getProcedimento().getNome(),
-                agendamento.getCliente().getNome()));
-        conta.setValor(agendamento.getValorTotal());
-        conta.setDataVencimento(agendamento.getDataHora().toLocalDate());
-        conta.setStatus(StatusConta.PENDENTE);
+    /**
+     * Cria as contas de uma série de agendamentos com um único saveAll
+     */
+    @Transactional
+    public List<ContaReceber> criarDeAgendamentos(List<Agendamento> agendamentos) {
+        log.info("Criando {} contas a receber de série de agendamentos", agendamentos.size());
 
-        if (agendamento.getFormaPagamento() != null) {
-            conta.setFormaPagamento(agendamento.getFormaPagamento());
-        }
+        List<ContaReceber> contas = agendamentos.stream()
+                .map(this::montarContaDeAgendamento)
+                .toList();
+        contas.forEach(this::validarConta);
 
-        return criar(conta);
+        List<ContaReceber> contasSalvas = contaReceberRepository.saveAll(contas);
+        log.info("{} contas a receber criadas com sucesso", contasSalvas.size());
+        return contasSalvas;
     }
 
     @Transactional
@@ -160,7 +174,9 @@ public class ContaReceberService {
     public ContaReceber registrarPagamento(Long id, LocalDate dataPagamento,  FormaPagamento formaPagamento) {
         log.info("Registrando pagamento da conta a receber ID: {}", id);
 
-        ContaReceber conta = buscarPorId(id);
+        // Bloqueia a linha: dois registros simultâneos da mesma conta não podem ambos passar pela checagem
+        ContaReceber conta = contaReceberRepository.findParaPagamentoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Conta a receber não encontrada com ID: " + id));
 
         if (conta.getStatus() == StatusConta.PAGO) {
             throw new BusinessException("Conta já está paga");
@@ -174,10 +190,14 @@ public class ContaReceberService {
         }
 
         ContaReceber contaSalva = contaReceberRepository.save(conta);
+        financeiroDiarioService.registrarRecebimento(contaSalva);
 
         // Atualizar total gasto do cliente
         clienteService.atualizarTotalGasto(conta.getCliente().getId(), conta.getValor());
 
+        eventPublisher.publishEvent(new PagamentoRegistradoEvent(PagamentoRegistradoEvent.Origem.RECEBER,
+                contaSalva.getId(), contaSalva.getValor(), contaSalva.getDataPagamento()));
+
         log.info("Pagamento registrado com sucesso. ID: {}", id);
         return contaSalva;
     }
@@ -214,6 +234,24 @@ public class ContaReceberService {
         log.info("Status das contas vencidas atualizado");
     }
 
+    private ContaReceber montarContaDeAgendamento(Agendamento agendamento) {
+        ContaReceber conta = new ContaReceber();
+        conta.setCliente(agendamento.getCliente());
+        conta.setAgendamento(agendamento);
+        conta.setDescricao(String.format("%s - %s",
+                agendamento.getProcedimento().getNome(),
+                agendamento.getCliente().getNome()));
+        conta.setValor(agendamento.getValorTotal());
+        conta.setDataVencimento(agendamento.getDataHora().toLocalDate());
+        conta.setStatus(StatusConta.PENDENTE);
+
+        if (agendamento.getFormaPagamento() != null) {
+            conta.setFormaPagamento(agendamento.getFormaPagamento());
+        }
+
+        return conta;
+    }
+
     private void validarConta(ContaReceber conta) {
         if (conta.getDescricao() == null || conta.getDescricao().trim().isEmpty()) {
             throw new BusinessException("Descrição da conta é obrigatória");
@@ -1,97 +1,260 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.AgendamentoAlteradoEvent;
+import com.clinica.estetica.event.ClienteCadastradoEvent;
+import com.clinica.estetica.event.EstoqueMovimentadoEvent;
+import com.clinica.estetica.event.PagamentoRegistradoEvent;
+import com.clinica.estetica.model.dto.response.CalendarioItemResponse;
+import com.clinica.estetica.model.dto.response.ClienteResponse;
+import com.clinica.estetica.model.dto.response.SerieFinanceiraResponse;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.model.enums.StatusAgendamento;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Dashboard servido de um snapshot em memória.
+ *
+ * - Os números são agrupados em seções; cada seção é recalculada com as suas próprias consultas
+ * - Eventos de domínio (agendamento, pagamento, estoque, cliente) só marcam, após o commit,
+ *   as seções afetadas; {@link #atualizarPendentes()} recalcula apenas essas seções
+ * - {@link #reconciliar()} recalcula tudo: na inicialização, na virada do dia e periodicamente,
+ *   cobrindo o que muda com o tempo (vencidas, aniversariantes) ou sem evento (edições, exclusões)
+ * - {@link #obterDadosDashboard()} devolve o snapshot pronto, com atualizadoEm e reconciliadoEm
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
 
+    enum Secao { AGENDA, RANKING, RECEBER, RECEBIMENTOS, PAGAR, ESTOQUE, CLIENTES }
+
+    private static final Set<Secao> TODAS = Collections.unmodifiableSet(EnumSet.allOf(Secao.class));
+
     private final ClienteService clienteService;
     private final AgendamentoService agendamentoService;
     private final ContaReceberService contaReceberService;
     private final ContaPagarService contaPagarService;
     private final EstoqueService estoqueService;
+    private final FinanceiroService financeiroService;
     private final ProcedimentoService procedimentoService;
+    private final ModelMapper modelMapper;
 
-    @Transactional(readOnly = true)
-    public Map<String, Object> obterDadosDashboard() {
-        log.info("Gerando dados do dashboard");
-
-        Map<String, Object> dashboard = new HashMap<>();
+    /** Seções marcadas por eventos, uma por bit (Secao.ordinal) */
+    private final AtomicInteger pendentes = new AtomicInteger();
 
-        // Estatísticas gerais
-        dashboard.put("estatisticas", obterEstatisticas());
+    /** Valores calculados por seção; só alterado sob o lock do serviço */
+    private final Map<String, Object> valores = new HashMap<>();
 
-        // Agendamentos de hoje
-        dashboard.put("agendamentosHoje", agendamentoService.buscarAgendamentosHoje());
+    private volatile Map<String, Object> snapshot;
+    private volatile LocalDate dia;
+    private LocalDateTime reconciliadoEm;
 
-        // Contas vencidas
-        dashboard.put("contasVencidas", contaReceberService.buscarContasVencidas().size());
-        dashboard.put("contasPagarVencidas", contaPagarService.buscarContasVencidas().size());
-
-        // Produtos com estoque baixo
-        dashboard.put("produtosEstoqueBaixo", estoqueService.contarProdutosEstoqueBaixo());
-
-        // Top procedimentos
-        dashboard.put("topProcedimentos", procedimentoService.buscarTopProcedimentos(5));
-
-        // Resumo financeiro
-        LocalDate hoje = LocalDate.now();
-        LocalDate inicioMes = hoje.withDayOfMonth(1);
-        dashboard.put("resumoFinanceiro", obterResumoFinanceiroMes(inicioMes, hoje));
+    /**
+     * Snapshot do dashboard. Antes da primeira carga, calcula na hora.
+     */
+    public Map<String, Object> obterDadosDashboard() {
+        Map<String, Object> atual = snapshot;
+        return atual != null ? atual : reconciliar();
+    }
 
-        // Gráfico de faturamento dos últimos 6 meses
-        dashboard.put("graficoFaturamento", obterFaturamentoUltimos6Meses());
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> obterEstatisticas() {
+        return (Map<String, Object>) obterDadosDashboard().get("estatisticas");
+    }
 
-        // Aniversariantes do dia
-        dashboard.put("aniversariantesHoje", clienteService.listarAniversariantesdoDia());
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            reconciliar();
+        } catch (Exception e) {
+            log.error("Erro ao carregar o dashboard na inicialização: {}", e.getMessage(), e);
+        }
+    }
 
-        log.info("Dados do dashboard gerados com sucesso");
-        return dashboard;
+    /**
+     * Recalcula todas as seções a partir do banco
+     */
+    @Transactional(readOnly = true)
+    public synchronized Map<String, Object> reconciliar() {
+        long inicio = System.nanoTime();
+        // Eventos anteriores a este ponto ficam cobertos pelo recálculo completo
+        int marcadas = pendentes.getAndSet(0);
+        try {
+            TODAS.forEach(this::calcular);
+        } catch (RuntimeException e) {
+            pendentes.accumulateAndGet(marcadas, (atual, novas) -> atual | novas);
+            throw e;
+        }
+        dia = LocalDate.now();
+        reconciliadoEm = LocalDateTime.now();
+        publicar();
+        log.info("Dashboard reconciliado em {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        return snapshot;
     }
 
+    /**
+     * Recalcula só as seções marcadas desde a última atualização (ou tudo, na virada do dia)
+     */
     @Transactional(readOnly = true)
-    public Map<String, Object> obterEstatisticas() {
-        log.debug("Obtendo estatísticas do dashboard");
+    public synchronized void atualizarPendentes() {
+        if (snapshot == null || !LocalDate.now().equals(dia)) {
+            reconciliar();
+            return;
+        }
+        int marcadas = pendentes.getAndSet(0);
+        if (marcadas == 0) {
+            return;
+        }
+        EnumSet<Secao> secoes = EnumSet.noneOf(Secao.class);
+        for (Secao secao : Secao.values()) {
+            if ((marcadas & bit(secao)) != 0) {
+                secoes.add(secao);
+            }
+        }
+        try {
+            secoes.forEach(this::calcular);
+        } catch (RuntimeException e) {
+            // Volta as marcas para a próxima rodada
+            pendentes.accumulateAndGet(marcadas, (atual, novas) -> atual | novas);
+            throw e;
+        }
+        publicar();
+        log.debug("Dashboard atualizado - Seções: {}", secoes);
+    }
 
-        Map<String, Object> estatisticas = new HashMap<>();
+    // ==================== EVENTOS ====================
 
-        // Faturamento hoje
-        estatisticas.put("faturamentoHoje", contaReceberService.somarReceberHoje());
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAgendamento(AgendamentoAlteradoEvent event) {
+        // Agendamento criado gera conta a receber; realizado dá baixa no estoque e entra no ranking
+        if (event.getStatus() == StatusAgendamento.REALIZADO) {
+            marcar(Secao.AGENDA, Secao.RECEBER, Secao.RANKING, Secao.ESTOQUE);
+        } else {
+            marcar(Secao.AGENDA, Secao.RECEBER);
+        }
+    }
 
-        // Faturamento mês
-        estatisticas.put("faturamentoMes", contaReceberService.somarReceberMes());
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRegistrarPagamento(PagamentoRegistradoEvent event) {
+        if (event.getOrigem() == PagamentoRegistradoEvent.Origem.RECEBER) {
+            marcar(Secao.RECEBER, Secao.RECEBIMENTOS);
+        } else {
+            marcar(Secao.PAGAR);
+        }
+    }
 
-        // Agendamentos hoje
-        estatisticas.put("agendamentosHoje", agendamentoService.contarAgendamentosHoje());
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoMovimentarEstoque(EstoqueMovimentadoEvent event) {
+        marcar(Secao.ESTOQUE);
+    }
 
-        // Agendamentos mês
-        estatisticas.put("agendamentosMes", agendamentoService.contarAgendamentosMes());
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCadastrarCliente(ClienteCadastradoEvent event) {
+        marcar(Secao.CLIENTES);
+    }
 
-        // Clientes ativos
-        estatisticas.put("clientesAtivos", clienteService.contarClientesAtivos());
+    // ==================== SEÇÕES ====================
+
+    private void calcular(Secao secao) {
+        LocalDate hoje = LocalDate.now();
+        switch (secao) {
+            case AGENDA -> {
+                List<CalendarioItemResponse> agendaHoje = agendamentoService.listarAgendaHoje();
+                valores.put("agendamentosHoje", agendaHoje);
+                valores.put("totalAgendamentosHoje", agendaHoje.size());
+                valores.put("agendamentosMes", agendamentoService.contarAgendamentosMes());
+            }
+            case RANKING -> valores.put("topProcedimentos", procedimentoService.buscarTopProcedimentos(5));
+            case RECEBER -> {
+                valores.put("faturamentoHoje", contaReceberService.somarReceberHoje());
+                valores.put("faturamentoMes", contaReceberService.somarReceberMes());
+                valores.put("contasVencidas", contaReceberService.contarContasVencidas());
+            }
+            case RECEBIMENTOS -> {
+                valores.put("totalRecebido", contaReceberService.somarRecebidoPorPeriodo(hoje.withDayOfMonth(1), hoje));
+                valores.put("graficoFaturamento", obterFaturamentoUltimos6Meses());
+            }
+            case PAGAR -> {
+                valores.put("totalPago", contaPagarService.somarPagoPorPeriodo(hoje.withDayOfMonth(1), hoje));
+                valores.put("contasPagarVencidas", contaPagarService.contarContasVencidas());
+            }
+            case ESTOQUE -> valores.put("produtosEstoqueBaixo", estoqueService.contarProdutosEstoqueBaixo());
+            case CLIENTES -> {
+                valores.put("clientesAtivos", clienteService.contarClientesAtivos());
+                valores.put("clientesNovos", clienteService.contarClientesNovos(30));
+                valores.put("aniversariantesHoje", clienteService.listarAniversariantesdoDia().stream()
+                        .map(cliente -> modelMapper.map(cliente, ClienteResponse.class))
+                        .toList());
+            }
+        }
+    }
 
-        // Clientes novos (últimos 30 dias)
-        estatisticas.put("clientesNovos", clienteService.contarClientesNovos(30));
+    /**
+     * Monta o snapshot imutável a partir dos valores das seções
+     */
+    private void publicar() {
+        Map<String, Object> estatisticas = new HashMap<>();
+        estatisticas.put("faturamentoHoje", valores.get("faturamentoHoje"));
+        estatisticas.put("faturamentoMes", valores.get("faturamentoMes"));
+        estatisticas.put("agendamentosHoje", valores.get("totalAgendamentosHoje"));
+        estatisticas.put("agendamentosMes", valores.get("agendamentosMes"));
+        estatisticas.put("clientesAtivos", valores.get("clientesAtivos"));
+        estatisticas.put("clientesNovos", valores.get("clientesNovos"));
+        estatisticas.put("produtosEstoqueBaixo", valores.get("produtosEstoqueBaixo"));
+        estatisticas.put("contasVencidas", valores.get("contasVencidas"));
+
+        BigDecimal recebido = (BigDecimal) valores.get("totalRecebido");
+        BigDecimal pago = (BigDecimal) valores.get("totalPago");
+        Map<String, Object> resumoFinanceiro = new HashMap<>();
+        resumoFinanceiro.put("totalRecebido", recebido);
+        resumoFinanceiro.put("totalPago", pago);
+        resumoFinanceiro.put("saldo", recebido.subtract(pago));
 
-        // Produtos com estoque baixo
-        estatisticas.put("produtosEstoqueBaixo", estoqueService.contarProdutosEstoqueBaixo());
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("estatisticas", Collections.unmodifiableMap(estatisticas));
+        dashboard.put("agendamentosHoje", valores.get("agendamentosHoje"));
+        dashboard.put("contasVencidas", valores.get("contasVencidas"));
+        dashboard.put("contasPagarVencidas", valores.get("contasPagarVencidas"));
+        dashboard.put("produtosEstoqueBaixo", valores.get("produtosEstoqueBaixo"));
+        dashboard.put("topProcedimentos", valores.get("topProcedimentos"));
+        dashboard.put("resumoFinanceiro", Collections.unmodifiableMap(resumoFinanceiro));
+        dashboard.put("graficoFaturamento", valores.get("graficoFaturamento"));
+        dashboard.put("aniversariantesHoje", valores.get("aniversariantesHoje"));
+        dashboard.put("atualizadoEm", LocalDateTime.now());
+        dashboard.put("reconciliadoEm", reconciliadoEm);
+
+        snapshot = Collections.unmodifiableMap(dashboard);
+    }
 
-        // Contas vencidas
-        estatisticas.put("contasVencidas", contaReceberService.contarContasVencidas());
+    private void marcar(Secao... secoes) {
+        int mascara = 0;
+        for (Secao secao : secoes) {
+            mascara |= bit(secao);
+        }
+        pendentes.accumulateAndGet(mascara, (atual, novas) -> atual | novas);
+    }
 
-        return estatisticas;
+    private static int bit(Secao secao) {
+        return 1 << secao.ordinal();
     }
 
     @Transactional(readOnly = true)
@@ -115,19 +278,16 @@ public class DashboardService {
         log.debug("Obtendo faturamento dos últimos 6 meses");
 
         LocalDate hoje = LocalDate.now();
-        List<Map<String, Object>> dados = new java.util.ArrayList<>();
-
-        for (int i = 5; i >= 0; i--) {
-            LocalDate mes = hoje.minusMonths(i);
-            LocalDate inicio = mes.withDayOfMonth(1);
-            LocalDate fim = mes.withDayOfMonth(mes.lengthOfMonth());
-
-            BigDecimal faturamento = contaReceberService.somarRecebidoPorPeriodo(inicio, fim);
+        SerieFinanceiraResponse serie = financeiroService.obterSerieFinanceira(
+                hoje.minusMonths(5).withDayOfMonth(1), hoje.withDayOfMonth(hoje.lengthOfMonth()),
+                Granularidade.MES);
 
+        List<Map<String, Object>> dados = new java.util.ArrayList<>();
+        for (SerieFinanceiraResponse.Ponto ponto : serie.getPontos()) {
             Map<String, Object> item = new HashMap<>();
-            item.put("mes", mes.getMonth().toString());
-            item.put("ano", mes.getYear());
-            item.put("valor", faturamento);
+            item.put("mes", ponto.getPeriodo().getMonth().toString());
+            item.put("ano", ponto.getPeriodo().getYear());
+            item.put("valor", ponto.getRecebido());
             dados.add(item);
         }
 
@@ -219,12 +379,12 @@ public class DashboardService {
         }
 
         // Alertas de agendamentos não confirmados
-        var agendamentosSemLembrete = agendamentoService.buscarAgendamentosSemLembrete();
-        if (!agendamentosSemLembrete.isEmpty()) {
+        long agendamentosSemLembrete = agendamentoService.contarAgendamentosSemLembrete();
+        if (agendamentosSemLembrete > 0) {
             alertas.put("lembretes", Map.of(
                     "tipo", "INFO",
-                    "mensagem", agendamentosSemLembrete.size() + " lembrete(s) pendente(s)",
-                    "quantidade", agendamentosSemLembrete.size()
+                    "mensagem", agendamentosSemLembrete + " lembrete(s) pendente(s)",
+                    "quantidade", agendamentosSemLembrete
             ));
         }
 
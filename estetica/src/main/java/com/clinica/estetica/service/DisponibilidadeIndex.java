@@ -0,0 +1,208 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.AgendamentoAlteradoEvent;
+import com.clinica.estetica.model.dto.projection.IntervaloAgendamento;
+import com.clinica.estetica.model.dto.response.ConsistenciaIndiceResponse;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória dos horários ocupados, um por esteticista.
+ *
+ * - Carregado na inicialização com os agendamentos não cancelados a partir de hoje
+ * - Atualizado após o commit de cada transição (AgendamentoAlteradoEvent), relendo a linha
+ *   no banco: hooks de transações diferentes podem chegar fora de ordem (ex.: reagendamento e
+ *   cancelamento do mesmo agendamento), e o último a rodar sempre vê o estado já gravado
+ * - Consultas anteriores ao horizonte carregado (ou antes da carga) caem no banco
+ *
+ * O índice serve para respostas rápidas; a verificação no banco continua sendo
+ * a garantia final antes de gravar.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadeIndex {
+
+    private static final Comparator<IntervaloAgendamento> ORDEM_INICIO =
+            Comparator.comparing(IntervaloAgendamento::getInicio)
+                    .thenComparing(IntervaloAgendamento::getId);
+
+    private final AgendamentoRepository agendamentoRepository;
+
+    private final Map<String, Agenda> agendas = new ConcurrentHashMap<>();
+    private final Map<Long, IntervaloAgendamento> intervalosPorId = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime horizonte;
+    private volatile boolean pronto = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        recarregar();
+    }
+
+    /**
+     * Descarta o índice atual e carrega novamente a partir do banco
+     */
+    @Transactional(readOnly = true)
+    public synchronized void recarregar() {
+        LocalDateTime novoHorizonte = LocalDate.now().atStartOfDay();
+        log.info("Carregando índice de disponibilidade a partir de {}", novoHorizonte);
+
+        pronto = false;
+        agendas.clear();
+        intervalosPorId.clear();
+        horizonte = novoHorizonte;
+
+        List<IntervaloAgendamento> intervalos = agendamentoRepository.findIntervalosOcupadosApos(novoHorizonte);
+        intervalos.forEach(this::adicionar);
+
+        pronto = true;
+        log.info("Índice de disponibilidade carregado: {} agendamentos, {} esteticistas",
+                intervalos.size(), agendas.size());
+    }
+
+    /**
+     * Indica se o índice pode responder sozinho por uma consulta que começa em {@code inicio}
+     */
+    public boolean cobre(LocalDateTime inicio) {
+        return pronto && !inicio.isBefore(horizonte);
+    }
+
+    /**
+     * Verifica conflito no índice. Só deve ser chamado quando {@link #cobre(LocalDateTime)} for verdadeiro.
+     */
+    public boolean existeConflito(String esteticista, LocalDateTime inicio, LocalDateTime fim, Long ignorarId) {
+        Agenda agenda = agendas.get(esteticista);
+        return agenda != null && agenda.existeConflito(inicio, fim, ignorarId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarAgendamento(AgendamentoAlteradoEvent event) {
+        if (event.getId() == null || horizonte == null) {
+            return;
+        }
+
+        // O snapshot do evento pode estar atrasado em relação a outra transação já aplicada
+        remover(event.getId());
+        agendamentoRepository.findIntervaloOcupado(event.getId(), horizonte).ifPresent(this::adicionar);
+
+        log.debug("Índice de disponibilidade atualizado - Agendamento ID: {}", event.getId());
+    }
+
+    /**
+     * Compara o índice com a tabela agendamento e recarrega em caso de divergência
+     */
+    @Transactional(readOnly = true)
+    public ConsistenciaIndiceResponse verificarConsistencia(boolean recarregarSeDivergente) {
+        LocalDateTime horizonteAtual = horizonte;
+        if (!pronto || horizonteAtual == null) {
+            throw new IllegalStateException("Índice de disponibilidade ainda não foi carregado");
+        }
+
+        Map<Long, IntervaloAgendamento> banco = new HashMap<>();
+        agendamentoRepository.findIntervalosOcupadosApos(horizonteAtual)
+                .forEach(i -> banco.put(i.getId(), i));
+        Map<Long, IntervaloAgendamento> indice = new HashMap<>(intervalosPorId);
+        int totalIndice = indice.size();
+
+        List<Long> ausentes = new ArrayList<>();
+        List<Long> divergentes = new ArrayList<>();
+        banco.forEach((id, intervalo) -> {
+            IntervaloAgendamento noIndice = indice.remove(id);
+            if (noIndice == null) {
+                ausentes.add(id);
+            } else if (!noIndice.equals(intervalo)) {
+                divergentes.add(id);
+            }
+        });
+        List<Long> sobrando = new ArrayList<>(indice.keySet());
+
+        boolean consistente = ausentes.isEmpty() && sobrando.isEmpty() && divergentes.isEmpty();
+        boolean recarregado = false;
+
+        if (!consistente) {
+            log.warn("Índice de disponibilidade divergente do banco. Ausentes: {}, sobrando: {}, divergentes: {}",
+                    ausentes, sobrando, divergentes);
+            if (recarregarSeDivergente) {
+                recarregar();
+                recarregado = true;
+            }
+        }
+
+        return ConsistenciaIndiceResponse.builder()
+                .verificadoEm(LocalDateTime.now())
+                .horizonte(horizonteAtual)
+                .totalBanco(banco.size())
+                .totalIndice(totalIndice)
+                .ausentesNoIndice(ausentes)
+                .sobrandoNoIndice(sobrando)
+                .divergentes(divergentes)
+                .consistente(consistente)
+                .recarregado(recarregado)
+                .build();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void adicionar(IntervaloAgendamento intervalo) {
+        intervalosPorId.put(intervalo.getId(), intervalo);
+        agendas.computeIfAbsent(intervalo.getEsteticista(), e -> new Agenda()).adicionar(intervalo);
+    }
+
+    private void remover(Long id) {
+        IntervaloAgendamento anterior = intervalosPorId.remove(id);
+        if (anterior != null) {
+            Agenda agenda = agendas.get(anterior.getEsteticista());
+            if (agenda != null) {
+                agenda.remover(anterior);
+            }
+        }
+    }
+
+    /**
+     * Horários ocupados de uma esteticista ordenados por início.
+     * Intervalos podem se sobrepor (solicitações PENDENTE), por isso a busca
+     * recua a maior duração conhecida a partir do início consultado.
+     */
+    private static final class Agenda {
+
+        private final NavigableSet<IntervaloAgendamento> intervalos = new TreeSet<>(ORDEM_INICIO);
+        private Duration maiorDuracao = Duration.ZERO;
+
+        synchronized void adicionar(IntervaloAgendamento intervalo) {
+            intervalos.add(intervalo);
+            Duration duracao = Duration.between(intervalo.getInicio(), intervalo.getFim());
+            if (duracao.compareTo(maiorDuracao) > 0) {
+                maiorDuracao = duracao;
+            }
+        }
+
+        synchronized void remover(IntervaloAgendamento intervalo) {
+            intervalos.remove(intervalo);
+        }
+
+        synchronized boolean existeConflito(LocalDateTime inicio, LocalDateTime fim, Long ignorarId) {
+            IntervaloAgendamento de = new IntervaloAgendamento(Long.MIN_VALUE, null, inicio.minus(maiorDuracao), null);
+            IntervaloAgendamento ate = new IntervaloAgendamento(Long.MAX_VALUE, null, fim, null);
+
+            for (IntervaloAgendamento intervalo : intervalos.subSet(de, true, ate, true)) {
+                if (!intervalo.getId().equals(ignorarId) && intervalo.conflitaCom(inicio, fim)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.clinica.estetica.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envio de emails em lote sobre conexões SMTP de longa duração.
+ *
+ * - Mensagens entram em uma fila; cada remetente (uma thread e uma conexão SMTP)
+ *   retira tudo o que acumulou, até o tamanho máximo do lote, e envia na mesma conexão
+ * - A conexão é reaproveitada entre lotes e só é refeita ao atingir o limite de
+ *   mensagens por conexão, após ociosidade ou quando o servidor a derruba
+ * - Antes do primeiro envio de cada lote a conexão reaproveitada é testada (NOOP); se caiu,
+ *   reconecta. Falha durante o envio não é repetida aqui: o servidor pode ter aceitado a
+ *   mensagem, então o erro vai ao chamador (outbox) em vez de arriscar email duplicado
+ * - Quem chama recebe um CompletableFuture por mensagem, então falhas continuam
+ *   chegando ao chamador (outbox, lembretes) para nova tentativa
+ *
+ * Se o JavaMailSender não for um JavaMailSenderImpl, cada lote vai em um
+ * único JavaMailSender.send(MimeMessage...).
+ */
+@Slf4j
+@Component
+public class EmailLoteSender {
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<EnvioPendente> fila;
+    private final List<Remetente> remetentes = new ArrayList<>();
+
+    private final Counter enviados;
+    private final Counter falhas;
+    private final Counter handshakes;
+    private final DistributionSummary tamanhoLote;
+    private final Timer duracaoLote;
+    private final Timer latenciaSucesso;
+    private final Timer latenciaFalha;
+
+    @Value("${notificacao.email.conexoes:2}")
+    private int conexoes;
+
+    @Value("${notificacao.email.tamanho-maximo:50}")
+    private int tamanhoMaximo;
+
+    @Value("${notificacao.email.janela-ms:0}")
+    private long janelaMs;
+
+    @Value("${notificacao.email.mensagens-por-conexao:100}")
+    private int mensagensPorConexao;
+
+    @Value("${notificacao.email.ociosidade-maxima-ms:30000}")
+    private long ociosidadeMaximaMs;
+
+    private volatile boolean ativo;
+
+    public EmailLoteSender(JavaMailSender mailSender,
+                           MeterRegistry meterRegistry,
+                           @Value("${notificacao.email.capacidade-fila:10000}") int capacidadeFila) {
+        this.mailSender = mailSender;
+        this.fila = new LinkedBlockingQueue<>(capacidadeFila);
+
+        this.enviados = Counter.builder("clinica.email.enviados")
+                .description("Emails aceitos pelo servidor SMTP")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("clinica.email.falhas")
+                .description("Emails recusados ou não enviados")
+                .register(meterRegistry);
+        this.handshakes = Counter.builder("clinica.email.handshakes")
+                .description("Conexões SMTP abertas (TCP + TLS + AUTH)")
+                .register(meterRegistry);
+        this.tamanhoLote = DistributionSummary.builder("clinica.email.lote.tamanho")
+                .description("Mensagens por lote enviado")
+                .register(meterRegistry);
+        this.duracaoLote = Timer.builder("clinica.email.lote.duracao")
+                .description("Tempo de envio de cada lote")
+                .register(meterRegistry);
+        this.latenciaSucesso = timerLatencia(meterRegistry, "sucesso");
+        this.latenciaFalha = timerLatencia(meterRegistry, "falha");
+        Gauge.builder("clinica.email.fila", fila, BlockingQueue::size)
+                .description("Emails aguardando envio")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        for (int i = 1; i <= conexoes; i++) {
+            Remetente remetente = new Remetente("email-lote-" + i);
+            remetentes.add(remetente);
+            remetente.thread.start();
+        }
+        log.info("Envio de emails em lote iniciado - {} conexão(ões), lote máximo de {}", conexoes, tamanhoMaximo);
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        for (Remetente remetente : remetentes) {
+            remetente.thread.interrupt();
+        }
+        for (Remetente remetente : remetentes) {
+            remetente.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Enfileira a mensagem; o future conclui quando o servidor aceitar (ou recusar) o envio
+     */
+    public CompletableFuture<Void> enviar(MimeMessage mensagem) {
+        EnvioPendente envio = new EnvioPendente(mensagem, new CompletableFuture<>());
+        if (!ativo) {
+            envio.resultado.completeExceptionally(new IllegalStateException("Envio de emails encerrado"));
+        } else if (!fila.offer(envio)) {
+            falhas.increment();
+            envio.resultado.completeExceptionally(new IllegalStateException("Fila de emails cheia"));
+        }
+        return envio.resultado;
+    }
+
+    public long getHandshakes() {
+        return (long) handshakes.count();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private record EnvioPendente(MimeMessage mensagem, CompletableFuture<Void> resultado) {
+    }
+
+    /**
+     * Uma thread com sua própria conexão SMTP. A conexão só é usada por esta thread.
+     */
+    private final class Remetente {
+
+        private final Thread thread;
+        private Transport transporte;
+        private int mensagensNaConexao;
+        private boolean verificarConexao;
+
+        private Remetente(String nome) {
+            this.thread = new Thread(this::executar, nome);
+            this.thread.setDaemon(true);
+        }
+
+        private void executar() {
+            while (ativo || !fila.isEmpty()) {
+                try {
+                    EnvioPendente primeiro = fila.poll(ociosidadeMaximaMs, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        fecharTransporte();
+                        continue;
+                    }
+                    enviarLote(montarLote(primeiro));
+                } catch (InterruptedException e) {
+                    // encerrar(): o laço termina de esvaziar a fila antes de sair
+                } catch (Exception e) {
+                    log.error("Erro inesperado no envio de emails em lote: {}", e.getMessage(), e);
+                }
+            }
+            fecharTransporte();
+        }
+
+        /**
+         * Tudo o que já está na fila, até o tamanho máximo; com janela > 0, espera mais mensagens até ela fechar
+         */
+        private List<EnvioPendente> montarLote(EnvioPendente primeiro) throws InterruptedException {
+            List<EnvioPendente> lote = new ArrayList<>(tamanhoMaximo);
+            lote.add(primeiro);
+            fila.drainTo(lote, tamanhoMaximo - 1);
+
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(janelaMs);
+            while (lote.size() < tamanhoMaximo && ativo) {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    break;
+                }
+                EnvioPendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                if (proximo == null) {
+                    break;
+                }
+                lote.add(proximo);
+                fila.drainTo(lote, tamanhoMaximo - lote.size());
+            }
+            return lote;
+        }
+
+        private void enviarLote(List<EnvioPendente> lote) {
+            tamanhoLote.record(lote.size());
+            verificarConexao = true;
+            duracaoLote.record(() -> {
+                if (mailSender instanceof JavaMailSenderImpl impl) {
+                    for (EnvioPendente envio : lote) {
+                        long inicio = System.nanoTime();
+                        try {
+                            enviarNaConexao(impl, envio.mensagem());
+                            latenciaSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                            concluir(envio, null);
+                        } catch (Exception e) {
+                            latenciaFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                            concluir(envio, e);
+                        }
+                    }
+                } else {
+                    enviarPeloMailSender(lote);
+                }
+            });
+            log.debug("Lote de {} email(s) enviado por {}", lote.size(), thread.getName());
+        }
+
+        private void enviarNaConexao(JavaMailSenderImpl impl, MimeMessage mensagem) throws MessagingException {
+            prepararMensagem(mensagem);
+            Transport anterior = transporte;
+            Transport conexao = conectado(impl);
+            if (verificarConexao && conexao == anterior && !conexao.isConnected()) {
+                // Conexão ociosa derrubada pelo servidor (timeout, limite); nada foi enviado nela ainda
+                log.debug("Conexão SMTP reaproveitada caiu entre lotes, reconectando");
+                fecharTransporte();
+                conexao = conectado(impl);
+            }
+            verificarConexao = false;
+            try {
+                conexao.sendMessage(mensagem, mensagem.getAllRecipients());
+                mensagensNaConexao++;
+            } catch (SendFailedException e) {
+                // Recusada pelo servidor (ex.: destinatário inválido): a conexão segue, se ainda responder
+                if (!conexao.isConnected()) {
+                    fecharTransporte();
+                }
+                throw e;
+            } catch (MessagingException | IllegalStateException e) {
+                // Sem reenvio: o servidor pode ter recebido a mensagem antes de a conexão cair
+                fecharTransporte();
+                throw e;
+            }
+        }
+
+        private void enviarPeloMailSender(List<EnvioPendente> lote) {
+            MimeMessage[] mensagens = lote.stream().map(EnvioPendente::mensagem).toArray(MimeMessage[]::new);
+            handshakes.increment();
+            try {
+                mailSender.send(mensagens);
+                lote.forEach(envio -> concluir(envio, null));
+            } catch (MailSendException e) {
+                Map<Object, Exception> recusadas = e.getFailedMessages();
+                lote.forEach(envio -> concluir(envio, recusadas.isEmpty() ? e : recusadas.get(envio.mensagem())));
+            } catch (Exception e) {
+                lote.forEach(envio -> concluir(envio, e));
+            }
+        }
+
+        private Transport conectado(JavaMailSenderImpl impl) throws MessagingException {
+            if (transporte != null && mensagensNaConexao < mensagensPorConexao) {
+                return transporte;
+            }
+            fecharTransporte();
+
+            String usuario = impl.getUsername();
+            String senha = impl.getPassword();
+            if ("".equals(usuario)) {
+                usuario = null;
+                if ("".equals(senha)) {
+                    senha = null;
+                }
+            }
+
+            Transport novo = impl.getSession().getTransport(impl.getProtocol() != null ? impl.getProtocol() : "smtp");
+            novo.connect(impl.getHost(), impl.getPort(), usuario, senha);
+            handshakes.increment();
+
+            transporte = novo;
+            mensagensNaConexao = 0;
+            return novo;
+        }
+
+        private void fecharTransporte() {
+            if (transporte == null) {
+                return;
+            }
+            try {
+                transporte.close();
+            } catch (MessagingException e) {
+                log.debug("Erro ao fechar conexão SMTP: {}", e.getMessage());
+            }
+            transporte = null;
+            mensagensNaConexao = 0;
+        }
+    }
+
+    /**
+     * Mesmo preparo que JavaMailSenderImpl.doSend faz antes de enviar
+     */
+    private static void prepararMensagem(MimeMessage mensagem) throws MessagingException {
+        if (mensagem.getSentDate() == null) {
+            mensagem.setSentDate(new Date());
+        }
+        String messageId = mensagem.getMessageID();
+        mensagem.saveChanges();
+        if (messageId != null) {
+            mensagem.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private static Timer timerLatencia(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("clinica.email.smtp.latencia")
+                .description("Duração de cada envio ao servidor SMTP (inclui reconexão, quando houver)")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private void concluir(EnvioPendente envio, Exception erro) {
+        if (erro == null) {
+            enviados.increment();
+            envio.resultado().complete(null);
+        } else {
+            falhas.increment();
+            envio.resultado().completeExceptionally(erro);
+        }
+    }
+}
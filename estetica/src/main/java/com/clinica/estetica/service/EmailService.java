@@ -1,23 +1,29 @@
 package com.clinica.estetica.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
-import lombok.RequiredArgsConstructor;
+import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailLoteSender emailLoteSender;
+    private final TemplateService templateService;
+
+    private final Timer envioSucesso;
+    private final Timer envioFalha;
 
     @Value("${spring.mail.username:noreply@clinicaestetica.com}")
     private String remetente;
@@ -25,21 +31,33 @@ public class EmailService {
     @Value("${clinica.nome:Clínica de Estética}")
     private String nomeClinica;
 
+    public EmailService(JavaMailSender mailSender,
+                        EmailLoteSender emailLoteSender,
+                        TemplateService templateService,
+                        MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.emailLoteSender = emailLoteSender;
+        this.templateService = templateService;
+
+        this.envioSucesso = timerCanal(meterRegistry, "sucesso");
+        this.envioFalha = timerCanal(meterRegistry, "falha");
+    }
+
     /**
      * Envia email simples (texto puro)
      */
-    @Async
     public void enviarEmail(String destinatario, String assunto, String mensagem) {
         log.info("Enviando email para: {}", destinatario);
 
         try {
-            SimpleMailMessage email = new SimpleMailMessage();
-            email.setFrom(remetente);
-            email.setTo(destinatario);
-            email.setSubject(assunto);
-            email.setText(mensagem);
+            MimeMessage email = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(email, "UTF-8");
+            helper.setFrom(remetente);
+            helper.setTo(destinatario);
+            helper.setSubject(assunto);
+            helper.setText(mensagem);
 
-            mailSender.send(email);
+            despachar(email);
 
             log.info("Email enviado com sucesso para: {}", destinatario);
 
@@ -52,7 +70,6 @@ public class EmailService {
     /**
      * Envia email HTML
      */
-    @Async
     public void enviarEmailHtml(String destinatario, String assunto, String conteudoHtml) {
         log.info("Enviando email HTML para: {}", destinatario);
 
@@ -65,11 +82,11 @@ public class EmailService {
             helper.setSubject(assunto);
             helper.setText(conteudoHtml, true); // true = HTML
 
-            mailSender.send(mimeMessage);
+            despachar(mimeMessage);
 
             log.info("Email HTML enviado com sucesso para: {}", destinatario);
 
-        } catch (MessagingException e) {
+        } catch (Exception e) {
             log.error("Erro ao enviar email HTML para: {}", destinatario, e);
             throw new RuntimeException("Falha ao enviar email HTML", e);
         }
@@ -78,18 +95,18 @@ public class EmailService {
     /**
      * Envia email para múltiplos destinatários
      */
-    @Async
     public void enviarEmailMultiplo(List<String> destinatarios, String assunto, String mensagem) {
         log.info("Enviando email para {} destinatários", destinatarios.size());
 
         try {
-            SimpleMailMessage email = new SimpleMailMessage();
-            email.setFrom(remetente);
-            email.setTo(destinatarios.toArray(new String[0]));
-            email.setSubject(assunto);
-            email.setText(mensagem);
+            MimeMessage email = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(email, "UTF-8");
+            helper.setFrom(remetente);
+            helper.setTo(destinatarios.toArray(new String[0]));
+            helper.setSubject(assunto);
+            helper.setText(mensagem);
 
-            mailSender.send(email);
+            despachar(email);
 
             log.info("Email enviado com sucesso para {} destinatários", destinatarios.size());
 
@@ -102,19 +119,19 @@ public class EmailService {
     /**
      * Envia email com cópia (CC)
      */
-    @Async
     public void enviarEmailComCopia(String destinatario, String copia, String assunto, String mensagem) {
         log.info("Enviando email para: {} com cópia para: {}", destinatario, copia);
 
         try {
-            SimpleMailMessage email = new SimpleMailMessage();
-            email.setFrom(remetente);
-            email.setTo(destinatario);
-            email.setCc(copia);
-            email.setSubject(assunto);
-            email.setText(mensagem);
+            MimeMessage email = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(email, "UTF-8");
+            helper.setFrom(remetente);
+            helper.setTo(destinatario);
+            helper.setCc(copia);
+            helper.setSubject(assunto);
+            helper.setText(mensagem);
 
-            mailSender.send(email);
+            despachar(email);
 
             log.info("Email com cópia enviado com sucesso");
 
@@ -128,85 +145,19 @@ public class EmailService {
      * Monta template HTML padrão para emails
      */
     public String montarTemplateHtml(String titulo, String conteudo) {
-        return String.format("""
-                <!DOCTYPE html>
-                <html>
-                <head>
-                    <meta charset="UTF-8">
-                    <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                    <style>
-                        body {
-                            font-family: Arial, sans-serif;
-                            line-height: 1.6;
-                            color: #333;
-                            max-width: 600px;
-                            margin: 0 auto;
-                            padding: 20px;
-                        }
-                        .header {
-                            background-color: #FF6B9D;
-                            color: white;
-                            padding: 20px;
-                            text-align: center;
-                            border-radius: 5px 5px 0 0;
-                        }
-                        .content {
-                            background-color: #f9f9f9;
-                            padding: 20px;
-                            border: 1px solid #ddd;
-                            border-radius: 0 0 5px 5px;
-                        }
-                        .footer {
-                            text-align: center;
-                            margin-top: 20px;
-                            padding: 10px;
-                            font-size: 12px;
-                            color: #666;
-                        }
-                        .button {
-                            display: inline-block;
-                            padding: 10px 20px;
-                            background-color: #FF6B9D;
-                            color: white;
-                            text-decoration: none;
-                            border-radius: 5px;
-                            margin: 10px 0;
-                        }
-                    </style>
-                </head>
-                <body>
-                    <div class="header">
-                        <h1>%s</h1>
-                        <p>%s</p>
-                    </div>
-                    <div class="content">
-                        %s
-                    </div>
-                    <div class="footer">
-                        <p>Este é um email automático, por favor não responda.</p>
-                        <p>&copy; 2025 %s - Todos os direitos reservados</p>
-                    </div>
-                </body>
-                </html>
-                """, nomeClinica, titulo, conteudo, nomeClinica);
+        return templateService.renderizarLayout(nomeClinica, titulo, conteudo);
     }
 
     /**
      * Envia email de boas-vindas
      */
-    @Async
     public void enviarEmailBoasVindas(String destinatario, String nomeCliente) {
         log.info("Enviando email de boas-vindas para: {}", destinatario);
 
         String assunto = "Bem-vindo(a) à " + nomeClinica;
-        String conteudo = String.format("""
-                <p>Olá <strong>%s</strong>,</p>
-                <p>Seja muito bem-vindo(a) à nossa clínica!</p>
-                <p>Estamos muito felizes em tê-lo(a) como nosso cliente.</p>
-                <p>Nossa equipe está preparada para oferecer os melhores tratamentos e cuidados para você.</p>
-                <p>Em caso de dúvidas, estamos à disposição.</p>
-                <p>Atenciosamente,<br>Equipe %s</p>
-                """, nomeCliente, nomeClinica);
+        String conteudo = templateService.renderizar("email/boas-vindas",
+                "nome", nomeCliente,
+                "clinica", nomeClinica);
 
         String htmlCompleto = montarTemplateHtml("Bem-vindo(a)!", conteudo);
         enviarEmailHtml(destinatario, assunto, htmlCompleto);
@@ -215,22 +166,13 @@ public class EmailService {
     /**
      * Envia email de recuperação de senha
      */
-    @Async
     public void enviarEmailRecuperacaoSenha(String destinatario, String token) {
         log.info("Enviando email de recuperação de senha para: {}", destinatario);
 
         String assunto = "Recuperação de Senha - " + nomeClinica;
         String linkRecuperacao = "https://clinica.com/reset-password?token=" + token;
 
-        String conteudo = String.format("""
-                <p>Você solicitou a recuperação de senha da sua conta.</p>
-                <p>Clique no botão abaixo para redefinir sua senha:</p>
-                <p><a href="%s" class="button">Redefinir Senha</a></p>
-                <p>Ou copie e cole o link abaixo no seu navegador:</p>
-                <p><a href="%s">%s</a></p>
-                <p>Este link é válido por 24 horas.</p>
-                <p>Se você não solicitou esta recuperação, ignore este email.</p>
-                """, linkRecuperacao, linkRecuperacao, linkRecuperacao);
+        String conteudo = templateService.renderizar("email/recuperacao-senha", "link", linkRecuperacao);
 
         String htmlCompleto = montarTemplateHtml("Recuperação de Senha", conteudo);
         enviarEmailHtml(destinatario, assunto, htmlCompleto);
@@ -246,4 +188,33 @@ public class EmailService {
         String regex = "^[A-Za-z0-9+_.-]+@(.+)$";
         return email.matches(regex);
     }
-}
\ No newline at end of file
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Entrega pelo envio em lote e espera o servidor aceitar, para que a falha chegue ao chamador
+     */
+    private void despachar(MimeMessage mensagem) throws MessagingException {
+        long inicio = System.nanoTime();
+        try {
+            emailLoteSender.enviar(mensagem).join();
+            envioSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        } catch (CompletionException e) {
+            envioFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (e.getCause() instanceof MessagingException erroEnvio) {
+                throw erroEnvio;
+            }
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+
+    private static Timer timerCanal(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("clinica.notificacao.canal")
+                .description("Envio de uma mensagem pelo canal, da chamada ao aceite (inclui esperas e novas tentativas)")
+                .tags("canal", "email", "resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.EstoqueMovimentadoEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.MovimentacaoEstoque;
@@ -9,6 +10,7 @@ import com.clinica.estetica.repository.MovimentacaoEstoqueRepository;
 import com.clinica.estetica.repository.ProdutoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class EstoqueService {
 
     private final ProdutoRepository produtoRepository;
     private final MovimentacaoEstoqueRepository movimentacaoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Produto> listarProdutosEstoqueBaixo() {
@@ -70,6 +73,7 @@ public class EstoqueService {
         // Atualizar estoque do produto
         produto.setEstoqueAtual(quantidadeNova);
         produtoRepository.save(produto);
+        eventPublisher.publishEvent(new EstoqueMovimentadoEvent(produtoId));
 
         // Criar movimentação
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
@@ -117,6 +121,7 @@ public class EstoqueService {
         // Atualizar estoque do produto
         produto.setEstoqueAtual(quantidadeNova);
         produtoRepository.save(produto);
+        eventPublisher.publishEvent(new EstoqueMovimentadoEvent(produtoId));
 
         // Criar movimentação
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
@@ -158,6 +163,7 @@ public class EstoqueService {
         // Atualizar estoque do produto
         produto.setEstoqueAtual(novaQuantidade);
         produtoRepository.save(produto);
+        eventPublisher.publishEvent(new EstoqueMovimentadoEvent(produtoId));
 
         // Criar movimentação
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
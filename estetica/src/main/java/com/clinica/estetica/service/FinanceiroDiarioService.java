@@ -0,0 +1,97 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.dto.projection.TotalPeriodoFinanceiro;
+import com.clinica.estetica.model.entity.ContaPagar;
+import com.clinica.estetica.model.entity.ContaReceber;
+import com.clinica.estetica.model.enums.FormaPagamento;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.repository.FinanceiroDiarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consolidado diário (financeiro_diario) das contas pagas.
+ *
+ * Os registros de pagamento somam cada conta à linha do dia na própria transação, então
+ * os relatórios leem no máximo uma linha por dia × forma de pagamento × categoria.
+ * reconstruir() recalcula um período a partir das contas (carga de histórico ou correção).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FinanceiroDiarioService {
+
+    private static final String SEM_VALOR = "";
+
+    private final FinanceiroDiarioRepository financeiroDiarioRepository;
+
+    // ==================== ESCRITA ====================
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRecebimento(ContaReceber conta) {
+        // Sem data de pagamento a conta não entra em nenhum período
+        if (conta.getDataPagamento() == null) {
+            return;
+        }
+        financeiroDiarioRepository.acumular(conta.getDataPagamento(), chave(conta.getFormaPagamento()), SEM_VALOR,
+                conta.getValor(), BigDecimal.ZERO, 1, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPagamento(ContaPagar conta) {
+        if (conta.getDataPagamento() == null) {
+            return;
+        }
+        financeiroDiarioRepository.acumular(conta.getDataPagamento(), chave(conta.getFormaPagamento()),
+                conta.getCategoria() != null ? conta.getCategoria() : SEM_VALOR,
+                BigDecimal.ZERO, conta.getValor(), 0, 1);
+    }
+
+    /**
+     * Refaz as linhas do período a partir de conta_receber e conta_pagar.
+     * Pagamentos registrados durante a reconstrução esperam o fim dela.
+     */
+    @Transactional
+    public int reconstruir(LocalDate inicio, LocalDate fim) {
+        if (inicio.isAfter(fim)) {
+            throw new BusinessException("Data inicial não pode ser posterior à data final");
+        }
+        log.info("Reconstruindo consolidado financeiro diário de {} a {}", inicio, fim);
+
+        financeiroDiarioRepository.bloquear();
+        int removidas = financeiroDiarioRepository.removerPeriodo(inicio, fim);
+        int criadas = financeiroDiarioRepository.recalcularPeriodo(inicio, fim);
+
+        log.info("Consolidado financeiro diário reconstruído: {} linhas removidas, {} criadas", removidas, criadas);
+        return criadas;
+    }
+
+    // ==================== LEITURA ====================
+
+    @Transactional(readOnly = true)
+    public BigDecimal somarRecebido(LocalDate inicio, LocalDate fim) {
+        return financeiroDiarioRepository.somarRecebido(inicio, fim);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal somarPago(LocalDate inicio, LocalDate fim) {
+        return financeiroDiarioRepository.somarPago(inicio, fim);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TotalPeriodoFinanceiro> somarPorPeriodo(Granularidade granularidade, LocalDate inicio, LocalDate fim) {
+        return financeiroDiarioRepository.somarPorPeriodo(granularidade.getUnidade(), inicio, fim);
+    }
+
+    private static String chave(FormaPagamento formaPagamento) {
+        return formaPagamento != null ? formaPagamento.name() : SEM_VALOR;
+    }
+}
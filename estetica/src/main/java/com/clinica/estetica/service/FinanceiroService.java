@@ -1,26 +1,45 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.dto.projection.LancamentoFluxoCaixa;
+import com.clinica.estetica.model.dto.projection.TotalPeriodoFinanceiro;
+import com.clinica.estetica.model.dto.response.SerieFinanceiraResponse;
 import com.clinica.estetica.model.entity.ContaPagar;
 import com.clinica.estetica.model.entity.ContaReceber;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.repository.ContaReceberRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FinanceiroService {
 
+    private static final String TIPO_ENTRADA = "ENTRADA";
+
     private final ContaReceberService contaReceberService;
     private final ContaPagarService contaPagarService;
+    private final FinanceiroDiarioService financeiroDiarioService;
+    private final ContaReceberRepository contaReceberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${financeiro.serie.max-pontos:1000}")
+    private int maxPontosSerie;
 
     @Transactional(readOnly = true)
     public Map<String, Object> obterResumoFinanceiro(LocalDate dataInicio, LocalDate dataFim) {
@@ -44,90 +63,154 @@ public class FinanceiroService {
         return resumo;
     }
 
+    /**
+     * Fluxo de caixa das contas com vencimento no período, escrito direto no OutputStream.
+     *
+     * As linhas vêm do banco já ordenadas por data, por cursor, e viram JSON uma a uma
+     * com o saldo acumulado; os totais vão no fim. A memória usada não depende do tamanho do período.
+     */
     @Transactional(readOnly = true)
-    public Map<String, Object> obterFluxoCaixa(LocalDate dataInicio, LocalDate dataFim) {
+    public void escreverFluxoCaixa(LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
         log.info("Gerando fluxo de caixa do período: {} a {}", dataInicio, dataFim);
+        validarPeriodo(dataInicio, dataFim);
+
+        BigDecimal totalEntradas = BigDecimal.ZERO;
+        BigDecimal totalSaidas = BigDecimal.ZERO;
+        long lancamentos = 0;
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(saida);
+             Stream<LancamentoFluxoCaixa> linhas = contaReceberRepository.streamFluxoCaixa(dataInicio, dataFim)) {
+            // Falha no meio deixa o JSON incompleto (o cliente percebe) em vez de fechar os colchetes;
+            // o stream da resposta é do container
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            json.writeStartObject();
+            json.writeStringField("dataInicio", dataInicio.toString());
+            json.writeStringField("dataFim", dataFim.toString());
+            json.writeArrayFieldStart("lancamentos");
+
+            Iterator<LancamentoFluxoCaixa> iterator = linhas.iterator();
+            while (iterator.hasNext()) {
+                LancamentoFluxoCaixa linha = iterator.next();
+                boolean entrada = TIPO_ENTRADA.equals(linha.getTipo());
+                if (entrada) {
+                    totalEntradas = totalEntradas.add(linha.getValor());
+                } else {
+                    totalSaidas = totalSaidas.add(linha.getValor());
+                }
+
+                json.writeStartObject();
+                json.writeStringField("data", linha.getData().toString());
+                json.writeStringField("tipo", linha.getTipo());
+                json.writeNumberField("id", linha.getId());
+                json.writeStringField("descricao", linha.getDescricao());
+                json.writeNumberField("valor", linha.getValor());
+                json.writeStringField("status", linha.getStatus());
+                json.writeStringField("formaPagamento", linha.getFormaPagamento());
+                if (!entrada) {
+                    json.writeStringField("categoria", linha.getCategoria());
+                }
+                json.writeNumberField("saldoAcumulado", totalEntradas.subtract(totalSaidas));
+                json.writeEndObject();
+                lancamentos++;
+            }
+
+            json.writeEndArray();
+            json.writeNumberField("totalEntradas", totalEntradas);
+            json.writeNumberField("totalSaidas", totalSaidas);
+            json.writeNumberField("saldoFinal", totalEntradas.subtract(totalSaidas));
+            json.writeEndObject();
+        }
 
-        var contasReceber = contaReceberService.buscarPorPeriodo(dataInicio, dataFim);
-        var contasPagar = contaPagarService.buscarPorPeriodo(dataInicio, dataFim);
-
-        List<Map<String, Object>> entradas = contasReceber.stream()
-                .map(conta -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("data", conta.getDataPagamento() != null ?
-                            conta.getDataPagamento() : conta.getDataVencimento());
-                    item.put("descricao", conta.getDescricao());
-                    item.put("valor", conta.getValor());
-                    item.put("tipo", "ENTRADA");
-                    item.put("status", conta.getStatus());
-                    item.put("formaPagamento", conta.getFormaPagamento());
-                    return item;
-                })
-                .sorted(Comparator.comparing(m -> (LocalDate) m.get("data")))
-                .collect(Collectors.toList());
-
-        List<Map<String, Object>> saidas = contasPagar.stream()
-                .map(conta -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("data", conta.getDataPagamento() != null ?
-                            conta.getDataPagamento() : conta.getDataVencimento());
-                    item.put("descricao", conta.getDescricao());
-                    item.put("valor", conta.getValor());
-                    item.put("tipo", "SAIDA");
-                    item.put("status", conta.getStatus());
-                    item.put("categoria", conta.getCategoria());
-                    item.put("formaPagamento", conta.getFormaPagamento());
-                    return item;
-                })
-                .sorted(Comparator.comparing(m -> (LocalDate) m.get("data")))
-                .collect(Collectors.toList());
-
-        BigDecimal totalEntradas = entradas.stream()
-                .map(m -> (BigDecimal) m.get("valor"))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalSaidas = saidas.stream()
-                .map(m -> (BigDecimal) m.get("valor"))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, Object> fluxoCaixa = new HashMap<>();
-        fluxoCaixa.put("dataInicio", dataInicio);
-        fluxoCaixa.put("dataFim", dataFim);
-        fluxoCaixa.put("entradas", entradas);
-        fluxoCaixa.put("saidas", saidas);
-        fluxoCaixa.put("totalEntradas", totalEntradas);
-        fluxoCaixa.put("totalSaidas", totalSaidas);
-        fluxoCaixa.put("saldoFinal", totalEntradas.subtract(totalSaidas));
+        log.debug("Fluxo de caixa gerado: {} lançamentos", lancamentos);
+    }
 
-        return fluxoCaixa;
+    /**
+     * Chamado também pelo controller antes de abrir o streaming, quando ainda dá para responder 400
+     */
+    public void validarPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            throw new BusinessException("Data inicial não pode ser posterior à data final");
+        }
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> obterFaturamentoPorMes(int ano) {
         log.info("Gerando faturamento por mês do ano: {}", ano);
 
-        Map<String, BigDecimal> faturamentoPorMes = new LinkedHashMap<>();
-
-        for (int mes = 1; mes <= 12; mes++) {
-            YearMonth anoMes = YearMonth.of(ano, mes);
-            LocalDate inicio = anoMes.atDay(1);
-            LocalDate fim = anoMes.atEndOfMonth();
+        SerieFinanceiraResponse serie = obterSerieFinanceira(
+                LocalDate.of(ano, 1, 1), LocalDate.of(ano, 12, 31), Granularidade.MES);
 
-            BigDecimal faturamento = contaReceberService.somarRecebidoPorPeriodo(inicio, fim);
-            faturamentoPorMes.put(anoMes.getMonth().toString(), faturamento);
+        Map<String, BigDecimal> faturamentoPorMes = new LinkedHashMap<>();
+        for (SerieFinanceiraResponse.Ponto ponto : serie.getPontos()) {
+            faturamentoPorMes.put(ponto.getPeriodo().getMonth().toString(), ponto.getRecebido());
         }
 
-        BigDecimal totalAno = faturamentoPorMes.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
         Map<String, Object> resultado = new HashMap<>();
         resultado.put("ano", ano);
         resultado.put("faturamentoPorMes", faturamentoPorMes);
-        resultado.put("totalAno", totalAno);
+        resultado.put("totalAno", serie.getTotalRecebido());
 
         return resultado;
     }
 
+    /**
+     * Recebido, pago e saldo por dia, semana ou mês do período, com uma única consulta ao consolidado diário.
+     * Períodos sem movimento entram zerados; o primeiro e o último podem ser parciais.
+     */
+    @Transactional(readOnly = true)
+    public SerieFinanceiraResponse obterSerieFinanceira(LocalDate dataInicio, LocalDate dataFim,
+                                                        Granularidade granularidade) {
+        log.debug("Gerando série financeira de {} a {} por {}", dataInicio, dataFim, granularidade);
+
+        validarPeriodo(dataInicio, dataFim);
+
+        List<LocalDate> periodos = new ArrayList<>();
+        LocalDate ultimo = granularidade.truncar(dataFim);
+        for (LocalDate periodo = granularidade.truncar(dataInicio); !periodo.isAfter(ultimo);
+             periodo = granularidade.proximo(periodo)) {
+            if (periodos.size() == maxPontosSerie) {
+                throw new BusinessException("Período longo demais para a granularidade " + granularidade
+                        + " (máximo de " + maxPontosSerie + " pontos)");
+            }
+            periodos.add(periodo);
+        }
+
+        Map<LocalDate, TotalPeriodoFinanceiro> totais = financeiroDiarioService
+                .somarPorPeriodo(granularidade, dataInicio, dataFim).stream()
+                .collect(Collectors.toMap(TotalPeriodoFinanceiro::getPeriodo, t -> t));
+
+        List<SerieFinanceiraResponse.Ponto> pontos = new ArrayList<>(periodos.size());
+        BigDecimal totalRecebido = BigDecimal.ZERO;
+        BigDecimal totalPago = BigDecimal.ZERO;
+
+        for (LocalDate periodo : periodos) {
+            TotalPeriodoFinanceiro total = totais.get(periodo);
+            BigDecimal recebido = total != null ? total.getRecebido() : BigDecimal.ZERO;
+            BigDecimal pago = total != null ? total.getPago() : BigDecimal.ZERO;
+
+            pontos.add(SerieFinanceiraResponse.Ponto.builder()
+                    .periodo(periodo)
+                    .recebido(recebido)
+                    .pago(pago)
+                    .saldo(recebido.subtract(pago))
+                    .build());
+            totalRecebido = totalRecebido.add(recebido);
+            totalPago = totalPago.add(pago);
+        }
+
+        return SerieFinanceiraResponse.builder()
+                .dataInicio(dataInicio)
+                .dataFim(dataFim)
+                .granularidade(granularidade)
+                .pontos(pontos)
+                .totalRecebido(totalRecebido)
+                .totalPago(totalPago)
+                .saldo(totalRecebido.subtract(totalPago))
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public Map<String, Object> obterDespesasPorCategoria(LocalDate dataInicio, LocalDate dataFim) {
         log.info("Gerando despesas por categoria do período: {} a {}", dataInicio, dataFim);
@@ -0,0 +1,171 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline de lembretes de agendamento.
+ *
+ * - Lê só a janela devida (agora até agora + antecedência), em páginas por cursor (dataHora, id)
+ * - Cliente e procedimento vêm na mesma consulta
+ * - Cada página é enviada em paralelo no lembreteExecutor (pool limitado)
+ * - Os enviados com sucesso são marcados com um único UPDATE por página
+ *
+ * Falhas não são marcadas e voltam na próxima execução enquanto estiverem na janela.
+ */
+@Slf4j
+@Service
+public class LembreteService {
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final AgendamentoService agendamentoService;
+    private final NotificacaoService notificacaoService;
+    private final Executor lembreteExecutor;
+
+    private final Counter enviados;
+    private final Counter falhas;
+    private final Timer atraso;
+    private final Timer duracaoExecucao;
+    private final AtomicLong vazaoUltimaExecucao = new AtomicLong();
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+
+    @Value("${notificacao.lembrete.antecedencia-horas:24}")
+    private long antecedenciaHoras;
+
+    @Value("${notificacao.lembrete.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    public LembreteService(AgendamentoRepository agendamentoRepository,
+                           AgendamentoService agendamentoService,
+                           NotificacaoService notificacaoService,
+                           @Qualifier("lembreteExecutor") Executor lembreteExecutor,
+                           MeterRegistry meterRegistry) {
+        this.agendamentoRepository = agendamentoRepository;
+        this.agendamentoService = agendamentoService;
+        this.notificacaoService = notificacaoService;
+        this.lembreteExecutor = lembreteExecutor;
+
+        this.enviados = Counter.builder("clinica.lembretes.enviados")
+                .description("Lembretes enviados e marcados")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("clinica.lembretes.falhas")
+                .description("Lembretes que falharam e ficam para a próxima execução")
+                .register(meterRegistry);
+        this.atraso = Timer.builder("clinica.lembretes.atraso")
+                .description("Tempo entre o momento em que o lembrete ficou devido e o envio")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.duracaoExecucao = Timer.builder("clinica.lembretes.execucao")
+                .description("Duração de cada execução do pipeline de lembretes")
+                .register(meterRegistry);
+        Gauge.builder("clinica.lembretes.vazao", vazaoUltimaExecucao, AtomicLong::get)
+                .description("Lembretes por segundo na última execução")
+                .baseUnit("lembretes/s")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Processa todos os lembretes devidos. Retorna quantos foram enviados e marcados.
+     */
+    public int processarLembretes() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.warn("Processamento de lembretes já em andamento, execução ignorada");
+            return 0;
+        }
+
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDateTime fim = agora.plusHours(antecedenciaHoras);
+            long comeco = System.nanoTime();
+
+            LocalDateTime ultimaDataHora = agora;
+            Long ultimoId = 0L;
+            int totalEnviados = 0;
+            int totalFalhas = 0;
+
+            while (true) {
+                List<Agendamento> lote = agendamentoRepository.findLembretesPendentes(
+                        ultimaDataHora, ultimoId, fim, Limit.of(tamanhoLote));
+                if (lote.isEmpty()) {
+                    break;
+                }
+
+                List<Long> sucesso = despachar(lote);
+                int marcados = agendamentoService.marcarLembretesEnviados(sucesso);
+
+                totalEnviados += marcados;
+                totalFalhas += lote.size() - sucesso.size();
+
+                Agendamento ultimo = lote.get(lote.size() - 1);
+                ultimaDataHora = ultimo.getDataHora();
+                ultimoId = ultimo.getId();
+
+                if (lote.size() < tamanhoLote) {
+                    break;
+                }
+            }
+
+            long nanos = System.nanoTime() - comeco;
+            duracaoExecucao.record(Duration.ofNanos(nanos));
+            vazaoUltimaExecucao.set(nanos > 0 ? Math.round(totalEnviados / (nanos / 1_000_000_000.0)) : 0);
+
+            log.info("Lembretes processados - Enviados: {}, Falhas: {}, Duração: {} ms",
+                    totalEnviados, totalFalhas, nanos / 1_000_000);
+            return totalEnviados;
+
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Envia a página em paralelo e devolve os IDs enviados com sucesso
+     */
+    private List<Long> despachar(List<Agendamento> lote) {
+        List<CompletableFuture<Long>> envios = lote.stream()
+                .map(agendamento -> CompletableFuture.supplyAsync(() -> enviar(agendamento), lembreteExecutor))
+                .toList();
+
+        return envios.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Long enviar(Agendamento agendamento) {
+        try {
+            notificacaoService.enviarLembrete(agendamento);
+
+            LocalDateTime devidoEm = agendamento.getDataHora().minusHours(antecedenciaHoras);
+            Duration espera = Duration.between(devidoEm, LocalDateTime.now());
+            atraso.record(espera.isNegative() ? Duration.ZERO : espera);
+            enviados.increment();
+            return agendamento.getId();
+
+        } catch (Exception e) {
+            falhas.increment();
+            log.error("Erro ao enviar lembrete - Agendamento ID: {}", agendamento.getId(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.ServiceUnavailableException;
+import com.clinica.estetica.exception.TooManyRequestsException;
+import com.clinica.estetica.exception.UnauthorizedException;
+import com.clinica.estetica.model.dto.response.LoginResponse;
+import com.clinica.estetica.security.LimitadorTentativasLogin;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porta de entrada do login.
+ *
+ * - Username ou IP com falhas demais recebem 429 antes de qualquer BCrypt
+ * - A tentativa é contada como falha antes de ir para o pool e devolvida se a senha estiver
+ *   certa: tentativas paralelas do mesmo username não passam do limite enquanto o BCrypt roda
+ * - O BCrypt (AuthService.login) roda no loginExecutor; a thread do Tomcat fica livre enquanto isso
+ * - Com o pool e a fila cheios, o login é recusado na hora (503), sem enfileirar mais
+ */
+@Slf4j
+@Service
+public class LoginService {
+
+    private final AuthService authService;
+    private final LimitadorTentativasLogin limitador;
+    private final ThreadPoolTaskExecutor loginExecutor;
+
+    private final Timer latenciaSucesso;
+    private final Timer latenciaFalha;
+    private final Counter recusadosUsuario;
+    private final Counter recusadosIp;
+    private final Counter recusadosSobrecarga;
+
+    public LoginService(AuthService authService,
+                        LimitadorTentativasLogin limitador,
+                        @Qualifier("loginExecutor") ThreadPoolTaskExecutor loginExecutor,
+                        MeterRegistry meterRegistry) {
+        this.authService = authService;
+        this.limitador = limitador;
+        this.loginExecutor = loginExecutor;
+
+        this.latenciaSucesso = latencia("sucesso", meterRegistry);
+        this.latenciaFalha = latencia("falha", meterRegistry);
+        this.recusadosUsuario = recusados("bloqueio_usuario", meterRegistry);
+        this.recusadosIp = recusados("bloqueio_ip", meterRegistry);
+        this.recusadosSobrecarga = recusados("sobrecarga", meterRegistry);
+
+        Gauge.builder("clinica.login.fila", loginExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Logins aguardando o pool de BCrypt")
+                .register(meterRegistry);
+        Gauge.builder("clinica.login.limitador.chaves", limitador, LimitadorTentativasLogin::tamanho)
+                .description("Usernames e IPs com falhas de login rastreadas")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<LoginResponse> login(String username, String password, String ip) {
+        long esperaUsuario = limitador.reservarUsuario(username);
+        if (esperaUsuario > 0) {
+            recusadosUsuario.increment();
+            log.warn("Login recusado por excesso de falhas - Username: {}, IP: {}", username, ip);
+            throw new TooManyRequestsException("Muitas tentativas de login. Tente novamente mais tarde.",
+                    segundos(esperaUsuario));
+        }
+        long esperaIp = limitador.reservarIp(ip);
+        if (esperaIp > 0) {
+            limitador.devolverUsuario(username);
+            recusadosIp.increment();
+            log.warn("Login recusado por excesso de falhas do IP: {}", ip);
+            throw new TooManyRequestsException("Muitas tentativas de login. Tente novamente mais tarde.",
+                    segundos(esperaIp));
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> autenticar(username, password, ip, inicio), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            devolverReserva(username, ip);
+            recusadosSobrecarga.increment();
+            log.warn("Login recusado: pool de autenticação saturado - Username: {}", username);
+            throw new ServiceUnavailableException("Servidor ocupado. Tente novamente em instantes.", e);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private LoginResponse autenticar(String username, String password, String ip, long inicio) {
+        try {
+            LoginResponse response = authService.login(username, password);
+            limitador.registrarSucesso(username);
+            limitador.devolverIp(ip);
+            latenciaSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return response;
+        } catch (UnauthorizedException e) {
+            // A falha já foi contada na reserva
+            latenciaFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (RuntimeException e) {
+            // Erro que não diz nada sobre a senha (ex.: banco fora): não conta como tentativa
+            devolverReserva(username, ip);
+            throw e;
+        }
+    }
+
+    private void devolverReserva(String username, String ip) {
+        limitador.devolverUsuario(username);
+        limitador.devolverIp(ip);
+    }
+
+    private static Timer latencia(String resultado, MeterRegistry meterRegistry) {
+        return Timer.builder("clinica.login.latencia")
+                .description("Duração do login, incluindo a espera pelo pool de BCrypt")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static Counter recusados(String motivo, MeterRegistry meterRegistry) {
+        return Counter.builder("clinica.login.recusados")
+                .description("Logins recusados antes do BCrypt")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    private static long segundos(long ms) {
+        return Math.max(1, (ms + 999) / 1000);
+    }
+}
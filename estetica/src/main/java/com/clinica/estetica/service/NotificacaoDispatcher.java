@@ -0,0 +1,263 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.NotificacaoRegistradaEvent;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drena o outbox de notificações fora da requisição.
+ *
+ * - Acordado após o commit de cada registro (NotificacaoRegistradaEvent), ou no fim da
+ *   janela de agrupamento, e, como garantia, pela varredura periódica do NotificacaoOutboxScheduler
+ * - Um único ciclo de drenagem por vez, em thread própria; reserva lotes com
+ *   SKIP LOCKED e entrega cada lote em paralelo no notificacaoExecutor
+ *
+ * Métricas por tipo de notificação: clinica.notificacao.entrega (resultado enviada,
+ * nova_tentativa ou falha = dead-letter) e clinica.notificacao.atraso (do registro no
+ * outbox até o envio, incluindo a janela de agrupamento); profundidade da fila e do
+ * dead-letter em clinica.notificacao.outbox, lida de contagens em memória que o
+ * NotificacaoOutboxScheduler atualiza periodicamente (o scrape não consulta o banco).
+ */
+@Slf4j
+@Component
+public class NotificacaoDispatcher {
+
+    private final NotificacaoOutboxService outboxService;
+    private final AgendamentoRepository agendamentoRepository;
+    private final NotificacaoService notificacaoService;
+    private final Executor notificacaoExecutor;
+    private final ScheduledExecutorService coordenador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "notificacao-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean drenando = new AtomicBoolean(false);
+    private final AtomicBoolean novasNotificacoes = new AtomicBoolean(false);
+
+    private final Map<TipoNotificacao, Map<StatusNotificacao, Timer>> entregas = new EnumMap<>(TipoNotificacao.class);
+    private final Map<TipoNotificacao, Timer> atrasos = new EnumMap<>(TipoNotificacao.class);
+    private final Map<StatusNotificacao, AtomicLong> profundidade = new EnumMap<>(StatusNotificacao.class);
+
+    @Value("${notificacao.outbox.tamanho-lote:50}")
+    private int tamanhoLote;
+
+    public NotificacaoDispatcher(NotificacaoOutboxService outboxService,
+                                 AgendamentoRepository agendamentoRepository,
+                                 NotificacaoService notificacaoService,
+                                 @Qualifier("notificacaoExecutor") Executor notificacaoExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.outboxService = outboxService;
+        this.agendamentoRepository = agendamentoRepository;
+        this.notificacaoService = notificacaoService;
+        this.notificacaoExecutor = notificacaoExecutor;
+
+        for (TipoNotificacao tipo : TipoNotificacao.values()) {
+            Map<StatusNotificacao, Timer> porResultado = new EnumMap<>(StatusNotificacao.class);
+            porResultado.put(StatusNotificacao.ENVIADA, timerEntrega(meterRegistry, tipo, "enviada"));
+            porResultado.put(StatusNotificacao.PENDENTE, timerEntrega(meterRegistry, tipo, "nova_tentativa"));
+            porResultado.put(StatusNotificacao.FALHA, timerEntrega(meterRegistry, tipo, "falha"));
+            entregas.put(tipo, porResultado);
+            atrasos.put(tipo, Timer.builder("clinica.notificacao.atraso")
+                    .description("Tempo entre o registro no outbox e o envio da notificação")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+        }
+        for (StatusNotificacao status : List.of(StatusNotificacao.PENDENTE, StatusNotificacao.FALHA)) {
+            AtomicLong contagem = new AtomicLong();
+            profundidade.put(status, contagem);
+            Gauge.builder("clinica.notificacao.outbox", contagem, AtomicLong::get)
+                    .description("Notificações no outbox por status (PENDENTE = fila, FALHA = dead-letter)")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Recalcula as contagens expostas em clinica.notificacao.outbox (um COUNT por status)
+     */
+    public void atualizarProfundidade() {
+        profundidade.forEach((status, contagem) -> contagem.set(outboxService.contarPorStatus(status)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRegistrarNotificacao(NotificacaoRegistradaEvent event) {
+        long esperaMs = event.getDisponivelEm() == null
+                ? 0
+                : Duration.between(LocalDateTime.now(), event.getDisponivelEm()).toMillis();
+        if (esperaMs > 0) {
+            coordenador.schedule(this::acordar, esperaMs, TimeUnit.MILLISECONDS);
+        } else {
+            acordar();
+        }
+    }
+
+    /**
+     * Dispara uma drenagem em segundo plano sem bloquear quem chamou
+     */
+    public void acordar() {
+        novasNotificacoes.set(true);
+        if (!drenando.get()) {
+            coordenador.execute(this::drenar);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        coordenador.shutdown();
+    }
+
+    /**
+     * Entrega tudo o que estiver vencido no outbox. Retorna quantas foram processadas.
+     */
+    public int drenar() {
+        if (!drenando.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        int processadas = 0;
+        boolean concluido = false;
+        try {
+            do {
+                novasNotificacoes.set(false);
+                List<Long> ids;
+                while (!(ids = outboxService.reservarLote(tamanhoLote)).isEmpty()) {
+                    entregarLote(ids);
+                    processadas += ids.size();
+                }
+            } while (novasNotificacoes.get());
+            concluido = true;
+        } catch (Exception e) {
+            log.error("Erro ao drenar outbox de notificações: {}", e.getMessage(), e);
+        } finally {
+            drenando.set(false);
+        }
+
+        // Registro que chegou entre a última reserva e a liberação do ciclo
+        if (concluido && novasNotificacoes.get()) {
+            acordar();
+        }
+
+        if (processadas > 0) {
+            log.info("Outbox de notificações drenado - {} notificação(ões) processada(s)", processadas);
+        }
+        return processadas;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void entregarLote(List<Long> ids) {
+        List<NotificacaoOutbox> notificacoes = outboxService.buscarPorIds(ids);
+        Map<Long, Agendamento> agendamentos = carregarAgendamentos(notificacoes);
+
+        CompletableFuture<?>[] entregas = notificacoes.stream()
+                .map(n -> CompletableFuture.runAsync(() -> entregar(n, agendamentos), notificacaoExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(entregas).join();
+    }
+
+    /**
+     * Agendamentos de todo o lote (incluindo sessões de séries) em uma única consulta
+     */
+    private Map<Long, Agendamento> carregarAgendamentos(List<NotificacaoOutbox> notificacoes) {
+        Set<Long> ids = new HashSet<>();
+        for (NotificacaoOutbox notificacao : notificacoes) {
+            ids.add(notificacao.getAgendamentoId());
+            List<Long> sessoes = outboxService.lerPayload(notificacao).getSessoes();
+            if (sessoes != null) {
+                ids.addAll(sessoes);
+            }
+        }
+        return agendamentoRepository.findComClienteEProcedimento(ids).stream()
+                .collect(Collectors.toMap(Agendamento::getId, Function.identity()));
+    }
+
+    private void entregar(NotificacaoOutbox notificacao, Map<Long, Agendamento> agendamentos) {
+        Map<StatusNotificacao, Timer> porResultado = entregas.get(notificacao.getTipo());
+        long inicio = System.nanoTime();
+
+        Agendamento agendamento = agendamentos.get(notificacao.getAgendamentoId());
+        if (agendamento == null) {
+            StatusNotificacao status = outboxService.registrarFalha(notificacao.getId(), notificacao.getReserva(),
+                    "Agendamento não encontrado: " + notificacao.getAgendamentoId(), true);
+            registrar(porResultado, status, inicio);
+            return;
+        }
+
+        try {
+            enviar(notificacao, agendamento, agendamentos);
+            outboxService.marcarEnviada(notificacao.getId(), notificacao.getReserva());
+            registrar(porResultado, StatusNotificacao.ENVIADA, inicio);
+            if (notificacao.getCreatedAt() != null) {
+                Duration atraso = Duration.between(notificacao.getCreatedAt(), LocalDateTime.now());
+                atrasos.get(notificacao.getTipo()).record(atraso.isNegative() ? Duration.ZERO : atraso);
+            }
+        } catch (Exception e) {
+            StatusNotificacao status = outboxService.registrarFalha(notificacao.getId(), notificacao.getReserva(),
+                    e.getClass().getSimpleName() + ": " + e.getMessage(), false);
+            registrar(porResultado, status, inicio);
+        }
+    }
+
+    private static void registrar(Map<StatusNotificacao, Timer> porResultado, StatusNotificacao status, long inicio) {
+        Timer timer = porResultado.get(status);
+        if (timer != null) {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timerEntrega(MeterRegistry meterRegistry, TipoNotificacao tipo, String resultado) {
+        return Timer.builder("clinica.notificacao.entrega")
+                .description("Entrega de cada notificação do outbox (montagem + canais)")
+                .tags("tipo", tipo.name(), "resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private void enviar(NotificacaoOutbox notificacao, Agendamento agendamento, Map<Long, Agendamento> agendamentos) {
+        switch (notificacao.getTipo()) {
+            case CONFIRMACAO_SOLICITACAO -> notificacaoService.enviarConfirmacaoSolicitacao(agendamento);
+            case NOVA_SOLICITACAO_ESTETICISTA -> notificacaoService.notificarEsteticistaNovoAgendamento(agendamento);
+            case APROVACAO -> notificacaoService.enviarAprovacaoAgendamento(agendamento);
+            case CONFIRMACAO_AGENDAMENTO -> notificacaoService.enviarConfirmacaoAgendamento(agendamento);
+            case REAGENDAMENTO -> notificacaoService.enviarNotificacaoReagendamento(agendamento);
+            case CANCELAMENTO -> notificacaoService.enviarCancelamentoAgendamento(agendamento);
+            case PROPOSTA_NOVO_HORARIO -> {
+                NotificacaoOutboxService.Payload payload = outboxService.lerPayload(notificacao);
+                notificacaoService.enviarPropostaNovoHorario(agendamento, payload.getNovoHorario(), payload.getMotivo());
+            }
+            case CONFIRMACAO_SERIE -> {
+                List<Agendamento> sessoes = outboxService.lerPayload(notificacao).getSessoes().stream()
+                        .map(agendamentos::get)
+                        .filter(Objects::nonNull)
+                        .sorted(Comparator.comparing(Agendamento::getDataHora))
+                        .toList();
+                notificacaoService.enviarConfirmacaoSerie(sessoes);
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.NotificacaoRegistradaEvent;
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.exception.ResourceNotFoundException;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import com.clinica.estetica.repository.NotificacaoOutboxRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Outbox de notificações de agendamento.
+ *
+ * - registrar*: grava na transação do agendamento (obrigatória), sem nenhum I/O externo
+ * - reservarLote / marcarEnviada / registrarFalha: usados pelo NotificacaoDispatcher;
+ *   cada reserva grava um token e só quem ainda o detém conclui a notificação
+ *
+ * Falhas são reagendadas com backoff exponencial; ao esgotar as tentativas a
+ * notificação fica em FALHA (dead-letter) até ser reprocessada manualmente.
+ *
+ * Mensagens de estado do agendamento (TipoNotificacao.isEstadoDoAgendamento) ficam retidas
+ * pela janela de agrupamento; se outra do mesmo agendamento chegar antes do envio, a anterior
+ * vira SUBSTITUIDA e só a mais nova sai, no fim da janela aberta pela primeira.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificacaoOutboxService {
+
+    private static final int TAMANHO_MAXIMO_ERRO = 2000;
+
+    private final NotificacaoOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${notificacao.outbox.max-tentativas:6}")
+    private int maxTentativas;
+
+    @Value("${notificacao.outbox.backoff-inicial-ms:30000}")
+    private long backoffInicialMs;
+
+    @Value("${notificacao.outbox.backoff-maximo-ms:3600000}")
+    private long backoffMaximoMs;
+
+    @Value("${notificacao.outbox.prazo-processamento-ms:300000}")
+    private long prazoProcessamentoMs;
+
+    @Value("${notificacao.outbox.janela-agrupamento-ms:15000}")
+    private long janelaAgrupamentoMs;
+
+    // ==================== REGISTRO ====================
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoNotificacao tipo, Agendamento agendamento) {
+        gravar(tipo, agendamento.getId(), null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPropostaNovoHorario(Agendamento agendamento, LocalDateTime novoHorario, String motivo) {
+        Payload payload = new Payload();
+        payload.setNovoHorario(novoHorario);
+        payload.setMotivo(motivo);
+        gravar(TipoNotificacao.PROPOSTA_NOVO_HORARIO, agendamento.getId(), payload);
+    }
+
+    /**
+     * Uma única notificação para a série inteira, referenciando a primeira sessão
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarConfirmacaoSerie(List<Agendamento> sessoes) {
+        Payload payload = new Payload();
+        payload.setSessoes(sessoes.stream().map(Agendamento::getId).toList());
+        gravar(TipoNotificacao.CONFIRMACAO_SERIE, sessoes.get(0).getId(), payload);
+    }
+
+    // ==================== DESPACHO ====================
+
+    /**
+     * Reserva notificações vencidas por um prazo; se o dispatcher cair antes de concluir,
+     * elas voltam para a fila quando o prazo expirar
+     */
+    @Transactional
+    public List<Long> reservarLote(int limite) {
+        LocalDateTime agora = LocalDateTime.now();
+        return outboxRepository.reservarLote(agora, agora.plusNanos(prazoProcessamentoMs * 1_000_000),
+                UUID.randomUUID(), limite);
+    }
+
+    @Transactional(readOnly = true)
+    public List<NotificacaoOutbox> buscarPorIds(Collection<Long> ids) {
+        return outboxRepository.findAllById(ids);
+    }
+
+    /**
+     * Marca como ENVIADA. Retorna false se a reserva não vale mais (gravação tardia ignorada).
+     */
+    @Transactional
+    public boolean marcarEnviada(Long id, UUID reserva) {
+        Optional<NotificacaoOutbox> reservada = buscarReservada(id, reserva);
+        if (reservada.isEmpty()) {
+            return false;
+        }
+        NotificacaoOutbox notificacao = reservada.get();
+        notificacao.setStatus(StatusNotificacao.ENVIADA);
+        notificacao.setTentativas(notificacao.getTentativas() + 1);
+        notificacao.setEnviadaEm(LocalDateTime.now());
+        notificacao.setUltimoErro(null);
+        notificacao.setReserva(null);
+        return true;
+    }
+
+    /**
+     * Registra a falha e agenda nova tentativa, ou move para FALHA se esgotou as tentativas
+     * (ou se a falha é definitiva). Retorna o novo status, ou null se a reserva não vale mais.
+     */
+    @Transactional
+    public StatusNotificacao registrarFalha(Long id, UUID reserva, String erro, boolean definitiva) {
+        Optional<NotificacaoOutbox> reservada = buscarReservada(id, reserva);
+        if (reservada.isEmpty()) {
+            return null;
+        }
+        NotificacaoOutbox notificacao = reservada.get();
+        notificacao.setReserva(null);
+        int tentativas = notificacao.getTentativas() + 1;
+        notificacao.setTentativas(tentativas);
+        notificacao.setUltimoErro(truncar(erro));
+
+        if (definitiva || tentativas >= maxTentativas) {
+            notificacao.setStatus(StatusNotificacao.FALHA);
+            log.error("Notificação movida para FALHA após {} tentativa(s) - ID: {}, Tipo: {}, Agendamento: {}, Erro: {}",
+                    tentativas, id, notificacao.getTipo(), notificacao.getAgendamentoId(), erro);
+        } else {
+            LocalDateTime proxima = LocalDateTime.now().plusNanos(calcularBackoffMs(tentativas) * 1_000_000);
+            notificacao.setStatus(StatusNotificacao.PENDENTE);
+            notificacao.setProximaTentativa(proxima);
+            log.warn("Falha ao entregar notificação ID: {} (tentativa {}/{}), nova tentativa em {}: {}",
+                    id, tentativas, maxTentativas, proxima, erro);
+        }
+        return notificacao.getStatus();
+    }
+
+    /**
+     * Backoff exponencial: inicial, 2x, 4x... limitado ao máximo
+     */
+    public long calcularBackoffMs(int tentativas) {
+        int expoente = Math.min(Math.max(tentativas - 1, 0), 30);
+        return Math.min(backoffInicialMs << expoente, backoffMaximoMs);
+    }
+
+    public Payload lerPayload(NotificacaoOutbox notificacao) {
+        if (notificacao.getPayload() == null) {
+            return new Payload();
+        }
+        try {
+            return objectMapper.readValue(notificacao.getPayload(), Payload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido na notificação " + notificacao.getId(), e);
+        }
+    }
+
+    // ==================== DEAD-LETTER ====================
+
+    @Transactional(readOnly = true)
+    public Page<NotificacaoOutbox> listarPorStatus(StatusNotificacao status, Pageable pageable) {
+        return outboxRepository.findByStatus(status, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Long contarPorStatus(StatusNotificacao status) {
+        return outboxRepository.countByStatus(status);
+    }
+
+    /**
+     * Devolve uma notificação em FALHA para a fila, com as tentativas zeradas
+     */
+    @Transactional
+    public NotificacaoOutbox reprocessar(Long id) {
+        NotificacaoOutbox notificacao = buscarPorId(id);
+        if (notificacao.getStatus() != StatusNotificacao.FALHA) {
+            throw new BusinessException("Apenas notificações com falha podem ser reprocessadas");
+        }
+        notificacao.setStatus(StatusNotificacao.PENDENTE);
+        notificacao.setTentativas(0);
+        notificacao.setProximaTentativa(LocalDateTime.now());
+        eventPublisher.publishEvent(new NotificacaoRegistradaEvent(id, notificacao.getProximaTentativa()));
+        log.info("Notificação ID: {} devolvida para a fila", id);
+        return notificacao;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Reserva expirada e retomada por outro dispatcher: quem chega atrasado não sobrescreve o resultado
+     */
+    private Optional<NotificacaoOutbox> buscarReservada(Long id, UUID reserva) {
+        Optional<NotificacaoOutbox> reservada = outboxRepository.findReservada(id, reserva);
+        if (reservada.isEmpty()) {
+            log.warn("Reserva da notificação ID: {} expirou ou foi retomada; resultado ignorado", id);
+        }
+        return reservada;
+    }
+
+    private void gravar(TipoNotificacao tipo, Long agendamentoId, Payload payload) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime disponivelEm = janelaAgrupamentoMs > 0 && tipo.isEstadoDoAgendamento()
+                ? agrupar(agendamentoId, agora)
+                : agora;
+
+        NotificacaoOutbox notificacao = NotificacaoOutbox.builder()
+                .tipo(tipo)
+                .agendamentoId(agendamentoId)
+                .payload(payload != null ? escrever(payload) : null)
+                .proximaTentativa(disponivelEm)
+                .build();
+        NotificacaoOutbox salva = outboxRepository.save(notificacao);
+        eventPublisher.publishEvent(new NotificacaoRegistradaEvent(salva.getId(), disponivelEm));
+        log.debug("Notificação {} registrada no outbox - Agendamento ID: {}", tipo, agendamentoId);
+    }
+
+    /**
+     * Substitui as mensagens de estado pendentes do agendamento e devolve quando a nova deve sair:
+     * no fim da janela já aberta (nunca depois de agora + janela) ou no fim de uma nova janela
+     */
+    private LocalDateTime agrupar(Long agendamentoId, LocalDateTime agora) {
+        List<TipoNotificacao> tipos = TipoNotificacao.estadosDoAgendamento();
+        LocalDateTime limite = agora.plusNanos(janelaAgrupamentoMs * 1_000_000);
+        LocalDateTime primeiroVencimento = outboxRepository.findPrimeiroVencimentoPendente(agendamentoId, tipos);
+
+        int substituidas = outboxRepository.substituirPendentes(agendamentoId, tipos, agora);
+        if (substituidas == 0 || primeiroVencimento == null) {
+            return limite;
+        }
+
+        log.debug("{} notificação(ões) pendente(s) substituída(s) - Agendamento ID: {}", substituidas, agendamentoId);
+        if (primeiroVencimento.isBefore(agora)) {
+            return agora;
+        }
+        return primeiroVencimento.isAfter(limite) ? limite : primeiroVencimento;
+    }
+
+    private NotificacaoOutbox buscarPorId(Long id) {
+        return outboxRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Notificação não encontrada com ID: " + id));
+    }
+
+    private String escrever(Payload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar payload da notificação", e);
+        }
+    }
+
+    private static String truncar(String erro) {
+        if (erro == null || erro.length() <= TAMANHO_MAXIMO_ERRO) {
+            return erro;
+        }
+        return erro.substring(0, TAMANHO_MAXIMO_ERRO);
+    }
+
+    /**
+     * Dados extras guardados em notificacao_outbox.payload
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Payload {
+        private LocalDateTime novoHorario;
+        private String motivo;
+        private List<Long> sessoes;
+    }
+}
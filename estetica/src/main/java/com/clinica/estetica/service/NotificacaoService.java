@@ -8,10 +8,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+/**
+ * Monta e envia as notificações por email e SMS.
+ *
+ * As notificações de agendamento são entregues pelo NotificacaoDispatcher a partir do
+ * outbox; falhas são propagadas para que o dispatcher agende uma nova tentativa.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -19,8 +28,7 @@ public class NotificacaoService {
 
     private final EmailService emailService;
     private final SmsService smsService;
-    private final AgendamentoService agendamentoService;
-    private final ClienteService clienteService;
+    private final TemplateService templateService;
 
     @Value("${clinica.email.esteticista:esteticista@clinica.com}")
     private String emailEsteticista;
@@ -37,7 +45,6 @@ public class NotificacaoService {
     /**
      * Envia confirmação de que a solicitação foi recebida (Status: PENDENTE)
      */
-    @Async
     public void enviarConfirmacaoSolicitacao(Agendamento agendamento) {
         log.info("Enviando confirmação de solicitação recebida - Agendamento ID: {}", agendamento.getId());
 
@@ -47,37 +54,20 @@ public class NotificacaoService {
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
                 String assunto = "Solicitação Recebida - Agendamento";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Recebemos sua solicitação de agendamento!\n\n" +
-                                "Detalhes Solicitados:\n" +
-                                "Procedimento: %s\n" +
-                                "Data/Hora: %s\n" +
-                                "Esteticista: %s\n" +
-                                "Valor: R$ %.2f\n\n" +
-                                "Sua solicitação será avaliada pela nossa equipe e você receberá " +
-                                "a confirmação em breve (geralmente em até 2 horas).\n\n" +
-                                "Caso o horário não esteja disponível, entraremos em contato " +
-                                "para sugerir outras opções.\n\n" +
-                                "Aguarde nossa confirmação!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        agendamento.getProcedimento().getNome(),
-                        dataHora,
-                        agendamento.getEsteticista(),
-                        agendamento.getValorTotal()
-                );
+                String mensagem = templateService.renderizar("email/confirmacao-solicitacao",
+                        "nome", cliente.getNome(),
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "dataHora", dataHora,
+                        "esteticista", agendamento.getEsteticista(),
+                        "valor", formatarValor(agendamento.getValorTotal()));
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
 
             if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
-                String mensagemSms = String.format(
-                        "Olá %s! Recebemos seu pedido de agendamento para %s. " +
-                                "Você receberá confirmação em breve. - Clínica de Estética",
-                        cliente.getNome().split(" ")[0],
-                        agendamento.getDataHora().format(DATE_FORMATTER)
-                );
+                String mensagemSms = templateService.renderizar("sms/confirmacao-solicitacao",
+                        "primeiroNome", primeiroNome(cliente),
+                        "data", agendamento.getDataHora().format(DATE_FORMATTER));
 
                 smsService.enviarSms(cliente.getCelular(), mensagemSms);
             }
@@ -86,13 +76,13 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao enviar confirmação de solicitação - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     /**
      * Notifica cliente que agendamento foi APROVADO
      */
-    @Async
     public void enviarAprovacaoAgendamento(Agendamento agendamento) {
         log.info("Enviando aprovação de agendamento - ID: {}", agendamento.getId());
 
@@ -102,44 +92,25 @@ public class NotificacaoService {
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
                 String assunto = "✅ Agendamento CONFIRMADO!";
-                String mensagem = String.format(
-                        "Ótima notícia, %s! 🎉\n\n" +
-                                "Seu agendamento foi APROVADO e CONFIRMADO!\n\n" +
-                                "📅 Detalhes do Agendamento:\n" +
-                                "━━━━━━━━━━━━━━━━━━━━━━\n" +
-                                "💆 Procedimento: %s\n" +
-                                "📆 Data/Hora: %s\n" +
-                                "👩 Esteticista: %s\n" +
-                                "⏱️ Duração: %d minutos\n" +
-                                "💰 Valor: R$ %.2f\n" +
-                                "━━━━━━━━━━━━━━━━━━━━━━\n\n" +
-                                "⚠️ IMPORTANTE:\n" +
-                                "- Chegue 10 minutos antes do horário\n" +
-                                "- %s\n\n" +
-                                "📱 Em caso de imprevistos, avise com antecedência.\n\n" +
-                                "Aguardamos você!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        agendamento.getProcedimento().getNome(),
-                        dataHora,
-                        agendamento.getEsteticista(),
-                        agendamento.getDuracaoMinutos(),
-                        agendamento.getValorTotal(),
-                        agendamento.getProcedimento().getPreparoNecessario() != null ?
-                                agendamento.getProcedimento().getPreparoNecessario() : "Nenhum preparo especial necessário"
-                );
+                String mensagem = templateService.renderizar("email/aprovacao",
+                        "nome", cliente.getNome(),
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "dataHora", dataHora,
+                        "esteticista", agendamento.getEsteticista(),
+                        "duracao", agendamento.getDuracaoMinutos(),
+                        "valor", formatarValor(agendamento.getValorTotal()),
+                        "preparo", agendamento.getProcedimento().getPreparoNecessario() != null ?
+                                agendamento.getProcedimento().getPreparoNecessario() : "Nenhum preparo especial necessário");
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
 
             if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
-                String mensagemSms = String.format(
-                        "✅ %s, seu agendamento foi CONFIRMADO! %s às %s com %s. Aguardamos você! - Clínica",
-                        cliente.getNome().split(" ")[0],
-                        agendamento.getDataHora().format(DATE_FORMATTER),
-                        agendamento.getDataHora().format(TIME_FORMATTER),
-                        agendamento.getEsteticista()
-                );
+                String mensagemSms = templateService.renderizar("sms/aprovacao",
+                        "primeiroNome", primeiroNome(cliente),
+                        "data", agendamento.getDataHora().format(DATE_FORMATTER),
+                        "hora", agendamento.getDataHora().format(TIME_FORMATTER),
+                        "esteticista", agendamento.getEsteticista());
 
                 smsService.enviarSms(cliente.getCelular(), mensagemSms);
             }
@@ -148,13 +119,13 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao enviar aprovação - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     /**
      * Notifica cliente sobre proposta de novo horário
      */
-    @Async
     public void enviarPropostaNovoHorario(Agendamento agendamento, LocalDateTime novoHorario, String motivo) {
         log.info("Enviando proposta de novo horário - Agendamento ID: {}", agendamento.getId());
 
@@ -165,42 +136,23 @@ public class NotificacaoService {
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
                 String assunto = "Proposta de Novo Horário - Agendamento";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Sobre sua solicitação de agendamento...\n\n" +
-                                "Infelizmente o horário solicitado não está disponível:\n" +
-                                "❌ Horário solicitado: %s\n" +
-                                "Motivo: %s\n\n" +
-                                "Mas temos uma ótima alternativa! ✨\n\n" +
-                                "✅ NOVO HORÁRIO PROPOSTO: %s\n\n" +
-                                "Procedimento: %s\n" +
-                                "Esteticista: %s\n" +
-                                "Valor: R$ %.2f\n\n" +
-                                "Para CONFIRMAR este novo horário, acesse:\n" +
-                                "[LINK PARA CONFIRMAR]\n\n" +
-                                "Ou entre em contato conosco para sugerir outro horário.\n\n" +
-                                "Aguardamos seu retorno!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        horarioOriginal,
-                        motivo,
-                        novoHorarioFormatado,
-                        agendamento.getProcedimento().getNome(),
-                        agendamento.getEsteticista(),
-                        agendamento.getValorTotal()
-                );
+                String mensagem = templateService.renderizar("email/proposta-novo-horario",
+                        "nome", cliente.getNome(),
+                        "horarioOriginal", horarioOriginal,
+                        "motivo", motivo,
+                        "novoHorario", novoHorarioFormatado,
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "esteticista", agendamento.getEsteticista(),
+                        "valor", formatarValor(agendamento.getValorTotal()));
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
 
             if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
-                String mensagemSms = String.format(
-                        "%s, o horário %s não está disponível. Podemos em %s? " +
-                                "Confirme pelo link ou ligue para nós. - Clínica",
-                        cliente.getNome().split(" ")[0],
-                        agendamento.getDataHora().format(TIME_FORMATTER),
-                        novoHorario.format(DATETIME_FORMATTER)
-                );
+                String mensagemSms = templateService.renderizar("sms/proposta-novo-horario",
+                        "primeiroNome", primeiroNome(cliente),
+                        "hora", agendamento.getDataHora().format(TIME_FORMATTER),
+                        "novoHorario", novoHorarioFormatado);
 
                 smsService.enviarSms(cliente.getCelular(), mensagemSms);
             }
@@ -209,109 +161,112 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao enviar proposta de novo horário - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     /**
-     * Envia lembrete de agendamento 24h antes (já existente, mantido)
+     * Envia o lembrete por email e SMS sem marcar o agendamento; falhas são propagadas.
+     * Usado pelo LembreteService, que marca o lote inteiro de uma vez.
      */
-    @Async
-    public void enviarLembreteAgendamento(Agendamento agendamento) {
-        log.info("Enviando lembrete de agendamento ID: {}", agendamento.getId());
+    public void enviarLembrete(Agendamento agendamento) {
+        Cliente cliente = agendamento.getCliente();
+        String dataHora = agendamento.getDataHora().format(DATETIME_FORMATTER);
+
+        if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
+            String assunto = "Lembrete: Agendamento Amanhã! 📅";
+            String mensagem = templateService.renderizar("email/lembrete",
+                    "nome", cliente.getNome(),
+                    "dataHora", dataHora,
+                    "procedimento", agendamento.getProcedimento().getNome(),
+                    "esteticista", agendamento.getEsteticista(),
+                    "valor", formatarValor(agendamento.getValorTotal()));
+
+            emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
+        }
+
+        if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
+            String mensagemSms = templateService.renderizar("sms/lembrete",
+                    "primeiroNome", primeiroNome(cliente),
+                    "hora", agendamento.getDataHora().format(TIME_FORMATTER),
+                    "procedimento", agendamento.getProcedimento().getNome());
+
+            smsService.enviarSms(cliente.getCelular(), mensagemSms);
+        }
+    }
+
+    /**
+     * Envia confirmação após criação de agendamento direto (já existente)
+     */
+    public void enviarConfirmacaoAgendamento(Agendamento agendamento) {
+        log.info("Enviando confirmação de agendamento direto - ID: {}", agendamento.getId());
 
         try {
             Cliente cliente = agendamento.getCliente();
             String dataHora = agendamento.getDataHora().format(DATETIME_FORMATTER);
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
-                String assunto = "Lembrete: Agendamento Amanhã! 📅";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Este é um lembrete do seu agendamento AMANHÃ:\n\n" +
-                                "📅 %s\n" +
-                                "💆 %s\n" +
-                                "👩 Com %s\n" +
-                                "💰 R$ %.2f\n\n" +
-                                "📍 Endereço: [Endereço da clínica]\n" +
-                                "⏰ Chegue 10 minutos antes\n\n" +
-                                "Aguardamos você!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        dataHora,
-                        agendamento.getProcedimento().getNome(),
-                        agendamento.getEsteticista(),
-                        agendamento.getValorTotal()
-                );
+                String assunto = "Agendamento Confirmado - Clínica de Estética";
+                String mensagem = templateService.renderizar("email/confirmacao-agendamento",
+                        "nome", cliente.getNome(),
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "dataHora", dataHora,
+                        "esteticista", agendamento.getEsteticista(),
+                        "valor", formatarValor(agendamento.getValorTotal()),
+                        "duracao", agendamento.getDuracaoMinutos());
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
 
-            if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
-                String mensagemSms = String.format(
-                        "Lembrete: %s, você tem agendamento amanhã às %s - %s. Aguardamos você! - Clínica",
-                        cliente.getNome().split(" ")[0],
-                        agendamento.getDataHora().format(TIME_FORMATTER),
-                        agendamento.getProcedimento().getNome()
-                );
-
-                smsService.enviarSms(cliente.getCelular(), mensagemSms);
-            }
-
-            agendamentoService.marcarLembreteEnviado(agendamento.getId());
-
-            log.info("Lembrete enviado com sucesso - Agendamento ID: {}", agendamento.getId());
+            log.info("Confirmação enviada - Agendamento ID: {}", agendamento.getId());
 
         } catch (Exception e) {
-            log.error("Erro ao enviar lembrete - Agendamento ID: {}", agendamento.getId(), e);
+            log.error("Erro ao enviar confirmação - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     /**
-     * Envia confirmação após criação de agendamento direto (já existente)
+     * Envia uma única confirmação com todas as sessões de uma série de agendamentos
      */
-    @Async
-    public void enviarConfirmacaoAgendamento(Agendamento agendamento) {
-        log.info("Enviando confirmação de agendamento direto - ID: {}", agendamento.getId());
+    public void enviarConfirmacaoSerie(List<Agendamento> sessoes) {
+        Agendamento primeira = sessoes.get(0);
+        log.info("Enviando confirmação de série de {} sessões - Primeiro ID: {}", sessoes.size(), primeira.getId());
 
         try {
-            Cliente cliente = agendamento.getCliente();
-            String dataHora = agendamento.getDataHora().format(DATETIME_FORMATTER);
+            Cliente cliente = primeira.getCliente();
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
-                String assunto = "Agendamento Confirmado - Clínica de Estética";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Seu agendamento foi confirmado com sucesso!\n\n" +
-                                "Detalhes:\n" +
-                                "Procedimento: %s\n" +
-                                "Data/Hora: %s\n" +
-                                "Esteticista: %s\n" +
-                                "Valor: R$ %.2f\n" +
-                                "Duração: %d minutos\n\n" +
-                                "Aguardamos você!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        agendamento.getProcedimento().getNome(),
-                        dataHora,
-                        agendamento.getEsteticista(),
-                        agendamento.getValorTotal(),
-                        agendamento.getDuracaoMinutos()
-                );
+                StringBuilder datas = new StringBuilder();
+                for (int i = 0; i < sessoes.size(); i++) {
+                    datas.append(i + 1).append(". ")
+                            .append(sessoes.get(i).getDataHora().format(DATETIME_FORMATTER)).append('\n');
+                }
+
+                String assunto = "Sessões Agendadas - Clínica de Estética";
+                String mensagem = templateService.renderizar("email/confirmacao-serie",
+                        "nome", cliente.getNome(),
+                        "quantidade", sessoes.size(),
+                        "procedimento", primeira.getProcedimento().getNome(),
+                        "esteticista", primeira.getEsteticista(),
+                        "duracao", primeira.getDuracaoMinutos(),
+                        "valor", formatarValor(primeira.getValorTotal()),
+                        "datas", datas);
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
 
-            log.info("Confirmação enviada - Agendamento ID: {}", agendamento.getId());
+            log.info("Confirmação de série enviada - Primeiro ID: {}", primeira.getId());
 
         } catch (Exception e) {
-            log.error("Erro ao enviar confirmação - Agendamento ID: {}", agendamento.getId(), e);
+            log.error("Erro ao enviar confirmação de série - Primeiro ID: {}", primeira.getId(), e);
+            throw e;
         }
     }
 
     /**
      * Envia notificação de reagendamento
      */
-    @Async
     public void enviarNotificacaoReagendamento(Agendamento agendamento) {
         log.info("Enviando notificação de reagendamento - ID: {}", agendamento.getId());
 
@@ -321,19 +276,11 @@ public class NotificacaoService {
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
                 String assunto = "Agendamento Reagendado";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Seu agendamento foi reagendado:\n\n" +
-                                "NOVO horário: %s\n" +
-                                "Procedimento: %s\n" +
-                                "Esteticista: %s\n\n" +
-                                "Aguardamos você no novo horário!\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        dataHora,
-                        agendamento.getProcedimento().getNome(),
-                        agendamento.getEsteticista()
-                );
+                String mensagem = templateService.renderizar("email/reagendamento",
+                        "nome", cliente.getNome(),
+                        "dataHora", dataHora,
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "esteticista", agendamento.getEsteticista());
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
@@ -342,13 +289,13 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao enviar notificação de reagendamento - ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     /**
      * Envia mensagem de cancelamento (já existente)
      */
-    @Async
     public void enviarCancelamentoAgendamento(Agendamento agendamento) {
         log.info("Enviando notificação de cancelamento - Agendamento ID: {}", agendamento.getId());
 
@@ -358,20 +305,12 @@ public class NotificacaoService {
 
             if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
                 String assunto = "Agendamento Cancelado";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Informamos que seu agendamento foi cancelado.\n\n" +
-                                "Procedimento: %s\n" +
-                                "Data/Hora: %s\n" +
-                                "Motivo: %s\n\n" +
-                                "Para reagendar, entre em contato conosco.\n\n" +
-                                "Clínica de Estética",
-                        cliente.getNome(),
-                        agendamento.getProcedimento().getNome(),
-                        dataHora,
-                        agendamento.getMotivoCancelamento() != null ?
-                                agendamento.getMotivoCancelamento() : "Não informado"
-                );
+                String mensagem = templateService.renderizar("email/cancelamento",
+                        "nome", cliente.getNome(),
+                        "procedimento", agendamento.getProcedimento().getNome(),
+                        "dataHora", dataHora,
+                        "motivo", agendamento.getMotivoCancelamento() != null ?
+                                agendamento.getMotivoCancelamento() : "Não informado");
 
                 emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
             }
@@ -380,6 +319,7 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao enviar cancelamento - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
@@ -388,7 +328,6 @@ public class NotificacaoService {
     /**
      * Notifica esteticista sobre NOVA solicitação de agendamento
      */
-    @Async
     public void notificarEsteticistaNovoAgendamento(Agendamento agendamento) {
         log.info("Notificando esteticista sobre novo agendamento - ID: {}", agendamento.getId());
 
@@ -397,39 +336,22 @@ public class NotificacaoService {
 
             // Email para esteticista
             String assunto = "🔔 NOVA Solicitação de Agendamento";
-            String mensagem = String.format(
-                    "Nova solicitação de agendamento recebida!\n\n" +
-                            "AGENDAMENTO #%d\n" +
-                            "━━━━━━━━━━━━━━━━━━━━━━\n" +
-                            "Cliente: %s\n" +
-                            "Telefone: %s\n" +
-                            "Procedimento: %s\n" +
-                            "Data/Hora: %s\n" +
-                            "Esteticista: %s\n" +
-                            "Valor: R$ %.2f\n" +
-                            "━━━━━━━━━━━━━━━━━━━━━━\n\n" +
-                            "⚠️ AÇÃO NECESSÁRIA:\n" +
-                            "Acesse o sistema para APROVAR ou SUGERIR outro horário.\n\n" +
-                            "[LINK PARA O SISTEMA]\n\n" +
-                            "Sistema da Clínica",
-                    agendamento.getId(),
-                    agendamento.getCliente().getNome(),
-                    agendamento.getCliente().getCelular(),
-                    agendamento.getProcedimento().getNome(),
-                    dataHora,
-                    agendamento.getEsteticista(),
-                    agendamento.getValorTotal()
-            );
+            String mensagem = templateService.renderizar("email/esteticista-nova-solicitacao",
+                    "id", agendamento.getId(),
+                    "cliente", agendamento.getCliente().getNome(),
+                    "telefone", agendamento.getCliente().getCelular(),
+                    "procedimento", agendamento.getProcedimento().getNome(),
+                    "dataHora", dataHora,
+                    "esteticista", agendamento.getEsteticista(),
+                    "valor", formatarValor(agendamento.getValorTotal()));
 
             emailService.enviarEmail(emailEsteticista, assunto, mensagem);
 
             // SMS para esteticista
-            String mensagemSms = String.format(
-                    "NOVA solicitação de agendamento! %s - %s em %s. Acesse o sistema para aprovar.",
-                    agendamento.getCliente().getNome(),
-                    agendamento.getProcedimento().getNome(),
-                    dataHora
-            );
+            String mensagemSms = templateService.renderizar("sms/esteticista-nova-solicitacao",
+                    "cliente", agendamento.getCliente().getNome(),
+                    "procedimento", agendamento.getProcedimento().getNome(),
+                    "dataHora", dataHora);
 
             smsService.enviarSms(telefoneEsteticista, mensagemSms);
 
@@ -437,74 +359,52 @@ public class NotificacaoService {
 
         } catch (Exception e) {
             log.error("Erro ao notificar esteticista - Agendamento ID: {}", agendamento.getId(), e);
+            throw e;
         }
     }
 
     // ==================== NOTIFICAÇÕES GERAIS (já existentes) ====================
 
     @Async
-    public void enviarMensagensAniversario() {
-        log.info("Processando mensagens de aniversário");
-
+    public void enviarMensagemAniversario(Cliente cliente) {
         try {
-            List<Cliente> aniversariantes = clienteService.listarAniversariantesdoDia();
-
-            for (Cliente cliente : aniversariantes) {
-                enviarMensagemAniversario(cliente);
-            }
-
-            log.info("Mensagens de aniversário enviadas para {} clientes", aniversariantes.size());
-
+            enviarAniversario(cliente);
         } catch (Exception e) {
-            log.error("Erro ao processar mensagens de aniversário", e);
+            log.error("Erro ao enviar mensagem de aniversário para: {}", cliente.getNome(), e);
         }
     }
 
-    @Async
-    public void enviarMensagemAniversario(Cliente cliente) {
+    /**
+     * Envia a mensagem de aniversário; falhas são propagadas.
+     * Usado pelo CampanhaService, que registra o resultado de cada cliente.
+     */
+    public void enviarAniversario(Cliente cliente) {
         log.info("Enviando mensagem de aniversário para: {}", cliente.getNome());
 
-        try {
-            if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
-                String assunto = "Feliz Aniversário! 🎉";
-                String mensagem = String.format(
-                        "Olá %s,\n\n" +
-                                "Parabéns pelo seu aniversário! 🎂🎉\n\n" +
-                                "Desejamos um dia maravilhoso!\n\n" +
-                                "PRESENTE ESPECIAL: 10%% de desconto em qualquer procedimento este mês!\n\n" +
-                                "Agende já!\n\n" +
-                                "Com carinho,\nClínica de Estética",
-                        cliente.getNome()
-                );
-
-                emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
-            }
-
-            log.info("Mensagem de aniversário enviada para: {}", cliente.getNome());
+        if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
+            String assunto = "Feliz Aniversário! 🎉";
+            String mensagem = templateService.renderizar("email/aniversario", "nome", cliente.getNome());
 
-        } catch (Exception e) {
-            log.error("Erro ao enviar mensagem de aniversário para: {}", cliente.getNome(), e);
+            emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
         }
     }
 
-    @Async
-    public void processarLembretesAgendamentos() {
-        log.info("Processando lembretes de agendamentos");
+    /**
+     * Mensagem de reativação para clientes sem visita recente; falhas são propagadas
+     */
+    public void enviarReativacao(Cliente cliente) {
+        log.info("Enviando mensagem de reativação para: {}", cliente.getNome());
 
-        try {
-            List<Agendamento> agendamentos = agendamentoService.buscarAgendamentosSemLembrete();
-            LocalDateTime limite = LocalDateTime.now().plusHours(24);
+        if (cliente.getEmail() != null && !cliente.getEmail().isEmpty()) {
+            String assunto = "Estamos com saudades! 💖";
+            String mensagem = templateService.renderizar("email/reativacao", "nome", cliente.getNome());
 
-            for (Agendamento agendamento : agendamentos) {
-                if (agendamento.getDataHora().isBefore(limite)) {
-                    enviarLembreteAgendamento(agendamento);
-                }
-            }
+            emailService.enviarEmail(cliente.getEmail(), assunto, mensagem);
 
-            log.info("Lembretes processados: {}", agendamentos.size());
+        } else if (cliente.getCelular() != null && !cliente.getCelular().isEmpty()) {
+            String mensagemSms = templateService.renderizar("sms/reativacao", "primeiroNome", primeiroNome(cliente));
 
-        } catch (Exception e) {
-            log.error("Erro ao processar lembretes", e);
+            smsService.enviarSms(cliente.getCelular(), mensagemSms);
         }
     }
 
@@ -537,4 +437,24 @@ public class NotificacaoService {
             log.error("Erro ao enviar alerta de contas vencidas", e);
         }
     }
-}
\ No newline at end of file
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String primeiroNome(Cliente cliente) {
+        String nome = cliente.getNome();
+        int espaco = nome.indexOf(' ');
+        return espaco < 0 ? nome : nome.substring(0, espaco);
+    }
+
+    /**
+     * Mesmo resultado de String.format("%.2f", valor) no locale padrão, sem interpretar formato
+     */
+    static String formatarValor(BigDecimal valor) {
+        if (valor == null) {
+            return "null";
+        }
+        String texto = valor.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        char separador = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+        return separador == '.' ? texto : texto.replace('.', separador);
+    }
+}
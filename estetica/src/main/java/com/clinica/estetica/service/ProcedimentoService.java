@@ -1,7 +1,11 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.config.CacheConfig;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
+import com.clinica.estetica.mapper.CatalogoMapper;
+import com.clinica.estetica.model.dto.response.DashboardResponse;
+import com.clinica.estetica.model.dto.response.ProcedimentoResponse;
 import com.clinica.estetica.model.entity.Procedimento;
 import com.clinica.estetica.model.entity.ProcedimentoProduto;
 import com.clinica.estetica.repository.AgendamentoRepository;
@@ -9,6 +13,9 @@ import com.clinica.estetica.repository.ProcedimentoProdutoRepository;
 import com.clinica.estetica.repository.ProcedimentoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +33,7 @@ public class ProcedimentoService {
     private final ProcedimentoRepository procedimentoRepository;
     private final AgendamentoRepository agendamentoRepository;
     private final ProcedimentoProdutoRepository procedimentoProdutoRepository;
+    private final CatalogoMapper catalogoMapper;
 
     @Transactional(readOnly = true)
     public List<Procedimento> listarTodos() {
@@ -52,6 +60,18 @@ public class ProcedimentoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Procedimento não encontrado com ID: " + id));
     }
 
+    /**
+     * Procedimento para leitura (cache), usado a cada agendamento
+     */
+    @Cacheable(CacheConfig.PROCEDIMENTOS)
+    @Transactional(readOnly = true)
+    public ProcedimentoResponse buscarResumo(Long id) {
+        log.debug("Buscando resumo do procedimento ID: {}", id);
+        return procedimentoRepository.findComCategoriaById(id)
+                .map(catalogoMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Procedimento não encontrado com ID: " + id));
+    }
+
     @Transactional(readOnly = true)
     public Page<Procedimento> buscarPorTexto(String busca, Pageable pageable) {
         log.debug("Buscando procedimentos por texto: {}", busca);
@@ -70,10 +90,13 @@ public class ProcedimentoService {
         return procedimentoRepository.findByAtivo(ativo, pageable);
     }
 
+    /**
+     * Procedimentos mais realizados, com quantidade e faturamento
+     */
     @Transactional(readOnly = true)
-    public List<Procedimento> buscarTopProcedimentos(int limit) {
+    public List<DashboardResponse.ProcedimentoRanking> buscarTopProcedimentos(int limit) {
         log.debug("Buscando top {} procedimentos", limit);
-        return procedimentoRepository.findTopProcedimentos(Pageable.ofSize(limit));
+        return procedimentoRepository.findRankingProcedimentos(Pageable.ofSize(limit));
     }
 
     @Transactional
@@ -91,6 +114,7 @@ public class ProcedimentoService {
         return procedimentoSalvo;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTOS, key = "#id")
     @Transactional
     public Procedimento atualizar(Long id, Procedimento procedimentoAtualizado) {
         log.info("Atualizando procedimento ID: {}", id);
@@ -113,6 +137,7 @@ public class ProcedimentoService {
         return procedimentoSalvo;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTOS, key = "#id")
     @Transactional
     public Procedimento inativar(Long id) {
         log.info("Inativando procedimento ID: {}", id);
@@ -137,6 +162,7 @@ public class ProcedimentoService {
         return procedimentoSalvo;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTOS, key = "#id")
     @Transactional
     public Procedimento ativar(Long id) {
         log.info("Ativando procedimento ID: {}", id);
@@ -149,6 +175,10 @@ public class ProcedimentoService {
         return procedimentoSalvo;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTO_PRODUTOS, key = "#id")
+    })
     @Transactional
     public void deletar(Long id) {
         log.info("Tentando deletar procedimento ID: {}", id);
@@ -170,6 +200,7 @@ public class ProcedimentoService {
         log.info("Procedimento deletado com sucesso. ID: {}", id);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTO_PRODUTOS, key = "#procedimentoId")
     @Transactional
     public void associarProdutos(Long procedimentoId, List<ProcedimentoProduto> produtos) {
         log.info("Associando {} produtos ao procedimento ID: {}", produtos.size(), procedimentoId);
@@ -179,11 +210,9 @@ public class ProcedimentoService {
         // Remover associações antigas
         procedimentoProdutoRepository.deleteByProcedimentoId(procedimentoId);
 
-        // Criar novas associações
-        for (ProcedimentoProduto pp : produtos) {
-            pp.setProcedimento(procedimento);
-            procedimentoProdutoRepository.save(pp);
-        }
+        // Criar novas associações (um lote de inserts no flush)
+        produtos.forEach(pp -> pp.setProcedimento(procedimento));
+        procedimentoProdutoRepository.saveAll(produtos);
 
         log.info("Produtos associados com sucesso ao procedimento ID: {}", procedimentoId);
     }
@@ -194,6 +223,18 @@ public class ProcedimentoService {
         return procedimentoProdutoRepository.findByProcedimentoId(procedimentoId);
     }
 
+    /**
+     * Produtos e quantidades consumidos pelo procedimento (cache), usados a cada agendamento
+     */
+    @Cacheable(CacheConfig.PROCEDIMENTO_PRODUTOS)
+    @Transactional(readOnly = true)
+    public List<ProcedimentoResponse.ProdutoUtilizadoResponse> buscarProdutosUtilizados(Long procedimentoId) {
+        log.debug("Buscando produtos utilizados pelo procedimento ID: {}", procedimentoId);
+        return procedimentoProdutoRepository.findComProdutoByProcedimentoId(procedimentoId).stream()
+                .map(catalogoMapper::toProdutoUtilizadoResponse)
+                .toList();
+    }
+
     private void validarProcedimento(Procedimento procedimento) {
         if (procedimento.getNome() == null || procedimento.getNome().trim().isEmpty()) {
             throw new BusinessException("Nome do procedimento é obrigatório");
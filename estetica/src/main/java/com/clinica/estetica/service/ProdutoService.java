@@ -1,11 +1,13 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.config.CacheConfig;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.Produto;
 import com.clinica.estetica.repository.ProdutoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -95,6 +97,8 @@ public class ProdutoService {
         return produtoSalvo;
     }
 
+    // O nome do produto também vai nos produtos utilizados dos procedimentos em cache
+    @CacheEvict(cacheNames = CacheConfig.PROCEDIMENTO_PRODUTOS, allEntries = true)
     @Transactional
     public Produto atualizar(Long id, Produto produtoAtualizado) {
         log.info("Atualizando produto ID: {}", id);
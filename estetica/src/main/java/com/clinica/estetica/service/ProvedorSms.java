@@ -0,0 +1,41 @@
+package com.clinica.estetica.service;
+
+import java.util.List;
+
+/**
+ * Integração com um provedor de SMS. O SmsService cuida de limite de taxa,
+ * novas tentativas e disjuntor; a implementação só faz a chamada.
+ */
+public interface ProvedorSms {
+
+    /**
+     * Nome usado em sms.provider (twilio, aws, totalvoice, mock)
+     */
+    String getNome();
+
+    void enviar(String telefone, String mensagem) throws Exception;
+
+    /**
+     * Mensagens por segundo aceitas pelo provedor
+     */
+    double getTaxaPorSegundo();
+
+    /**
+     * Mensagens que podem sair de uma vez antes de o limite de taxa valer
+     */
+    int getRajada();
+
+    /**
+     * Maior lote aceito em uma única requisição; 1 = sem envio em lote
+     */
+    default int getTamanhoMaximoLote() {
+        return 1;
+    }
+
+    /**
+     * Envia a mesma mensagem para vários telefones em uma requisição
+     */
+    default void enviarLote(List<String> telefones, String mensagem) throws Exception {
+        throw new UnsupportedOperationException("Provedor " + getNome() + " não aceita envio em lote");
+    }
+}
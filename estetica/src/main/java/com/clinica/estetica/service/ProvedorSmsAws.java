@@ -0,0 +1,46 @@
+package com.clinica.estetica.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Integração com AWS SNS (exemplo).
+ *
+ * A cota padrão de SMS do SNS é de 20 mensagens por segundo por conta;
+ * Publish para telefone é uma mensagem por chamada.
+ */
+@Slf4j
+@Getter
+@Component
+public class ProvedorSmsAws implements ProvedorSms {
+
+    @Value("${sms.aws.taxa-por-segundo:20}")
+    private double taxaPorSegundo;
+
+    @Value("${sms.aws.rajada:20}")
+    private int rajada;
+
+    @Override
+    public String getNome() {
+        return "aws";
+    }
+
+    @Override
+    public void enviar(String telefone, String mensagem) {
+        log.info("Enviando SMS via AWS SNS para: {}", telefone);
+
+        // Implementação de exemplo - em produção, use:
+        /*
+        AmazonSNS snsClient = AmazonSNSClientBuilder.standard().build();
+        PublishRequest publishRequest = new PublishRequest()
+                .withMessage(mensagem)
+                .withPhoneNumber(telefone);
+        PublishResult result = snsClient.publish(publishRequest);
+        */
+
+        // Por enquanto, apenas loga
+        log.info("SMS via AWS SNS (mock): {} - {}", telefone, mensagem);
+    }
+}
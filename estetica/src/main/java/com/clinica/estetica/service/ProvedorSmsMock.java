@@ -0,0 +1,71 @@
+package com.clinica.estetica.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mock para desenvolvimento/testes e testes de carga.
+ *
+ * Simula latência (base + variação aleatória) e uma fração de falhas,
+ * tanto no envio individual quanto no lote.
+ */
+@Slf4j
+@Getter
+@Setter
+@Component
+public class ProvedorSmsMock implements ProvedorSms {
+
+    @Value("${sms.mock.taxa-por-segundo:100}")
+    private double taxaPorSegundo;
+
+    @Value("${sms.mock.rajada:100}")
+    private int rajada;
+
+    @Value("${sms.mock.tamanho-lote:100}")
+    private int tamanhoMaximoLote;
+
+    @Value("${sms.mock.latencia-ms:500}")
+    private long latenciaMs;
+
+    @Value("${sms.mock.variacao-latencia-ms:0}")
+    private long variacaoLatenciaMs;
+
+    @Value("${sms.mock.taxa-falha:0}")
+    private double taxaFalha;
+
+    @Override
+    public String getNome() {
+        return "mock";
+    }
+
+    @Override
+    public void enviar(String telefone, String mensagem) throws InterruptedException {
+        simularChamada();
+        log.info("=== SMS MOCK === Para: {} - Mensagem: {}", telefone, mensagem);
+    }
+
+    @Override
+    public void enviarLote(List<String> telefones, String mensagem) throws InterruptedException {
+        simularChamada();
+        log.info("=== SMS MOCK (lote) === Para: {} telefones - Mensagem: {}", telefones.size(), mensagem);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void simularChamada() throws InterruptedException {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long latencia = latenciaMs + (variacaoLatenciaMs > 0 ? aleatorio.nextLong(variacaoLatenciaMs + 1) : 0);
+        if (latencia > 0) {
+            Thread.sleep(latencia);
+        }
+        if (taxaFalha > 0 && aleatorio.nextDouble() < taxaFalha) {
+            throw new IllegalStateException("Falha simulada do provedor mock");
+        }
+    }
+}
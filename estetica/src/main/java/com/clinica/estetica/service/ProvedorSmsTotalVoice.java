@@ -0,0 +1,53 @@
+package com.clinica.estetica.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Integração com Total Voice (exemplo).
+ *
+ * Envio em lote pela API REST: uma requisição com vários destinatários.
+ */
+@Slf4j
+@Getter
+@Component
+public class ProvedorSmsTotalVoice implements ProvedorSms {
+
+    @Value("${sms.totalvoice.taxa-por-segundo:10}")
+    private double taxaPorSegundo;
+
+    @Value("${sms.totalvoice.rajada:50}")
+    private int rajada;
+
+    @Value("${sms.totalvoice.tamanho-lote:50}")
+    private int tamanhoMaximoLote;
+
+    @Override
+    public String getNome() {
+        return "totalvoice";
+    }
+
+    @Override
+    public void enviar(String telefone, String mensagem) {
+        log.info("Enviando SMS via Total Voice para: {}", telefone);
+
+        // Implementação de exemplo - em produção, use a API REST do Total Voice
+        // com HttpClient ou RestTemplate
+
+        // Por enquanto, apenas loga
+        log.info("SMS via Total Voice (mock): {} - {}", telefone, mensagem);
+    }
+
+    @Override
+    public void enviarLote(List<String> telefones, String mensagem) {
+        log.info("Enviando lote de {} SMS via Total Voice", telefones.size());
+
+        // Implementação de exemplo - em produção, um único POST com todos os destinatários
+
+        log.info("Lote SMS via Total Voice (mock): {} - {}", telefones, mensagem);
+    }
+}
@@ -0,0 +1,47 @@
+package com.clinica.estetica.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Integração com Twilio (exemplo).
+ *
+ * Números long code do Twilio aceitam cerca de 1 mensagem por segundo;
+ * a API de mensagens não tem envio em lote.
+ */
+@Slf4j
+@Getter
+@Component
+public class ProvedorSmsTwilio implements ProvedorSms {
+
+    @Value("${sms.twilio.taxa-por-segundo:1}")
+    private double taxaPorSegundo;
+
+    @Value("${sms.twilio.rajada:5}")
+    private int rajada;
+
+    @Override
+    public String getNome() {
+        return "twilio";
+    }
+
+    @Override
+    public void enviar(String telefone, String mensagem) {
+        log.info("Enviando SMS via Twilio para: {}", telefone);
+
+        // Implementação de exemplo - em produção, use:
+        /*
+        Twilio.init(accountSid, authToken);
+        Message message = Message.creator(
+                new PhoneNumber(telefone),
+                new PhoneNumber(twilioPhoneNumber),
+                mensagem
+        ).create();
+        */
+
+        // Por enquanto, apenas loga
+        log.info("SMS via Twilio (mock): {} - {}", telefone, mensagem);
+    }
+}
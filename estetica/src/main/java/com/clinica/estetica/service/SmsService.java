@@ -1,12 +1,31 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.util.BaldeTokens;
+import com.clinica.estetica.util.Disjuntor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service para envio de SMS
@@ -23,6 +42,20 @@ import java.util.List;
  * 1. Adicionar dependência: com.twilio.sdk:twilio:9.x.x
  * 2. Configurar credenciais no application.properties
  * 3. Usar TwilioRestClient para enviar mensagens
+ *
+ * Cada provedor (ProvedorSms) tem o seu próprio:
+ * - balde de tokens, respeitando a taxa de envio do provedor
+ * - disjuntor, que recusa chamadas na hora depois de falhas ou lentidão seguidas
+ * - pool limitado de chamadas com timeout, para que um provedor lento não prenda
+ *   as threads do dispatcher de notificações
+ *
+ * Falhas transitórias são repetidas com backoff exponencial e jitter. Timeout não é
+ * repetido: o provedor pode ter aceitado a mensagem e a nova tentativa a duplicaria.
+ * Quando o provedor aceita, enviarSmsMultiplo agrupa os telefones em lotes.
+ *
+ * Métricas: clinica.notificacao.canal (canal=sms, ponta a ponta, com esperas e novas tentativas),
+ * clinica.sms.provedor.latencia (cada chamada ao provedor), novas tentativas, recusas,
+ * chamadas em andamento e estado do disjuntor, por provedor.
  */
 @Slf4j
 @Service
@@ -38,10 +71,64 @@ public class SmsService {
     @Value("${clinica.nome:Clínica de Estética}")
     private String nomeClinica;
 
+    @Value("${sms.tentativas.maximo:3}")
+    private int maxTentativas;
+
+    @Value("${sms.backoff.inicial-ms:200}")
+    private long backoffInicialMs;
+
+    @Value("${sms.backoff.maximo-ms:5000}")
+    private long backoffMaximoMs;
+
+    @Value("${sms.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${sms.espera-taxa-maxima-ms:2000}")
+    private long esperaTaxaMaximaMs;
+
+    @Value("${sms.concorrencia-maxima:4}")
+    private int concorrenciaMaxima;
+
+    @Value("${sms.circuito.limite-falhas:5}")
+    private int limiteFalhas;
+
+    @Value("${sms.circuito.aberto-ms:30000}")
+    private long circuitoAbertoMs;
+
+    @Value("${sms.circuito.limite-lentidao-ms:3000}")
+    private long limiteLentidaoMs;
+
+    private final List<ProvedorSms> provedores;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CanalProvedor> canais = new HashMap<>();
+    private CanalProvedor canalAtual;
+    private Timer envioSucesso;
+    private Timer envioFalha;
+
+    @PostConstruct
+    public void iniciar() {
+        for (ProvedorSms provedor : provedores) {
+            canais.put(provedor.getNome(), new CanalProvedor(provedor));
+        }
+        envioSucesso = timerCanal("sucesso");
+        envioFalha = timerCanal("falha");
+        canalAtual = canais.getOrDefault(smsProvider.toLowerCase(), canais.get("mock"));
+        if (canalAtual == null) {
+            throw new IllegalStateException("Provedor de SMS não encontrado: " + smsProvider);
+        }
+        log.info("SMS via {} - {} msg/s, lote máximo de {}", canalAtual.provedor.getNome(),
+                canalAtual.provedor.getTaxaPorSegundo(), canalAtual.provedor.getTamanhoMaximoLote());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        canais.values().forEach(canal -> canal.executor.shutdownNow());
+    }
+
     /**
      * Envia SMS para um destinatário
      */
-    @Async
     public void enviarSms(String telefone, String mensagem) {
         log.info("Enviando SMS para: {}", telefone);
 
@@ -50,6 +137,7 @@ public class SmsService {
             return;
         }
 
+        long inicio = System.nanoTime();
         try {
             // Validar telefone
             if (!validarTelefone(telefone)) {
@@ -57,32 +145,17 @@ public class SmsService {
                 throw new IllegalArgumentException("Formato de telefone inválido");
             }
 
-            // Limitar tamanho da mensagem (SMS padrão = 160 caracteres)
-            if (mensagem.length() > 160) {
-                mensagem = mensagem.substring(0, 157) + "...";
-                log.warn("Mensagem SMS truncada para 160 caracteres");
-            }
-
-            // Escolher provedor e enviar
-            switch (smsProvider.toLowerCase()) {
-                case "twilio":
-                    enviarViaTwilio(telefone, mensagem);
-                    break;
-                case "aws":
-                    enviarViaAws(telefone, mensagem);
-                    break;
-                case "totalvoice":
-                    enviarViaTotalVoice(telefone, mensagem);
-                    break;
-                case "mock":
-                default:
-                    enviarViaMock(telefone, mensagem);
-                    break;
-            }
+            String texto = limitarTamanho(mensagem);
+            canalAtual.executar(1, () -> canalAtual.provedor.enviar(telefone, texto));
 
+            envioSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
             log.info("SMS enviado com sucesso para: {}", telefone);
 
         } catch (Exception e) {
+            envioFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Erro ao enviar SMS para: {}", telefone, e);
             throw new RuntimeException("Falha ao enviar SMS", e);
         }
@@ -91,16 +164,44 @@ public class SmsService {
     /**
      * Envia SMS para múltiplos destinatários
      */
-    @Async
     public void enviarSmsMultiplo(List<String> telefones, String mensagem) {
         log.info("Enviando SMS para {} destinatários", telefones.size());
 
+        int tamanhoLote = canalAtual.provedor.getTamanhoMaximoLote();
+        if (!smsEnabled || tamanhoLote <= 1) {
+            for (String telefone : telefones) {
+                try {
+                    enviarSms(telefone, mensagem);
+                } catch (Exception e) {
+                    log.error("Erro ao enviar SMS para: {}", telefone, e);
+                    // Continua enviando para os próximos mesmo se falhar em um
+                }
+            }
+            log.info("Processamento de SMS múltiplo concluído");
+            return;
+        }
+
+        List<String> validos = new ArrayList<>(telefones.size());
         for (String telefone : telefones) {
+            if (validarTelefone(telefone)) {
+                validos.add(telefone);
+            } else {
+                log.error("Telefone inválido: {}", telefone);
+            }
+        }
+
+        String texto = limitarTamanho(mensagem);
+        for (int inicio = 0; inicio < validos.size(); inicio += tamanhoLote) {
+            List<String> lote = validos.subList(inicio, Math.min(inicio + tamanhoLote, validos.size()));
             try {
-                enviarSms(telefone, mensagem);
+                canalAtual.executar(lote.size(), () -> canalAtual.provedor.enviarLote(lote, texto));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Envio de SMS em lote interrompido");
+                return;
             } catch (Exception e) {
-                log.error("Erro ao enviar SMS para: {}", telefone, e);
-                // Continua enviando para os próximos mesmo se falhar em um
+                log.error("Erro ao enviar lote de {} SMS", lote.size(), e);
+                // Continua com os próximos lotes
             }
         }
 
@@ -168,88 +269,217 @@ public class SmsService {
         return telefone.replaceAll("[^0-9]", "");
     }
 
-    // ==================== MÉTODOS DE INTEGRAÇÃO COM PROVEDORES ====================
-
     /**
-     * Integração com Twilio (exemplo)
+     * Verifica se o serviço de SMS está habilitado
      */
-    private void enviarViaTwilio(String telefone, String mensagem) {
-        log.info("Enviando SMS via Twilio para: {}", telefone);
-
-        // Implementação de exemplo - em produção, use:
-        /*
-        Twilio.init(accountSid, authToken);
-        Message message = Message.creator(
-                new PhoneNumber(telefone),
-                new PhoneNumber(twilioPhoneNumber),
-                mensagem
-        ).create();
-        */
-
-        // Por enquanto, apenas loga
-        log.info("SMS via Twilio (mock): {} - {}", telefone, mensagem);
+    public boolean isEnabled() {
+        return smsEnabled;
     }
 
     /**
-     * Integração com AWS SNS (exemplo)
+     * Retorna o provedor de SMS configurado
      */
-    private void enviarViaAws(String telefone, String mensagem) {
-        log.info("Enviando SMS via AWS SNS para: {}", telefone);
-
-        // Implementação de exemplo - em produção, use:
-        /*
-        AmazonSNS snsClient = AmazonSNSClientBuilder.standard().build();
-        PublishRequest publishRequest = new PublishRequest()
-                .withMessage(mensagem)
-                .withPhoneNumber(telefone);
-        PublishResult result = snsClient.publish(publishRequest);
-        */
+    public String getProvider() {
+        return smsProvider;
+    }
 
-        // Por enquanto, apenas loga
-        log.info("SMS via AWS SNS (mock): {} - {}", telefone, mensagem);
+    public Disjuntor.Estado getEstadoCircuito() {
+        return canalAtual.disjuntor.getEstado();
     }
 
+    // ==================== MÉTODOS AUXILIARES ====================
+
     /**
-     * Integração com Total Voice (exemplo)
+     * Limitar tamanho da mensagem (SMS padrão = 160 caracteres)
      */
-    private void enviarViaTotalVoice(String telefone, String mensagem) {
-        log.info("Enviando SMS via Total Voice para: {}", telefone);
-
-        // Implementação de exemplo - em produção, use a API REST do Total Voice
-        // com HttpClient ou RestTemplate
-
-        // Por enquanto, apenas loga
-        log.info("SMS via Total Voice (mock): {} - {}", telefone, mensagem);
+    private String limitarTamanho(String mensagem) {
+        if (mensagem.length() > 160) {
+            log.warn("Mensagem SMS truncada para 160 caracteres");
+            return mensagem.substring(0, 157) + "...";
+        }
+        return mensagem;
     }
 
     /**
-     * Mock para desenvolvimento/testes
+     * Backoff exponencial com jitter completo: aleatório entre 0 e min(máximo, inicial * 2^(tentativa-1))
      */
-    private void enviarViaMock(String telefone, String mensagem) {
-        log.info("=== SMS MOCK ===");
-        log.info("Para: {}", telefone);
-        log.info("Mensagem: {}", mensagem);
-        log.info("================");
+    long calcularBackoffMs(int tentativa) {
+        long teto = backoffInicialMs << Math.min(tentativa - 1, 20);
+        teto = Math.min(backoffMaximoMs, teto);
+        return ThreadLocalRandom.current().nextLong(teto + 1);
+    }
 
-        // Simula delay de envio
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private Timer timerCanal(String resultado) {
+        return Timer.builder("clinica.notificacao.canal")
+                .description("Envio de uma mensagem pelo canal, da chamada ao aceite (inclui esperas e novas tentativas)")
+                .tags("canal", "sms", "resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ChamadaProvedor {
+        void executar() throws Exception;
     }
 
     /**
-     * Verifica se o serviço de SMS está habilitado
+     * Provedor não respondeu dentro do timeout; o envio pode ter sido aceito mesmo assim
      */
-    public boolean isEnabled() {
-        return smsEnabled;
+    private static final class TempoEsgotadoException extends IllegalStateException {
+        private TempoEsgotadoException(String mensagem, Throwable causa) {
+            super(mensagem, causa);
+        }
     }
 
     /**
-     * Retorna o provedor de SMS configurado
+     * Limite de taxa, disjuntor e pool de chamadas de um provedor
      */
-    public String getProvider() {
-        return smsProvider;
+    private final class CanalProvedor {
+
+        private final ProvedorSms provedor;
+        private final BaldeTokens balde;
+        private final Disjuntor disjuntor;
+        private final ThreadPoolExecutor executor;
+
+        private final Timer latenciaSucesso;
+        private final Timer latenciaFalha;
+        private final Timer latenciaTimeout;
+        private final Counter novasTentativas;
+        private final Counter recusadasCircuito;
+        private final Counter recusadasTaxa;
+        private final Counter recusadasConcorrencia;
+
+        private CanalProvedor(ProvedorSms provedor) {
+            this.provedor = provedor;
+            this.balde = new BaldeTokens(provedor.getTaxaPorSegundo(), provedor.getRajada());
+            this.disjuntor = new Disjuntor(limiteFalhas, circuitoAbertoMs, TimeUnit.MILLISECONDS);
+
+            // Sem fila: com todas as threads ocupadas a chamada é recusada em vez de esperar
+            AtomicInteger contador = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(concorrenciaMaxima, concorrenciaMaxima,
+                    60, TimeUnit.SECONDS, new SynchronousQueue<>(), tarefa -> {
+                Thread thread = new Thread(tarefa, "sms-" + provedor.getNome() + "-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.allowCoreThreadTimeOut(true);
+
+            String nome = provedor.getNome();
+            this.latenciaSucesso = timerLatencia(nome, "sucesso");
+            this.latenciaFalha = timerLatencia(nome, "falha");
+            this.latenciaTimeout = timerLatencia(nome, "timeout");
+            this.novasTentativas = Counter.builder("clinica.sms.novas-tentativas")
+                    .description("Novas tentativas após falha transitória do provedor")
+                    .tag("provedor", nome)
+                    .register(meterRegistry);
+            this.recusadasCircuito = contadorRecusa(nome, "circuito_aberto");
+            this.recusadasTaxa = contadorRecusa(nome, "limite_taxa");
+            this.recusadasConcorrencia = contadorRecusa(nome, "concorrencia");
+            Gauge.builder("clinica.sms.em-andamento", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Chamadas ao provedor em andamento")
+                    .tag("provedor", nome)
+                    .register(meterRegistry);
+            Gauge.builder("clinica.sms.circuito", disjuntor, d -> d.getEstado().ordinal())
+                    .description("Estado do disjuntor: 0 fechado, 1 aberto, 2 meio-aberto")
+                    .tag("provedor", nome)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Executa a chamada respeitando taxa e disjuntor, com novas tentativas para falhas transitórias
+         * (não para timeout, em que o provedor pode já ter aceitado a mensagem)
+         */
+        private void executar(int mensagens, ChamadaProvedor chamada) throws Exception {
+            for (int tentativa = 1; ; tentativa++) {
+                if (!disjuntor.permitir()) {
+                    recusadasCircuito.increment();
+                    throw new IllegalStateException("Provedor de SMS " + provedor.getNome() + " indisponível (circuito aberto)");
+                }
+                if (!balde.adquirir(mensagens, esperaTaxaMaximaMs, TimeUnit.MILLISECONDS)) {
+                    disjuntor.liberarTeste();
+                    recusadasTaxa.increment();
+                    throw new IllegalStateException("Limite de envio do provedor " + provedor.getNome() + " atingido");
+                }
+
+                try {
+                    chamarComTimeout(chamada);
+                    return;
+                } catch (IllegalArgumentException e) {
+                    // Erro do pedido (ex.: número recusado): repetir não adianta
+                    throw e;
+                } catch (TempoEsgotadoException e) {
+                    // Resultado desconhecido: repetir pode entregar o mesmo SMS duas vezes
+                    throw e;
+                } catch (Exception e) {
+                    if (tentativa >= maxTentativas) {
+                        throw e;
+                    }
+                    long espera = calcularBackoffMs(tentativa);
+                    novasTentativas.increment();
+                    log.warn("Falha no envio via {} (tentativa {}/{}): {} - nova tentativa em {} ms",
+                            provedor.getNome(), tentativa, maxTentativas, e.getMessage(), espera);
+                    Thread.sleep(espera);
+                }
+            }
+        }
+
+        private void chamarComTimeout(ChamadaProvedor chamada) throws Exception {
+            Future<?> resultado;
+            try {
+                resultado = executor.submit(() -> {
+                    chamada.executar();
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                // Todas as chamadas ao provedor ocupadas: não conta como falha do provedor
+                disjuntor.liberarTeste();
+                recusadasConcorrencia.increment();
+                throw new IllegalStateException("Chamadas ao provedor " + provedor.getNome() + " esgotadas", e);
+            }
+
+            long inicio = System.nanoTime();
+            try {
+                resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                latenciaTimeout.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                resultado.cancel(true);
+                disjuntor.registrarFalha();
+                throw new TempoEsgotadoException("Provedor " + provedor.getNome() + " não respondeu em " + timeoutMs + " ms", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException recusado) {
+                    // O provedor respondeu; o problema é o pedido
+                    latenciaSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    disjuntor.registrarSucesso();
+                    throw recusado;
+                }
+                latenciaFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                disjuntor.registrarFalha();
+                throw e.getCause() instanceof Exception causa ? causa : e;
+            }
+
+            long duracao = System.nanoTime() - inicio;
+            latenciaSucesso.record(duracao, TimeUnit.NANOSECONDS);
+            long duracaoMs = TimeUnit.NANOSECONDS.toMillis(duracao);
+            if (duracaoMs > limiteLentidaoMs) {
+                // Entregue, mas lento: conta para o disjuntor para aliviar o provedor
+                log.warn("Provedor {} lento: {} ms", provedor.getNome(), duracaoMs);
+                disjuntor.registrarFalha();
+            } else {
+                disjuntor.registrarSucesso();
+            }
+        }
+
+        private Timer timerLatencia(String nome, String resultado) {
+            return Timer.builder("clinica.sms.provedor.latencia")
+                    .description("Duração de cada chamada ao provedor de SMS")
+                    .tags("provedor", nome, "resultado", resultado)
+                    .register(meterRegistry);
+        }
+
+        private Counter contadorRecusa(String nome, String motivo) {
+            return Counter.builder("clinica.sms.recusadas")
+                    .description("Envios recusados antes de chamar o provedor")
+                    .tags("provedor", nome, "motivo", motivo)
+                    .register(meterRegistry);
+        }
     }
-}
\ No newline at end of file
+}
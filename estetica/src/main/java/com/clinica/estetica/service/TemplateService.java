@@ -0,0 +1,108 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.util.TemplateCompilado;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates das notificações, lidos de notificacao/templates/ no classpath.
+ *
+ * - Cada arquivo é compilado uma vez na inicialização; o nome é o caminho sem
+ *   extensão (ex.: "email/aprovacao", "sms/lembrete")
+ * - A renderização reaproveita um StringBuilder por thread
+ * - O layout HTML dos emails é guardado por clínica com o nome já aplicado,
+ *   restando só título e conteúdo a cada envio
+ */
+@Slf4j
+@Service
+public class TemplateService {
+
+    private static final String DIRETORIO = "notificacao/templates/";
+    private static final String LAYOUT_EMAIL = "email/layout";
+    private static final int CAPACIDADE_INICIAL_BUFFER = 4 * 1024;
+    private static final int CAPACIDADE_MAXIMA_BUFFER = 64 * 1024;
+
+    private final Map<String, TemplateCompilado> templates = new ConcurrentHashMap<>();
+    private final Map<String, TemplateCompilado> layoutsPorClinica = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffer =
+            ThreadLocal.withInitial(() -> new StringBuilder(CAPACIDADE_INICIAL_BUFFER));
+
+    @PostConstruct
+    public void carregarTemplates() throws IOException {
+        Resource[] recursos = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:" + DIRETORIO + "**/*.*");
+
+        for (Resource recurso : recursos) {
+            String caminho = recurso.getURL().toString();
+            String nome = caminho.substring(caminho.lastIndexOf(DIRETORIO) + DIRETORIO.length(),
+                    caminho.lastIndexOf('.'));
+            templates.put(nome, TemplateCompilado.compilar(ler(recurso)));
+        }
+
+        if (!templates.containsKey(LAYOUT_EMAIL)) {
+            throw new IllegalStateException("Template " + LAYOUT_EMAIL + " não encontrado em " + DIRETORIO);
+        }
+        log.info("{} templates de notificação compilados", templates.size());
+    }
+
+    /**
+     * Renderiza o template com os valores em pares nome/valor
+     */
+    public String renderizar(String nome, Object... valores) {
+        StringBuilder sb = bufferLimpo();
+        template(nome).renderizar(sb, valores);
+        return sb.toString();
+    }
+
+    /**
+     * Envolve o conteúdo no layout HTML padrão da clínica
+     */
+    public String renderizarLayout(String nomeClinica, String titulo, String conteudo) {
+        TemplateCompilado layout = layoutsPorClinica.computeIfAbsent(nomeClinica,
+                clinica -> template(LAYOUT_EMAIL).fixar("clinica", clinica));
+
+        StringBuilder sb = bufferLimpo();
+        layout.renderizar(sb, "titulo", titulo, "conteudo", conteudo);
+        return sb.toString();
+    }
+
+    public TemplateCompilado template(String nome) {
+        TemplateCompilado template = templates.get(nome);
+        if (template == null) {
+            throw new IllegalStateException("Template de notificação não encontrado: " + nome);
+        }
+        return template;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private StringBuilder bufferLimpo() {
+        StringBuilder sb = buffer.get();
+        if (sb.capacity() > CAPACIDADE_MAXIMA_BUFFER) {
+            // Não segura para sempre um buffer que cresceu por causa de uma mensagem enorme
+            sb = new StringBuilder(CAPACIDADE_INICIAL_BUFFER);
+            buffer.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * Conteúdo do arquivo sem a quebra de linha final
+     */
+    private static String ler(Resource recurso) throws IOException {
+        try (InputStream in = recurso.getInputStream()) {
+            String conteudo = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return conteudo.endsWith("\n") ? conteudo.substring(0, conteudo.length() - 1) : conteudo;
+        }
+    }
+}
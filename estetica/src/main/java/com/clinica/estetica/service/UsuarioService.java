@@ -1,11 +1,14 @@
 package com.clinica.estetica.service;
 
+import com.clinica.estetica.event.SenhaAlteradaEvent;
+import com.clinica.estetica.event.VersaoSegurancaAlteradaEvent;
 import com.clinica.estetica.exception.BusinessException;
 import com.clinica.estetica.exception.ResourceNotFoundException;
 import com.clinica.estetica.model.entity.Usuario;
 import com.clinica.estetica.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +22,7 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Usuario> listarTodos() {
@@ -96,11 +100,20 @@ public class UsuarioService {
             }
         }
 
+        String usernameAnterior = usuarioExistente.getUsername();
+        boolean perfilAlterado = usuarioExistente.getRole() != usuarioAtualizado.getRole();
+        boolean usernameAlterado = !usernameAnterior.equals(usuarioAtualizado.getUsername());
+
         usuarioExistente.setNome(usuarioAtualizado.getNome());
         usuarioExistente.setUsername(usuarioAtualizado.getUsername());
         usuarioExistente.setEmail(usuarioAtualizado.getEmail());
         usuarioExistente.setRole(usuarioAtualizado.getRole());
 
+        // Tokens emitidos com o perfil ou username antigo deixam de valer
+        if (perfilAlterado || usernameAlterado) {
+            invalidarTokens(usuarioExistente, usernameAnterior);
+        }
+
         Usuario usuarioSalvo = usuarioRepository.save(usuarioExistente);
         log.info("Usuário atualizado com sucesso. ID: {}", id);
         return usuarioSalvo;
@@ -127,6 +140,7 @@ public class UsuarioService {
         usuario.setPasswordHash(novaSenhaCriptografada);
 
         usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new SenhaAlteradaEvent(usuario.getUsername()));
         log.info("Senha alterada com sucesso. ID: {}", id);
     }
 
@@ -146,6 +160,9 @@ public class UsuarioService {
         usuario.setPasswordHash(novaSenhaCriptografada);
 
         usuarioRepository.save(usuario);
+
+        // Sessões abertas com a senha antiga são encerradas
+        eventPublisher.publishEvent(new SenhaAlteradaEvent(usuario.getUsername()));
         log.info("Senha resetada com sucesso para o email: {}", email);
     }
 
@@ -155,6 +172,7 @@ public class UsuarioService {
 
         Usuario usuario = buscarPorId(id);
         usuario.setAtivo(false);
+        invalidarTokens(usuario, usuario.getUsername());
 
         Usuario usuarioSalvo = usuarioRepository.save(usuario);
         log.info("Usuário inativado com sucesso. ID: {}", id);
@@ -167,6 +185,7 @@ public class UsuarioService {
 
         Usuario usuario = buscarPorId(id);
         usuario.setAtivo(true);
+        eventPublisher.publishEvent(new VersaoSegurancaAlteradaEvent(usuario.getUsername()));
 
         Usuario usuarioSalvo = usuarioRepository.save(usuario);
         log.info("Usuário ativado com sucesso. ID: {}", id);
@@ -183,9 +202,21 @@ public class UsuarioService {
         // Esta validação pode ser feita no controller usando o contexto de segurança
 
         usuarioRepository.deleteById(id);
+        eventPublisher.publishEvent(new VersaoSegurancaAlteradaEvent(usuario.getUsername()));
         log.info("Usuário deletado com sucesso. ID: {}", id);
     }
 
+    /**
+     * Nova versão de segurança: tokens já emitidos para o usuário deixam de ser aceitos
+     */
+    private void invalidarTokens(Usuario usuario, String usernameAnterior) {
+        usuario.setVersaoSeguranca(usuario.getVersaoSeguranca() + 1);
+        eventPublisher.publishEvent(new VersaoSegurancaAlteradaEvent(usernameAnterior));
+        if (!usernameAnterior.equals(usuario.getUsername())) {
+            eventPublisher.publishEvent(new VersaoSegurancaAlteradaEvent(usuario.getUsername()));
+        }
+    }
+
     private void validarUsuario(Usuario usuario) {
         if (usuario.getNome() == null || usuario.getNome().trim().isEmpty()) {
             throw new BusinessException("Nome é obrigatório");
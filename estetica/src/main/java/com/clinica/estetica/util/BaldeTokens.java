@@ -0,0 +1,78 @@
+package com.clinica.estetica.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de taxa por balde de tokens.
+ *
+ * O balde enche continuamente à taxa configurada até a capacidade (rajada).
+ * Quem pede N tokens reserva-os na hora e dorme fora do lock o tempo que
+ * faltar para que eles existam; pedidos que esperariam além do prazo são recusados
+ * sem consumir nada.
+ */
+public final class BaldeTokens {
+
+    private final double tokensPorNano;
+    private final double capacidade;
+
+    private double tokens;
+    private long ultimaRecarga;
+
+    public BaldeTokens(double tokensPorSegundo, int capacidade) {
+        if (tokensPorSegundo <= 0 || capacidade <= 0) {
+            throw new IllegalArgumentException("Taxa e capacidade devem ser positivas");
+        }
+        this.tokensPorNano = tokensPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.capacidade = capacidade;
+        this.tokens = capacidade;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    /**
+     * Adquire os tokens esperando no máximo o prazo informado
+     *
+     * @return false se a espera necessária passar do prazo (nada é consumido)
+     */
+    public boolean adquirir(int quantidade, long prazo, TimeUnit unidade) throws InterruptedException {
+        long espera = reservar(quantidade, unidade.toNanos(prazo));
+        if (espera < 0) {
+            return false;
+        }
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+        return true;
+    }
+
+    public boolean tentarAdquirir(int quantidade) {
+        return reservar(quantidade, 0) == 0;
+    }
+
+    public synchronized double getTokensDisponiveis() {
+        recarregar(System.nanoTime());
+        return tokens;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Consome os tokens (o saldo pode ficar negativo) e devolve quanto esperar; -1 se passar do prazo
+     */
+    private synchronized long reservar(int quantidade, long prazoNanos) {
+        long agora = System.nanoTime();
+        recarregar(agora);
+
+        double falta = quantidade - tokens;
+        long espera = falta <= 0 ? 0 : (long) Math.ceil(falta / tokensPorNano);
+        if (espera > prazoNanos) {
+            return -1;
+        }
+        tokens -= quantidade;
+        return espera;
+    }
+
+    private void recarregar(long agora) {
+        tokens = Math.min(capacidade, tokens + (agora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = agora;
+    }
+}
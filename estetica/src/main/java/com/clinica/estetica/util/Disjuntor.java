@@ -0,0 +1,79 @@
+package com.clinica.estetica.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disjuntor (circuit breaker) para chamadas a serviços externos.
+ *
+ * - FECHADO: chamadas liberadas; após N falhas seguidas, abre
+ * - ABERTO: chamadas recusadas na hora até passar o tempo de espera
+ * - MEIO_ABERTO: libera uma única chamada de teste; sucesso fecha, falha reabre
+ */
+public final class Disjuntor {
+
+    public enum Estado {
+        FECHADO, ABERTO, MEIO_ABERTO
+    }
+
+    private final int limiteFalhas;
+    private final long tempoAbertoNanos;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasConsecutivas;
+    private long abertoAte;
+    private boolean testeEmAndamento;
+
+    public Disjuntor(int limiteFalhas, long tempoAberto, TimeUnit unidade) {
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAbertoNanos = unidade.toNanos(tempoAberto);
+    }
+
+    /**
+     * true se a chamada pode seguir; no meio-aberto só a primeira passa
+     */
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case FECHADO:
+                return true;
+            case ABERTO:
+                if (System.nanoTime() - abertoAte < 0) {
+                    return false;
+                }
+                estado = Estado.MEIO_ABERTO;
+                testeEmAndamento = true;
+                return true;
+            default:
+                if (testeEmAndamento) {
+                    return false;
+                }
+                testeEmAndamento = true;
+                return true;
+        }
+    }
+
+    public synchronized void registrarSucesso() {
+        estado = Estado.FECHADO;
+        falhasConsecutivas = 0;
+        testeEmAndamento = false;
+    }
+
+    public synchronized void registrarFalha() {
+        testeEmAndamento = false;
+        falhasConsecutivas++;
+        if (estado == Estado.MEIO_ABERTO || falhasConsecutivas >= limiteFalhas) {
+            estado = Estado.ABERTO;
+            abertoAte = System.nanoTime() + tempoAbertoNanos;
+        }
+    }
+
+    /**
+     * Devolve a vaga de teste do meio-aberto quando a chamada liberada não chegou a acontecer
+     */
+    public synchronized void liberarTeste() {
+        testeEmAndamento = false;
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
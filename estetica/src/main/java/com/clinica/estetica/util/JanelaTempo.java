@@ -0,0 +1,46 @@
+package com.clinica.estetica.util;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Intervalo semiaberto [inicio, fim) para consultas por período.
+ *
+ * Os repositórios comparam a coluna diretamente com os limites
+ * ({@code coluna >= :inicio AND coluna < :fim}) em vez de aplicar
+ * DATE()/MONTH()/YEAR() sobre ela, o que permite usar os índices de data.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class JanelaTempo {
+
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+
+    private JanelaTempo(LocalDateTime inicio, LocalDateTime fim) {
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    public static JanelaTempo dia(LocalDate data) {
+        return new JanelaTempo(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+    }
+
+    public static JanelaTempo hoje() {
+        return dia(LocalDate.now());
+    }
+
+    public static JanelaTempo mes(YearMonth mes) {
+        return new JanelaTempo(mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    public static JanelaTempo mesAtual() {
+        return mes(YearMonth.now());
+    }
+}
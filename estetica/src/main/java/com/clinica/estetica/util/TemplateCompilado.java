@@ -0,0 +1,134 @@
+package com.clinica.estetica.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Template de texto com variáveis {{nome}}, analisado uma única vez.
+ *
+ * O texto é dividido em trechos literais intercalados com as variáveis, então
+ * renderizar é só concatenar em um StringBuilder, sem reinterpretar o formato
+ * a cada chamada como faz String.format.
+ *
+ * Os valores são passados em pares nome/valor: renderizar(sb, "nome", "Ana", "hora", "10:00").
+ * Valor nulo vira texto vazio; variável não informada é erro.
+ */
+public final class TemplateCompilado {
+
+    private static final String ABRE = "{{";
+    private static final String FECHA = "}}";
+
+    /** literais.length == variaveis.length + 1 */
+    private final String[] literais;
+    private final String[] variaveis;
+    private final int tamanhoLiterais;
+
+    private TemplateCompilado(String[] literais, String[] variaveis) {
+        this.literais = literais;
+        this.variaveis = variaveis;
+        int tamanho = 0;
+        for (String literal : literais) {
+            tamanho += literal.length();
+        }
+        this.tamanhoLiterais = tamanho;
+    }
+
+    public static TemplateCompilado compilar(String texto) {
+        List<String> literais = new ArrayList<>();
+        List<String> variaveis = new ArrayList<>();
+
+        int posicao = 0;
+        while (true) {
+            int abre = texto.indexOf(ABRE, posicao);
+            if (abre < 0) {
+                break;
+            }
+            int fecha = texto.indexOf(FECHA, abre + ABRE.length());
+            if (fecha < 0) {
+                throw new IllegalArgumentException("Variável sem '}}' na posição " + abre);
+            }
+            String variavel = texto.substring(abre + ABRE.length(), fecha).trim();
+            if (variavel.isEmpty()) {
+                throw new IllegalArgumentException("Variável sem nome na posição " + abre);
+            }
+            literais.add(texto.substring(posicao, abre));
+            variaveis.add(variavel.intern());
+            posicao = fecha + FECHA.length();
+        }
+        literais.add(texto.substring(posicao));
+
+        return new TemplateCompilado(literais.toArray(String[]::new), variaveis.toArray(String[]::new));
+    }
+
+    /**
+     * Anexa o template renderizado ao destino
+     */
+    public StringBuilder renderizar(StringBuilder destino, Object... valores) {
+        destino.ensureCapacity(destino.length() + tamanhoLiterais + 16 * variaveis.length);
+        for (int i = 0; i < variaveis.length; i++) {
+            destino.append(literais[i]);
+            Object valor = valor(variaveis[i], valores);
+            if (valor != null) {
+                destino.append(valor);
+            }
+        }
+        return destino.append(literais[variaveis.length]);
+    }
+
+    /**
+     * Novo template com parte das variáveis já substituídas por texto fixo
+     * (ex.: nome da clínica no layout HTML). As demais continuam variáveis.
+     */
+    public TemplateCompilado fixar(Object... valores) {
+        List<String> novosLiterais = new ArrayList<>();
+        List<String> novasVariaveis = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder(literais[0]);
+        for (int i = 0; i < variaveis.length; i++) {
+            int indice = indiceDe(variaveis[i], valores);
+            if (indice >= 0) {
+                Object valor = valores[indice + 1];
+                if (valor != null) {
+                    literal.append(valor);
+                }
+            } else {
+                novosLiterais.add(literal.toString());
+                novasVariaveis.add(variaveis[i]);
+                literal.setLength(0);
+            }
+            literal.append(literais[i + 1]);
+        }
+        novosLiterais.add(literal.toString());
+
+        return new TemplateCompilado(novosLiterais.toArray(String[]::new), novasVariaveis.toArray(String[]::new));
+    }
+
+    public Set<String> getVariaveis() {
+        return new LinkedHashSet<>(List.of(variaveis));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static Object valor(String variavel, Object[] valores) {
+        int indice = indiceDe(variavel, valores);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Valor não informado para a variável '" + variavel + "'");
+        }
+        return valores[indice + 1];
+    }
+
+    /**
+     * Poucas variáveis por template: busca linear nos pares é mais barata que um mapa
+     */
+    private static int indiceDe(String variavel, Object[] valores) {
+        for (int i = 0; i < valores.length - 1; i += 2) {
+            Object nome = valores[i];
+            if (nome == variavel || variavel.equals(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
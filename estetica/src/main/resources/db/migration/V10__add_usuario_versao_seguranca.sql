@@ -0,0 +1,3 @@
+-- Versão de segurança do usuário: vai no token e muda ao inativar ou trocar o perfil,
+-- invalidando os tokens emitidos antes da alteração
+ALTER TABLE usuario ADD COLUMN IF NOT EXISTS versao_seguranca INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Série financeira: contas pagas por data de pagamento, agrupadas com date_trunc.
+-- Índices parciais só com as contas pagas; o valor vai no INCLUDE para a soma sair do índice
+
+CREATE INDEX IF NOT EXISTS idx_conta_receber_pagamento
+    ON conta_receber (data_pagamento) INCLUDE (valor)
+    WHERE status = 'PAGO';
+
+CREATE INDEX IF NOT EXISTS idx_conta_pagar_pagamento
+    ON conta_pagar (data_pagamento) INCLUDE (valor)
+    WHERE status = 'PAGO';
@@ -0,0 +1,33 @@
+-- Consolidado diário das contas pagas: uma linha por data de pagamento, forma de pagamento
+-- e categoria. Mantido na mesma transação do registro de pagamento; os relatórios somam
+-- estas linhas em vez de varrer conta_receber e conta_pagar.
+-- Forma de pagamento e categoria ausentes ficam como '' (fazem parte da chave)
+CREATE TABLE IF NOT EXISTS financeiro_diario (
+    data                    DATE          NOT NULL,
+    forma_pagamento         VARCHAR(50)   NOT NULL DEFAULT '',
+    categoria               VARCHAR(50)   NOT NULL DEFAULT '',
+    recebido                NUMERIC(14,2) NOT NULL DEFAULT 0,
+    pago                    NUMERIC(14,2) NOT NULL DEFAULT 0,
+    quantidade_recebimentos INTEGER       NOT NULL DEFAULT 0,
+    quantidade_pagamentos   INTEGER       NOT NULL DEFAULT 0,
+    PRIMARY KEY (data, forma_pagamento, categoria)
+);
+
+-- Carga inicial com o histórico já pago
+INSERT INTO financeiro_diario (data, forma_pagamento, categoria, recebido, pago,
+                               quantidade_recebimentos, quantidade_pagamentos)
+SELECT m.data, m.forma_pagamento, m.categoria, SUM(m.recebido), SUM(m.pago),
+       SUM(m.quantidade_recebimentos), SUM(m.quantidade_pagamentos)
+FROM (
+    SELECT data_pagamento AS data, COALESCE(forma_pagamento, '') AS forma_pagamento, '' AS categoria,
+           valor AS recebido, 0 AS pago, 1 AS quantidade_recebimentos, 0 AS quantidade_pagamentos
+    FROM conta_receber
+    WHERE status = 'PAGO' AND data_pagamento IS NOT NULL
+    UNION ALL
+    SELECT data_pagamento, COALESCE(forma_pagamento, ''), COALESCE(categoria, ''),
+           0, valor, 0, 1
+    FROM conta_pagar
+    WHERE status = 'PAGO' AND data_pagamento IS NOT NULL
+) m
+GROUP BY m.data, m.forma_pagamento, m.categoria
+ON CONFLICT (data, forma_pagamento, categoria) DO NOTHING;
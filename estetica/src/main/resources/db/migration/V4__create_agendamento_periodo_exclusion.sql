@@ -0,0 +1,52 @@
+-- Impede horários sobrepostos para a mesma esteticista direto no banco
+
+-- btree_gist permite combinar igualdade (esteticista) e sobreposição (periodo) no mesmo índice GiST
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Período do agendamento como intervalo semiaberto [data_hora, data_hora_fim)
+ALTER TABLE agendamento
+    ADD COLUMN periodo TSRANGE GENERATED ALWAYS AS (tsrange(data_hora, data_hora_fim, '[)')) STORED;
+
+-- Limpeza antes da constraint: bases que já aceitaram reservas sobrepostas (checagem sem lock)
+-- fariam o ADD CONSTRAINT falhar e a aplicação não subiria.
+-- Em cada par sobreposto da mesma esteticista fica o agendamento criado primeiro (menor id);
+-- o posterior é CANCELADO, com o motivo em motivo_cancelamento e um WARNING no log do Flyway
+-- citando os dois ids. Para revisar depois:
+--   SELECT id, esteticista, data_hora, motivo_cancelamento FROM agendamento
+--   WHERE motivo_cancelamento LIKE 'Migração V4:%';
+-- Em ordem de id: o primeiro que sobrepõe um anterior ativo é cancelado, e a busca recomeça,
+-- para não cancelar quem só conflitava com um agendamento já cancelado.
+DO $$
+DECLARE
+    conflito RECORD;
+BEGIN
+    LOOP
+        SELECT posterior.id AS id, anterior.id AS mantido
+          INTO conflito
+          FROM agendamento posterior
+          JOIN agendamento anterior
+            ON anterior.esteticista = posterior.esteticista
+           AND anterior.id < posterior.id
+           AND anterior.periodo && posterior.periodo
+         WHERE posterior.status NOT IN ('CANCELADO', 'PENDENTE')
+           AND anterior.status NOT IN ('CANCELADO', 'PENDENTE')
+         ORDER BY posterior.id, anterior.id
+         LIMIT 1;
+
+        EXIT WHEN NOT FOUND;
+
+        UPDATE agendamento
+           SET status = 'CANCELADO',
+               motivo_cancelamento = 'Migração V4: horário sobreposto ao agendamento ' || conflito.mantido
+         WHERE id = conflito.id;
+
+        RAISE WARNING 'Agendamento % cancelado: sobrepunha o agendamento % da mesma esteticista',
+            conflito.id, conflito.mantido;
+    END LOOP;
+END $$;
+
+-- Cancelados liberam o horário; solicitações PENDENTE podem se sobrepor até serem aprovadas
+ALTER TABLE agendamento
+    ADD CONSTRAINT agendamento_sem_sobreposicao
+    EXCLUDE USING gist (esteticista WITH =, periodo WITH &&)
+    WHERE (status NOT IN ('CANCELADO', 'PENDENTE'));
@@ -0,0 +1,37 @@
+-- Sequências com incremento 50 para o otimizador pooled do Hibernate.
+-- Os ids deixam de ser gerados um a um no INSERT (IDENTITY), o que libera
+-- o agrupamento de inserts em lotes JDBC (hibernate.jdbc.batch_size).
+--
+-- setval(..., MAX(id) + 50, false): o primeiro bloco reservado pela aplicação
+-- começa logo após o maior id existente. Inserts via SQL que usam o DEFAULT
+-- da coluna continuam seguros, pois consomem valores da mesma sequência.
+
+ALTER SEQUENCE usuario_id_seq INCREMENT BY 50;
+SELECT setval('usuario_id_seq', COALESCE((SELECT MAX(id) FROM usuario), 0) + 50, false);
+
+ALTER SEQUENCE categoria_id_seq INCREMENT BY 50;
+SELECT setval('categoria_id_seq', COALESCE((SELECT MAX(id) FROM categoria), 0) + 50, false);
+
+ALTER SEQUENCE cliente_id_seq INCREMENT BY 50;
+SELECT setval('cliente_id_seq', COALESCE((SELECT MAX(id) FROM cliente), 0) + 50, false);
+
+ALTER SEQUENCE procedimento_id_seq INCREMENT BY 50;
+SELECT setval('procedimento_id_seq', COALESCE((SELECT MAX(id) FROM procedimento), 0) + 50, false);
+
+ALTER SEQUENCE produto_id_seq INCREMENT BY 50;
+SELECT setval('produto_id_seq', COALESCE((SELECT MAX(id) FROM produto), 0) + 50, false);
+
+ALTER SEQUENCE procedimento_produto_id_seq INCREMENT BY 50;
+SELECT setval('procedimento_produto_id_seq', COALESCE((SELECT MAX(id) FROM procedimento_produto), 0) + 50, false);
+
+ALTER SEQUENCE agendamento_id_seq INCREMENT BY 50;
+SELECT setval('agendamento_id_seq', COALESCE((SELECT MAX(id) FROM agendamento), 0) + 50, false);
+
+ALTER SEQUENCE movimentacao_estoque_id_seq INCREMENT BY 50;
+SELECT setval('movimentacao_estoque_id_seq', COALESCE((SELECT MAX(id) FROM movimentacao_estoque), 0) + 50, false);
+
+ALTER SEQUENCE conta_receber_id_seq INCREMENT BY 50;
+SELECT setval('conta_receber_id_seq', COALESCE((SELECT MAX(id) FROM conta_receber), 0) + 50, false);
+
+ALTER SEQUENCE conta_pagar_id_seq INCREMENT BY 50;
+SELECT setval('conta_pagar_id_seq', COALESCE((SELECT MAX(id) FROM conta_pagar), 0) + 50, false);
@@ -0,0 +1,20 @@
+-- Índices para as consultas por período, escritas como intervalos semiabertos
+-- (coluna >= :inicio AND coluna < :fim) em vez de DATE()/MONTH()/YEAR() sobre a coluna
+
+-- Agenda de uma esteticista em um período (conflitos, horários livres, calendário)
+CREATE INDEX IF NOT EXISTS idx_agendamento_esteticista_data
+    ON agendamento (esteticista, data_hora);
+
+-- Agendamentos do dia / do mês
+CREATE INDEX IF NOT EXISTS idx_agendamento_data
+    ON agendamento (data_hora);
+
+-- Contas a receber criadas no dia / no mês
+CREATE INDEX IF NOT EXISTS idx_conta_receber_created_at
+    ON conta_receber (created_at);
+
+-- Aniversariantes do dia: mês e dia não formam um intervalo contínuo de datas,
+-- então o índice é sobre as mesmas expressões geradas pela consulta
+CREATE INDEX IF NOT EXISTS idx_cliente_aniversario
+    ON cliente ((EXTRACT(MONTH FROM data_nascimento)), (EXTRACT(DAY FROM data_nascimento)))
+    WHERE status = 'ATIVO';
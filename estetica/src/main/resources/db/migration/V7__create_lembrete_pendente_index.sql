@@ -0,0 +1,6 @@
+-- Lembretes pendentes: percorridos em ordem de (data_hora, id) a partir de um cursor.
+-- Índice parcial só com os agendamentos que ainda aguardam lembrete, então encolhe
+-- à medida que os lembretes são marcados.
+CREATE INDEX IF NOT EXISTS idx_agendamento_lembrete_pendente
+    ON agendamento (data_hora, id)
+    WHERE status = 'AGENDADO' AND confirmado = false AND lembrete_enviado = false;
@@ -0,0 +1,28 @@
+-- Outbox de notificações: gravado na mesma transação do agendamento e
+-- drenado pelo NotificacaoDispatcher fora da requisição
+CREATE TABLE IF NOT EXISTS notificacao_outbox (
+    id                BIGINT       PRIMARY KEY,
+    tipo              VARCHAR(40)  NOT NULL,
+    agendamento_id    BIGINT       NOT NULL,
+    payload           TEXT,
+    status            VARCHAR(20)  NOT NULL,
+    tentativas        INTEGER      NOT NULL DEFAULT 0,
+    proxima_tentativa TIMESTAMP    NOT NULL,
+    ultimo_erro       TEXT,
+    enviada_em        TIMESTAMP,
+    reserva           UUID,
+    created_at        TIMESTAMP    NOT NULL,
+    updated_at        TIMESTAMP
+);
+
+CREATE SEQUENCE IF NOT EXISTS notificacao_outbox_id_seq INCREMENT BY 50;
+ALTER TABLE notificacao_outbox ALTER COLUMN id SET DEFAULT nextval('notificacao_outbox_id_seq');
+ALTER SEQUENCE notificacao_outbox_id_seq OWNED BY notificacao_outbox.id;
+
+CREATE INDEX IF NOT EXISTS idx_notificacao_outbox_agendamento ON notificacao_outbox (agendamento_id);
+CREATE INDEX IF NOT EXISTS idx_notificacao_outbox_status ON notificacao_outbox (status);
+
+-- Fila do dispatcher: só linhas ainda a entregar, em ordem de vencimento
+CREATE INDEX IF NOT EXISTS idx_notificacao_outbox_fila
+    ON notificacao_outbox (proxima_tentativa, id)
+    WHERE status IN ('PENDENTE', 'PROCESSANDO');
@@ -0,0 +1,36 @@
+-- Campanhas em massa (aniversariantes, reativação de inativos) com checkpoint retomável
+CREATE TABLE IF NOT EXISTS campanha_execucao (
+    id                BIGINT       PRIMARY KEY,
+    tipo              VARCHAR(40)  NOT NULL,
+    referencia        VARCHAR(60)  NOT NULL,
+    status            VARCHAR(20)  NOT NULL,
+    ultimo_cliente_id BIGINT       NOT NULL DEFAULT 0,
+    enviados          INTEGER      NOT NULL DEFAULT 0,
+    falhas            INTEGER      NOT NULL DEFAULT 0,
+    iniciada_em       TIMESTAMP    NOT NULL,
+    atualizada_em     TIMESTAMP,
+    dono              UUID,
+    concluida_em      TIMESTAMP,
+    CONSTRAINT uk_campanha_execucao_tipo_referencia UNIQUE (tipo, referencia)
+);
+
+CREATE SEQUENCE IF NOT EXISTS campanha_execucao_id_seq INCREMENT BY 50;
+ALTER TABLE campanha_execucao ALTER COLUMN id SET DEFAULT nextval('campanha_execucao_id_seq');
+ALTER SEQUENCE campanha_execucao_id_seq OWNED BY campanha_execucao.id;
+
+-- Um registro por cliente processado: a retomada pula quem já está aqui
+CREATE TABLE IF NOT EXISTS campanha_envio (
+    execucao_id BIGINT    NOT NULL REFERENCES campanha_execucao (id) ON DELETE CASCADE,
+    cliente_id  BIGINT    NOT NULL,
+    sucesso     BOOLEAN   NOT NULL,
+    erro        TEXT,
+    enviado_em  TIMESTAMP NOT NULL,
+    PRIMARY KEY (execucao_id, cliente_id)
+);
+
+-- Aniversariantes percorridos por cursor de id: o id no fim do índice
+-- entrega as linhas de cada mês/dia já na ordem da paginação
+DROP INDEX IF EXISTS idx_cliente_aniversario;
+CREATE INDEX IF NOT EXISTS idx_cliente_aniversario
+    ON cliente ((EXTRACT(MONTH FROM data_nascimento)), (EXTRACT(DAY FROM data_nascimento)), id)
+    WHERE status = 'ATIVO';
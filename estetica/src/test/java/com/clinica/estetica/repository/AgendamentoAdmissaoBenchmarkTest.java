@@ -0,0 +1,231 @@
+package com.clinica.estetica.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a vazão de reservas concorrentes no PostgreSQL:
+ *
+ * - verificação + insert sem bloqueio (caminho original, sujeito a sobreposição)
+ * - bloqueio por esteticista (pg_advisory_xact_lock) + verificação + insert
+ * - insert otimista protegido pela constraint de exclusão (V4)
+ *
+ * Executar com: mvn test -Dtest=AgendamentoAdmissaoBenchmarkTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+class AgendamentoAdmissaoBenchmarkTest {
+
+    private static final String[] ESTETICISTAS = {"Ana Paula", "Carla Santos", "Beatriz", "Daniela", "Elisa"};
+    private static final int RESERVAS = 4000;
+    private static final int THREADS = 16;
+    private static final int SLOTS_DISPUTADOS = 10 * 24;
+    private static final int SLOTS_FOLGADOS = 365 * 24;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private static final String CONFLITO =
+            "SELECT EXISTS (SELECT 1 FROM %s WHERE esteticista = ? AND status <> 'CANCELADO' " +
+            "AND data_hora <= ? AND data_hora_fim > ?)";
+    private static final String INSERT =
+            "INSERT INTO %s (esteticista, data_hora, data_hora_fim, status) VALUES (?, ?, ?, 'AGENDADO')";
+
+    @BeforeAll
+    static void criarTabelas() throws SQLException {
+        try (Connection conexao = conectar(); Statement st = conexao.createStatement()) {
+            st.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            for (String tabela : List.of("bench_verificacao", "bench_exclusao")) {
+                st.execute("DROP TABLE IF EXISTS " + tabela);
+                st.execute("CREATE TABLE " + tabela + " (id BIGSERIAL PRIMARY KEY, esteticista VARCHAR(100) NOT NULL, " +
+                        "data_hora TIMESTAMP NOT NULL, data_hora_fim TIMESTAMP NOT NULL, status VARCHAR(20) NOT NULL, " +
+                        "periodo TSRANGE GENERATED ALWAYS AS (tsrange(data_hora, data_hora_fim, '[)')) STORED)");
+                st.execute("CREATE INDEX idx_" + tabela + "_esteticista_data ON " + tabela + " (esteticista, data_hora)");
+            }
+            st.execute("ALTER TABLE bench_exclusao ADD CONSTRAINT bench_exclusao_sem_sobreposicao " +
+                    "EXCLUDE USING gist (esteticista WITH =, periodo WITH &&) " +
+                    "WHERE (status NOT IN ('CANCELADO', 'PENDENTE'))");
+        }
+    }
+
+    @AfterAll
+    static void removerTabelas() throws SQLException {
+        try (Connection conexao = conectar(); Statement st = conexao.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_verificacao");
+            st.execute("DROP TABLE IF EXISTS bench_exclusao");
+        }
+    }
+
+    @Test
+    void compararEstrategiasDeAdmissao() throws Exception {
+        // Aquecimento (JIT, cache de planos, conexões)
+        executar("bench_verificacao", this::bloquearVerificarEInserir, SLOTS_DISPUTADOS);
+        executar("bench_exclusao", this::inserirOtimista, SLOTS_DISPUTADOS);
+
+        for (int slots : new int[]{SLOTS_DISPUTADOS, SLOTS_FOLGADOS}) {
+            Resultado semBloqueio = executar("bench_verificacao", this::verificarEInserir, slots);
+            Resultado comBloqueio = executar("bench_verificacao", this::bloquearVerificarEInserir, slots);
+            Resultado otimista = executar("bench_exclusao", this::inserirOtimista, slots);
+
+            log.info("[{} horários possíveis] Verificação + insert sem bloqueio: {}", slots, semBloqueio);
+            log.info("[{} horários possíveis] Bloqueio por esteticista + verificação: {}", slots, comBloqueio);
+            log.info("[{} horários possíveis] Insert otimista com constraint de exclusão: {}", slots, otimista);
+
+            assertThat(comBloqueio.sobreposicoes).isZero();
+            assertThat(otimista.sobreposicoes).isZero();
+        }
+    }
+
+    // ==================== ESTRATÉGIAS ====================
+
+    private boolean verificarEInserir(Connection conexao, String tabela, String esteticista,
+                                      Timestamp inicio, Timestamp fim) throws SQLException {
+        if (existeConflito(conexao, tabela, esteticista, inicio, fim)) {
+            return false;
+        }
+        inserir(conexao, tabela, esteticista, inicio, fim);
+        return true;
+    }
+
+    private boolean bloquearVerificarEInserir(Connection conexao, String tabela, String esteticista,
+                                              Timestamp inicio, Timestamp fim) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT 1 FROM pg_advisory_xact_lock(4821, hashtext(?))")) {
+            ps.setString(1, esteticista);
+            ps.executeQuery().close();
+        }
+        return verificarEInserir(conexao, tabela, esteticista, inicio, fim);
+    }
+
+    private boolean inserirOtimista(Connection conexao, String tabela, String esteticista,
+                                    Timestamp inicio, Timestamp fim) throws SQLException {
+        try {
+            inserir(conexao, tabela, esteticista, inicio, fim);
+            return true;
+        } catch (SQLException e) {
+            if ("23P01".equals(e.getSQLState())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Resultado executar(String tabela, Estrategia estrategia, int slots) throws Exception {
+        try (Connection conexao = conectar(); Statement st = conexao.createStatement()) {
+            st.execute("TRUNCATE " + tabela);
+        }
+
+        AtomicInteger aceitas = new AtomicInteger();
+        BlockingQueue<Connection> conexoes = new ArrayBlockingQueue<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Connection conexao = conectar();
+            conexao.setAutoCommit(false);
+            conexoes.add(conexao);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        long comeco = System.nanoTime();
+
+        for (int i = 0; i < RESERVAS; i++) {
+            tarefas.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String esteticista = ESTETICISTAS[random.nextInt(ESTETICISTAS.length)];
+                LocalDateTime inicio = BASE.plusMinutes(30L * random.nextInt(slots));
+                LocalDateTime fim = inicio.plusMinutes(30L * (1 + random.nextInt(3)));
+
+                Connection conexao = conexoes.take();
+                try {
+                    if (estrategia.reservar(conexao, tabela, esteticista,
+                            Timestamp.valueOf(inicio), Timestamp.valueOf(fim))) {
+                        aceitas.incrementAndGet();
+                    }
+                    conexao.commit();
+                } catch (SQLException e) {
+                    conexao.rollback();
+                    throw e;
+                } finally {
+                    conexoes.put(conexao);
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(120, TimeUnit.SECONDS);
+        }
+        double segundos = (System.nanoTime() - comeco) / 1_000_000_000.0;
+        executor.shutdown();
+        for (Connection conexao : conexoes) {
+            conexao.close();
+        }
+
+        return new Resultado(aceitas.get(), contarSobreposicoes(tabela), RESERVAS / segundos);
+    }
+
+    private boolean existeConflito(Connection conexao, String tabela, String esteticista,
+                                   Timestamp inicio, Timestamp fim) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement(String.format(CONFLITO, tabela))) {
+            ps.setString(1, esteticista);
+            ps.setTimestamp(2, fim);
+            ps.setTimestamp(3, inicio);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void inserir(Connection conexao, String tabela, String esteticista,
+                         Timestamp inicio, Timestamp fim) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement(String.format(INSERT, tabela))) {
+            ps.setString(1, esteticista);
+            ps.setTimestamp(2, inicio);
+            ps.setTimestamp(3, fim);
+            ps.executeUpdate();
+        }
+    }
+
+    private long contarSobreposicoes(String tabela) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM " + tabela + " a JOIN " + tabela + " b " +
+                "ON a.esteticista = b.esteticista AND a.id < b.id AND a.periodo && b.periodo";
+        try (Connection conexao = conectar(); Statement st = conexao.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Connection conectar() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("benchmark.db.url"),
+                System.getProperty("benchmark.db.user", "clinica_user"),
+                System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+    }
+
+    @FunctionalInterface
+    private interface Estrategia {
+        boolean reservar(Connection conexao, String tabela, String esteticista,
+                         Timestamp inicio, Timestamp fim) throws SQLException;
+    }
+
+    private record Resultado(int aceitas, long sobreposicoes, double reservasPorSegundo) {
+        @Override
+        public String toString() {
+            return String.format("%d aceitas, %d sobreposições, %.0f reservas/s",
+                    aceitas, sobreposicoes, reservasPorSegundo);
+        }
+    }
+}
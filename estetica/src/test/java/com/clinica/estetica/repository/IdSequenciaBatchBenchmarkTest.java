@@ -0,0 +1,215 @@
+package com.clinica.estetica.repository;
+
+import com.clinica.estetica.model.entity.*;
+import com.clinica.estetica.model.enums.StatusConta;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara ids IDENTITY (antes do V5) com sequência pooled + lotes JDBC (depois)
+ * em um caminho de inserção em massa: criação das contas a receber de uma série.
+ *
+ * Mede idas ao banco (execute/executeBatch) por requisição e linhas por segundo.
+ * Cada cenário roda em um schema próprio, criado e removido pelo teste.
+ *
+ * Executar com: mvn test -Dtest=IdSequenciaBatchBenchmarkTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+class IdSequenciaBatchBenchmarkTest {
+
+    private static final int REQUISICOES = 300;
+    private static final int CONTAS_POR_REQUISICAO = 10;
+    private static final int AQUECIMENTO = 50;
+
+    @Test
+    void compararIdentityComSequenciaEmLote() throws Exception {
+        Resultado antes = executar("benchmark_identity", true, 0);
+        Resultado depois = executar("benchmark_sequencia", false, 50);
+
+        log.info("IDENTITY, sem lotes: {}", antes);
+        log.info("Sequência pooled + batch_size=50: {}", depois);
+
+        assertThat(depois.idasPorRequisicao).isLessThan(antes.idasPorRequisicao);
+    }
+
+    private Resultado executar(String schema, boolean identity, int batchSize) throws Exception {
+        AtomicLong idasAoBanco = new AtomicLong();
+        HikariDataSource pool = criarPool();
+        DataSource dataSource = contarIdasAoBanco(pool, idasAoBanco);
+        recriarSchema(dataSource, schema);
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Usuario.class)
+                .addAnnotatedClass(Categoria.class)
+                .addAnnotatedClass(Cliente.class)
+                .addAnnotatedClass(Procedimento.class)
+                .addAnnotatedClass(Produto.class)
+                .addAnnotatedClass(ProcedimentoProduto.class)
+                .addAnnotatedClass(Agendamento.class)
+                .addAnnotatedClass(MovimentacaoEstoque.class)
+                .addAnnotatedClass(ContaReceber.class)
+                .addAnnotatedClass(ContaPagar.class)
+                .setProperty(AvailableSettings.DEFAULT_SCHEMA, schema)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true");
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        if (identity) {
+            configuration.addResource("benchmark/orm-identity.xml");
+        }
+
+        try (SessionFactory sessionFactory = configuration.buildSessionFactory()) {
+            Long clienteId = sessionFactory.fromTransaction(session -> {
+                Cliente cliente = Cliente.builder()
+                        .nome("Cliente Benchmark")
+                        .cpf("000.000.000-00")
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                session.persist(cliente);
+                return cliente.getId();
+            });
+
+            for (int i = 0; i < AQUECIMENTO; i++) {
+                sessionFactory.inTransaction(session -> criarContasDaSerie(session, clienteId));
+            }
+
+            idasAoBanco.set(0);
+            long comeco = System.nanoTime();
+            for (int i = 0; i < REQUISICOES; i++) {
+                sessionFactory.inTransaction(session -> criarContasDaSerie(session, clienteId));
+            }
+            double segundos = (System.nanoTime() - comeco) / 1_000_000_000.0;
+
+            return new Resultado(
+                    (double) idasAoBanco.get() / REQUISICOES,
+                    REQUISICOES * CONTAS_POR_REQUISICAO / segundos);
+        } finally {
+            removerSchema(dataSource, schema);
+            pool.close();
+        }
+    }
+
+    /**
+     * Mesmo padrão de ContaReceberService.criarDeAgendamentos: N persist e um flush no commit
+     */
+    private void criarContasDaSerie(Session session, Long clienteId) {
+        Cliente cliente = session.getReference(Cliente.class, clienteId);
+        for (int i = 0; i < CONTAS_POR_REQUISICAO; i++) {
+            ContaReceber conta = ContaReceber.builder()
+                    .cliente(cliente)
+                    .descricao("Sessão " + (i + 1))
+                    .valor(new BigDecimal("150.00"))
+                    .dataVencimento(LocalDate.now().plusWeeks(i))
+                    .status(StatusConta.PENDENTE)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            session.persist(conta);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static HikariDataSource criarPool() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(System.getProperty("benchmark.db.url"));
+        dataSource.setUser(System.getProperty("benchmark.db.user", "clinica_user"));
+        dataSource.setPassword(System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+        dataSource.setReWriteBatchedInserts(true);
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setDataSource(dataSource);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    /**
+     * Conta cada execute/executeBatch como uma ida ao banco
+     */
+    private static DataSource contarIdasAoBanco(DataSource dataSource, AtomicLong contador) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(dataSource, metodo, args);
+                    if (resultado instanceof Connection conexao) {
+                        return contarIdasAoBanco(conexao, contador);
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Connection contarIdasAoBanco(Connection conexao, AtomicLong contador) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexao, metodo, args);
+                    if (resultado instanceof Statement statement) {
+                        return contarIdasAoBanco(statement, contador);
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Statement contarIdasAoBanco(Statement statement, AtomicLong contador) {
+        Class<?>[] interfaces = statement instanceof java.sql.CallableStatement
+                ? new Class<?>[]{java.sql.CallableStatement.class}
+                : statement instanceof java.sql.PreparedStatement
+                ? new Class<?>[]{java.sql.PreparedStatement.class}
+                : new Class<?>[]{Statement.class};
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), interfaces,
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("execute")) {
+                        contador.incrementAndGet();
+                    }
+                    return invocar(statement, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, java.lang.reflect.Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void recriarSchema(DataSource dataSource, String schema) throws Exception {
+        try (Connection conexao = dataSource.getConnection(); Statement st = conexao.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            st.execute("CREATE SCHEMA " + schema);
+        }
+    }
+
+    private static void removerSchema(DataSource dataSource, String schema) throws Exception {
+        try (Connection conexao = dataSource.getConnection(); Statement st = conexao.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    private record Resultado(double idasPorRequisicao, double linhasPorSegundo) {
+        @Override
+        public String toString() {
+            return String.format("%.1f idas ao banco por requisição, %.0f linhas/s",
+                    idasPorRequisicao, linhasPorSegundo);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.clinica.estetica.repository;
+
+import com.clinica.estetica.model.entity.*;
+import com.clinica.estetica.util.JanelaTempo;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que as consultas por período usam índice (V6, V9) em vez de varrer a tabela.
+ *
+ * Cria um schema próprio via Hibernate, aplica o V6 e o V9, popula um volume grande com
+ * generate_series e roda EXPLAIN sobre o SQL gerado a partir de cada @Query.
+ * Falha se alguma delas cair em Seq Scan nas tabelas consultadas.
+ *
+ * Executar com: mvn test -Dtest=JanelaTempoExplainTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+class JanelaTempoExplainTest {
+
+    private static final String SCHEMA = "explain_janela_tempo";
+    private static final int CLIENTES = 200_000;
+    private static final int AGENDAMENTOS = 500_000;
+    private static final int CONTAS = 500_000;
+    private static final int DIAS_HISTORICO = 5 * 365;
+    private static final Pattern PARAMETRO = Pattern.compile(":(\\w+)");
+
+    private static HikariDataSource pool;
+    private static SessionFactory sessionFactory;
+    private static final List<String> sqlGerado = new ArrayList<>();
+
+    @BeforeAll
+    static void popularBanco() throws Exception {
+        pool = criarPool();
+        executar("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE", "CREATE SCHEMA " + SCHEMA);
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Usuario.class)
+                .addAnnotatedClass(Categoria.class)
+                .addAnnotatedClass(Cliente.class)
+                .addAnnotatedClass(Procedimento.class)
+                .addAnnotatedClass(Produto.class)
+                .addAnnotatedClass(ProcedimentoProduto.class)
+                .addAnnotatedClass(Agendamento.class)
+                .addAnnotatedClass(MovimentacaoEstoque.class)
+                .addAnnotatedClass(ContaReceber.class)
+                .addAnnotatedClass(ContaPagar.class)
+                .setProperty(AvailableSettings.DEFAULT_SCHEMA, SCHEMA)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create");
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, pool);
+        configuration.setStatementInspector(sql -> {
+            synchronized (sqlGerado) {
+                sqlGerado.add(sql);
+            }
+            return sql;
+        });
+        sessionFactory = configuration.buildSessionFactory();
+
+        List<String> comandos = new ArrayList<>();
+        comandos.add("SET search_path TO " + SCHEMA);
+        comandos.addAll(lerMigracao("db/migration/V6__create_time_window_indexes.sql"));
+        comandos.addAll(lerMigracao("db/migration/V9__create_campanha.sql"));
+        comandos.addAll(List.of(
+                "INSERT INTO cliente (id, nome, cpf, status, data_nascimento, created_at) " +
+                "SELECT i, 'Cliente ' || i, lpad(i::text, 14, '0'), " +
+                "CASE WHEN i % 10 = 0 THEN 'INATIVO' ELSE 'ATIVO' END, " +
+                "DATE '1960-01-01' + (random() * 20000)::int, now() " +
+                "FROM generate_series(1, " + CLIENTES + ") i",
+
+                "INSERT INTO procedimento (id, nome, preco, duracao_minutos, ativo, created_at) " +
+                "SELECT i, 'Procedimento ' || i, 150, 60, true, now() FROM generate_series(1, 20) i",
+
+                "INSERT INTO agendamento (id, cliente_id, procedimento_id, esteticista, data_hora, data_hora_fim, " +
+                "duracao_minutos, valor_procedimento, valor_total, status, confirmado, lembrete_enviado, pago, created_at) " +
+                "SELECT i, 1 + i % " + CLIENTES + ", 1 + i % 20, 'Esteticista ' || (i % 25), " +
+                "inicio, inicio + interval '1 hour', 60, 150, 150, " +
+                "CASE WHEN i % 7 = 0 THEN 'CANCELADO' ELSE 'REALIZADO' END, true, true, true, now() " +
+                "FROM (SELECT i, date_trunc('hour', now() - random() * interval '" + DIAS_HISTORICO + " days' " +
+                "+ interval '30 days') AS inicio FROM generate_series(1, " + AGENDAMENTOS + ") i) s",
+
+                "INSERT INTO conta_receber (id, cliente_id, descricao, valor, data_vencimento, status, created_at) " +
+                "SELECT i, 1 + i % " + CLIENTES + ", 'Conta ' || i, 150, CURRENT_DATE, 'PAGO', " +
+                "now() - random() * interval '" + DIAS_HISTORICO + " days' " +
+                "FROM generate_series(1, " + CONTAS + ") i",
+
+                "ANALYZE cliente",
+                "ANALYZE agendamento",
+                "ANALYZE conta_receber"));
+        executar(comandos.toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void removerSchema() throws SQLException {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (pool != null) {
+            executar("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            pool.close();
+        }
+    }
+
+    @Test
+    void agendamentosDoDiaUsamIndice() throws Exception {
+        JanelaTempo hoje = JanelaTempo.hoje();
+        assertSemSeqScan(AgendamentoRepository.class, "findAgendamentosAtivosPeriodo", "agendamento",
+                Map.of("inicio", hoje.getInicio(), "fim", hoje.getFim()));
+        assertSemSeqScan(AgendamentoRepository.class, "countAgendamentosAtivosPeriodo", "agendamento",
+                Map.of("inicio", hoje.getInicio(), "fim", hoje.getFim()));
+    }
+
+    @Test
+    void agendamentosDoMesUsamIndice() throws Exception {
+        JanelaTempo mes = JanelaTempo.mesAtual();
+        assertSemSeqScan(AgendamentoRepository.class, "countAgendamentosAtivosPeriodo", "agendamento",
+                Map.of("inicio", mes.getInicio(), "fim", mes.getFim()));
+    }
+
+    @Test
+    void conflitoDeAgendaUsaIndice() throws Exception {
+        JanelaTempo hoje = JanelaTempo.hoje();
+        assertSemSeqScan(AgendamentoRepository.class, "existsConflito", "agendamento",
+                Map.of("esteticista", "Esteticista 3",
+                        "inicio", hoje.getInicio().plusHours(10), "fim", hoje.getInicio().plusHours(11)));
+    }
+
+    @Test
+    void contasDoDiaEDoMesUsamIndice() throws Exception {
+        JanelaTempo hoje = JanelaTempo.hoje();
+        JanelaTempo mes = JanelaTempo.mesAtual();
+        assertSemSeqScan(ContaReceberRepository.class, "somarCriadasPeriodo", "conta_receber",
+                Map.of("inicio", hoje.getInicio(), "fim", hoje.getFim()));
+        assertSemSeqScan(ContaReceberRepository.class, "somarCriadasPeriodo", "conta_receber",
+                Map.of("inicio", mes.getInicio(), "fim", mes.getFim()));
+    }
+
+    @Test
+    void aniversariantesDoDiaUsamIndice() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        assertSemSeqScan(ClienteRepository.class, "findAniversariantesdoDia", "cliente",
+                Map.of("mes", hoje.getMonthValue(), "dia", hoje.getDayOfMonth()));
+    }
+
+    @Test
+    void paginaDeAniversariantesUsaIndice() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        assertSemSeqScan(ClienteRepository.class, "findAniversariantesApos", "cliente",
+                Map.of("mes", hoje.getMonthValue(), "dia", hoje.getDayOfMonth(), "ultimoId", 100_000L));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void assertSemSeqScan(Class<?> repositorio, String metodo, String tabela,
+                                  Map<String, Object> parametros) throws Exception {
+        String hql = Arrays.stream(repositorio.getDeclaredMethods())
+                .filter(m -> m.getName().equals(metodo))
+                .map(m -> m.getAnnotation(org.springframework.data.jpa.repository.Query.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseThrow()
+                .value();
+
+        String sql = gerarSql(hql, parametros);
+        List<Object> valores = new ArrayList<>();
+        Matcher matcher = PARAMETRO.matcher(hql);
+        while (matcher.find()) {
+            valores.add(parametros.get(matcher.group(1)));
+        }
+
+        String plano = explicar(sql, valores);
+        log.info("{}.{} {}\n{}", repositorio.getSimpleName(), metodo, parametros, plano);
+
+        assertThat(plano)
+                .as("%s.%s não deve varrer %s inteira", repositorio.getSimpleName(), metodo, tabela)
+                .doesNotContain("Seq Scan on " + tabela);
+    }
+
+    /**
+     * Executa a HQL pelo Hibernate e devolve o SQL capturado pelo StatementInspector
+     */
+    private String gerarSql(String hql, Map<String, Object> parametros) {
+        synchronized (sqlGerado) {
+            sqlGerado.clear();
+        }
+        sessionFactory.inSession(session -> {
+            Query<?> query = session.createQuery(hql, Object.class);
+            parametros.forEach(query::setParameter);
+            query.getResultList();
+        });
+        synchronized (sqlGerado) {
+            assertThat(sqlGerado).hasSize(1);
+            return sqlGerado.get(0);
+        }
+    }
+
+    private String explicar(String sql, List<Object> valores) throws SQLException {
+        try (Connection conexao = pool.getConnection();
+             PreparedStatement ps = conexao.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < valores.size(); i++) {
+                ps.setObject(i + 1, valores.get(i));
+            }
+            List<String> linhas = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    linhas.add(rs.getString(1));
+                }
+            }
+            return String.join("\n", linhas);
+        }
+    }
+
+    private static List<String> lerMigracao(String caminho) throws IOException {
+        try (InputStream in = JanelaTempoExplainTest.class.getClassLoader().getResourceAsStream(caminho)) {
+            String conteudo = new String(Objects.requireNonNull(in, caminho).readAllBytes(), StandardCharsets.UTF_8);
+            String semComentarios = conteudo.lines()
+                    .filter(linha -> !linha.trim().startsWith("--"))
+                    .collect(Collectors.joining("\n"));
+            return Arrays.stream(semComentarios.split(";"))
+                    .map(String::trim)
+                    .filter(comando -> !comando.isEmpty())
+                    .toList();
+        }
+    }
+
+    private static void executar(String... comandos) throws SQLException {
+        try (Connection conexao = pool.getConnection(); Statement st = conexao.createStatement()) {
+            for (String comando : comandos) {
+                st.execute(comando);
+            }
+        }
+    }
+
+    private static HikariDataSource criarPool() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(System.getProperty("benchmark.db.url"));
+        dataSource.setUser(System.getProperty("benchmark.db.user", "clinica_user"));
+        dataSource.setPassword(System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setDataSource(dataSource);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}
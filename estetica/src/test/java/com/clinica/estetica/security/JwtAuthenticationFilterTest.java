@@ -0,0 +1,132 @@
+package com.clinica.estetica.security;
+
+import com.clinica.estetica.event.VersaoSegurancaAlteradaEvent;
+import com.clinica.estetica.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Autenticação só pelas claims do token, com a versão de segurança em memória
+ */
+class JwtAuthenticationFilterTest {
+
+    private UsuarioRepository usuarioRepository;
+    private JwtTokenProvider provider;
+    private VersoesSeguranca versoesSeguranca;
+    private RevogacaoTokens revogacaoTokens;
+    private JwtAuthenticationFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        provider = JwtTokenProviderTest.criar(new SimpleMeterRegistry(), 100);
+        versoesSeguranca = new VersoesSeguranca(usuarioRepository);
+        ReflectionTestUtils.setField(versoesSeguranca, "ttlMs", 60_000L);
+        revogacaoTokens = mock(RevogacaoTokens.class);
+        filtro = new JwtAuthenticationFilter(provider, versoesSeguranca, revogacaoTokens);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void autenticaPelasClaimsConsultandoAVersaoUmaVez() throws Exception {
+        when(usuarioRepository.findVersaoSegurancaAtiva("recepcao")).thenReturn(Optional.of(2));
+        String token = provider.generateToken(JwtTokenProviderTest.usuario("recepcao", 2));
+
+        for (int i = 0; i < 3; i++) {
+            Authentication autenticacao = filtrar(token);
+            assertThat(autenticacao.getName()).isEqualTo("recepcao");
+            assertThat(autenticacao.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                    .containsExactly("ROLE_RECEPCIONISTA");
+        }
+
+        verify(usuarioRepository, times(1)).findVersaoSegurancaAtiva("recepcao");
+        verifyNoMoreInteractions(usuarioRepository);
+    }
+
+    @Test
+    void tokenDeVersaoAnteriorNaoAutentica() throws Exception {
+        when(usuarioRepository.findVersaoSegurancaAtiva("recepcao")).thenReturn(Optional.of(3));
+
+        assertThat(filtrar(provider.generateToken(JwtTokenProviderTest.usuario("recepcao", 2)))).isNull();
+    }
+
+    @Test
+    void inativacaoBarraTokenJaAceito() throws Exception {
+        when(usuarioRepository.findVersaoSegurancaAtiva("recepcao"))
+                .thenReturn(Optional.of(0))
+                .thenReturn(Optional.empty());
+        String token = provider.generateToken(JwtTokenProviderTest.usuario("recepcao", 0));
+        assertThat(filtrar(token)).isNotNull();
+
+        versoesSeguranca.aoAlterarVersao(new VersaoSegurancaAlteradaEvent("recepcao"));
+
+        assertThat(filtrar(token)).isNull();
+    }
+
+    @Test
+    void leituraConcorrenteComOCommitNaoGuardaVersaoAntiga() throws Exception {
+        String token = provider.generateToken(JwtTokenProviderTest.usuario("recepcao", 0));
+        // A leitura vê a versão antiga; o commit da troca de perfil e o descarte acontecem antes de ela terminar
+        when(usuarioRepository.findVersaoSegurancaAtiva("recepcao"))
+                .thenAnswer(inv -> {
+                    versoesSeguranca.aoAlterarVersao(new VersaoSegurancaAlteradaEvent("recepcao"));
+                    return Optional.of(0);
+                })
+                .thenReturn(Optional.of(1));
+        filtrar(token);
+
+        assertThat(filtrar(token)).isNull();
+        verify(usuarioRepository, times(2)).findVersaoSegurancaAtiva("recepcao");
+    }
+
+    @Test
+    void tokenRevogadoNaoAutentica() throws Exception {
+        when(usuarioRepository.findVersaoSegurancaAtiva("recepcao")).thenReturn(Optional.of(0));
+        String token = provider.generateToken(JwtTokenProviderTest.usuario("recepcao", 0));
+        when(revogacaoTokens.revogado(any())).thenReturn(true);
+
+        assertThat(filtrar(token)).isNull();
+    }
+
+    @Test
+    void semTokenSegueSemAutenticar() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/clientes"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Authentication filtrar(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/clientes");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,195 @@
+package com.clinica.estetica.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JMH: custo do JwtAuthenticationFilter por requisição autenticada.
+ *
+ * - filtroLegado: três verificações completas do token, cada uma com Algorithm e JWTVerifier novos,
+ *   mais o UserDetailsService (aqui um stub em memória; em produção, uma consulta ao banco)
+ * - filtroSemCache: uma verificação com o verificador reaproveitado, autenticação pelas claims
+ * - filtroComCache: token já verificado, resolvido pelo hash no cache
+ * - consultaRevogacao: só a checagem de token revogado
+ *
+ * Executar com: mvn test -Dtest=JwtFilterBenchmark -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    static final String USERNAME = "recepcao";
+
+    private final UserDetails usuario = User.withUsername(USERNAME).password("x").roles("RECEPCIONISTA").build();
+    private final UserDetailsService userDetailsService = username -> usuario;
+    private final FilterChain chain = (request, response) -> { };
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private JwtAuthenticationFilter filtroSemCache;
+    private JwtAuthenticationFilter filtroComCache;
+    private MockHttpServletRequest request;
+    private RevogacaoTokens revogacaoTokens;
+    private DecodedJWT decodificado;
+
+    @Setup
+    public void setUp() throws IOException {
+        JwtTokenProvider semCache = JwtTokenProviderTest.criar(new SimpleMeterRegistry(), 0);
+        JwtTokenProvider comCache = JwtTokenProviderTest.criar(new SimpleMeterRegistry(), 10_000);
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findVersaoSegurancaAtiva(USERNAME)).thenReturn(Optional.of(0));
+        VersoesSeguranca versoesSeguranca = new VersoesSeguranca(usuarioRepository);
+        ReflectionTestUtils.setField(versoesSeguranca, "ttlMs", 3_600_000L);
+        revogacaoTokens = new RevogacaoTokens(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revogacaoTokens, "arquivo",
+                Files.createTempDirectory("revogacoes").resolve("revogacoes.log").toString());
+        ReflectionTestUtils.setField(revogacaoTokens, "expiracaoToken", 3_600_000L);
+        revogacaoTokens.iniciar();
+        filtroSemCache = new JwtAuthenticationFilter(semCache, versoesSeguranca, revogacaoTokens);
+        filtroComCache = new JwtAuthenticationFilter(comCache, versoesSeguranca, revogacaoTokens);
+
+        request = new MockHttpServletRequest("GET", "/api/agendamentos");
+        request.addHeader("Authorization", "Bearer " + comCache.generateToken(JwtTokenProviderTest.usuario(USERNAME, 0)));
+        decodificado = comCache.verificar(token());
+
+        // Revogações de outros tokens e usuários, para a consulta não cair no mapa vazio
+        for (int i = 0; i < 1000; i++) {
+            revogacaoTokens.revogar(comCache.verificar(comCache.generateToken(JwtTokenProviderTest.usuario("outro" + i, 0))));
+        }
+        revogacaoTokens.revogarTodos("outro0");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        revogacaoTokens.encerrar();
+    }
+
+    /**
+     * Consulta feita pelo filtro a cada requisição; com -prof gc, gc.alloc.rate.norm deve ficar em ~0 B/op
+     */
+    @Benchmark
+    public boolean consultaRevogacao() {
+        return revogacaoTokens.revogado(decodificado);
+    }
+
+    @Benchmark
+    public Authentication filtroLegado() {
+        SecurityContextHolder.clearContext();
+        filtrarLegado(token());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication filtroSemCache() throws Exception {
+        SecurityContextHolder.clearContext();
+        filtroSemCache.doFilterInternal(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication filtroComCache() throws Exception {
+        SecurityContextHolder.clearContext();
+        filtroComCache.doFilterInternal(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+    void executar() throws RunnerException {
+        main();
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private String token() {
+        return request.getHeader("Authorization").substring(7);
+    }
+
+    // ==================== IMPLEMENTAÇÕES ANTERIORES ====================
+
+    private void filtrarLegado(String jwt) {
+        String username = extrairUsernameLegado(jwt);
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            String novamente = extrairUsernameLegado(jwt);
+            if (novamente != null && novamente.equals(userDetails.getUsername()) && !expiradoLegado(jwt)) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+    }
+
+    private static DecodedJWT verificarLegado(String token) {
+        return JWT.require(Algorithm.HMAC256(JwtTokenProviderTest.SEGREDO))
+                .withIssuer("clinica-estetica")
+                .build()
+                .verify(token);
+    }
+
+    private static String extrairUsernameLegado(String token) {
+        try {
+            return verificarLegado(token).getSubject();
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    private static boolean expiradoLegado(String token) {
+        try {
+            return verificarLegado(token).getExpiresAt().before(new Date());
+        } catch (JWTVerificationException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.clinica.estetica.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.clinica.estetica.model.entity.Usuario;
+import com.clinica.estetica.model.enums.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+
+/**
+ * Verificação única do token e cache de tokens verificados
+ */
+class JwtTokenProviderTest {
+
+    static final String SEGREDO = "chave-secreta-de-teste-com-pelo-menos-256-bits-para-hs256";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = criar(meterRegistry, 100);
+    }
+
+    @Test
+    void segundaVerificacaoVemDoCache() {
+        String token = provider.generateToken(usuario("admin", 0));
+
+        DecodedJWT primeira = provider.verificar(token);
+        DecodedJWT segunda = provider.verificar(token);
+
+        assertThat(primeira.getSubject()).isEqualTo("admin");
+        assertThat(segunda).isSameAs(primeira);
+        assertThat(acertos()).isEqualTo(1);
+        assertThat(faltas()).isEqualTo(1);
+    }
+
+    @Test
+    void assinaturaAdulteradaNaoEntraNoCache() {
+        String token = provider.generateToken(usuario("admin", 0));
+        int assinatura = token.lastIndexOf('.') + 1;
+        char trocado = token.charAt(assinatura) == 'A' ? 'B' : 'A';
+        String adulterado = token.substring(0, assinatura) + trocado + token.substring(assinatura + 1);
+
+        assertThat(provider.verificar(adulterado)).isNull();
+        assertThat(provider.verificar(adulterado)).isNull();
+        assertThat(meterRegistry.get("clinica.jwt.cache.tamanho").gauge().value()).isZero();
+    }
+
+    @Test
+    void tokenDeOutroEmissorExpiradoOuSemClaimsEhRecusado() {
+        Algorithm algorithm = Algorithm.HMAC256(SEGREDO);
+        String outroEmissor = token("outro").withExpiresAt(Instant.now().plusSeconds(60)).sign(algorithm);
+        String expirado = token("clinica-estetica").withExpiresAt(Instant.now().minusSeconds(60)).sign(algorithm);
+        String semExpiracao = token("clinica-estetica").sign(algorithm);
+        String semPerfil = JWT.create().withJWTId("jti-teste").withSubject("admin").withIssuer("clinica-estetica")
+                .withIssuedAt(Instant.now()).withClaim("ver", 0).withExpiresAt(Instant.now().plusSeconds(60))
+                .sign(algorithm);
+
+        assertThat(provider.verificar(outroEmissor)).isNull();
+        assertThat(provider.verificar(expirado)).isNull();
+        assertThat(provider.verificar(semExpiracao)).isNull();
+        assertThat(provider.verificar(semPerfil)).isNull();
+        assertThat(provider.validateToken(expirado)).isFalse();
+    }
+
+    @Test
+    void entradaDoCacheExpiraJuntoComOToken() throws InterruptedException {
+        // exp tem precisão de segundos
+        Instant expira = Instant.now().plusSeconds(2).truncatedTo(ChronoUnit.SECONDS);
+        String token = token("clinica-estetica").withExpiresAt(expira).sign(Algorithm.HMAC256(SEGREDO));
+
+        assertThat(provider.verificar(token)).isNotNull();
+        Thread.sleep(Duration.between(Instant.now(), expira).toMillis() + 100);
+
+        assertThat(provider.verificar(token)).isNull();
+        assertThat(acertos()).isZero();
+    }
+
+    @Test
+    void cacheNaoPassaDoTamanhoMaximo() {
+        JwtTokenProvider pequeno = criar(new SimpleMeterRegistry(), 3);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(pequeno.verificar(pequeno.generateToken(usuario("usuario" + i, 0)))).isNotNull();
+        }
+
+        assertThat(ReflectionTestUtils.getField(pequeno, "cache")).asInstanceOf(MAP).hasSize(3);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    static JwtTokenProvider criar(SimpleMeterRegistry meterRegistry, int tamanhoMaximoCache) {
+        JwtTokenProvider provider = new JwtTokenProvider(meterRegistry);
+        ReflectionTestUtils.setField(provider, "secret", SEGREDO);
+        ReflectionTestUtils.setField(provider, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "tamanhoMaximoCache", tamanhoMaximoCache);
+        provider.iniciar();
+        return provider;
+    }
+
+    static Usuario usuario(String username, int versaoSeguranca) {
+        return Usuario.builder()
+                .username(username)
+                .role(UserRole.RECEPCIONISTA)
+                .versaoSeguranca(versaoSeguranca)
+                .build();
+    }
+
+    private static JWTCreator.Builder token(String emissor) {
+        return JWT.create().withJWTId("jti-teste").withSubject("admin").withIssuer(emissor)
+                .withIssuedAt(Instant.now()).withClaim("role", "ADMIN").withClaim("ver", 0);
+    }
+
+    private double acertos() {
+        return meterRegistry.get("clinica.jwt.cache").tag("resultado", "acerto").counter().count();
+    }
+
+    private double faltas() {
+        return meterRegistry.get("clinica.jwt.cache").tag("resultado", "falta").counter().count();
+    }
+}
@@ -0,0 +1,121 @@
+package com.clinica.estetica.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Falhas por username e IP com decaimento exponencial
+ */
+class LimitadorTentativasLoginTest {
+
+    private static final String IP = "203.0.113.7";
+
+    private LimitadorTentativasLogin limitador;
+
+    @BeforeEach
+    void setUp() {
+        limitador = criar(300_000L, 100);
+    }
+
+    @Test
+    void bloqueiaUsernameNoLimiteDeFalhas() {
+        for (int i = 0; i < 4; i++) {
+            limitador.registrarFalha("Admin", IP);
+        }
+        assertThat(limitador.esperaUsuario("admin")).isZero();
+
+        limitador.registrarFalha("admin", IP);
+
+        // Username normalizado: "Admin" e "admin" somam juntos
+        assertThat(limitador.esperaUsuario("ADMIN")).isPositive();
+        assertThat(limitador.esperaUsuario("recepcao")).isZero();
+        assertThat(limitador.esperaIp(IP)).isZero();
+    }
+
+    @Test
+    void ipBloqueiaMesmoVariandoUsername() {
+        for (int i = 0; i < 20; i++) {
+            limitador.registrarFalha("usuario" + i, IP);
+        }
+
+        assertThat(limitador.esperaIp(IP)).isPositive();
+        assertThat(limitador.esperaIp("198.51.100.1")).isZero();
+    }
+
+    @Test
+    void sucessoZeraUsernameMasNaoOIp() {
+        for (int i = 0; i < 20; i++) {
+            limitador.registrarFalha("admin", IP);
+        }
+
+        limitador.registrarSucesso("admin");
+
+        assertThat(limitador.esperaUsuario("admin")).isZero();
+        assertThat(limitador.esperaIp(IP)).isPositive();
+    }
+
+    @Test
+    void pontuacaoDecaiComOTempo() throws InterruptedException {
+        LimitadorTentativasLogin rapido = criar(200L, 100);
+        for (int i = 0; i < 5; i++) {
+            rapido.registrarFalha("admin", IP);
+        }
+        long espera = rapido.esperaUsuario("admin");
+        assertThat(espera).isPositive().isLessThanOrEqualTo(200L);
+
+        // Uma meia-vida: 5 viram 2,5
+        Thread.sleep(300);
+
+        assertThat(rapido.esperaUsuario("admin")).isZero();
+    }
+
+    @Test
+    void falhasConcorrentesNaoSePerdem() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                    .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            limitador.registrarFalha("admin", IP);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 4000 falhas sem decaimento relevante: log2(4000 / 5) ≈ 9,6 meias-vidas de espera
+        long meiasVidas = limitador.esperaUsuario("admin") / 300_000L;
+        assertThat(meiasVidas).isEqualTo(9);
+    }
+
+    @Test
+    void respeitaMaximoDeChaves() {
+        LimitadorTentativasLogin pequeno = criar(300_000L, 10);
+
+        for (int i = 0; i < 50; i++) {
+            pequeno.registrarFalha("usuario" + i, null);
+        }
+
+        assertThat(pequeno.tamanho()).isEqualTo(10);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static LimitadorTentativasLogin criar(long meiaVidaMs, int maxChaves) {
+        LimitadorTentativasLogin limitador = new LimitadorTentativasLogin();
+        ReflectionTestUtils.setField(limitador, "limiteUsuario", 5);
+        ReflectionTestUtils.setField(limitador, "limiteIp", 20);
+        ReflectionTestUtils.setField(limitador, "meiaVidaMs", meiaVidaMs);
+        ReflectionTestUtils.setField(limitador, "maxChaves", maxChaves);
+        return limitador;
+    }
+}
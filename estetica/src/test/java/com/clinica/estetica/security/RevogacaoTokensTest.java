@@ -0,0 +1,164 @@
+package com.clinica.estetica.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revogação por token e por usuário, expiração ordenada e log persistente
+ */
+class RevogacaoTokensTest {
+
+    private static final long EXPIRACAO_MS = 3_600_000L;
+
+    @TempDir
+    Path diretorio;
+
+    private JwtTokenProvider provider;
+    private final List<RevogacaoTokens> abertas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        provider = JwtTokenProviderTest.criar(new SimpleMeterRegistry(), 0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RevogacaoTokens revogacao : abertas) {
+            revogacao.encerrar();
+        }
+    }
+
+    @Test
+    void logoutRevogaSoOTokenUsado() throws Exception {
+        RevogacaoTokens revogacao = iniciar();
+        DecodedJWT usado = token("recepcao");
+        DecodedJWT outro = token("recepcao");
+
+        revogacao.revogar(usado);
+
+        assertThat(revogacao.revogado(usado)).isTrue();
+        assertThat(revogacao.revogado(outro)).isFalse();
+    }
+
+    @Test
+    void revogarTodosAlcancaTokensEmitidosAntes() throws Exception {
+        RevogacaoTokens revogacao = iniciar();
+        DecodedJWT antigo = token("recepcao");
+        DecodedJWT deOutroUsuario = token("admin");
+        // iat tem precisão de segundos
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 10);
+
+        revogacao.revogarTodos("recepcao");
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 10);
+        DecodedJWT novo = token("recepcao");
+
+        assertThat(revogacao.revogado(antigo)).isTrue();
+        assertThat(revogacao.revogado(novo)).isFalse();
+        assertThat(revogacao.revogado(deOutroUsuario)).isFalse();
+    }
+
+    @Test
+    void revogacoesSobrevivemAoReinicio() throws Exception {
+        RevogacaoTokens revogacao = iniciar();
+        DecodedJWT token = token("recepcao");
+        revogacao.revogar(token);
+        revogacao.encerrar();
+
+        RevogacaoTokens reiniciada = iniciar();
+
+        assertThat(reiniciada.revogado(token)).isTrue();
+    }
+
+    @Test
+    void expiradasSaemDaMemoria() throws Exception {
+        RevogacaoTokens revogacao = iniciar();
+        DecodedJWT token = token("recepcao");
+        revogacao.revogar(token);
+        revogacao.revogarTodos("admin");
+
+        assertThat(revogacao.removerExpirados(System.currentTimeMillis())).isZero();
+        assertThat(revogacao.removerExpirados(System.currentTimeMillis() + 2 * EXPIRACAO_MS)).isEqualTo(2);
+        assertThat(revogacao.revogado(token)).isFalse();
+    }
+
+    @Test
+    void subidaReescreveOLogSoComAsVivas() throws Exception {
+        long futuro = System.currentTimeMillis() + EXPIRACAO_MS;
+        Path arquivo = diretorio.resolve("revogacoes.log");
+        Files.writeString(arquivo, "J\tvencido\t0\t1000\n"
+                + "linha inválida\n"
+                + "J\tvivo\t0\t" + futuro + "\n"
+                + "U\tadmin\t1000\t2000\n"
+                + "U\trecepcao\t1000\t" + futuro + "\n");
+
+        iniciar();
+
+        assertThat(Files.readAllLines(arquivo)).containsExactlyInAnyOrder(
+                "J\tvivo\t0\t" + futuro,
+                "U\trecepcao\t1000\t" + futuro);
+    }
+
+    @Test
+    void compactacaoQueFalhaNoMoveNaoPerdeRevogacoesSeguintes() throws Exception {
+        long agora = System.currentTimeMillis();
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            log.append("J\tantigo-").append(i).append("\t0\t").append(agora + EXPIRACAO_MS).append("\n");
+        }
+        Files.writeString(diretorio.resolve("revogacoes.log"), log);
+
+        AtomicBoolean falharMove = new AtomicBoolean();
+        RevogacaoTokens revogacao = iniciar(new RevogacaoTokens(new SimpleMeterRegistry()) {
+            @Override
+            void substituir(Path temporario, Path destino) throws IOException {
+                if (falharMove.get()) {
+                    throw new IOException("Move simulado falhou");
+                }
+                super.substituir(temporario, destino);
+            }
+        });
+
+        // Todas vencem: a limpeza tenta compactar e o move falha
+        falharMove.set(true);
+        assertThat(revogacao.removerExpirados(agora + 2 * EXPIRACAO_MS)).isEqualTo(1200);
+        assertThat(diretorio.resolve("revogacoes.log.tmp")).doesNotExist();
+
+        DecodedJWT token = token("recepcao");
+        revogacao.revogar(token);
+        revogacao.encerrar();
+
+        assertThat(iniciar().revogado(token)).isTrue();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private RevogacaoTokens iniciar() throws Exception {
+        return iniciar(new RevogacaoTokens(new SimpleMeterRegistry()));
+    }
+
+    private RevogacaoTokens iniciar(RevogacaoTokens revogacao) throws Exception {
+        ReflectionTestUtils.setField(revogacao, "arquivo", diretorio.resolve("revogacoes.log").toString());
+        ReflectionTestUtils.setField(revogacao, "expiracaoToken", EXPIRACAO_MS);
+        revogacao.iniciar();
+        abertas.add(revogacao);
+        return revogacao;
+    }
+
+    private DecodedJWT token(String username) {
+        return provider.verificar(provider.generateToken(JwtTokenProviderTest.usuario(username, 0)));
+    }
+}
@@ -0,0 +1,226 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.AgendamentoAlteradoEvent;
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.entity.Procedimento;
+import com.clinica.estetica.model.enums.StatusAgendamento;
+import com.clinica.estetica.repository.ClienteRepository;
+import com.clinica.estetica.repository.ProcedimentoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservas concorrentes pelo AgendamentoService contra um PostgreSQL real:
+ * as recusadas viram BusinessException e nenhuma reserva aceita se sobrepõe,
+ * tanto com o bloqueio por esteticista (padrão) quanto na admissão otimista,
+ * em que só a constraint agendamento_sem_sobreposicao separa as reservas.
+ * Milhares de reservas divididas entre várias esteticistas; registra reservas/s de cada modo.
+ * O índice de disponibilidade termina igual ao banco, mesmo com hooks pós-commit fora de ordem.
+ *
+ * Executar com: mvn test -Dtest=AgendamentoAdmissaoConcorrenteTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+@SpringBootTest
+class AgendamentoAdmissaoConcorrenteTest {
+
+    private static final String[] ESTETICISTAS = {"Teste Concorrência A", "Teste Concorrência B",
+            "Teste Concorrência C", "Teste Concorrência D", "Teste Concorrência E"};
+    private static final int RESERVAS = 4000;
+    private static final int THREADS = 16;
+    private static final int SLOTS = 10 * 24;
+    private static final LocalDateTime BASE = LocalDateTime.of(2031, 3, 3, 8, 0);
+
+    @Autowired
+    private AgendamentoService agendamentoService;
+
+    @Autowired
+    private DisponibilidadeIndex disponibilidadeIndex;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProcedimentoRepository procedimentoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Cliente cliente;
+    private Procedimento procedimento;
+
+    /**
+     * A aplicação não habilita a auditoria JPA; sem ela created_at fica nulo nos inserts
+     */
+    @TestConfiguration
+    @EnableJpaAuditing
+    static class Auditoria {
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.db.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.db.user", "clinica_user"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        long sufixo = ThreadLocalRandom.current().nextLong(100_000_000_000L);
+        String digitos = String.format("%011d", sufixo);
+        cliente = clienteRepository.save(Cliente.builder()
+                .nome("Cliente Concorrência")
+                .cpf(digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "." +
+                        digitos.substring(6, 9) + "-" + digitos.substring(9))
+                .build());
+        procedimento = procedimentoRepository.save(Procedimento.builder()
+                .nome("Procedimento Concorrência")
+                .duracaoMinutos(30)
+                .preco(new BigDecimal("100.00"))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        definirAdmissaoOtimista(false);
+        jdbcTemplate.update("DELETE FROM notificacao_outbox WHERE agendamento_id IN " +
+                "(SELECT id FROM agendamento WHERE cliente_id = ?)", cliente.getId());
+        jdbcTemplate.update("DELETE FROM conta_receber WHERE cliente_id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cliente_id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM cliente WHERE id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM procedimento WHERE id = ?", procedimento.getId());
+        // Remoções diretas no banco: recarrega o índice de disponibilidade em memória
+        agendamentoService.verificarConsistenciaIndice(true);
+    }
+
+    @ParameterizedTest(name = "otimista={0}")
+    @ValueSource(booleans = {false, true})
+    void reservasConcorrentesNaoSeSobrepoem(boolean otimista) throws Exception {
+        definirAdmissaoOtimista(otimista);
+
+        AtomicInteger aceitas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+
+        for (int i = 0; i < RESERVAS; i++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String esteticista = ESTETICISTAS[random.nextInt(ESTETICISTAS.length)];
+                LocalDateTime inicio = BASE.plusMinutes(15L * random.nextInt(SLOTS));
+                int duracao = 15 * (1 + random.nextInt(4));
+                try {
+                    agendamentoService.criarAgendamentoDireto(novoAgendamento(esteticista, inicio, duracao));
+                    aceitas.incrementAndGet();
+                } catch (BusinessException e) {
+                    recusadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long comeco = System.nanoTime();
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(120, TimeUnit.SECONDS);
+        }
+        double segundos = (System.nanoTime() - comeco) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("Admissão concorrente (otimista={}): {} reservas em {} threads e {} esteticistas, " +
+                        "{} aceitas, {} recusadas, {} reservas/s",
+                otimista, RESERVAS, THREADS, ESTETICISTAS.length, aceitas.get(), recusadas.get(),
+                String.format("%.0f", RESERVAS / segundos));
+
+        List<Reserva> gravadas = jdbcTemplate.query(
+                "SELECT esteticista, data_hora, data_hora_fim FROM agendamento WHERE cliente_id = ? " +
+                        "ORDER BY esteticista, data_hora",
+                (rs, i) -> new Reserva(rs.getString(1),
+                        rs.getObject(2, LocalDateTime.class), rs.getObject(3, LocalDateTime.class)),
+                cliente.getId());
+
+        assertThat(aceitas.get() + recusadas.get()).isEqualTo(RESERVAS);
+        assertThat(aceitas.get()).isPositive();
+        assertThat(gravadas).hasSize(aceitas.get());
+        assertThat(gravadas).extracting(Reserva::esteticista).containsOnly(ESTETICISTAS);
+        for (int i = 1; i < gravadas.size(); i++) {
+            Reserva anterior = gravadas.get(i - 1);
+            Reserva atual = gravadas.get(i);
+            if (!atual.esteticista().equals(anterior.esteticista())) {
+                continue;
+            }
+            assertThat(atual.inicio())
+                    .as("Sobreposição na agenda de %s em %s", atual.esteticista(), Timestamp.valueOf(atual.inicio()))
+                    .isAfterOrEqualTo(anterior.fim());
+        }
+        assertThat(agendamentoService.verificarConsistenciaIndice(false).getConsistente()).isTrue();
+    }
+
+    @Test
+    void hookAtrasadoNaoRessuscitaAgendamentoCancelado() {
+        String esteticista = ESTETICISTAS[0];
+        Agendamento agendamento = agendamentoService.criarAgendamentoDireto(novoAgendamento(esteticista, BASE, 30));
+        LocalDateTime novoInicio = BASE.plusHours(2);
+        AgendamentoAlteradoEvent reagendamento = new AgendamentoAlteradoEvent(agendamento.getId(), esteticista,
+                novoInicio, novoInicio.plusMinutes(30), StatusAgendamento.AGENDADO, false);
+
+        agendamentoService.cancelar(agendamento.getId(), "Teste de ordem dos hooks");
+        // O hook de um reagendamento concorrente chega depois do hook do cancelamento
+        disponibilidadeIndex.aoAlterarAgendamento(reagendamento);
+
+        assertThat(disponibilidadeIndex.existeConflito(esteticista, novoInicio, novoInicio.plusMinutes(30), null))
+                .isFalse();
+        assertThat(disponibilidadeIndex.existeConflito(esteticista, BASE, BASE.plusMinutes(30), null)).isFalse();
+        assertThat(agendamentoService.verificarConsistenciaIndice(false).getConsistente()).isTrue();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void definirAdmissaoOtimista(boolean otimista) {
+        AgendamentoService alvo = AopTestUtils.getTargetObject(agendamentoService);
+        ReflectionTestUtils.setField(alvo, "admissaoOtimista", otimista);
+    }
+
+    private Agendamento novoAgendamento(String esteticista, LocalDateTime inicio, int duracao) {
+        return Agendamento.builder()
+                .cliente(cliente)
+                .procedimento(procedimento)
+                .esteticista(esteticista)
+                .dataHora(inicio)
+                .dataHoraFim(inicio.plusMinutes(duracao))
+                .duracaoMinutos(duracao)
+                .build();
+    }
+
+    private record Reserva(String esteticista, LocalDateTime inicio, LocalDateTime fim) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.entity.Procedimento;
+import com.clinica.estetica.repository.ClienteRepository;
+import com.clinica.estetica.repository.ProcedimentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Série que falha depois de gravar as sessões: nenhuma sessão nem conta a receber
+ * fica no banco.
+ *
+ * Executar com: mvn test -Dtest=AgendamentoSerieRollbackTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+@SpringBootTest
+class AgendamentoSerieRollbackTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2031, 5, 5, 9, 0);
+
+    @Autowired
+    private AgendamentoService agendamentoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProcedimentoRepository procedimentoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private NotificacaoOutboxService notificacaoOutboxService;
+
+    private Cliente cliente;
+    private Procedimento procedimento;
+
+    /**
+     * A aplicação não habilita a auditoria JPA; sem ela created_at fica nulo nos inserts
+     */
+    @TestConfiguration
+    @EnableJpaAuditing
+    static class Auditoria {
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.db.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.db.user", "clinica_user"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        String digitos = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+        cliente = clienteRepository.save(Cliente.builder()
+                .nome("Cliente Série")
+                .cpf(digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "." +
+                        digitos.substring(6, 9) + "-" + digitos.substring(9))
+                .build());
+        procedimento = procedimentoRepository.save(Procedimento.builder()
+                .nome("Procedimento Série")
+                .duracaoMinutos(60)
+                .preco(new BigDecimal("120.00"))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notificacao_outbox WHERE agendamento_id IN " +
+                "(SELECT id FROM agendamento WHERE cliente_id = ?)", cliente.getId());
+        jdbcTemplate.update("DELETE FROM conta_receber WHERE cliente_id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cliente_id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM cliente WHERE id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM procedimento WHERE id = ?", procedimento.getId());
+        agendamentoService.verificarConsistenciaIndice(true);
+    }
+
+    @Test
+    void falhaDepoisDeGravarDesfazASerieInteira() {
+        // Stub no alvo: pelo proxy, o próprio stub passaria pela transação MANDATORY
+        NotificacaoOutboxService alvo = AopTestUtils.getTargetObject(notificacaoOutboxService);
+        doThrow(new IllegalStateException("Falha simulada no outbox"))
+                .when(alvo).registrarConfirmacaoSerie(anyList());
+
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 5, 7))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(contar("SELECT COUNT(*) FROM agendamento WHERE cliente_id = ?")).isZero();
+        assertThat(contar("SELECT COUNT(*) FROM conta_receber WHERE cliente_id = ?")).isZero();
+        assertThat(agendamentoService.verificarDisponibilidade(
+                "Teste Série", INICIO.plusDays(14), INICIO.plusDays(14).plusMinutes(60))).isTrue();
+    }
+
+    private long contar(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, cliente.getId());
+    }
+
+    private Agendamento primeiraSessao() {
+        return Agendamento.builder()
+                .cliente(cliente)
+                .procedimento(procedimento)
+                .esteticista("Teste Série")
+                .dataHora(INICIO)
+                .duracaoMinutos(60)
+                .build();
+    }
+}
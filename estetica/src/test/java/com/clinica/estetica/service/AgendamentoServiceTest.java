@@ -0,0 +1,170 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.dto.projection.IntervaloAgendamento;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.entity.Procedimento;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Séries de sessões: conflitos parciais, tudo-ou-nada e limites da recorrência
+ */
+class AgendamentoServiceTest {
+
+    private static final String ESTETICISTA = "Ana Paula";
+    private static final int DURACAO = 60;
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private AgendamentoRepository agendamentoRepository;
+    private ContaReceberService contaReceberService;
+    private NotificacaoOutboxService notificacaoOutboxService;
+    private BloqueioAgendaService bloqueioAgendaService;
+    private AgendamentoService agendamentoService;
+
+    private LocalDateTime inicio;
+
+    @BeforeEach
+    void setUp() {
+        agendamentoRepository = mock(AgendamentoRepository.class);
+        ClienteService clienteService = mock(ClienteService.class);
+        ProcedimentoService procedimentoService = mock(ProcedimentoService.class);
+        contaReceberService = mock(ContaReceberService.class);
+        notificacaoOutboxService = mock(NotificacaoOutboxService.class);
+        bloqueioAgendaService = mock(BloqueioAgendaService.class);
+
+        agendamentoService = new AgendamentoService(agendamentoRepository, clienteService, procedimentoService,
+                mock(EstoqueService.class), contaReceberService, notificacaoOutboxService,
+                mock(DisponibilidadeIndex.class), bloqueioAgendaService, mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(agendamentoService, "admissaoOtimista", false);
+
+        when(clienteService.buscarPorId(1L)).thenReturn(Cliente.builder().id(1L).nome("Maria").build());
+        when(procedimentoService.buscarPorId(2L)).thenReturn(Procedimento.builder()
+                .id(2L).nome("Limpeza de pele").duracaoMinutos(DURACAO).preco(new BigDecimal("150.00")).build());
+
+        AtomicLong ids = new AtomicLong(100);
+        when(agendamentoRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> {
+            List<Agendamento> sessoes = inv.getArgument(0);
+            sessoes.forEach(sessao -> sessao.setId(ids.incrementAndGet()));
+            return sessoes;
+        });
+
+        inicio = LocalDateTime.now().plusDays(7).withHour(10).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Test
+    void criaTodasAsSessoesNoIntervaloDaSerie() {
+        List<Agendamento> sessoes = agendamentoService.criarSerieAgendamentos(primeiraSessao(), 4, 7);
+
+        assertThat(sessoes).extracting(Agendamento::getDataHora)
+                .containsExactly(inicio, inicio.plusDays(7), inicio.plusDays(14), inicio.plusDays(21));
+        assertThat(sessoes).allSatisfy(sessao -> {
+            assertThat(sessao.getDataHoraFim()).isEqualTo(sessao.getDataHora().plusMinutes(DURACAO));
+            assertThat(sessao.getValorTotal()).isEqualByComparingTo("150.00");
+        });
+
+        // Uma consulta cobrindo do início da primeira ao fim da última sessão
+        verify(bloqueioAgendaService).bloquear(ESTETICISTA);
+        verify(agendamentoRepository).findIntervalosOcupadosEsteticistaPeriodo(
+                ESTETICISTA, inicio, inicio.plusDays(21).plusMinutes(DURACAO));
+        verify(contaReceberService).criarDeAgendamentos(sessoes);
+        verify(notificacaoOutboxService).registrarConfirmacaoSerie(sessoes);
+    }
+
+    @Test
+    void conflitoParcialRejeitaSerieInteira() {
+        ocupados(intervalo(inicio.plusDays(7).plusMinutes(30), 60),
+                intervalo(inicio.plusDays(21).minusMinutes(30), 45));
+
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 4, 7))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining(formatar(inicio.plusDays(7)))
+                .hasMessageContaining(formatar(inicio.plusDays(21)))
+                .hasMessageNotContaining(formatar(inicio))
+                .hasMessageNotContaining(formatar(inicio.plusDays(14)));
+
+        verify(agendamentoRepository, never()).saveAllAndFlush(anyList());
+        verifyNoInteractions(contaReceberService, notificacaoOutboxService);
+    }
+
+    @Test
+    void ocupadoTerminandoNoInicioDaSessaoNaoConflita() {
+        ocupados(intervalo(inicio.plusDays(2).minusMinutes(DURACAO), DURACAO));
+
+        assertThat(agendamentoService.criarSerieAgendamentos(primeiraSessao(), 3, 2)).hasSize(3);
+    }
+
+    @Test
+    void ocupadoComecandoNoFimDaUltimaSessaoConflita() {
+        ocupados(intervalo(inicio.plusDays(4).plusMinutes(DURACAO), 30));
+
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 3, 2))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining(formatar(inicio.plusDays(4)));
+        verify(agendamentoRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void rejeitaSerieForaDosLimites() {
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 1, 7))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("mínimo 2 sessões");
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 4, 0))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Intervalo mínimo");
+
+        verifyNoInteractions(agendamentoRepository, bloqueioAgendaService);
+    }
+
+    @Test
+    void sobreposicaoNaGravacaoViraBusinessException() {
+        when(agendamentoRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException(
+                "conflito", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> agendamentoService.criarSerieAgendamentos(primeiraSessao(), 4, 7))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("uma das sessões da série");
+        verifyNoInteractions(contaReceberService, notificacaoOutboxService);
+    }
+
+    private Agendamento primeiraSessao() {
+        return Agendamento.builder()
+                .cliente(Cliente.builder().id(1L).build())
+                .procedimento(Procedimento.builder().id(2L).build())
+                .esteticista(ESTETICISTA)
+                .dataHora(inicio)
+                .duracaoMinutos(DURACAO)
+                .build();
+    }
+
+    private void ocupados(IntervaloAgendamento... intervalos) {
+        when(agendamentoRepository.findIntervalosOcupadosEsteticistaPeriodo(eq(ESTETICISTA), any(), any()))
+                .thenReturn(List.of(intervalos));
+    }
+
+    private IntervaloAgendamento intervalo(LocalDateTime dataHora, int minutos) {
+        return new IntervaloAgendamento(1L, ESTETICISTA, dataHora, dataHora.plusMinutes(minutos));
+    }
+
+    private String formatar(LocalDateTime dataHora) {
+        return dataHora.format(FORMATO);
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.repository.AgendamentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Reservas concorrentes contra o banco real ficam em AgendamentoAdmissaoConcorrenteTest.
+ */
+class BloqueioAgendaServiceTest {
+
+    private AgendamentoRepository agendamentoRepository;
+    private BloqueioAgendaService bloqueioAgendaService;
+
+    @BeforeEach
+    void setUp() {
+        agendamentoRepository = mock(AgendamentoRepository.class);
+        bloqueioAgendaService = new BloqueioAgendaService(agendamentoRepository);
+    }
+
+    @Test
+    void bloquearSemTransacaoLancaExcecao() {
+        assertThatThrownBy(() -> bloqueioAgendaService.bloquear("Ana Paula"))
+                .isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(agendamentoRepository);
+    }
+}
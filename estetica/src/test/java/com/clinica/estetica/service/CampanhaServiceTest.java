@@ -0,0 +1,236 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.CampanhaExecucao;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.enums.StatusCampanha;
+import com.clinica.estetica.model.enums.TipoCampanha;
+import com.clinica.estetica.repository.ClienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Campanhas: paginação por cursor de id, registro por cliente e retomada do checkpoint
+ */
+class CampanhaServiceTest {
+
+    private static final int TAMANHO_PAGINA = 50;
+    private static final LocalDate HOJE = LocalDate.of(2026, 10, 17);
+
+    private ClienteRepository clienteRepository;
+    private CampanhaCheckpointService checkpointService;
+    private NotificacaoService notificacaoService;
+    private ExecutorService executor;
+    private CampanhaService campanhaService;
+
+    @BeforeEach
+    void setUp() {
+        clienteRepository = mock(ClienteRepository.class);
+        checkpointService = mock(CampanhaCheckpointService.class);
+        notificacaoService = mock(NotificacaoService.class);
+        executor = Executors.newFixedThreadPool(4);
+
+        when(checkpointService.reivindicar(anyLong(), any(), any())).thenReturn(true);
+        when(checkpointService.clientesRegistrados(anyLong(), anyCollection())).thenReturn(Set.of());
+        when(checkpointService.registrarEnvio(anyLong(), any(), anyLong(), any())).thenReturn(true);
+        when(checkpointService.avancar(anyLong(), any(), anyLong())).thenReturn(true);
+        when(checkpointService.concluir(anyLong(), any())).thenAnswer(inv -> Optional.of(
+                execucao(inv.getArgument(0), 0L, StatusCampanha.CONCLUIDA)));
+
+        campanhaService = new CampanhaService(clienteRepository, checkpointService, notificacaoService,
+                executor, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(campanhaService, "tamanhoPagina", TAMANHO_PAGINA);
+        ReflectionTestUtils.setField(campanhaService, "leaseMs", 600_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void percorrePaginasPorCursorERegistraCadaCliente() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(eq(10), eq(17), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, TAMANHO_PAGINA), clientes(TAMANHO_PAGINA + 1, 20));
+
+        Optional<CampanhaExecucao> resultado = campanhaService.executarAniversariantes(HOJE);
+
+        assertThat(resultado).map(CampanhaExecucao::getStatus).contains(StatusCampanha.CONCLUIDA);
+        verify(notificacaoService, times(TAMANHO_PAGINA + 20)).enviarAniversario(any());
+        UUID dono = donoReivindicado(1L);
+        verify(checkpointService, times(TAMANHO_PAGINA + 20)).registrarEnvio(eq(1L), eq(dono), anyLong(), isNull());
+        verify(clienteRepository).findAniversariantesApos(10, 17, 0L, Limit.of(TAMANHO_PAGINA));
+        verify(clienteRepository).findAniversariantesApos(10, 17, (long) TAMANHO_PAGINA, Limit.of(TAMANHO_PAGINA));
+        verify(checkpointService).avancar(1L, dono, (long) TAMANHO_PAGINA);
+        verify(checkpointService).avancar(1L, dono, (long) TAMANHO_PAGINA + 20);
+        verify(checkpointService).concluir(1L, dono);
+    }
+
+    @Test
+    void retomadaComecaNoCheckpointEPulaQuemJaFoiRegistrado() {
+        // Caiu no meio da página que começa no 101: 101 a 105 já foram enviados
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 100L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(eq(10), eq(17), eq(100L), any(Limit.class)))
+                .thenReturn(clientes(101, 10));
+        when(checkpointService.clientesRegistrados(eq(1L), anyCollection()))
+                .thenReturn(Set.of(101L, 102L, 103L, 104L, 105L));
+
+        campanhaService.executarAniversariantes(HOJE);
+
+        verify(notificacaoService, times(5)).enviarAniversario(argThat(c -> c.getId() > 105));
+        verify(checkpointService, never()).registrarEnvio(anyLong(), any(), longThat(id -> id <= 105), any());
+        verify(checkpointService).avancar(eq(1L), any(), eq(110L));
+        verify(checkpointService).concluir(eq(1L), any());
+    }
+
+    @Test
+    void falhaFicaRegistradaSemInterromperACampanha() {
+        when(checkpointService.iniciar(TipoCampanha.REATIVACAO_INATIVOS, "2026-10-17/90"))
+                .thenReturn(execucao(2L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findClientesInativosApos(eq(HOJE.minusDays(90)), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, 3));
+        doThrow(new RuntimeException("Falha ao enviar email"))
+                .when(notificacaoService).enviarReativacao(argThat(c -> c.getId() == 2L));
+
+        campanhaService.executarReativacao(HOJE, 90);
+
+        UUID dono = donoReivindicado(2L);
+        verify(checkpointService).registrarEnvio(2L, dono, 1L, null);
+        verify(checkpointService).registrarEnvio(2L, dono, 2L, "Falha ao enviar email");
+        verify(checkpointService).registrarEnvio(2L, dono, 3L, null);
+        verify(checkpointService).concluir(2L, dono);
+    }
+
+    @Test
+    void execucaoConcluidaNaoEnviaDeNovo() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 300L, StatusCampanha.CONCLUIDA));
+
+        campanhaService.executarAniversariantes(HOJE);
+
+        verifyNoInteractions(clienteRepository, notificacaoService);
+        verify(checkpointService, never()).reivindicar(anyLong(), any(), any());
+    }
+
+    @Test
+    void execucaoDeOutraInstanciaNaoEhTocada() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(checkpointService.reivindicar(anyLong(), any(), any())).thenReturn(false);
+
+        assertThat(campanhaService.executarAniversariantes(HOJE)).isEmpty();
+        verifyNoInteractions(clienteRepository, notificacaoService);
+    }
+
+    @Test
+    void erroNoMeioLiberaAExecucaoParaRetomada() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(anyInt(), anyInt(), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, TAMANHO_PAGINA))
+                .thenThrow(new IllegalStateException("Conexão perdida"));
+
+        assertThatThrownBy(() -> campanhaService.executarAniversariantes(HOJE))
+                .isInstanceOf(IllegalStateException.class);
+
+        UUID dono = donoReivindicado(1L);
+        verify(checkpointService).avancar(1L, dono, (long) TAMANHO_PAGINA);
+        verify(checkpointService).liberar(1L, dono);
+        verify(checkpointService, never()).concluir(anyLong(), any());
+    }
+
+    @Test
+    void execucaoAssumidaPorOutraInstanciaParaNoRegistro() {
+        // Prazo expirou no meio da primeira página e outra instância reivindicou a execução
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(anyInt(), anyInt(), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, TAMANHO_PAGINA), clientes(TAMANHO_PAGINA + 1, TAMANHO_PAGINA));
+        when(checkpointService.registrarEnvio(anyLong(), any(), anyLong(), any())).thenReturn(false);
+
+        assertThat(campanhaService.executarAniversariantes(HOJE)).isEmpty();
+
+        verify(clienteRepository, times(1)).findAniversariantesApos(anyInt(), anyInt(), anyLong(), any(Limit.class));
+        verify(checkpointService, never()).avancar(anyLong(), any(), anyLong());
+        verify(checkpointService, never()).concluir(anyLong(), any());
+        verify(checkpointService, never()).liberar(anyLong(), any());
+    }
+
+    @Test
+    void checkpointSemLinhaAfetadaInterrompeOWorker() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(anyInt(), anyInt(), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, TAMANHO_PAGINA), clientes(TAMANHO_PAGINA + 1, TAMANHO_PAGINA));
+        when(checkpointService.avancar(anyLong(), any(), anyLong())).thenReturn(false);
+
+        assertThat(campanhaService.executarAniversariantes(HOJE)).isEmpty();
+
+        verify(notificacaoService, times(TAMANHO_PAGINA)).enviarAniversario(any());
+        verify(checkpointService, never()).concluir(anyLong(), any());
+        verify(checkpointService, never()).liberar(anyLong(), any());
+    }
+
+    @Test
+    void conclusaoSemLinhaAfetadaNaoEhReportada() {
+        when(checkpointService.iniciar(TipoCampanha.ANIVERSARIO, "2026-10-17"))
+                .thenReturn(execucao(1L, 0L, StatusCampanha.EM_ANDAMENTO));
+        when(clienteRepository.findAniversariantesApos(anyInt(), anyInt(), anyLong(), any(Limit.class)))
+                .thenReturn(clientes(1, 3));
+        when(checkpointService.concluir(anyLong(), any())).thenReturn(Optional.empty());
+
+        assertThat(campanhaService.executarAniversariantes(HOJE)).isEmpty();
+        verify(checkpointService, never()).liberar(anyLong(), any());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private UUID donoReivindicado(Long execucaoId) {
+        ArgumentCaptor<UUID> dono = ArgumentCaptor.forClass(UUID.class);
+        verify(checkpointService).reivindicar(eq(execucaoId), dono.capture(), any());
+        return dono.getValue();
+    }
+
+    private static CampanhaExecucao execucao(Long id, Long ultimoClienteId, StatusCampanha status) {
+        return CampanhaExecucao.builder()
+                .id(id)
+                .status(status)
+                .ultimoClienteId(ultimoClienteId)
+                .iniciadaEm(LocalDateTime.now())
+                .build();
+    }
+
+    private static List<Cliente> clientes(long primeiroId, int quantidade) {
+        return LongStream.range(primeiroId, primeiroId + quantidade)
+                .mapToObj(id -> {
+                    Cliente cliente = new Cliente();
+                    cliente.setId(id);
+                    cliente.setNome("Cliente " + id);
+                    cliente.setEmail("cliente" + id + "@email.com");
+                    return cliente;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.config.CacheConfig;
+import com.clinica.estetica.mapper.CatalogoMapper;
+import com.clinica.estetica.model.dto.response.ProcedimentoResponse;
+import com.clinica.estetica.model.entity.Procedimento;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import com.clinica.estetica.repository.ProcedimentoProdutoRepository;
+import com.clinica.estetica.repository.ProcedimentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Leituras do catálogo em cache como DTO e remoção pelas escritas do próprio serviço
+ */
+class CatalogoCacheTest {
+
+    private final ProcedimentoRepository procedimentoRepository = mock(ProcedimentoRepository.class);
+    private final ProcedimentoProdutoRepository procedimentoProdutoRepository = mock(ProcedimentoProdutoRepository.class);
+    private AnnotationConfigApplicationContext contexto;
+    private ProcedimentoService procedimentoService;
+
+    @BeforeEach
+    void setUp() {
+        contexto = new AnnotationConfigApplicationContext();
+        contexto.register(CacheConfig.class, CatalogoMapper.class, ProcedimentoService.class);
+        contexto.registerBean(ProcedimentoRepository.class, () -> procedimentoRepository);
+        contexto.registerBean(AgendamentoRepository.class, () -> mock(AgendamentoRepository.class));
+        contexto.registerBean(ProcedimentoProdutoRepository.class, () -> procedimentoProdutoRepository);
+        contexto.refresh();
+        procedimentoService = contexto.getBean(ProcedimentoService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contexto.close();
+    }
+
+    @Test
+    void resumoVemDoCacheComoDto() {
+        when(procedimentoRepository.findComCategoriaById(1L)).thenReturn(Optional.of(procedimento(1L, "Limpeza")));
+
+        ProcedimentoResponse primeiro = procedimentoService.buscarResumo(1L);
+        ProcedimentoResponse segundo = procedimentoService.buscarResumo(1L);
+
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(segundo.getNome()).isEqualTo("Limpeza");
+        verify(procedimentoRepository, times(1)).findComCategoriaById(1L);
+    }
+
+    @Test
+    void atualizarRemoveSoOProprioProcedimento() {
+        when(procedimentoRepository.findComCategoriaById(anyLong()))
+                .thenAnswer(inv -> Optional.of(procedimento(inv.getArgument(0), "Limpeza")));
+        when(procedimentoRepository.findById(1L)).thenReturn(Optional.of(procedimento(1L, "Limpeza")));
+        when(procedimentoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        procedimentoService.buscarResumo(1L);
+        procedimentoService.buscarResumo(2L);
+
+        procedimentoService.atualizar(1L, procedimento(1L, "Limpeza profunda"));
+
+        procedimentoService.buscarResumo(1L);
+        procedimentoService.buscarResumo(2L);
+        verify(procedimentoRepository, times(2)).findComCategoriaById(1L);
+        verify(procedimentoRepository, times(1)).findComCategoriaById(2L);
+    }
+
+    @Test
+    void associarProdutosRemoveOsProdutosUtilizados() {
+        when(procedimentoRepository.findById(1L)).thenReturn(Optional.of(procedimento(1L, "Limpeza")));
+        when(procedimentoProdutoRepository.findComProdutoByProcedimentoId(1L)).thenReturn(List.of());
+
+        procedimentoService.buscarProdutosUtilizados(1L);
+        procedimentoService.buscarProdutosUtilizados(1L);
+        procedimentoService.associarProdutos(1L, List.of());
+        procedimentoService.buscarProdutosUtilizados(1L);
+
+        verify(procedimentoProdutoRepository, times(2)).findComProdutoByProcedimentoId(1L);
+    }
+
+    @Test
+    void listaEmCacheNaoPodeSerAlterada() {
+        when(procedimentoProdutoRepository.findComProdutoByProcedimentoId(1L)).thenReturn(List.of());
+
+        List<ProcedimentoResponse.ProdutoUtilizadoResponse> produtos = procedimentoService.buscarProdutosUtilizados(1L);
+
+        assertThatThrownBy(() -> produtos.add(new ProcedimentoResponse.ProdutoUtilizadoResponse()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static Procedimento procedimento(Long id, String nome) {
+        return Procedimento.builder()
+                .id(id)
+                .nome(nome)
+                .duracaoMinutos(60)
+                .preco(new BigDecimal("150.00"))
+                .build();
+    }
+}
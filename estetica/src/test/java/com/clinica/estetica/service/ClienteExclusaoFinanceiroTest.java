@@ -0,0 +1,140 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.entity.ContaReceber;
+import com.clinica.estetica.model.enums.FormaPagamento;
+import com.clinica.estetica.repository.ClienteRepository;
+import com.clinica.estetica.repository.FinanceiroDiarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exclusão de clientes contra o consolidado diário: quem tem conta paga não pode ser
+ * excluído, e o consolidado continua igual à soma direta de conta_receber.
+ *
+ * Executar com: mvn test -Dtest=ClienteExclusaoFinanceiroTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+@SpringBootTest
+class ClienteExclusaoFinanceiroTest {
+
+    private static final LocalDate DIA = LocalDate.of(2031, 8, 8);
+    private static final String SOMA_DIRETA = "SELECT COALESCE(SUM(valor), 0) FROM conta_receber " +
+            "WHERE status = 'PAGO' AND data_pagamento = ?";
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ContaReceberService contaReceberService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FinanceiroDiarioRepository financeiroDiarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> clientes = new ArrayList<>();
+
+    /**
+     * A aplicação não habilita a auditoria JPA; sem ela created_at fica nulo nos inserts
+     */
+    @TestConfiguration
+    @EnableJpaAuditing
+    static class Auditoria {
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.db.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.db.user", "clinica_user"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM financeiro_diario WHERE data = ?", DIA);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long clienteId : clientes) {
+            jdbcTemplate.update("DELETE FROM conta_receber WHERE cliente_id = ?", clienteId);
+            jdbcTemplate.update("DELETE FROM cliente WHERE id = ?", clienteId);
+        }
+        jdbcTemplate.update("DELETE FROM financeiro_diario WHERE data = ?", DIA);
+    }
+
+    @Test
+    void clienteComContaPagaNaoEhExcluidoEOConsolidadoBateComASomaDireta() {
+        Cliente pagante = novoCliente("Cliente Pagante");
+        pagar(novaConta(pagante, "150.00"), FormaPagamento.PIX);
+        pagar(novaConta(pagante, "89.90"), FormaPagamento.DINHEIRO);
+        novaConta(pagante, "40.00");
+
+        Cliente semPagamento = novoCliente("Cliente Sem Pagamento");
+        novaConta(semPagamento, "70.00");
+
+        assertThatThrownBy(() -> clienteService.deletar(pagante.getId()))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("2 conta(s) paga(s)");
+        clienteService.deletar(semPagamento.getId());
+
+        assertThat(clienteRepository.existsById(pagante.getId())).isTrue();
+        assertThat(clienteRepository.existsById(semPagamento.getId())).isFalse();
+
+        BigDecimal somaDireta = jdbcTemplate.queryForObject(SOMA_DIRETA, BigDecimal.class, DIA);
+        assertThat(somaDireta).isEqualByComparingTo("239.90");
+        assertThat(financeiroDiarioRepository.somarRecebido(DIA, DIA)).isEqualByComparingTo(somaDireta);
+        assertThat(contaReceberService.somarRecebidoPorPeriodo(DIA, DIA)).isEqualByComparingTo(somaDireta);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Cliente novoCliente(String nome) {
+        String digitos = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nome(nome)
+                .cpf(digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "." +
+                        digitos.substring(6, 9) + "-" + digitos.substring(9))
+                .build());
+        clientes.add(cliente.getId());
+        return cliente;
+    }
+
+    private ContaReceber novaConta(Cliente cliente, String valor) {
+        return contaReceberService.criar(ContaReceber.builder()
+                .cliente(cliente)
+                .descricao("Conta " + cliente.getNome())
+                .valor(new BigDecimal(valor))
+                .dataVencimento(DIA)
+                .build());
+    }
+
+    private void pagar(ContaReceber conta, FormaPagamento formaPagamento) {
+        contaReceberService.registrarPagamento(conta.getId(), DIA, formaPagamento);
+    }
+}
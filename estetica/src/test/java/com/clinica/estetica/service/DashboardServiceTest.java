@@ -0,0 +1,132 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.AgendamentoAlteradoEvent;
+import com.clinica.estetica.event.EstoqueMovimentadoEvent;
+import com.clinica.estetica.event.PagamentoRegistradoEvent;
+import com.clinica.estetica.model.dto.response.SerieFinanceiraResponse;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.model.enums.StatusAgendamento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Snapshot do dashboard: leitura sem consultas e recálculo só das seções marcadas por eventos
+ */
+class DashboardServiceTest {
+
+    private ClienteService clienteService;
+    private AgendamentoService agendamentoService;
+    private ContaReceberService contaReceberService;
+    private ContaPagarService contaPagarService;
+    private EstoqueService estoqueService;
+    private ProcedimentoService procedimentoService;
+    private FinanceiroService financeiroService;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        clienteService = mock(ClienteService.class);
+        agendamentoService = mock(AgendamentoService.class);
+        contaReceberService = mock(ContaReceberService.class);
+        contaPagarService = mock(ContaPagarService.class);
+        estoqueService = mock(EstoqueService.class);
+        procedimentoService = mock(ProcedimentoService.class);
+        financeiroService = mock(FinanceiroService.class);
+
+        when(agendamentoService.listarAgendaHoje()).thenReturn(List.of());
+        when(agendamentoService.contarAgendamentosMes()).thenReturn(12L);
+        when(contaReceberService.somarReceberHoje()).thenReturn(BigDecimal.TEN);
+        when(contaReceberService.somarReceberMes()).thenReturn(new BigDecimal("300"));
+        when(contaReceberService.somarRecebidoPorPeriodo(any(), any())).thenReturn(new BigDecimal("200"));
+        when(contaPagarService.somarPagoPorPeriodo(any(), any())).thenReturn(new BigDecimal("50"));
+        when(estoqueService.contarProdutosEstoqueBaixo()).thenReturn(2L);
+        when(financeiroService.obterSerieFinanceira(any(), any(), eq(Granularidade.MES)))
+                .thenReturn(SerieFinanceiraResponse.builder().pontos(List.of()).build());
+
+        dashboardService = new DashboardService(clienteService, agendamentoService, contaReceberService,
+                contaPagarService, estoqueService, financeiroService, procedimentoService, new ModelMapper());
+    }
+
+    @Test
+    void leituraDevolveOSnapshotSemConsultar() {
+        Map<String, Object> primeiro = dashboardService.reconciliar();
+        clearInvocations(agendamentoService, contaReceberService, estoqueService);
+
+        Map<String, Object> segundo = dashboardService.obterDadosDashboard();
+
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(segundo.get("reconciliadoEm")).isInstanceOf(LocalDateTime.class);
+        assertThat(((Map<?, ?>) segundo.get("resumoFinanceiro")).get("saldo")).isEqualTo(new BigDecimal("150"));
+        verifyNoInteractions(agendamentoService, contaReceberService, estoqueService);
+    }
+
+    @Test
+    void eventoRecalculaSoAsSecoesAfetadas() {
+        dashboardService.reconciliar();
+        clearInvocations(agendamentoService, contaReceberService, contaPagarService, estoqueService,
+                clienteService, procedimentoService);
+        when(estoqueService.contarProdutosEstoqueBaixo()).thenReturn(3L);
+
+        dashboardService.aoMovimentarEstoque(new EstoqueMovimentadoEvent(1L));
+        dashboardService.aoMovimentarEstoque(new EstoqueMovimentadoEvent(2L));
+        dashboardService.atualizarPendentes();
+
+        verify(estoqueService, times(1)).contarProdutosEstoqueBaixo();
+        verifyNoInteractions(agendamentoService, contaReceberService, contaPagarService,
+                clienteService, procedimentoService);
+        assertThat(dashboardService.obterDadosDashboard().get("produtosEstoqueBaixo")).isEqualTo(3L);
+    }
+
+    @Test
+    void semEventosNaoConsulta() {
+        dashboardService.reconciliar();
+        Map<String, Object> antes = dashboardService.obterDadosDashboard();
+        clearInvocations(agendamentoService, contaReceberService, estoqueService);
+
+        dashboardService.atualizarPendentes();
+
+        assertThat(dashboardService.obterDadosDashboard()).isSameAs(antes);
+        verifyNoInteractions(agendamentoService, contaReceberService, estoqueService);
+    }
+
+    @Test
+    void falhaNoRecalculoMantemAsSecoesMarcadas() {
+        dashboardService.reconciliar();
+        when(contaPagarService.contarContasVencidas()).thenThrow(new IllegalStateException("banco fora"));
+
+        dashboardService.aoRegistrarPagamento(new PagamentoRegistradoEvent(
+                PagamentoRegistradoEvent.Origem.PAGAR, 1L, BigDecimal.TEN, LocalDate.now()));
+        assertThatThrownBy(() -> dashboardService.atualizarPendentes()).isInstanceOf(IllegalStateException.class);
+
+        reset(contaPagarService);
+        when(contaPagarService.somarPagoPorPeriodo(any(), any())).thenReturn(new BigDecimal("60"));
+        dashboardService.atualizarPendentes();
+
+        Map<?, ?> resumo = (Map<?, ?>) dashboardService.obterDadosDashboard().get("resumoFinanceiro");
+        assertThat(resumo.get("totalPago")).isEqualTo(new BigDecimal("60"));
+    }
+
+    @Test
+    void agendamentoRealizadoAtualizaRanking() {
+        dashboardService.reconciliar();
+        clearInvocations(procedimentoService, clienteService);
+
+        dashboardService.aoAlterarAgendamento(new AgendamentoAlteradoEvent(1L, "Ana Paula",
+                LocalDateTime.now(), LocalDateTime.now().plusHours(1), StatusAgendamento.REALIZADO, false));
+        dashboardService.atualizarPendentes();
+
+        verify(procedimentoService).buscarTopProcedimentos(5);
+        verifyNoInteractions(clienteService);
+    }
+}
@@ -0,0 +1,342 @@
+package com.clinica.estetica.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Envio em lote contra um servidor SMTP mínimo em processo.
+ *
+ * O benchmark compara um JavaMailSender.send por mensagem (uma conexão por email)
+ * com o EmailLoteSender. O servidor atrasa cada conexão nova para simular TLS + AUTH.
+ *
+ * Executar o benchmark com: mvn test -Dtest=EmailLoteSenderTest -Dbenchmark.smtp=true
+ */
+@Slf4j
+class EmailLoteSenderTest {
+
+    private static final int MENSAGENS_BENCHMARK = 400;
+    private static final int PRODUTORES = 4;
+    private static final long HANDSHAKE_BENCHMARK_MS = 20;
+
+    private SmtpLocal smtp;
+    private JavaMailSenderImpl mailSender;
+    private MeterRegistry meterRegistry;
+    private EmailLoteSender loteSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpLocal(0);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.porta());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (loteSender != null) {
+            loteSender.encerrar();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void reaproveitaConexaoEntreMensagens() {
+        loteSender = iniciarLoteSender(1, 100);
+
+        enviarConcorrente(60, loteSender::enviar);
+
+        assertThat(smtp.mensagens.get()).isEqualTo(60);
+        assertThat(smtp.conexoes.get()).isEqualTo(1);
+        assertThat(loteSender.getHandshakes()).isEqualTo(1);
+        assertThat(meterRegistry.counter("clinica.email.enviados").count()).isEqualTo(60);
+    }
+
+    @Test
+    void reconectaAoAtingirLimiteDeMensagensPorConexao() {
+        loteSender = iniciarLoteSender(1, 10);
+
+        enviarConcorrente(35, loteSender::enviar);
+
+        assertThat(smtp.mensagens.get()).isEqualTo(35);
+        assertThat(smtp.conexoes.get()).isEqualTo(4);
+    }
+
+    @Test
+    void destinatarioRecusadoFalhaSoAQuelaMensagem() throws Exception {
+        loteSender = iniciarLoteSender(1, 100);
+
+        CompletableFuture<Void> recusada = loteSender.enviar(mensagem("recusado@clinica.test"));
+        CompletableFuture<Void> aceita = loteSender.enviar(mensagem("cliente@clinica.test"));
+
+        assertThatThrownBy(recusada::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(SendFailedException.class);
+        aceita.get(5, TimeUnit.SECONDS);
+
+        assertThat(smtp.mensagens.get()).isEqualTo(1);
+        assertThat(smtp.conexoes.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("clinica.email.falhas").count()).isEqualTo(1);
+    }
+
+    @Test
+    void refazConexaoDerrubadaPeloServidor() {
+        loteSender = iniciarLoteSender(1, 100);
+
+        enviarConcorrente(5, loteSender::enviar);
+        smtp.derrubarConexoes();
+        enviarConcorrente(5, loteSender::enviar);
+
+        assertThat(smtp.mensagens.get()).isEqualTo(10);
+        assertThat(smtp.conexoes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void naoReenviaQuandoOEnvioFalhaNaConexaoReaproveitada() throws Exception {
+        mailSender.getJavaMailProperties().setProperty("mail.smtp.timeout", "300");
+        loteSender = iniciarLoteSender(1, 100);
+        loteSender.enviar(mensagem("cliente@clinica.test")).get(5, TimeUnit.SECONDS);
+
+        // O servidor recebe a próxima mensagem e só confirma depois do timeout do cliente
+        smtp.atrasoConfirmacaoMs.set(1000);
+        CompletableFuture<Void> interrompida = loteSender.enviar(mensagem("cliente@clinica.test"));
+        assertThatThrownBy(() -> interrompida.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+        loteSender.enviar(mensagem("cliente@clinica.test")).get(5, TimeUnit.SECONDS);
+
+        // A interrompida chegou uma única vez; a falha ficou com o chamador (outbox) decidir
+        assertThat(smtp.mensagens.get()).isEqualTo(3);
+        assertThat(smtp.conexoes.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("clinica.email.falhas").count()).isEqualTo(1);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.smtp", matches = "true")
+    void benchmarkEnvioIndividualVersusLote() {
+        smtp.atrasoHandshakeMs = HANDSHAKE_BENCHMARK_MS;
+
+        long inicio = System.nanoTime();
+        enviarConcorrente(MENSAGENS_BENCHMARK, mensagem -> {
+            mailSender.send(mensagem);
+            return CompletableFuture.completedFuture(null);
+        });
+        double individual = MENSAGENS_BENCHMARK / segundosDesde(inicio);
+        int conexoesIndividual = smtp.conexoes.getAndSet(0);
+
+        loteSender = iniciarLoteSender(2, 100);
+        inicio = System.nanoTime();
+        enviarConcorrente(MENSAGENS_BENCHMARK, loteSender::enviar);
+        double lote = MENSAGENS_BENCHMARK / segundosDesde(inicio);
+        int conexoesLote = smtp.conexoes.get();
+
+        log.info("Envio individual: {} msgs/s, {} conexões", String.format("%.0f", individual), conexoesIndividual);
+        log.info("Envio em lote:    {} msgs/s, {} conexões, lote médio {}", String.format("%.0f", lote), conexoesLote,
+                String.format("%.1f", meterRegistry.summary("clinica.email.lote.tamanho").mean()));
+
+        assertThat(conexoesIndividual).isEqualTo(MENSAGENS_BENCHMARK);
+        assertThat(conexoesLote).isLessThanOrEqualTo(2 * (MENSAGENS_BENCHMARK / 100 + 1));
+        assertThat(lote).isGreaterThan(individual);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private EmailLoteSender iniciarLoteSender(int conexoes, int mensagensPorConexao) {
+        EmailLoteSender sender = new EmailLoteSender(mailSender, meterRegistry, 10_000);
+        ReflectionTestUtils.setField(sender, "conexoes", conexoes);
+        ReflectionTestUtils.setField(sender, "tamanhoMaximo", 50);
+        ReflectionTestUtils.setField(sender, "janelaMs", 0L);
+        ReflectionTestUtils.setField(sender, "mensagensPorConexao", mensagensPorConexao);
+        ReflectionTestUtils.setField(sender, "ociosidadeMaximaMs", 30_000L);
+        sender.iniciar();
+        return sender;
+    }
+
+    /**
+     * Produtores bloqueiam até o envio concluir, como fazem o dispatcher e os lembretes
+     */
+    private void enviarConcorrente(int quantidade, EnvioTeste envio) {
+        ExecutorService produtores = Executors.newFixedThreadPool(PRODUTORES);
+        try {
+            List<CompletableFuture<Void>> pendentes = new ArrayList<>();
+            for (int i = 0; i < quantidade; i++) {
+                int n = i;
+                pendentes.add(CompletableFuture.runAsync(
+                        () -> envio.enviar(mensagem("cliente" + n + "@clinica.test")).join(), produtores));
+            }
+            CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            produtores.shutdownNow();
+        }
+    }
+
+    private MimeMessage mensagem(String destinatario) {
+        try {
+            MimeMessage mensagem = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mensagem, "UTF-8");
+            helper.setFrom("noreply@clinica.test");
+            helper.setTo(destinatario);
+            helper.setSubject("Lembrete de agendamento");
+            helper.setText("Olá! Lembramos do seu agendamento amanhã às 10:00.");
+            return mensagem;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double segundosDesde(long inicioNanos) {
+        return (System.nanoTime() - inicioNanos) / 1_000_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface EnvioTeste {
+        CompletableFuture<Void> enviar(MimeMessage mensagem);
+    }
+
+    /**
+     * Servidor SMTP mínimo (EHLO/MAIL/RCPT/DATA/RSET/NOOP/QUIT), uma thread por conexão.
+     * Recusa destinatários que começam com "recusado"; com atrasoConfirmacaoMs, recebe a
+     * próxima mensagem e demora esse tempo para confirmá-la.
+     */
+    private static final class SmtpLocal implements AutoCloseable {
+
+        private final ServerSocket servidor;
+        private final ExecutorService conexoesAtivas = Executors.newCachedThreadPool();
+        private final List<Socket> sockets = new ArrayList<>();
+        private final AtomicInteger conexoes = new AtomicInteger();
+        private final AtomicInteger mensagens = new AtomicInteger();
+        private final AtomicLong atrasoConfirmacaoMs = new AtomicLong();
+        private volatile long atrasoHandshakeMs;
+
+        private SmtpLocal(int porta) throws IOException {
+            this.servidor = new ServerSocket(porta);
+            Thread aceitador = new Thread(this::aceitar, "smtp-local");
+            aceitador.setDaemon(true);
+            aceitador.start();
+        }
+
+        private int porta() {
+            return servidor.getLocalPort();
+        }
+
+        private void aceitar() {
+            while (!servidor.isClosed()) {
+                try {
+                    Socket socket = servidor.accept();
+                    synchronized (sockets) {
+                        sockets.add(socket);
+                    }
+                    conexoes.incrementAndGet();
+                    conexoesAtivas.execute(() -> atender(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void atender(Socket socket) {
+            try (socket;
+                 BufferedReader entrada = new BufferedReader(
+                         new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                OutputStream saida = socket.getOutputStream();
+                Consumer<String> responder = linha -> {
+                    try {
+                        saida.write((linha + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        saida.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+
+                if (atrasoHandshakeMs > 0) {
+                    Thread.sleep(atrasoHandshakeMs);
+                }
+                responder.accept("220 localhost ESMTP");
+
+                String linha;
+                while ((linha = entrada.readLine()) != null) {
+                    String comando = linha.length() >= 4 ? linha.substring(0, 4).toUpperCase() : linha.toUpperCase();
+                    switch (comando) {
+                        case "EHLO", "HELO" -> responder.accept("250 localhost");
+                        case "MAIL", "RSET", "NOOP" -> responder.accept("250 OK");
+                        case "RCPT" -> responder.accept(linha.toLowerCase().contains("<recusado")
+                                ? "550 Destinatário inexistente" : "250 OK");
+                        case "DATA" -> {
+                            responder.accept("354 Fim com <CRLF>.<CRLF>");
+                            while ((linha = entrada.readLine()) != null && !linha.equals(".")) {
+                                // corpo descartado
+                            }
+                            mensagens.incrementAndGet();
+                            long atraso = atrasoConfirmacaoMs.getAndSet(0);
+                            if (atraso > 0) {
+                                Thread.sleep(atraso);
+                            }
+                            responder.accept("250 OK");
+                        }
+                        case "QUIT" -> {
+                            responder.accept("221 Até logo");
+                            return;
+                        }
+                        default -> responder.accept("502 Comando não implementado");
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // cliente ou teste encerrou a conexão
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void derrubarConexoes() {
+            synchronized (sockets) {
+                for (Socket socket : sockets) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                        // já fechado
+                    }
+                }
+                sockets.clear();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            derrubarConexoes();
+            servidor.close();
+            conexoesAtivas.shutdownNow();
+        }
+    }
+}
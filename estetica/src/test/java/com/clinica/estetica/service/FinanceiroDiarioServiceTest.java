@@ -0,0 +1,78 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.entity.ContaPagar;
+import com.clinica.estetica.model.entity.ContaReceber;
+import com.clinica.estetica.model.enums.FormaPagamento;
+import com.clinica.estetica.repository.FinanceiroDiarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Consolidado diário: chave de cada conta paga e ordem da reconstrução
+ */
+class FinanceiroDiarioServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2026, 10, 15);
+
+    private FinanceiroDiarioRepository repository;
+    private FinanceiroDiarioService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FinanceiroDiarioRepository.class);
+        service = new FinanceiroDiarioService(repository);
+    }
+
+    @Test
+    void recebimentoSomaNaFormaDePagamentoSemCategoria() {
+        ContaReceber conta = new ContaReceber();
+        conta.setValor(new BigDecimal("150.00"));
+        conta.setDataPagamento(DIA);
+        conta.setFormaPagamento(FormaPagamento.PIX);
+
+        service.registrarRecebimento(conta);
+
+        verify(repository).acumular(DIA, "PIX", "",
+                new BigDecimal("150.00"), BigDecimal.ZERO, 1, 0);
+    }
+
+    @Test
+    void pagamentoSemFormaEntraComChaveVazia() {
+        ContaPagar conta = ContaPagar.builder()
+                .valor(new BigDecimal("80.00"))
+                .dataPagamento(DIA)
+                .categoria("ALUGUEL")
+                .build();
+
+        service.registrarPagamento(conta);
+
+        verify(repository).acumular(DIA, "", "ALUGUEL", BigDecimal.ZERO, new BigDecimal("80.00"), 0, 1);
+    }
+
+    @Test
+    void contaSemDataDePagamentoNaoEntra() {
+        service.registrarPagamento(ContaPagar.builder().valor(BigDecimal.TEN).build());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void reconstrucaoBloqueiaAntesDeApagarERecalcular() {
+        service.reconstruir(DIA.minusDays(30), DIA);
+
+        InOrder ordem = inOrder(repository);
+        ordem.verify(repository).bloquear();
+        ordem.verify(repository).removerPeriodo(DIA.minusDays(30), DIA);
+        ordem.verify(repository).recalcularPeriodo(DIA.minusDays(30), DIA);
+
+        assertThatThrownBy(() -> service.reconstruir(DIA, DIA.minusDays(1))).isInstanceOf(BusinessException.class);
+    }
+}
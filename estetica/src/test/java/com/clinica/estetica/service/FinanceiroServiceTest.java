@@ -0,0 +1,189 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.dto.projection.LancamentoFluxoCaixa;
+import com.clinica.estetica.model.dto.projection.TotalPeriodoFinanceiro;
+import com.clinica.estetica.model.dto.response.SerieFinanceiraResponse;
+import com.clinica.estetica.model.enums.Granularidade;
+import com.clinica.estetica.repository.ContaReceberRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Série financeira pelo consolidado diário e fluxo de caixa escrito em streaming
+ */
+class FinanceiroServiceTest {
+
+    private ContaReceberService contaReceberService;
+    private FinanceiroDiarioService financeiroDiarioService;
+    private ContaReceberRepository contaReceberRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FinanceiroService financeiroService;
+
+    @BeforeEach
+    void setUp() {
+        contaReceberService = mock(ContaReceberService.class);
+        financeiroDiarioService = mock(FinanceiroDiarioService.class);
+        contaReceberRepository = mock(ContaReceberRepository.class);
+        financeiroService = new FinanceiroService(contaReceberService, mock(ContaPagarService.class),
+                financeiroDiarioService, contaReceberRepository, objectMapper);
+        ReflectionTestUtils.setField(financeiroService, "maxPontosSerie", 1000);
+    }
+
+    @Test
+    void preencheSemanasSemMovimento() {
+        // 2026-03-04 é quarta: a primeira semana começa na segunda 2026-03-02
+        when(financeiroDiarioService.somarPorPeriodo(Granularidade.SEMANA,
+                LocalDate.of(2026, 3, 4), LocalDate.of(2026, 3, 20)))
+                .thenReturn(List.of(total(LocalDate.of(2026, 3, 9), "500", "120")));
+
+        SerieFinanceiraResponse serie = financeiroService.obterSerieFinanceira(
+                LocalDate.of(2026, 3, 4), LocalDate.of(2026, 3, 20), Granularidade.SEMANA);
+
+        assertThat(serie.getPontos()).extracting(SerieFinanceiraResponse.Ponto::getPeriodo)
+                .containsExactly(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 16));
+        assertThat(serie.getPontos()).extracting(SerieFinanceiraResponse.Ponto::getSaldo)
+                .containsExactly(BigDecimal.ZERO, new BigDecimal("380"), BigDecimal.ZERO);
+        assertThat(serie.getTotalRecebido()).isEqualTo(new BigDecimal("500"));
+        assertThat(serie.getSaldo()).isEqualTo(new BigDecimal("380"));
+    }
+
+    @Test
+    void faturamentoDoAnoUsaUmaConsulta() {
+        when(financeiroDiarioService.somarPorPeriodo(Granularidade.MES,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)))
+                .thenReturn(List.of(
+                        total(LocalDate.of(2026, 2, 1), "1000", "0"),
+                        total(LocalDate.of(2026, 11, 1), "250", "90")));
+
+        Map<String, Object> resultado = financeiroService.obterFaturamentoPorMes(2026);
+
+        Map<?, ?> porMes = (Map<?, ?>) resultado.get("faturamentoPorMes");
+        assertThat(porMes).hasSize(12);
+        assertThat(porMes.keySet().iterator().next()).isEqualTo("JANUARY");
+        assertThat(porMes.get("FEBRUARY")).isEqualTo(new BigDecimal("1000"));
+        assertThat(porMes.get("MARCH")).isEqualTo(BigDecimal.ZERO);
+        assertThat(resultado.get("totalAno")).isEqualTo(new BigDecimal("1250"));
+        verify(financeiroDiarioService, times(1)).somarPorPeriodo(any(), any(), any());
+        verifyNoInteractions(contaReceberService);
+    }
+
+    @Test
+    void recusaPeriodoInvertidoOuLongoDemais() {
+        assertThatThrownBy(() -> financeiroService.obterSerieFinanceira(
+                LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1), Granularidade.DIA))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> financeiroService.obterSerieFinanceira(
+                LocalDate.of(2020, 1, 1), LocalDate.of(2026, 1, 1), Granularidade.DIA))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(financeiroDiarioService);
+    }
+
+    @Test
+    void fluxoDeCaixaEscreveLinhasNaOrdemDoBancoComSaldoAcumulado() throws Exception {
+        AtomicBoolean fechado = new AtomicBoolean();
+        when(contaReceberRepository.streamFluxoCaixa(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)))
+                .thenReturn(Stream.of(
+                        lancamento(LocalDate.of(2026, 3, 2), "ENTRADA", 10L, "300.00", null),
+                        lancamento(LocalDate.of(2026, 3, 5), "SAIDA", 4L, "120.50", "ALUGUEL"),
+                        lancamento(LocalDate.of(2026, 3, 9), "ENTRADA", 11L, "80.00", null))
+                        .onClose(() -> fechado.set(true)));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        financeiroService.escreverFluxoCaixa(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), saida);
+
+        JsonNode fluxo = objectMapper.reader(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readTree(saida.toByteArray());
+        assertThat(fluxo.get("lancamentos")).extracting(l -> l.get("id").asLong()).containsExactly(10L, 4L, 11L);
+        assertThat(fluxo.get("lancamentos")).extracting(l -> l.get("saldoAcumulado").decimalValue())
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("300.00"), new BigDecimal("179.50"), new BigDecimal("259.50"));
+        assertThat(fluxo.get("lancamentos").get(1).get("categoria").asText()).isEqualTo("ALUGUEL");
+        assertThat(fluxo.get("lancamentos").get(0).has("categoria")).isFalse();
+        assertThat(fluxo.get("totalEntradas").decimalValue()).isEqualByComparingTo(new BigDecimal("380.00"));
+        assertThat(fluxo.get("totalSaidas").decimalValue()).isEqualByComparingTo(new BigDecimal("120.50"));
+        assertThat(fluxo.get("saldoFinal").decimalValue()).isEqualByComparingTo(new BigDecimal("259.50"));
+        assertThat(fechado).isTrue();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static LancamentoFluxoCaixa lancamento(LocalDate data, String tipo, Long id, String valor, String categoria) {
+        return new LancamentoFluxoCaixa() {
+            @Override
+            public LocalDate getData() {
+                return data;
+            }
+
+            @Override
+            public String getTipo() {
+                return tipo;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescricao() {
+                return "Conta " + id;
+            }
+
+            @Override
+            public BigDecimal getValor() {
+                return new BigDecimal(valor);
+            }
+
+            @Override
+            public String getStatus() {
+                return "PAGO";
+            }
+
+            @Override
+            public String getFormaPagamento() {
+                return "PIX";
+            }
+
+            @Override
+            public String getCategoria() {
+                return categoria;
+            }
+        };
+    }
+
+    private static TotalPeriodoFinanceiro total(LocalDate periodo, String recebido, String pago) {
+        return new TotalPeriodoFinanceiro() {
+            @Override
+            public LocalDate getPeriodo() {
+                return periodo;
+            }
+
+            @Override
+            public BigDecimal getRecebido() {
+                return new BigDecimal(recebido);
+            }
+
+            @Override
+            public BigDecimal getPago() {
+                return new BigDecimal(pago);
+            }
+        };
+    }
+}
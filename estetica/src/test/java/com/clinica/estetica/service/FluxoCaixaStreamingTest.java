@@ -0,0 +1,150 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.Cliente;
+import com.clinica.estetica.model.entity.ContaPagar;
+import com.clinica.estetica.model.entity.ContaReceber;
+import com.clinica.estetica.model.enums.FormaPagamento;
+import com.clinica.estetica.repository.ClienteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fluxo de caixa em streaming contra um PostgreSQL real: cada coluna da consulta nativa
+ * chega ao JSON (inclusive formaPagamento, alias com maiúscula) e os totais batem.
+ *
+ * Executar com: mvn test -Dtest=FluxoCaixaStreamingTest -Dbenchmark.db.url=jdbc:postgresql://...
+ * (opcionais: -Dbenchmark.db.user, -Dbenchmark.db.password)
+ */
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+@SpringBootTest
+class FluxoCaixaStreamingTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2031, 9, 1);
+    private static final LocalDate FIM = LocalDate.of(2031, 9, 30);
+
+    @Autowired
+    private FinanceiroService financeiroService;
+
+    @Autowired
+    private ContaReceberService contaReceberService;
+
+    @Autowired
+    private ContaPagarService contaPagarService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Cliente cliente;
+    private final List<Long> contasPagar = new ArrayList<>();
+
+    /**
+     * A aplicação não habilita a auditoria JPA; sem ela created_at fica nulo nos inserts
+     */
+    @TestConfiguration
+    @EnableJpaAuditing
+    static class Auditoria {
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.db.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.db.user", "clinica_user"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.db.password", "clinica_pass_2024"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        String digitos = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+        cliente = clienteRepository.save(Cliente.builder()
+                .nome("Cliente Fluxo de Caixa")
+                .cpf(digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "." +
+                        digitos.substring(6, 9) + "-" + digitos.substring(9))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM conta_receber WHERE cliente_id = ?", cliente.getId());
+        contasPagar.forEach(id -> jdbcTemplate.update("DELETE FROM conta_pagar WHERE id = ?", id));
+        jdbcTemplate.update("DELETE FROM cliente WHERE id = ?", cliente.getId());
+        jdbcTemplate.update("DELETE FROM financeiro_diario WHERE data >= ? AND data <= ?", INICIO, FIM);
+    }
+
+    @Test
+    void lancamentosTrazemTodasAsColunasEOSaldoAcumulado() throws Exception {
+        ContaReceber recebida = contaReceberService.criar(ContaReceber.builder()
+                .cliente(cliente)
+                .descricao("Sessão paga")
+                .valor(new BigDecimal("200.00"))
+                .dataVencimento(INICIO.plusDays(4))
+                .build());
+        contaReceberService.registrarPagamento(recebida.getId(), INICIO.plusDays(2), FormaPagamento.PIX);
+        contaReceberService.criar(ContaReceber.builder()
+                .cliente(cliente)
+                .descricao("Sessão a receber")
+                .valor(new BigDecimal("80.00"))
+                .dataVencimento(INICIO.plusDays(20))
+                .build());
+        ContaPagar aluguel = contaPagarService.criar(ContaPagar.builder()
+                .descricao("Aluguel")
+                .categoria("ALUGUEL")
+                .valor(new BigDecimal("120.00"))
+                .dataVencimento(INICIO.plusDays(9))
+                .build());
+        contasPagar.add(aluguel.getId());
+        contaPagarService.registrarPagamento(aluguel.getId(), INICIO.plusDays(9), FormaPagamento.TRANSFERENCIA);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        financeiroService.escreverFluxoCaixa(INICIO, FIM, saida);
+        JsonNode fluxo = objectMapper.readTree(saida.toByteArray());
+
+        JsonNode lancamentos = fluxo.get("lancamentos");
+        assertThat(lancamentos).hasSize(3);
+
+        JsonNode entrada = lancamentos.get(0);
+        assertThat(entrada.get("data").asText()).isEqualTo(INICIO.plusDays(2).toString());
+        assertThat(entrada.get("tipo").asText()).isEqualTo("ENTRADA");
+        assertThat(entrada.get("id").asLong()).isEqualTo(recebida.getId());
+        assertThat(entrada.get("descricao").asText()).isEqualTo("Sessão paga");
+        assertThat(entrada.get("status").asText()).isEqualTo("PAGO");
+        assertThat(entrada.get("formaPagamento").asText()).isEqualTo("PIX");
+        assertThat(entrada.has("categoria")).isFalse();
+
+        JsonNode saidaAluguel = lancamentos.get(1);
+        assertThat(saidaAluguel.get("tipo").asText()).isEqualTo("SAIDA");
+        assertThat(saidaAluguel.get("formaPagamento").asText()).isEqualTo("TRANSFERENCIA");
+        assertThat(saidaAluguel.get("categoria").asText()).isEqualTo("ALUGUEL");
+        assertThat(saidaAluguel.get("saldoAcumulado").decimalValue()).isEqualByComparingTo("80.00");
+
+        assertThat(lancamentos.get(2).get("formaPagamento").isNull()).isTrue();
+        assertThat(fluxo.get("totalEntradas").decimalValue()).isEqualByComparingTo("280.00");
+        assertThat(fluxo.get("totalSaidas").decimalValue()).isEqualByComparingTo("120.00");
+        assertThat(fluxo.get("saldoFinal").decimalValue()).isEqualByComparingTo("160.00");
+    }
+}
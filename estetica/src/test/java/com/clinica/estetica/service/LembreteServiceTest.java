@@ -0,0 +1,116 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pipeline de lembretes: paginação por cursor, envio paralelo e um UPDATE por página
+ */
+class LembreteServiceTest {
+
+    private static final int TAMANHO_LOTE = 50;
+
+    private AgendamentoRepository agendamentoRepository;
+    private AgendamentoService agendamentoService;
+    private NotificacaoService notificacaoService;
+    private ExecutorService executor;
+    private MeterRegistry meterRegistry;
+    private LembreteService lembreteService;
+
+    @BeforeEach
+    void setUp() {
+        agendamentoRepository = mock(AgendamentoRepository.class);
+        agendamentoService = mock(AgendamentoService.class);
+        notificacaoService = mock(NotificacaoService.class);
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(agendamentoService.marcarLembretesEnviados(anyCollection()))
+                .thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+
+        lembreteService = new LembreteService(agendamentoRepository, agendamentoService,
+                notificacaoService, executor, meterRegistry);
+        ReflectionTestUtils.setField(lembreteService, "antecedenciaHoras", 24L);
+        ReflectionTestUtils.setField(lembreteService, "tamanhoLote", TAMANHO_LOTE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void percorrePaginasPorCursorEMarcaCadaPaginaDeUmaVez() {
+        LocalDateTime base = LocalDateTime.now().plusHours(2);
+        List<Agendamento> pagina1 = agendamentos(1, TAMANHO_LOTE, base);
+        List<Agendamento> pagina2 = agendamentos(TAMANHO_LOTE + 1, 20, base.plusHours(1));
+
+        when(agendamentoRepository.findLembretesPendentes(any(), anyLong(), any(), any(Limit.class)))
+                .thenReturn(pagina1, pagina2);
+
+        int enviados = lembreteService.processarLembretes();
+
+        assertThat(enviados).isEqualTo(TAMANHO_LOTE + 20);
+        verify(notificacaoService, times(TAMANHO_LOTE + 20)).enviarLembrete(any());
+        verify(agendamentoService, times(2)).marcarLembretesEnviados(anyCollection());
+
+        // A segunda página começa depois do último item da primeira
+        Agendamento ultimo = pagina1.get(pagina1.size() - 1);
+        verify(agendamentoRepository).findLembretesPendentes(
+                eq(ultimo.getDataHora()), eq(ultimo.getId()), any(), eq(Limit.of(TAMANHO_LOTE)));
+
+        assertThat(meterRegistry.counter("clinica.lembretes.enviados").count()).isEqualTo(TAMANHO_LOTE + 20);
+        assertThat(meterRegistry.timer("clinica.lembretes.atraso").count()).isEqualTo(TAMANHO_LOTE + 20);
+    }
+
+    @Test
+    void falhasNaoSaoMarcadas() {
+        List<Agendamento> pagina = agendamentos(1, 10, LocalDateTime.now().plusHours(3));
+        when(agendamentoRepository.findLembretesPendentes(any(), anyLong(), any(), any(Limit.class)))
+                .thenReturn(pagina);
+        doThrow(new RuntimeException("SMTP indisponível"))
+                .when(notificacaoService).enviarLembrete(argThat(a -> a.getId() % 2 == 0));
+
+        int enviados = lembreteService.processarLembretes();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(agendamentoService).marcarLembretesEnviados(ids.capture());
+
+        assertThat(enviados).isEqualTo(5);
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 3L, 5L, 7L, 9L);
+        assertThat(meterRegistry.counter("clinica.lembretes.falhas").count()).isEqualTo(5);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private List<Agendamento> agendamentos(long primeiroId, int quantidade, LocalDateTime dataHora) {
+        List<Agendamento> lista = new ArrayList<>();
+        LongStream.range(primeiroId, primeiroId + quantidade).forEach(id ->
+                lista.add(Agendamento.builder()
+                        .id(id)
+                        .dataHora(dataHora.plusMinutes(id))
+                        .build()));
+        return lista;
+    }
+}
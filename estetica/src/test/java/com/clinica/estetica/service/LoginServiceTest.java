@@ -0,0 +1,190 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.ServiceUnavailableException;
+import com.clinica.estetica.exception.TooManyRequestsException;
+import com.clinica.estetica.exception.UnauthorizedException;
+import com.clinica.estetica.model.dto.response.LoginResponse;
+import com.clinica.estetica.security.LimitadorTentativasLogin;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Login fora das threads de requisição: limite de falhas, descarte sob sobrecarga e métricas
+ */
+class LoginServiceTest {
+
+    private static final String IP = "203.0.113.7";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuthService authService;
+    private LimitadorTentativasLogin limitador;
+    private ThreadPoolTaskExecutor executor;
+    private LoginService loginService;
+
+    @BeforeEach
+    void setUp() {
+        authService = mock(AuthService.class);
+        limitador = new LimitadorTentativasLogin();
+        ReflectionTestUtils.setField(limitador, "limiteUsuario", 3);
+        ReflectionTestUtils.setField(limitador, "limiteIp", 20);
+        ReflectionTestUtils.setField(limitador, "meiaVidaMs", 300_000L);
+        ReflectionTestUtils.setField(limitador, "maxChaves", 100);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        loginService = new LoginService(authService, limitador, executor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void autenticaNoPoolDeLogin() {
+        LoginResponse esperado = new LoginResponse();
+        when(authService.login("admin", "senha")).thenAnswer(inv -> {
+            assertThat(Thread.currentThread().getName()).startsWith(executor.getThreadNamePrefix());
+            return esperado;
+        });
+
+        assertThat(loginService.login("admin", "senha", IP).join()).isSameAs(esperado);
+        assertThat(meterRegistry.get("clinica.login.latencia").tag("resultado", "sucesso").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void falhasSeguidasBloqueiamAntesDoBcrypt() {
+        when(authService.login(anyString(), anyString())).thenThrow(new UnauthorizedException("Credenciais inválidas"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> loginService.login("admin", "errada", IP).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(UnauthorizedException.class);
+        }
+
+        assertThatThrownBy(() -> loginService.login("admin", "errada", IP))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isPositive());
+        verify(authService, times(3)).login(anyString(), anyString());
+        assertThat(meterRegistry.get("clinica.login.recusados").tag("motivo", "bloqueio_usuario").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("clinica.login.latencia").tag("resultado", "falha").timer().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void tentativasParalelasNaoPassamDoLimiteAntesDoBcrypt() throws Exception {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(8);
+        pool.setMaxPoolSize(8);
+        pool.setQueueCapacity(64);
+        pool.initialize();
+        LoginService service = new LoginService(authService, limitador, pool, meterRegistry);
+
+        // O BCrypt só termina depois de todas as tentativas terem passado pela checagem
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger bcrypts = new AtomicInteger();
+        when(authService.login(anyString(), anyString())).thenAnswer(inv -> {
+            bcrypts.incrementAndGet();
+            liberar.await(5, TimeUnit.SECONDS);
+            throw new UnauthorizedException("Credenciais inválidas");
+        });
+
+        int tentativas = 36;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService clientes = Executors.newFixedThreadPool(tentativas);
+        List<Future<CompletableFuture<LoginResponse>>> chamadas = new ArrayList<>();
+        for (int i = 0; i < tentativas; i++) {
+            chamadas.add(clientes.submit(() -> {
+                largada.await();
+                return service.login("admin", "errada", IP);
+            }));
+        }
+        largada.countDown();
+
+        int bloqueadas = 0;
+        List<CompletableFuture<LoginResponse>> aceitas = new ArrayList<>();
+        for (Future<CompletableFuture<LoginResponse>> chamada : chamadas) {
+            try {
+                aceitas.add(chamada.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(TooManyRequestsException.class);
+                bloqueadas++;
+            }
+        }
+        liberar.countDown();
+        for (CompletableFuture<LoginResponse> aceita : aceitas) {
+            assertThatThrownBy(() -> aceita.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(UnauthorizedException.class);
+        }
+        clientes.shutdown();
+        pool.shutdown();
+
+        assertThat(aceitas).hasSize(3);
+        assertThat(bloqueadas).isEqualTo(tentativas - 3);
+        assertThat(bcrypts.get()).isEqualTo(3);
+        assertThat(limitador.esperaUsuario("admin")).isPositive();
+    }
+
+    @Test
+    void sucessoDevolveAReservaDoIp() {
+        when(authService.login(anyString(), anyString())).thenReturn(new LoginResponse());
+        ReflectionTestUtils.setField(limitador, "limiteIp", 2);
+
+        // Com a reserva devolvida, logins corretos do mesmo IP nunca acumulam pontuação
+        for (int i = 0; i < 5; i++) {
+            loginService.login("usuario" + i, "senha", IP).join();
+        }
+
+        assertThat(limitador.esperaIp(IP)).isZero();
+    }
+
+    @Test
+    void poolSaturadoRecusaNaHora() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(authService.login(anyString(), anyString())).thenAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return new LoginResponse();
+        });
+
+        // Uma em execução, uma na fila
+        CompletableFuture<LoginResponse> primeiro = loginService.login("a", "senha", IP);
+        CompletableFuture<LoginResponse> segundo = loginService.login("b", "senha", IP);
+
+        assertThatThrownBy(() -> loginService.login("c", "senha", IP))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.get("clinica.login.recusados").tag("motivo", "sobrecarga").counter().count())
+                .isEqualTo(1);
+
+        liberar.countDown();
+        CompletableFuture.allOf(primeiro, segundo).get(5, TimeUnit.SECONDS);
+    }
+}
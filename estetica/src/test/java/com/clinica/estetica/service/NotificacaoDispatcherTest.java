@@ -0,0 +1,153 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.event.NotificacaoRegistradaEvent;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import com.clinica.estetica.repository.AgendamentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drenagem do outbox: sucesso marca ENVIADA, erro do canal agenda nova tentativa,
+ * agendamento inexistente vai direto para FALHA; notificação em janela de agrupamento
+ * só acorda o dispatcher quando a janela fecha
+ */
+class NotificacaoDispatcherTest {
+
+    private static final UUID RESERVA = UUID.randomUUID();
+
+    private NotificacaoOutboxService outboxService;
+    private AgendamentoRepository agendamentoRepository;
+    private NotificacaoService notificacaoService;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificacaoDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = mock(NotificacaoOutboxService.class);
+        agendamentoRepository = mock(AgendamentoRepository.class);
+        notificacaoService = mock(NotificacaoService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new NotificacaoDispatcher(outboxService, agendamentoRepository, notificacaoService, Runnable::run,
+                meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "tamanhoLote", 10);
+
+        when(outboxService.lerPayload(any())).thenReturn(new NotificacaoOutboxService.Payload());
+    }
+
+    @Test
+    void entregaLoteEMarcaResultadoDeCadaNotificacao() {
+        Agendamento ok = agendamento(10L);
+        Agendamento comErro = agendamento(20L);
+        when(outboxService.reservarLote(10)).thenReturn(List.of(1L, 2L, 3L), List.of());
+        when(outboxService.buscarPorIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                notificacao(1L, TipoNotificacao.APROVACAO, 10L),
+                notificacao(2L, TipoNotificacao.CANCELAMENTO, 20L),
+                notificacao(3L, TipoNotificacao.APROVACAO, 30L)));
+        when(agendamentoRepository.findComClienteEProcedimento(anyCollection())).thenReturn(List.of(ok, comErro));
+        doThrow(new RuntimeException("SMTP indisponível")).when(notificacaoService).enviarCancelamentoAgendamento(comErro);
+
+        int processadas = dispatcher.drenar();
+
+        assertThat(processadas).isEqualTo(3);
+        verify(notificacaoService).enviarAprovacaoAgendamento(ok);
+        verify(outboxService).marcarEnviada(1L, RESERVA);
+        verify(outboxService).registrarFalha(eq(2L), eq(RESERVA), contains("SMTP indisponível"), eq(false));
+        verify(outboxService).registrarFalha(eq(3L), eq(RESERVA), contains("não encontrado"), eq(true));
+        verify(outboxService, never()).marcarEnviada(eq(2L), any());
+    }
+
+    @Test
+    void entregaRegistraMetricasPorTipoEResultado() {
+        Agendamento ok = agendamento(10L);
+        Agendamento comErro = agendamento(20L);
+        NotificacaoOutbox aprovacao = notificacao(1L, TipoNotificacao.APROVACAO, 10L);
+        aprovacao.setCreatedAt(LocalDateTime.now().minusSeconds(20));
+        when(outboxService.reservarLote(10)).thenReturn(List.of(1L, 2L, 3L), List.of());
+        when(outboxService.buscarPorIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                aprovacao,
+                notificacao(2L, TipoNotificacao.CANCELAMENTO, 20L),
+                notificacao(3L, TipoNotificacao.APROVACAO, 30L)));
+        when(agendamentoRepository.findComClienteEProcedimento(anyCollection())).thenReturn(List.of(ok, comErro));
+        doThrow(new RuntimeException("SMTP indisponível")).when(notificacaoService).enviarCancelamentoAgendamento(comErro);
+        when(outboxService.registrarFalha(eq(2L), any(), anyString(), eq(false))).thenReturn(StatusNotificacao.PENDENTE);
+        when(outboxService.registrarFalha(eq(3L), any(), anyString(), eq(true))).thenReturn(StatusNotificacao.FALHA);
+
+        dispatcher.drenar();
+
+        assertThat(entregas(TipoNotificacao.APROVACAO, "enviada")).isEqualTo(1);
+        assertThat(entregas(TipoNotificacao.CANCELAMENTO, "nova_tentativa")).isEqualTo(1);
+        assertThat(entregas(TipoNotificacao.APROVACAO, "falha")).isEqualTo(1);
+        assertThat(meterRegistry.get("clinica.notificacao.atraso").tag("tipo", "APROVACAO").timer()
+                .totalTime(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void profundidadeDoOutboxNaoConsultaOBancoNoScrape() {
+        when(outboxService.contarPorStatus(StatusNotificacao.PENDENTE)).thenReturn(7L);
+        when(outboxService.contarPorStatus(StatusNotificacao.FALHA)).thenReturn(2L);
+
+        assertThat(profundidade(StatusNotificacao.PENDENTE)).isZero();
+        verify(outboxService, never()).contarPorStatus(any());
+
+        dispatcher.atualizarProfundidade();
+
+        assertThat(profundidade(StatusNotificacao.PENDENTE)).isEqualTo(7);
+        assertThat(profundidade(StatusNotificacao.FALHA)).isEqualTo(2);
+        verify(outboxService, times(2)).contarPorStatus(any());
+    }
+
+    @Test
+    void drenagemNaoRodaEmParalelo() {
+        when(outboxService.reservarLote(10)).thenAnswer(inv -> {
+            assertThat(dispatcher.drenar()).isZero();
+            return List.of();
+        });
+
+        dispatcher.drenar();
+
+        verify(outboxService, times(1)).reservarLote(10);
+    }
+
+    @Test
+    void notificacaoEmJanelaDeAgrupamentoAcordaODispatcherNoFimDaJanela() {
+        when(outboxService.reservarLote(10)).thenReturn(List.of());
+
+        dispatcher.aoRegistrarNotificacao(new NotificacaoRegistradaEvent(1L, LocalDateTime.now().plusNanos(300_000_000)));
+
+        verify(outboxService, after(150).never()).reservarLote(anyInt());
+        verify(outboxService, timeout(1_000)).reservarLote(10);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private long entregas(TipoNotificacao tipo, String resultado) {
+        return meterRegistry.get("clinica.notificacao.entrega").tags("tipo", tipo.name(), "resultado", resultado)
+                .timer().count();
+    }
+
+    private double profundidade(StatusNotificacao status) {
+        return meterRegistry.get("clinica.notificacao.outbox").tag("status", status.name()).gauge().value();
+    }
+
+    private static Agendamento agendamento(Long id) {
+        return Agendamento.builder().id(id).dataHora(LocalDateTime.now().plusDays(1)).build();
+    }
+
+    private static NotificacaoOutbox notificacao(Long id, TipoNotificacao tipo, Long agendamentoId) {
+        return NotificacaoOutbox.builder().id(id).tipo(tipo).agendamentoId(agendamentoId).reserva(RESERVA).build();
+    }
+}
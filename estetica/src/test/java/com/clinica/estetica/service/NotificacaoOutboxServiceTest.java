@@ -0,0 +1,187 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.exception.BusinessException;
+import com.clinica.estetica.model.entity.Agendamento;
+import com.clinica.estetica.model.entity.NotificacaoOutbox;
+import com.clinica.estetica.model.enums.StatusNotificacao;
+import com.clinica.estetica.model.enums.TipoNotificacao;
+import com.clinica.estetica.repository.NotificacaoOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Novas tentativas com backoff exponencial, dead-letter, token de reserva e janela de agrupamento do outbox
+ */
+class NotificacaoOutboxServiceTest {
+
+    private NotificacaoOutboxRepository outboxRepository;
+    private NotificacaoOutboxService outboxService;
+    private NotificacaoOutbox notificacao;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(NotificacaoOutboxRepository.class);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        outboxService = new NotificacaoOutboxService(outboxRepository, objectMapper, mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(outboxService, "maxTentativas", 3);
+        ReflectionTestUtils.setField(outboxService, "backoffInicialMs", 1_000L);
+        ReflectionTestUtils.setField(outboxService, "backoffMaximoMs", 3_000L);
+        ReflectionTestUtils.setField(outboxService, "janelaAgrupamentoMs", 10_000L);
+
+        notificacao = NotificacaoOutbox.builder()
+                .id(1L)
+                .tipo(TipoNotificacao.APROVACAO)
+                .agendamentoId(10L)
+                .status(StatusNotificacao.PROCESSANDO)
+                .reserva(UUID.randomUUID())
+                .proximaTentativa(LocalDateTime.now())
+                .build();
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(notificacao));
+        // Mesmo filtro da consulta: PROCESSANDO e com o token da reserva
+        when(outboxRepository.findReservada(eq(1L), any())).thenAnswer(inv ->
+                notificacao.getStatus() == StatusNotificacao.PROCESSANDO
+                        && inv.getArgument(1).equals(notificacao.getReserva())
+                        ? Optional.of(notificacao) : Optional.empty());
+    }
+
+    @Test
+    void backoffDobraAteOMaximo() {
+        assertThat(outboxService.calcularBackoffMs(1)).isEqualTo(1_000L);
+        assertThat(outboxService.calcularBackoffMs(2)).isEqualTo(2_000L);
+        assertThat(outboxService.calcularBackoffMs(3)).isEqualTo(3_000L);
+        assertThat(outboxService.calcularBackoffMs(40)).isEqualTo(3_000L);
+    }
+
+    @Test
+    void falhaReagendaAteEsgotarTentativas() {
+        LocalDateTime antes = LocalDateTime.now();
+
+        assertThat(outboxService.registrarFalha(1L, reservar(), "timeout", false)).isEqualTo(StatusNotificacao.PENDENTE);
+        assertThat(notificacao.getProximaTentativa()).isAfterOrEqualTo(antes.plusSeconds(1));
+
+        assertThat(outboxService.registrarFalha(1L, reservar(), "timeout", false)).isEqualTo(StatusNotificacao.PENDENTE);
+        assertThat(notificacao.getProximaTentativa()).isAfterOrEqualTo(antes.plusSeconds(2));
+
+        assertThat(outboxService.registrarFalha(1L, reservar(), "timeout", false)).isEqualTo(StatusNotificacao.FALHA);
+        assertThat(notificacao.getTentativas()).isEqualTo(3);
+        assertThat(notificacao.getUltimoErro()).isEqualTo("timeout");
+    }
+
+    @Test
+    void falhaDefinitivaVaiDiretoParaFalha() {
+        assertThat(outboxService.registrarFalha(1L, notificacao.getReserva(), "Agendamento não encontrado", true))
+                .isEqualTo(StatusNotificacao.FALHA);
+        assertThat(notificacao.getTentativas()).isEqualTo(1);
+    }
+
+    @Test
+    void gravacaoTardiaDeReservaExpiradaEIgnorada() {
+        UUID expirada = notificacao.getReserva();
+        UUID atual = reservar();
+
+        assertThat(outboxService.marcarEnviada(1L, expirada)).isFalse();
+        assertThat(outboxService.registrarFalha(1L, expirada, "timeout", false)).isNull();
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.PROCESSANDO);
+        assertThat(notificacao.getTentativas()).isZero();
+
+        assertThat(outboxService.marcarEnviada(1L, atual)).isTrue();
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.ENVIADA);
+        assertThat(notificacao.getReserva()).isNull();
+
+        // Já concluída: uma segunda conclusão com o mesmo token também é ignorada
+        assertThat(outboxService.registrarFalha(1L, atual, "timeout", false)).isNull();
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.ENVIADA);
+    }
+
+    @Test
+    void reprocessarDevolveParaAFila() {
+        assertThatThrownBy(() -> outboxService.reprocessar(1L)).isInstanceOf(BusinessException.class);
+
+        notificacao.setStatus(StatusNotificacao.FALHA);
+        notificacao.setTentativas(3);
+        outboxService.reprocessar(1L);
+
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.PENDENTE);
+        assertThat(notificacao.getTentativas()).isZero();
+    }
+
+    @Test
+    void primeiraMensagemDeEstadoAbreAJanela() {
+        LocalDateTime antes = LocalDateTime.now();
+
+        NotificacaoOutbox gravada = registrar(() -> outboxService.registrar(TipoNotificacao.APROVACAO, agendamento(10L)));
+
+        assertThat(gravada.getProximaTentativa()).isBetween(antes.plusSeconds(10), LocalDateTime.now().plusSeconds(10));
+        verify(outboxRepository).substituirPendentes(eq(10L), eq(TipoNotificacao.estadosDoAgendamento()), any());
+    }
+
+    @Test
+    void mensagemMaisNovaSubstituiAPendenteESaiNoFimDaMesmaJanela() {
+        LocalDateTime fimDaJanela = LocalDateTime.now().plusSeconds(4);
+        when(outboxRepository.findPrimeiroVencimentoPendente(eq(10L), anyCollection())).thenReturn(fimDaJanela);
+        when(outboxRepository.substituirPendentes(eq(10L), anyCollection(), any())).thenReturn(1);
+
+        NotificacaoOutbox gravada = registrar(() -> outboxService.registrar(TipoNotificacao.CONFIRMACAO_AGENDAMENTO,
+                agendamento(10L)));
+
+        assertThat(gravada.getProximaTentativa()).isEqualTo(fimDaJanela);
+    }
+
+    @Test
+    void mensagemParaEsteticistaNaoEntraNaJanela() {
+        LocalDateTime antes = LocalDateTime.now();
+
+        NotificacaoOutbox gravada = registrar(() -> outboxService.registrar(TipoNotificacao.NOVA_SOLICITACAO_ESTETICISTA,
+                agendamento(10L)));
+
+        assertThat(gravada.getProximaTentativa()).isBefore(antes.plusSeconds(1));
+        verify(outboxRepository, never()).substituirPendentes(any(), anyCollection(), any());
+    }
+
+    @Test
+    void payloadDaSerieIdaEVolta() {
+        NotificacaoOutboxService.Payload payload = new NotificacaoOutboxService.Payload(
+                LocalDateTime.of(2030, 1, 7, 10, 0), "Agenda cheia", List.of(1L, 2L, 3L));
+        notificacao.setPayload(ReflectionTestUtils.invokeMethod(outboxService, "escrever", payload));
+
+        assertThat(outboxService.lerPayload(notificacao)).isEqualTo(payload);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private NotificacaoOutbox registrar(Runnable registro) {
+        when(outboxRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        registro.run();
+        ArgumentCaptor<NotificacaoOutbox> gravada = ArgumentCaptor.forClass(NotificacaoOutbox.class);
+        verify(outboxRepository).save(gravada.capture());
+        return gravada.getValue();
+    }
+
+    /**
+     * Simula uma nova reserva do dispatcher (prazo expirado ou nova tentativa vencida)
+     */
+    private UUID reservar() {
+        notificacao.setStatus(StatusNotificacao.PROCESSANDO);
+        notificacao.setReserva(UUID.randomUUID());
+        return notificacao.getReserva();
+    }
+
+    private static Agendamento agendamento(Long id) {
+        return Agendamento.builder().id(id).build();
+    }
+}
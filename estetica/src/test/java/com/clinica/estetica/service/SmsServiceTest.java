@@ -0,0 +1,256 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.util.Disjuntor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limite de taxa, novas tentativas, disjuntor, timeout e lotes do envio de SMS.
+ *
+ * Teste de carga com o provedor mock: mvn test -Dtest=SmsServiceTest -Dbenchmark.sms=true
+ */
+@Slf4j
+class SmsServiceTest {
+
+    private static final String TELEFONE = "11987654321";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmsService smsService;
+
+    @AfterEach
+    void tearDown() {
+        if (smsService != null) {
+            smsService.encerrar();
+        }
+    }
+
+    @Test
+    void respeitaTaxaDoProvedor() {
+        ProvedorFalso provedor = new ProvedorFalso(50, 5);
+        smsService = iniciar(provedor);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            smsService.enviarSms(TELEFONE, "Lembrete " + i);
+        }
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // 5 saem na rajada, os outros 25 a 50/s
+        assertThat(provedor.chamadas.get()).isEqualTo(30);
+        assertThat(duracaoMs).isGreaterThanOrEqualTo(450);
+    }
+
+    @Test
+    void repeteFalhasTransitorias() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.falhasAntesDeResponder.set(2);
+        smsService = iniciar(provedor);
+
+        smsService.enviarSms(TELEFONE, "Lembrete");
+
+        assertThat(provedor.chamadas.get()).isEqualTo(3);
+        assertThat(smsService.getEstadoCircuito()).isEqualTo(Disjuntor.Estado.FECHADO);
+
+        assertThat(meterRegistry.get("clinica.sms.novas-tentativas").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("clinica.sms.provedor.latencia").tag("resultado", "falha").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("clinica.sms.provedor.latencia").tag("resultado", "sucesso").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("clinica.notificacao.canal").tags("canal", "sms", "resultado", "sucesso").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void numeroRecusadoNaoEhRepetido() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.recusarNumero = true;
+        smsService = iniciar(provedor);
+
+        assertThatThrownBy(() -> smsService.enviarSms(TELEFONE, "Lembrete"))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(provedor.chamadas.get()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitoAbertoFalhaSemChamarOProvedor() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.falhasAntesDeResponder.set(Integer.MAX_VALUE);
+        smsService = iniciar(provedor);
+        ReflectionTestUtils.setField(smsService, "maxTentativas", 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> smsService.enviarSms(TELEFONE, "Lembrete")).isInstanceOf(RuntimeException.class);
+        }
+        assertThat(smsService.getEstadoCircuito()).isEqualTo(Disjuntor.Estado.ABERTO);
+
+        assertThatThrownBy(() -> smsService.enviarSms(TELEFONE, "Lembrete"))
+                .hasRootCauseMessage("Provedor de SMS falso indisponível (circuito aberto)");
+        assertThat(provedor.chamadas.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("clinica.sms.recusadas").tag("motivo", "circuito_aberto").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("clinica.sms.circuito").gauge().value()).isEqualTo(Disjuntor.Estado.ABERTO.ordinal());
+    }
+
+    @Test
+    void provedorLentoNaoPrendeQuemChama() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.latenciaMs = 2000;
+        smsService = iniciar(provedor);
+        ReflectionTestUtils.setField(smsService, "maxTentativas", 1);
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(() -> smsService.enviarSms(TELEFONE, "Lembrete")).isInstanceOf(RuntimeException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(1000);
+    }
+
+    @Test
+    void timeoutNaoEhRepetido() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.latenciaMs = 500;
+        smsService = iniciar(provedor);
+
+        assertThatThrownBy(() -> smsService.enviarSms(TELEFONE, "Lembrete"))
+                .hasRootCauseInstanceOf(TimeoutException.class);
+
+        assertThat(provedor.chamadas.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("clinica.sms.novas-tentativas").counter().count()).isZero();
+        assertThat(meterRegistry.get("clinica.sms.provedor.latencia").tag("resultado", "timeout").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void enviarSmsMultiploAgrupaEmLotes() {
+        ProvedorFalso provedor = new ProvedorFalso(1000, 100);
+        provedor.tamanhoLote = 10;
+        smsService = iniciar(provedor);
+
+        List<String> telefones = new ArrayList<>(IntStream.range(0, 25).mapToObj(i -> "119876543" + (10 + i)).toList());
+        telefones.add("123");
+        smsService.enviarSmsMultiplo(telefones, "Promoção de aniversário");
+
+        assertThat(provedor.lotes).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.sms", matches = "true")
+    void cargaComProvedorMock() {
+        ProvedorSmsMock mock = new ProvedorSmsMock();
+        mock.setTaxaPorSegundo(200);
+        mock.setRajada(20);
+        mock.setTamanhoMaximoLote(100);
+        mock.setLatenciaMs(20);
+        mock.setVariacaoLatenciaMs(30);
+        mock.setTaxaFalha(0.05);
+        smsService = iniciar(mock);
+        ReflectionTestUtils.setField(smsService, "backoffInicialMs", 20L);
+
+        int mensagens = 1000;
+        AtomicInteger falhas = new AtomicInteger();
+        ExecutorService produtores = Executors.newFixedThreadPool(8);
+        long inicio = System.nanoTime();
+        CompletableFuture.allOf(IntStream.range(0, mensagens)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    try {
+                        smsService.enviarSms(TELEFONE, "Carga " + i);
+                    } catch (RuntimeException e) {
+                        falhas.incrementAndGet();
+                    }
+                }, produtores))
+                .toArray(CompletableFuture[]::new)).join();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        produtores.shutdownNow();
+
+        log.info("SMS mock: {} mensagens em {} s ({} msgs/s), {} falhas após novas tentativas",
+                mensagens, String.format("%.2f", segundos), String.format("%.0f", mensagens / segundos), falhas.get());
+        assertThat(mensagens / segundos).isLessThanOrEqualTo(200 * 1.2);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private SmsService iniciar(ProvedorSms provedor) {
+        SmsService service = new SmsService(List.of(provedor), meterRegistry);
+        ReflectionTestUtils.setField(service, "smsEnabled", true);
+        ReflectionTestUtils.setField(service, "smsProvider", provedor.getNome());
+        ReflectionTestUtils.setField(service, "maxTentativas", 3);
+        ReflectionTestUtils.setField(service, "backoffInicialMs", 10L);
+        ReflectionTestUtils.setField(service, "backoffMaximoMs", 50L);
+        ReflectionTestUtils.setField(service, "timeoutMs", 200L);
+        ReflectionTestUtils.setField(service, "esperaTaxaMaximaMs", 2000L);
+        ReflectionTestUtils.setField(service, "concorrenciaMaxima", 8);
+        ReflectionTestUtils.setField(service, "limiteFalhas", 3);
+        ReflectionTestUtils.setField(service, "circuitoAbertoMs", 60_000L);
+        ReflectionTestUtils.setField(service, "limiteLentidaoMs", 1000L);
+        service.iniciar();
+        return service;
+    }
+
+    private static final class ProvedorFalso implements ProvedorSms {
+
+        private final double taxaPorSegundo;
+        private final int rajada;
+        private final AtomicInteger chamadas = new AtomicInteger();
+        private final AtomicInteger falhasAntesDeResponder = new AtomicInteger();
+        private final List<Integer> lotes = new ArrayList<>();
+        private volatile long latenciaMs;
+        private volatile boolean recusarNumero;
+        private int tamanhoLote = 1;
+
+        private ProvedorFalso(double taxaPorSegundo, int rajada) {
+            this.taxaPorSegundo = taxaPorSegundo;
+            this.rajada = rajada;
+        }
+
+        @Override
+        public String getNome() {
+            return "falso";
+        }
+
+        @Override
+        public void enviar(String telefone, String mensagem) throws InterruptedException {
+            chamadas.incrementAndGet();
+            if (latenciaMs > 0) {
+                Thread.sleep(latenciaMs);
+            }
+            if (recusarNumero) {
+                throw new IllegalArgumentException("Número não aceito pelo provedor");
+            }
+            if (falhasAntesDeResponder.getAndDecrement() > 0) {
+                throw new IllegalStateException("503 Service Unavailable");
+            }
+        }
+
+        @Override
+        public synchronized void enviarLote(List<String> telefones, String mensagem) {
+            lotes.add(telefones.size());
+        }
+
+        @Override
+        public double getTaxaPorSegundo() {
+            return taxaPorSegundo;
+        }
+
+        @Override
+        public int getRajada() {
+            return rajada;
+        }
+
+        @Override
+        public int getTamanhoMaximoLote() {
+            return tamanhoLote;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.clinica.estetica.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: templates compilados (TemplateService) contra o String.format usado antes.
+ *
+ * Executar com: mvn test -Dtest=TemplateBenchmark -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+    static final String CLINICA = "Clínica de Estética";
+    static final String NOME = "Maria Aparecida Souza";
+    static final String PROCEDIMENTO = "Limpeza de Pele Profunda";
+    static final String DATA_HORA = "15/03/2030 às 14:30";
+    static final String ESTETICISTA = "Ana Paula";
+    static final int DURACAO = 90;
+    static final BigDecimal VALOR = new BigDecimal("189.90");
+    static final String PREPARO = "Evitar exposição solar 48h antes";
+    static final String CONTEUDO_HTML = "<p>Olá <strong>Maria</strong>,</p><p>Seja muito bem-vindo(a) à nossa clínica!</p>";
+
+    private TemplateService templateService;
+
+    @Setup
+    public void setUp() throws Exception {
+        templateService = new TemplateService();
+        templateService.carregarTemplates();
+    }
+
+    @Benchmark
+    public String layoutStringFormat() {
+        return layoutLegado(CLINICA, "Bem-vindo(a)!", CONTEUDO_HTML);
+    }
+
+    @Benchmark
+    public String layoutTemplate() {
+        return templateService.renderizarLayout(CLINICA, "Bem-vindo(a)!", CONTEUDO_HTML);
+    }
+
+    @Benchmark
+    public String aprovacaoStringFormat() {
+        return aprovacaoLegado(NOME, PROCEDIMENTO, DATA_HORA, ESTETICISTA, DURACAO, VALOR, PREPARO);
+    }
+
+    @Benchmark
+    public String aprovacaoTemplate() {
+        return templateService.renderizar("email/aprovacao",
+                "nome", NOME,
+                "procedimento", PROCEDIMENTO,
+                "dataHora", DATA_HORA,
+                "esteticista", ESTETICISTA,
+                "duracao", DURACAO,
+                "valor", NotificacaoService.formatarValor(VALOR),
+                "preparo", PREPARO);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+    void executar() throws RunnerException {
+        main();
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // ==================== IMPLEMENTAÇÕES ANTERIORES ====================
+
+    static String layoutLegado(String nomeClinica, String titulo, String conteudo) {
+        return String.format("""
+                <!DOCTYPE html>
+                <html>
+                <head>
+                    <meta charset="UTF-8">
+                    <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                    <style>
+                        body {
+                            font-family: Arial, sans-serif;
+                            line-height: 1.6;
+                            color: #333;
+                            max-width: 600px;
+                            margin: 0 auto;
+                            padding: 20px;
+                        }
+                        .header {
+                            background-color: #FF6B9D;
+                            color: white;
+                            padding: 20px;
+                            text-align: center;
+                            border-radius: 5px 5px 0 0;
+                        }
+                        .content {
+                            background-color: #f9f9f9;
+                            padding: 20px;
+                            border: 1px solid #ddd;
+                            border-radius: 0 0 5px 5px;
+                        }
+                        .footer {
+                            text-align: center;
+                            margin-top: 20px;
+                            padding: 10px;
+                            font-size: 12px;
+                            color: #666;
+                        }
+                        .button {
+                            display: inline-block;
+                            padding: 10px 20px;
+                            background-color: #FF6B9D;
+                            color: white;
+                            text-decoration: none;
+                            border-radius: 5px;
+                            margin: 10px 0;
+                        }
+                    </style>
+                </head>
+                <body>
+                    <div class="header">
+                        <h1>%s</h1>
+                        <p>%s</p>
+                    </div>
+                    <div class="content">
+                        %s
+                    </div>
+                    <div class="footer">
+                        <p>Este é um email automático, por favor não responda.</p>
+                        <p>&copy; 2025 %s - Todos os direitos reservados</p>
+                    </div>
+                </body>
+                </html>
+                """, nomeClinica, titulo, conteudo, nomeClinica);
+    }
+
+    static String aprovacaoLegado(String nome, String procedimento, String dataHora, String esteticista,
+                                  int duracao, BigDecimal valor, String preparo) {
+        return String.format(
+                "Ótima notícia, %s! 🎉\n\n" +
+                        "Seu agendamento foi APROVADO e CONFIRMADO!\n\n" +
+                        "📅 Detalhes do Agendamento:\n" +
+                        "━━━━━━━━━━━━━━━━━━━━━━\n" +
+                        "💆 Procedimento: %s\n" +
+                        "📆 Data/Hora: %s\n" +
+                        "👩 Esteticista: %s\n" +
+                        "⏱️ Duração: %d minutos\n" +
+                        "💰 Valor: R$ %.2f\n" +
+                        "━━━━━━━━━━━━━━━━━━━━━━\n\n" +
+                        "⚠️ IMPORTANTE:\n" +
+                        "- Chegue 10 minutos antes do horário\n" +
+                        "- %s\n\n" +
+                        "📱 Em caso de imprevistos, avise com antecedência.\n\n" +
+                        "Aguardamos você!\n\n" +
+                        "Clínica de Estética",
+                nome, procedimento, dataHora, esteticista, duracao, valor, preparo);
+    }
+}
@@ -0,0 +1,83 @@
+package com.clinica.estetica.service;
+
+import com.clinica.estetica.util.TemplateCompilado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.clinica.estetica.service.TemplateBenchmark.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Templates compilados produzem o mesmo texto que o String.format anterior
+ */
+class TemplateServiceTest {
+
+    private TemplateService templateService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        templateService = new TemplateService();
+        templateService.carregarTemplates();
+    }
+
+    @Test
+    void layoutIgualAoStringFormat() {
+        String esperado = layoutLegado(CLINICA, "Bem-vindo(a)!", CONTEUDO_HTML);
+
+        // O arquivo do template não guarda a quebra de linha final do text block
+        assertThat(templateService.renderizarLayout(CLINICA, "Bem-vindo(a)!", CONTEUDO_HTML))
+                .isEqualTo(esperado.stripTrailing());
+    }
+
+    @Test
+    void layoutCacheadoPorClinica() {
+        String outra = templateService.renderizarLayout("Espaço Bella", "Título", "<p>x</p>");
+        String padrao = templateService.renderizarLayout(CLINICA, "Título", "<p>x</p>");
+
+        assertThat(outra).contains("<h1>Espaço Bella</h1>").contains("&copy; 2025 Espaço Bella");
+        assertThat(padrao).contains("<h1>" + CLINICA + "</h1>").doesNotContain("Espaço Bella");
+    }
+
+    @Test
+    void emailDeAprovacaoIgualAoStringFormat() {
+        String esperado = aprovacaoLegado(NOME, PROCEDIMENTO, DATA_HORA, ESTETICISTA, DURACAO, VALOR, PREPARO);
+
+        String renderizado = templateService.renderizar("email/aprovacao",
+                "nome", NOME,
+                "procedimento", PROCEDIMENTO,
+                "dataHora", DATA_HORA,
+                "esteticista", ESTETICISTA,
+                "duracao", DURACAO,
+                "valor", NotificacaoService.formatarValor(VALOR),
+                "preparo", PREPARO);
+
+        assertThat(renderizado).isEqualTo(esperado);
+    }
+
+    @Test
+    void formatarValorIgualAoStringFormat() {
+        for (String valor : new String[]{"0", "189.9", "1234.565", "-10.005", "99999.994"}) {
+            BigDecimal numero = new BigDecimal(valor);
+            assertThat(NotificacaoService.formatarValor(numero)).isEqualTo(String.format("%.2f", numero));
+        }
+    }
+
+    @Test
+    void fixarSubstituiSoAsVariaveisInformadas() {
+        TemplateCompilado template = TemplateCompilado.compilar("{{a}}-{{b}}-{{a}}");
+        TemplateCompilado fixado = template.fixar("a", "X");
+
+        assertThat(fixado.getVariaveis()).containsExactly("b");
+        assertThat(fixado.renderizar(new StringBuilder(), "b", "Y").toString()).isEqualTo("X-Y-X");
+    }
+
+    @Test
+    void variavelNaoInformadaEhErro() {
+        assertThatThrownBy(() -> templateService.renderizar("sms/lembrete", "primeiroNome", "Ana"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hora");
+    }
+}